@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import currency.comparators.LetterCodeComparator;
+
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Holds precomputed information about a currency, so that the classes that do 
+ * arithmetic with money amounts don't have to work it out from the {@code 
+ * Currency} instance over and over again. There is one instance of this class 
+ * for each currency available to the Java runtime, and each one has an ordinal 
+ * from 0 to one less than {@link #count()}, given according to the currencies' 
+ * 3-letter ISO-4217 codes. Thus the ordinals can be used as indices into 
+ * arrays.
+ * <p>The currency symbol is cached for whatever the default display locale was 
+ * the first time it was asked for. If the default display locale changes, the 
+ * symbol is looked up again.</p>
+ * @author Alonso del Arte
+ */
+public final class CurrencyMetadata {
+    
+    private static final CurrencyMetadata[] TABLE;
+    
+    private static final Map<Currency, CurrencyMetadata> MAP;
+    
+    static {
+        Currency[] currencies = Currency.getAvailableCurrencies()
+                .toArray(new Currency[0]);
+        Arrays.sort(currencies, new LetterCodeComparator());
+        TABLE = new CurrencyMetadata[currencies.length];
+        MAP = new HashMap<>(currencies.length * 2);
+        for (int i = 0; i < currencies.length; i++) {
+            TABLE[i] = new CurrencyMetadata(currencies[i], i);
+            MAP.put(currencies[i], TABLE[i]);
+        }
+    }
+    
+    private final Currency currencyID;
+    
+    private final int ordinal;
+    
+    private final int fractionDigits;
+    
+    private final int multiplier;
+    
+    private final int numericCode;
+    
+    private volatile CachedSymbol cachedSymbol;
+    
+    /**
+     * Retrieves the metadata for a currency.
+     * @param currency The currency. For example, the euro (EUR).
+     * @return The metadata for the currency. For example, for the euro, the 
+     * metadata would say that the multiplier is 100 and the numeric code is 
+     * 978.
+     * @throws NullPointerException If {@code currency} is null.
+     * @throws UnsupportedCurrencyException If {@code currency} was somehow not 
+     * among the currencies available to the Java runtime when this class was 
+     * loaded. That should not happen with any currency obtained from {@code 
+     * Currency.getInstance()}.
+     */
+    public static CurrencyMetadata of(Currency currency) {
+        CurrencyMetadata metadata = MAP.get(currency);
+        if (metadata == null) {
+            if (currency == null) {
+                throw new NullPointerException("Currency should not be null");
+            }
+            throw new UnsupportedCurrencyException(currency);
+        }
+        return metadata;
+    }
+    
+    /**
+     * Retrieves the metadata for a currency that money amounts can be 
+     * expressed in. This is the check that the classes which take a currency 
+     * to total or convert into use to turn away pseudocurrencies.
+     * @param currency The currency. For example, the euro (EUR).
+     * @return The metadata for the currency. For example, for the euro, the 
+     * metadata would say that the multiplier is 100.
+     * @throws NullPointerException If {@code currency} is null.
+     * @throws IllegalArgumentException If {@code currency} is a 
+     * pseudocurrency, such as gold (XAU).
+     * @throws UnsupportedCurrencyException If {@code currency} was somehow not 
+     * among the currencies available to the Java runtime when this class was 
+     * loaded.
+     */
+    public static CurrencyMetadata ofSupported(Currency currency) {
+        CurrencyMetadata metadata = of(currency);
+        if (metadata.isPseudocurrency()) {
+            String excMsg = "Pseudocurrency " + currency.getDisplayName() 
+                    + " (" + currency.getCurrencyCode() + ") is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        return metadata;
+    }
+    
+    /**
+     * Retrieves the metadata for a currency by its ordinal.
+     * @param ordinal The ordinal. For example, 0.
+     * @return The metadata for the currency with that ordinal. For example, 
+     * the metadata for the Andorran peseta (ADP).
+     * @throws IndexOutOfBoundsException If {@code ordinal} is negative or not 
+     * less than {@link #count()}.
+     */
+    public static CurrencyMetadata forOrdinal(int ordinal) {
+        return TABLE[ordinal];
+    }
+    
+    /**
+     * Tells how many currencies there is metadata for. This is the same as the 
+     * number of currencies available to the Java runtime.
+     * @return The number of currencies. For example, 303.
+     */
+    public static int count() {
+        return TABLE.length;
+    }
+    
+    /**
+     * Retrieves the currency this metadata is for.
+     * @return The currency. For example, the euro (EUR).
+     */
+    public Currency getCurrency() {
+        return this.currencyID;
+    }
+    
+    /**
+     * Tells the ordinal of this currency among all the currencies available to 
+     * the Java runtime, ordered by 3-letter code.
+     * @return The ordinal. For example, 0 for the Andorran peseta (ADP).
+     */
+    public int getOrdinal() {
+        return this.ordinal;
+    }
+    
+    /**
+     * Tells the default fraction digits of the currency.
+     * @return The number of fraction digits, same as {@code 
+     * Currency.getDefaultFractionDigits()}. For example, 2 for the euro (EUR). 
+     * For pseudocurrencies such as gold (XAU), this is &minus;1.
+     */
+    public int getFractionDigits() {
+        return this.fractionDigits;
+    }
+    
+    /**
+     * Tells how many divisions there are in a unit of the currency, which is 
+     * 10 to the power of the default fraction digits.
+     * @return The multiplier. For example, 100 for the euro (EUR), 1 for the 
+     * Japanese yen (JPY), 1000 for the Libyan dinar (LYD). For 
+     * pseudocurrencies such as gold (XAU), this is 1.
+     */
+    public int getMultiplier() {
+        return this.multiplier;
+    }
+    
+    /**
+     * Tells the 3-digit ISO-4217 code of the currency.
+     * @return The numeric code. For example, 978 for the euro (EUR).
+     */
+    public int getNumericCode() {
+        return this.numericCode;
+    }
+    
+    /**
+     * Tells whether this currency is a pseudocurrency, such as gold (XAU).
+     * @return True if the currency has negative default fraction digits, false 
+     * otherwise. For example, false for the euro (EUR).
+     */
+    public boolean isPseudocurrency() {
+        return this.fractionDigits < 0;
+    }
+    
+    /**
+     * Gives the currency symbol for the default display locale. This is the 
+     * same as calling {@code getSymbol()} on the {@code Currency} instance, 
+     * but the result is cached for as long as the default display locale 
+     * stays the same.
+     * @return The symbol. For example, "$" for United States dollars (USD) if 
+     * the default display locale is {@code Locale.US}.
+     */
+    public String getSymbol() {
+        Locale locale = Locale.getDefault(Locale.Category.DISPLAY);
+        CachedSymbol cached = this.cachedSymbol;
+        if (cached == null || !cached.locale.equals(locale)) {
+            cached = new CachedSymbol(locale, 
+                    this.currencyID.getSymbol(locale));
+            this.cachedSymbol = cached;
+        }
+        return cached.symbol;
+    }
+    
+    @Override
+    public String toString() {
+        return "Metadata for " + this.currencyID.getCurrencyCode() 
+                + " (ordinal " + this.ordinal + ")";
+    }
+    
+    private CurrencyMetadata(Currency currency, int index) {
+        this.currencyID = currency;
+        this.ordinal = index;
+        this.fractionDigits = currency.getDefaultFractionDigits();
+        int mult = 1;
+        for (int i = 0; i < this.fractionDigits; i++) {
+            mult *= 10;
+        }
+        this.multiplier = mult;
+        this.numericCode = currency.getNumericCode();
+    }
+    
+    private static final class CachedSymbol {
+        
+        private final Locale locale;
+        
+        private final String symbol;
+        
+        CachedSymbol(Locale locale, String symbol) {
+            this.locale = locale;
+            this.symbol = symbol;
+        }
+    
+    }
+    
+}
@@ -32,7 +32,8 @@ public class CurrencyMismatchException extends RuntimeException {
     /**
      * Getter for one of the amounts this exception was constructed with.
      * @return The first amount that was passed in to the constructor. For 
-     * example, $349.75.
+     * example, $349.75. Null if the exception was constructed with just a 
+     * message.
      */
     public MoneyAmount getAmountA() {
         return this.amountA;
@@ -41,7 +42,8 @@ public class CurrencyMismatchException extends RuntimeException {
     /**
      * Getter for one of the amounts this exception was constructed with.
      * @return The second amount that was passed in to the constructor. For 
-     * example, 500,00&euro;.
+     * example, 500,00&euro;. Null if the exception was constructed with just a 
+     * message.
      */
     public MoneyAmount getAmountB() {
         return this.amountB;
@@ -78,4 +80,16 @@ public class CurrencyMismatchException extends RuntimeException {
         this.amountB = amtB;
     }
 
+    /**
+     * Constructor for a mismatch between amounts that can't be represented 
+     * as {@link MoneyAmount} instances, such as {@link LargeMoneyAmount} 
+     * amounts that are too large. The amounts are then null.
+     * @param message The message. Should say which currencies are mismatched. 
+     * For example, "Currency conversion needed to combine Iranian Rial (IRR) 
+     * and Euro (EUR)".
+     */
+    public CurrencyMismatchException(String message) {
+        this(message, null, null);
+    }
+    
 }
@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable set of currencies, held as one bit per currency. The bit for a 
+ * currency is at the index given by its {@link CurrencyMetadata#getOrdinal() 
+ * ordinal}, so checking whether a currency is in the set is a single bit test, 
+ * and the intersection or union of two sets is a word-by-word AND or OR. For 
+ * example, a set of the 20 most traded currencies takes up five 
+ * <code>long</code> words no matter which 20 currencies they are.
+ * <p>Since instances can't be changed, they can be handed out as is by 
+ * implementations of {@link SpecificCurrenciesSupport#supportedCurrencySet()} 
+ * instead of a fresh copy each time. Any attempt to change an instance, 
+ * whether directly or through its iterator, causes an {@code 
+ * UnsupportedOperationException}.</p>
+ * @author Alonso del Arte
+ */
+public final class CurrencySet extends AbstractSet<Currency> {
+    
+    private static final int WORD_COUNT 
+            = (CurrencyMetadata.count() + Long.SIZE - 1) / Long.SIZE;
+    
+    private static final CurrencySet EMPTY 
+            = new CurrencySet(new long[WORD_COUNT]);
+    
+    private final long[] words;
+    
+    private final int cardinality;
+    
+    private final int hash;
+    
+    /**
+     * Gives the empty currency set.
+     * @return A set with no currencies.
+     */
+    public static CurrencySet empty() {
+        return EMPTY;
+    }
+    
+    /**
+     * Gives a currency set with the same currencies as a collection. If the 
+     * collection is itself a currency set, it's given back as is.
+     * @param currencies The currencies. For example, a set containing United 
+     * States dollars (USD), euros (EUR) and Japanese yen (JPY). Duplicates are 
+     * ignored.
+     * @return A currency set. For example, a set of USD, EUR and JPY.
+     * @throws NullPointerException If {@code currencies} is null or contains 
+     * null.
+     */
+    public static CurrencySet of(Collection<Currency> currencies) {
+        if (currencies instanceof CurrencySet) {
+            return (CurrencySet) currencies;
+        }
+        long[] bits = new long[WORD_COUNT];
+        for (Currency currency : currencies) {
+            int ordinal = CurrencyMetadata.of(currency).getOrdinal();
+            bits[ordinal >>> 6] |= 1L << ordinal;
+        }
+        return new CurrencySet(bits);
+    }
+    
+    /**
+     * Gives a currency set with the given currencies.
+     * @param currencies The currencies. For example, United States dollars 
+     * (USD), euros (EUR) and Japanese yen (JPY). Duplicates are ignored.
+     * @return A currency set. For example, a set of USD, EUR and JPY.
+     * @throws NullPointerException If any of {@code currencies} is null.
+     */
+    public static CurrencySet of(Currency... currencies) {
+        long[] bits = new long[WORD_COUNT];
+        for (Currency currency : currencies) {
+            int ordinal = CurrencyMetadata.of(currency).getOrdinal();
+            bits[ordinal >>> 6] |= 1L << ordinal;
+        }
+        return new CurrencySet(bits);
+    }
+    
+    /**
+     * Tells whether this set contains a currency. This is a single bit test, 
+     * with no objects created.
+     * @param obj The object to look for. For example, euros (EUR).
+     * @return True if {@code obj} is a currency in this set, false otherwise, 
+     * including if {@code obj} is null or not a currency.
+     */
+    @Override
+    public boolean contains(Object obj) {
+        if (!(obj instanceof Currency)) {
+            return false;
+        }
+        return this.containsOrdinal(CurrencyMetadata.of((Currency) obj)
+                .getOrdinal());
+    }
+    
+    /**
+     * Tells whether this set contains the currency with a given ordinal.
+     * @param ordinal The {@link CurrencyMetadata#getOrdinal() ordinal} of the 
+     * currency. For example, the ordinal of euros (EUR).
+     * @return True if the currency with that ordinal is in this set, false 
+     * otherwise.
+     * @throws ArrayIndexOutOfBoundsException If {@code ordinal} is negative or 
+     * not less than {@link CurrencyMetadata#count()}.
+     */
+    public boolean containsOrdinal(int ordinal) {
+        if (ordinal >= CurrencyMetadata.count()) {
+            String excMsg = "Ordinal " + ordinal + " is out of bounds";
+            throw new ArrayIndexOutOfBoundsException(excMsg);
+        }
+        return (this.words[ordinal >>> 6] & (1L << ordinal)) != 0L;
+    }
+    
+    /**
+     * Tells whether this set contains all the currencies of a collection. If 
+     * the collection is a currency set, this is a word-by-word comparison.
+     * @param collection The collection to check. For example, a set of euros 
+     * (EUR) and Japanese yen (JPY).
+     * @return True if every element of {@code collection} is in this set, 
+     * false otherwise.
+     * @throws NullPointerException If {@code collection} is null.
+     */
+    @Override
+    public boolean containsAll(Collection<?> collection) {
+        if (collection instanceof CurrencySet) {
+            long[] otherWords = ((CurrencySet) collection).words;
+            for (int i = 0; i < WORD_COUNT; i++) {
+                if ((otherWords[i] & ~this.words[i]) != 0L) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return super.containsAll(collection);
+    }
+    
+    /**
+     * Gives the currencies that are in both this set and another set.
+     * @param other The other set. For example, the set of currencies 
+     * supported by another exchange rate provider.
+     * @return A new set of the currencies in both sets.
+     * @throws NullPointerException If {@code other} is null.
+     */
+    public CurrencySet intersect(CurrencySet other) {
+        long[] bits = new long[WORD_COUNT];
+        for (int i = 0; i < WORD_COUNT; i++) {
+            bits[i] = this.words[i] & other.words[i];
+        }
+        return new CurrencySet(bits);
+    }
+    
+    /**
+     * Gives the currencies that are in either this set or another set, or 
+     * both.
+     * @param other The other set. For example, the set of currencies 
+     * supported by a fallback exchange rate provider.
+     * @return A new set of the currencies in either set.
+     * @throws NullPointerException If {@code other} is null.
+     */
+    public CurrencySet union(CurrencySet other) {
+        long[] bits = new long[WORD_COUNT];
+        for (int i = 0; i < WORD_COUNT; i++) {
+            bits[i] = this.words[i] | other.words[i];
+        }
+        return new CurrencySet(bits);
+    }
+    
+    /**
+     * Tells how many currencies are in this set. The count is worked out once, 
+     * when the set is made.
+     * @return The number of currencies. For example, 20.
+     */
+    @Override
+    public int size() {
+        return this.cardinality;
+    }
+    
+    /**
+     * Gives an iterator over the currencies in this set, in order by their 
+     * ISO-4217 letter codes.
+     * @return An iterator. Its {@code remove()} function causes an {@code 
+     * UnsupportedOperationException}.
+     */
+    @Override
+    public Iterator<Currency> iterator() {
+        return new Iterator<Currency>() {
+            
+            private int wordIndex = 0;
+            
+            private long remaining = CurrencySet.this.words[0];
+            
+            @Override
+            public boolean hasNext() {
+                while (this.remaining == 0L) {
+                    this.wordIndex++;
+                    if (this.wordIndex >= WORD_COUNT) {
+                        return false;
+                    }
+                    this.remaining = CurrencySet.this.words[this.wordIndex];
+                }
+                return true;
+            }
+            
+            @Override
+            public Currency next() {
+                if (!this.hasNext()) {
+                    String excMsg = "No more currencies in this set";
+                    throw new NoSuchElementException(excMsg);
+                }
+                int bit = Long.numberOfTrailingZeros(this.remaining);
+                this.remaining &= this.remaining - 1L;
+                return CurrencyMetadata.forOrdinal(this.wordIndex * Long.SIZE 
+                        + bit).getCurrency();
+            }
+        
+        };
+    }
+    
+    /**
+     * Determines whether this set is equal to some other object. As with any 
+     * {@code java.util.Set}, a currency set is equal to any other set with the 
+     * same elements. Comparing two currency sets is a word-by-word 
+     * comparison.
+     * @param obj The object to compare. For example, a {@code HashSet} of the 
+     * same currencies.
+     * @return True if {@code obj} is a set with the same currencies as this 
+     * set, false otherwise.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof CurrencySet) {
+            return Arrays.equals(this.words, 
+                    ((CurrencySet) obj).words);
+        }
+        return super.equals(obj);
+    }
+    
+    /**
+     * Gives a hash code for this set. As with any {@code java.util.Set}, this 
+     * is the sum of the hash codes of the elements. It's worked out once, when 
+     * the set is made.
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+    
+    private CurrencySet(long[] bits) {
+        this.words = bits;
+        int count = 0;
+        int sum = 0;
+        for (int i = 0; i < WORD_COUNT; i++) {
+            long remaining = bits[i];
+            count += Long.bitCount(remaining);
+            while (remaining != 0L) {
+                int bit = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1L;
+                sum += CurrencyMetadata.forOrdinal(i * Long.SIZE + bit)
+                        .getCurrency().hashCode();
+            }
+        }
+        this.cardinality = count;
+        this.hash = sum;
+    }
+    
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import java.math.BigInteger;
+import java.util.Currency;
+
+/**
+ * Represents an amount of money of a specific currency that may be too large 
+ * for {@link MoneyAmount}. This could come up when adding up national-scale 
+ * totals in a currency like the Iranian rial (IRR), which trades at well over 
+ * a million to the U.&nbsp;S. dollar.
+ * <p>As long as the number of divisions of the unit fits in a <code>long</code> 
+ * that's how it's stored, and the arithmetic is done with {@code 
+ * Math.addExact()} and {@code Math.multiplyExact()}. Only if one of those 
+ * detects overflow does the arithmetic switch over to {@code BigInteger}, and 
+ * a result that fits in a <code>long</code> again goes back to being stored 
+ * as a <code>long</code>. Thus in the common case this class should be about 
+ * as fast as {@code MoneyAmount}.</p>
+ * @author Alonso del Arte
+ */
+public final class LargeMoneyAmount implements Comparable<LargeMoneyAmount> {
+    
+    private final Currency currencyID;
+    
+    private final int multiplier;
+    
+    private final long smallCents;
+    
+    private final BigInteger bigCents;
+    
+    /**
+     * Tells what currency this money amount is drawn in.
+     * @return The currency. For example, Iranian rials (IRR).
+     */
+    public Currency getCurrency() {
+        return this.currencyID;
+    }
+    
+    /**
+     * Tells whether this amount is too large, or too far below 0, to be a 
+     * {@link MoneyAmount}.
+     * @return True if the number of divisions of the unit doesn't fit in a 
+     * <code>long</code>, false otherwise. For example, true for 
+     * IRR&nbsp;10,000,000,000,000,000,000.
+     */
+    public boolean isLarge() {
+        return this.bigCents != null;
+    }
+    
+    /**
+     * Tells how many divisions of the unit of currency there are in the 
+     * amount. The units are multiplied as needed and the divisions are added.
+     * @return The number of divisions. For example, if the amount is 
+     * &euro;197.54, this function returns 19754.
+     */
+    public BigInteger getFullAmountInCents() {
+        if (this.bigCents == null) {
+            return BigInteger.valueOf(this.smallCents);
+        }
+        return this.bigCents;
+    }
+    
+    /**
+     * Gives this amount as a {@link MoneyAmount}, if it fits.
+     * @return The amount. For example, &euro;197.54.
+     * @throws ArithmeticException If {@link #isLarge()} is true.
+     */
+    public MoneyAmount toMoneyAmount() {
+        if (this.bigCents != null) {
+            String excMsg = "Amount of " + this.bigCents + " divisions of " 
+                    + this.currencyID.getCurrencyCode() 
+                    + " is too large for MoneyAmount";
+            throw new ArithmeticException(excMsg);
+        }
+        return MoneyAmount.fromFullAmountInCents(this.smallCents, 
+                this.currencyID);
+    }
+    
+    private void checkCurrency(LargeMoneyAmount other) {
+        if (!this.currencyID.equals(other.currencyID)) {
+            String excMsg = "Currency conversion needed to combine " 
+                    + this.currencyID.getDisplayName() + " (" 
+                    + this.currencyID.getCurrencyCode() + ") and " 
+                    + other.currencyID.getDisplayName() + " (" 
+                    + other.currencyID.getCurrencyCode() + ")";
+            if (this.bigCents == null && other.bigCents == null) {
+                throw new CurrencyMismatchException(excMsg, 
+                        this.toMoneyAmount(), other.toMoneyAmount());
+            }
+            throw new CurrencyMismatchException(excMsg);
+        }
+    }
+    
+    private LargeMoneyAmount from(BigInteger cents) {
+        return new LargeMoneyAmount(this.currencyID, this.multiplier, cents);
+    }
+    
+    /**
+     * Adds a money amount to this one. If there is no overflow, this is as 
+     * quick as {@link MoneyAmount#plus(currency.MoneyAmount)}.
+     * @param addend The amount to add. For example, 
+     * IRR&nbsp;9,223,372,036,854,775,807.
+     * @return The sum. For example, if this amount is IRR&nbsp;1, the sum is 
+     * IRR&nbsp;9,223,372,036,854,775,808, which {@link #isLarge()}.
+     * @throws CurrencyMismatchException If {@code addend} is of a different 
+     * currency than this amount.
+     * @throws NullPointerException If {@code addend} is null.
+     */
+    public LargeMoneyAmount plus(LargeMoneyAmount addend) {
+        this.checkCurrency(addend);
+        if (this.bigCents == null && addend.bigCents == null) {
+            try {
+                return new LargeMoneyAmount(this.currencyID, this.multiplier, 
+                        Math.addExact(this.smallCents, addend.smallCents));
+            } catch (ArithmeticException ae) {
+                // Fall through to the BigInteger path
+            }
+        }
+        return this.from(this.getFullAmountInCents()
+                .add(addend.getFullAmountInCents()));
+    }
+    
+    /**
+     * Adds a money amount to this one.
+     * @param addend The amount to add. For example, IRR&nbsp;1,250,000.
+     * @return The sum. For example, if this amount is 
+     * IRR&nbsp;9,223,372,036,854,775,807, the sum would be 
+     * IRR&nbsp;9,223,372,036,856,025,807.
+     * @throws CurrencyMismatchException If {@code addend} is of a different 
+     * currency than this amount.
+     * @throws NullPointerException If {@code addend} is null.
+     */
+    public LargeMoneyAmount plus(MoneyAmount addend) {
+        return this.plus(valueOf(addend));
+    }
+    
+    /**
+     * Gives the additive inverse of this money amount.
+     * @return This amount negated. For example, if this amount is 
+     * IRR&nbsp;&minus;9,223,372,036,854,775,808, the negation is 
+     * IRR&nbsp;9,223,372,036,854,775,808, which {@link #isLarge()}.
+     */
+    public LargeMoneyAmount negate() {
+        if (this.bigCents == null && this.smallCents != Long.MIN_VALUE) {
+            return new LargeMoneyAmount(this.currencyID, this.multiplier, 
+                    -this.smallCents);
+        }
+        return this.from(this.getFullAmountInCents().negate());
+    }
+    
+    /**
+     * Subtracts a money amount from this one.
+     * @param subtrahend The amount to subtract. For example, $30.50.
+     * @return The subtraction. For example, if this amount is $128.20, the 
+     * result would be $97.70.
+     * @throws CurrencyMismatchException If {@code subtrahend} is of a 
+     * different currency than this amount.
+     * @throws NullPointerException If {@code subtrahend} is null.
+     */
+    public LargeMoneyAmount minus(LargeMoneyAmount subtrahend) {
+        return this.plus(subtrahend.negate());
+    }
+    
+    /**
+     * Multiplies this money amount by an integer. If there is no overflow, 
+     * this is as quick as {@link MoneyAmount#times(int)}.
+     * @param multiplicand The number to multiply by. For example, 12.
+     * @return The product. For example, if this amount is 73,55&euro;, the 
+     * product is 882,60&euro;.
+     */
+    public LargeMoneyAmount times(long multiplicand) {
+        if (this.bigCents == null) {
+            try {
+                return new LargeMoneyAmount(this.currencyID, this.multiplier, 
+                        Math.multiplyExact(this.smallCents, multiplicand));
+            } catch (ArithmeticException ae) {
+                // Fall through to the BigInteger path
+            }
+        }
+        return this.from(this.getFullAmountInCents()
+                .multiply(BigInteger.valueOf(multiplicand)));
+    }
+    
+    /**
+     * Compares this money amount to another.
+     * @param other The amount to compare this amount to. For example, 
+     * IRR&nbsp;9,223,372,036,854,775,808.
+     * @return A negative integer if this amount is less than {@code other}, 0 
+     * if they're equal, a positive integer if this amount is greater. For 
+     * example, if this amount is IRR&nbsp;9,223,372,036,854,775,807, a 
+     * negative integer.
+     * @throws CurrencyMismatchException If {@code other} is of a different 
+     * currency than this amount.
+     */
+    @Override
+    public int compareTo(LargeMoneyAmount other) {
+        this.checkCurrency(other);
+        if (this.bigCents == null && other.bigCents == null) {
+            return Long.compare(this.smallCents, other.smallCents);
+        }
+        return this.getFullAmountInCents()
+                .compareTo(other.getFullAmountInCents());
+    }
+    
+    @Override
+    public String toString() {
+        BigInteger cents = this.getFullAmountInCents();
+        String symbol = CurrencyMetadata.of(this.currencyID).getSymbol();
+        String sign = (cents.signum() < 0) ? "-" : "";
+        BigInteger[] unitsAndDivisions = cents.abs()
+                .divideAndRemainder(BigInteger.valueOf(this.multiplier));
+        if (this.multiplier == 1) {
+            return sign + symbol + unitsAndDivisions[0];
+        }
+        String divisions = unitsAndDivisions[1].toString();
+        int padding = Integer.toString(this.multiplier).length() - 1 
+                - divisions.length();
+        return sign + symbol + unitsAndDivisions[0] + '.' 
+                + "000".substring(0, padding) + divisions;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+        final LargeMoneyAmount other = (LargeMoneyAmount) obj;
+        if (this.currencyID != other.currencyID) {
+            return false;
+        }
+        if (this.bigCents == null) {
+            return other.bigCents == null 
+                    && this.smallCents == other.smallCents;
+        }
+        return this.bigCents.equals(other.bigCents);
+    }
+    
+    @Override
+    public int hashCode() {
+        int cents = (this.bigCents == null) ? (int) this.smallCents 
+                : this.bigCents.hashCode();
+        return (this.currencyID.hashCode() << 16) + cents;
+    }
+    
+    /**
+     * Gives a large money amount equal to a money amount.
+     * @param amount The money amount. For example, &euro;197.54.
+     * @return The large money amount. For example, &euro;197.54, which of 
+     * course is not {@link #isLarge()}.
+     * @throws NullPointerException If {@code amount} is null.
+     */
+    public static LargeMoneyAmount valueOf(MoneyAmount amount) {
+        Currency currency = amount.getCurrency();
+        return new LargeMoneyAmount(currency, 
+                CurrencyMetadata.of(currency).getMultiplier(), 
+                amount.getFullAmountInCents());
+    }
+    
+    /**
+     * Gives a large money amount from a number of divisions of the unit.
+     * @param fullAmountInCents The number of divisions of the unit. For 
+     * example, 10,000,000,000,000,000,000.
+     * @param currency The currency. For example, Iranian rials (IRR).
+     * @return The large money amount. For example, 
+     * IRR&nbsp;10,000,000,000,000,000,000.
+     * @throws IllegalArgumentException If {@code currency} is a pseudocurrency 
+     * like gold (XAU).
+     * @throws NullPointerException If {@code fullAmountInCents} or {@code 
+     * currency} is null.
+     */
+    public static LargeMoneyAmount valueOf(BigInteger fullAmountInCents, 
+            Currency currency) {
+        if (fullAmountInCents == null) {
+            String excMsg = "Amount should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        MoneyAmount zero = MoneyAmount.fromFullAmountInCents(0L, currency);
+        return valueOf(zero).from(fullAmountInCents);
+    }
+    
+    private LargeMoneyAmount(Currency currency, int verifiedMultiplier, 
+            long fullAmountInCents) {
+        this.currencyID = currency;
+        this.multiplier = verifiedMultiplier;
+        this.smallCents = fullAmountInCents;
+        this.bigCents = null;
+    }
+    
+    private LargeMoneyAmount(Currency currency, int verifiedMultiplier, 
+            BigInteger fullAmountInCents) {
+        this.currencyID = currency;
+        this.multiplier = verifiedMultiplier;
+        if (fullAmountInCents.bitLength() < Long.SIZE) {
+            this.smallCents = fullAmountInCents.longValue();
+            this.bigCents = null;
+        } else {
+            this.smallCents = 0L;
+            this.bigCents = fullAmountInCents;
+        }
+    }
+    
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import java.util.Currency;
+import java.util.stream.Collector;
+
+/**
+ * Sums up money amounts of a single currency without creating a new {@link 
+ * MoneyAmount} for each intermediate sum. Unlike {@code MoneyAmount}, this 
+ * class is mutable, and it is not thread-safe. The running total is kept as a 
+ * number of divisions of the unit of currency (e.g., cents) and is only turned 
+ * into a {@code MoneyAmount} when {@link #toMoneyAmount()} is called.
+ * <p>Each operation checks for overflow. That is unlikely to come up for most 
+ * currencies, but it's not out of the question for currencies like the Iranian 
+ * rial (IRR), which trade at well over a million to the U.&nbsp;S. dollar.</p>
+ * @author Alonso del Arte
+ */
+public class MoneyAccumulator {
+    
+    private final Currency currencyID;
+    
+    private long allCents = 0L;
+    
+    /**
+     * Tells what currency this accumulator sums up.
+     * @return The currency given to the constructor. For example, United 
+     * States dollars (USD).
+     */
+    public Currency getCurrency() {
+        return this.currencyID;
+    }
+    
+    /**
+     * Tells the running total as a number of divisions of the unit of 
+     * currency.
+     * @return The running total. For example, if $128.20 and $69.34 
+     * have been added so far, this would be 19754.
+     */
+    public long getFullAmountInCents() {
+        return this.allCents;
+    }
+    
+    private static void checkSupport(Currency currency) {
+        CurrencyMetadata.ofSupported(currency);
+    }
+    
+    private void accumulate(long cents) {
+        try {
+            this.allCents = Math.addExact(this.allCents, cents);
+        } catch (ArithmeticException ae) {
+            String excMsg = "Adding " + cents + " to " + this.allCents 
+                    + " divisions of " + this.currencyID.getCurrencyCode() 
+                    + " overflows";
+            throw new ArithmeticException(excMsg);
+        }
+    }
+    
+    private void checkCurrency(MoneyAmount amount) {
+        if (!this.currencyID.equals(amount.getCurrency())) {
+            String excMsg = "Currency conversion needed to accumulate " 
+                    + amount.toString() + " into " 
+                    + this.currencyID.getDisplayName() + " (" 
+                    + this.currencyID.getCurrencyCode() + ") total";
+            throw new CurrencyMismatchException(excMsg, this.toMoneyAmount(), 
+                    amount);
+        }
+    }
+    
+    /**
+     * Adds a money amount to the running total.
+     * @param addend The amount to add. For example, $128.20.
+     * @return This accumulator, so that calls can be chained.
+     * @throws ArithmeticException If the running total would overflow.
+     * @throws CurrencyMismatchException If {@code addend} is not of the 
+     * currency this accumulator was constructed with.
+     * @throws NullPointerException If {@code addend} is null.
+     */
+    public MoneyAccumulator add(MoneyAmount addend) {
+        this.checkCurrency(addend);
+        this.accumulate(addend.getFullAmountInCents());
+        return this;
+    }
+    
+    /**
+     * Subtracts a money amount from the running total. Unlike {@link 
+     * MoneyAmount#minus(currency.MoneyAmount)}, this does not create a negated 
+     * instance of the subtrahend.
+     * @param subtrahend The amount to subtract. For example, $30.50.
+     * @return This accumulator, so that calls can be chained.
+     * @throws ArithmeticException If the running total would overflow.
+     * @throws CurrencyMismatchException If {@code subtrahend} is not of the 
+     * currency this accumulator was constructed with.
+     * @throws NullPointerException If {@code subtrahend} is null.
+     */
+    public MoneyAccumulator subtract(MoneyAmount subtrahend) {
+        this.checkCurrency(subtrahend);
+        long cents = subtrahend.getFullAmountInCents();
+        if (cents == Long.MIN_VALUE) {
+            String excMsg = "Negating " + cents + " divisions of " 
+                    + this.currencyID.getCurrencyCode() + " overflows";
+            throw new ArithmeticException(excMsg);
+        }
+        this.accumulate(-cents);
+        return this;
+    }
+    
+    /**
+     * Adds a money amount multiplied by an integer to the running total. This 
+     * is the same as adding the amount that many times, or calling {@link 
+     * MoneyAmount#times(int)} and adding the result, but without creating the 
+     * product as a {@code MoneyAmount}.
+     * @param addend The amount to add. For example, $73.55.
+     * @param multiplicand How many times to add {@code addend}. For example, 
+     * 12, to add $882.60.
+     * @return This accumulator, so that calls can be chained.
+     * @throws ArithmeticException If the product or the running total would 
+     * overflow.
+     * @throws CurrencyMismatchException If {@code addend} is not of the 
+     * currency this accumulator was constructed with.
+     * @throws NullPointerException If {@code addend} is null.
+     */
+    public MoneyAccumulator add(MoneyAmount addend, int multiplicand) {
+        this.checkCurrency(addend);
+        this.accumulate(Math.multiplyExact(addend.getFullAmountInCents(), 
+                (long) multiplicand));
+        return this;
+    }
+    
+    /**
+     * Adds a number of divisions of the unit of currency to the running total. 
+     * This is for callers that already have amounts as raw numbers, such as 
+     * from a database column, and would otherwise have to wrap each one in a 
+     * {@code MoneyAmount} just to add it.
+     * @param cents The number of divisions to add. For example, 12820 to add 
+     * $128.20. May be negative.
+     * @return This accumulator, so that calls can be chained.
+     * @throws ArithmeticException If the running total would overflow.
+     */
+    public MoneyAccumulator addCents(long cents) {
+        this.accumulate(cents);
+        return this;
+    }
+    
+    /**
+     * Adds the running total of another accumulator to this one. The other 
+     * accumulator is not changed.
+     * @param other The other accumulator. For example, an accumulator with a 
+     * running total of $69.34.
+     * @return This accumulator, so that calls can be chained.
+     * @throws ArithmeticException If the running total would overflow.
+     * @throws CurrencyMismatchException If {@code other} is for a currency 
+     * other than the one this accumulator was constructed with.
+     * @throws NullPointerException If {@code other} is null.
+     */
+    public MoneyAccumulator combine(MoneyAccumulator other) {
+        if (!this.currencyID.equals(other.currencyID)) {
+            throw new CurrencyMismatchException(this.toMoneyAmount(), 
+                    other.toMoneyAmount());
+        }
+        this.accumulate(other.allCents);
+        return this;
+    }
+    
+    /**
+     * Sets the running total back to 0, so that this accumulator can be used 
+     * again for the same currency.
+     */
+    public void reset() {
+        this.allCents = 0L;
+    }
+    
+    /**
+     * Gives the running total as a money amount.
+     * @return The running total. For example, $197.54.
+     */
+    public MoneyAmount toMoneyAmount() {
+        return MoneyAmount.fromFullAmountInCents(this.allCents, 
+                this.currencyID);
+    }
+    
+    @Override
+    public String toString() {
+        return "Accumulator of " + this.currencyID.getCurrencyCode() + " at " 
+                + this.allCents;
+    }
+    
+    /**
+     * Gives a collector to sum up a stream of money amounts of a single 
+     * currency. Each thread of a parallel stream gets its own accumulator, and 
+     * no intermediate money amounts are created.
+     * @param currency The currency of the amounts to sum. For example, United 
+     * States dollars (USD).
+     * @return A collector that gives the sum of the amounts, or 0 of {@code 
+     * currency} if the stream is empty. For example, $197.54 for a stream 
+     * of $128.20 and $69.34. The collector will throw a {@link 
+     * CurrencyMismatchException} if the stream has amounts of any other 
+     * currency, or an {@code ArithmeticException} on overflow.
+     * @throws IllegalArgumentException If {@code currency} is a pseudocurrency 
+     * like gold (XAU).
+     * @throws NullPointerException If {@code currency} is null.
+     */
+    public static Collector<MoneyAmount, MoneyAccumulator, MoneyAmount> 
+            summing(Currency currency) {
+        checkSupport(currency);
+        return Collector.of(() -> new MoneyAccumulator(currency), 
+                MoneyAccumulator::add, MoneyAccumulator::combine, 
+                MoneyAccumulator::toMoneyAmount);
+    }
+    
+    /**
+     * Sole constructor. The running total starts at 0.
+     * @param currency The currency to sum up. For example, United States 
+     * dollars (USD).
+     * @throws IllegalArgumentException If {@code currency} is a pseudocurrency 
+     * like gold (XAU).
+     * @throws NullPointerException If {@code currency} is null.
+     */
+    public MoneyAccumulator(Currency currency) {
+        checkSupport(currency);
+        this.currencyID = currency;
+    }
+    
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.stream.IntStream;
+
+/**
+ * Splits a money amount into shares according to a list of ratios, without 
+ * losing or making up any cents. For example, $100.00 split three ways comes 
+ * out to $33.34, $33.33 and $33.33, which add back up to $100.00.
+ * <p>Each share starts out as the exact share rounded down to the smallest 
+ * division of the currency. The cents left over are then handed out one at a 
+ * time to the shares that were rounded down the most, which is known as the 
+ * largest remainder method. Ties go to the share that comes first, so the same 
+ * amount and ratios always give the same allocation.</p>
+ * <p>All the arithmetic is done with <code>long</code> integers. Only if the 
+ * product of the amount and a ratio overflows does that one share get worked 
+ * out with {@code BigInteger}. Lists of at least {@link #PARALLEL_THRESHOLD} 
+ * ratios are worked on in parallel.</p>
+ * @author Alonso del Arte
+ */
+public final class MoneyAllocator {
+    
+    /**
+     * How many ratios there need to be for the allocation to be worked on in 
+     * parallel. For fewer ratios than this, the overhead of splitting up the 
+     * work would most likely outweigh any benefit.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 14;
+    
+    private static long checkRatios(long[] ratios) {
+        if (ratios.length == 0) {
+            String excMsg = "There should be at least one ratio";
+            throw new IllegalArgumentException(excMsg);
+        }
+        long ratioSum = 0L;
+        for (int i = 0; i < ratios.length; i++) {
+            if (ratios[i] < 0L) {
+                String excMsg = "Ratio " + ratios[i] + " at index " + i 
+                        + " should not be negative";
+                throw new IllegalArgumentException(excMsg);
+            }
+            ratioSum = Math.addExact(ratioSum, ratios[i]);
+        }
+        if (ratioSum == 0L) {
+            String excMsg = "At least one ratio should be positive";
+            throw new IllegalArgumentException(excMsg);
+        }
+        return ratioSum;
+    }
+    
+    // If the magnitude is Long.MIN_VALUE, it's to be understood as 2^63, and
+    // the share is worked out with BigInteger. A share of 2^63 gets stored as
+    // Long.MIN_VALUE, which is fine since it gets negated at the end anyway.
+    private static void divide(long magnitude, long[] ratios, long ratioSum, 
+            long[] shares, long[] remainders, int index) {
+        long ratio = ratios[index];
+        long product = magnitude * ratio;
+        if (magnitude >= 0L && Math.multiplyHigh(magnitude, ratio) == 0L 
+                && product >= 0L) {
+            shares[index] = product / ratioSum;
+            remainders[index] = product % ratioSum;
+        } else {
+            BigInteger bigMagnitude = (magnitude < 0L) 
+                    ? BigInteger.ONE.shiftLeft(Long.SIZE - 1) 
+                    : BigInteger.valueOf(magnitude);
+            BigInteger[] quotientAndRemainder = bigMagnitude 
+                    .multiply(BigInteger.valueOf(ratio))
+                    .divideAndRemainder(BigInteger.valueOf(ratioSum));
+            shares[index] = quotientAndRemainder[0].longValue();
+            remainders[index] = quotientAndRemainder[1].longValue();
+        }
+    }
+    
+    /**
+     * Splits a number of divisions of the unit of currency (e.g., cents) 
+     * according to a list of ratios. This is meant for callers that already 
+     * hold amounts as raw cents, such as a {@link MoneyBatch}.
+     * @param totalCents The number of divisions to split. For example, 10000. 
+     * May be negative, in which case the shares are the negations of the 
+     * shares of the positive amount.
+     * @param ratios The ratios to split in. For example, {1, 1, 1}. Ratios may 
+     * be 0, but none may be negative, and at least one must be positive. The 
+     * array is not modified.
+     * @return The shares, in the same order as the ratios. For example, 
+     * {3334, 3333, 3333}. The shares always add up to {@code totalCents}, and 
+     * a ratio of 0 always gets a share of 0.
+     * @throws ArithmeticException If the ratios add up to more than {@code 
+     * Long.MAX_VALUE}.
+     * @throws IllegalArgumentException If {@code ratios} is empty, contains a 
+     * negative number or contains only zeroes.
+     * @throws NullPointerException If {@code ratios} is null.
+     */
+    public static long[] allocate(long totalCents, long[] ratios) {
+        long ratioSum = checkRatios(ratios);
+        int count = ratios.length;
+        boolean parallel = count >= PARALLEL_THRESHOLD;
+        long magnitude = (totalCents < 0L) ? -totalCents : totalCents;
+        long[] shares = new long[count];
+        long[] remainders = new long[count];
+        IntStream indices = IntStream.range(0, count);
+        if (parallel) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> divide(magnitude, ratios, ratioSum, shares, 
+                remainders, i));
+        long allocated = parallel ? Arrays.stream(shares).parallel().sum() 
+                : Arrays.stream(shares).sum();
+        // Since each remainder is less than ratioSum and the remainders add up
+        // to leftover times ratioSum, leftover is less than count. That also
+        // holds up if the subtraction wrapped around.
+        int leftover = (int) (magnitude - allocated);
+        if (leftover > 0) {
+            long[] sortedRemainders = remainders.clone();
+            if (parallel) {
+                Arrays.parallelSort(sortedRemainders);
+            } else {
+                Arrays.sort(sortedRemainders);
+            }
+            long cutoff = sortedRemainders[count - leftover];
+            int above = count - leftover;
+            while (above < count && sortedRemainders[above] == cutoff) {
+                above++;
+            }
+            int tiesToBreak = leftover - (count - above);
+            for (int i = 0; i < count; i++) {
+                if (remainders[i] > cutoff) {
+                    shares[i]++;
+                } else if (remainders[i] == cutoff && tiesToBreak > 0) {
+                    shares[i]++;
+                    tiesToBreak--;
+                }
+            }
+        }
+        if (totalCents < 0L) {
+            for (int i = 0; i < count; i++) {
+                shares[i] = -shares[i];
+            }
+        }
+        return shares;
+    }
+    
+    /**
+     * Splits a money amount according to a list of ratios. For example, to 
+     * split a $250.00 fee between three departments in proportion to their 
+     * headcounts of 12, 7 and 5.
+     * @param amount The amount to split. For example, $250.00.
+     * @param ratios The ratios to split in. For example, {12, 7, 5}. Ratios 
+     * may be 0, but none may be negative, and at least one must be positive.
+     * @return The shares, in the same order as the ratios. For example, 
+     * $125.00, $72.92, $52.08. The shares always add up to {@code amount}.
+     * @throws ArithmeticException If the ratios add up to more than {@code 
+     * Long.MAX_VALUE}.
+     * @throws IllegalArgumentException If {@code ratios} is empty, contains a 
+     * negative number or contains only zeroes.
+     * @throws NullPointerException If {@code amount} or {@code ratios} is 
+     * null.
+     */
+    public static MoneyAmount[] allocate(MoneyAmount amount, long[] ratios) {
+        Currency currency = amount.getCurrency();
+        long[] shares = allocate(amount.getFullAmountInCents(), ratios);
+        MoneyAmount[] amounts = new MoneyAmount[shares.length];
+        for (int i = 0; i < shares.length; i++) {
+            amounts[i] = MoneyAmount.fromFullAmountInCents(shares[i], currency);
+        }
+        return amounts;
+    }
+    
+    /**
+     * Splits a money amount according to a list of ratios, putting the shares 
+     * in a {@link MoneyBatch} rather than in individual {@link MoneyAmount} 
+     * instances. This is the better choice for long lists of recipients.
+     * @param amount The amount to split. For example, $250.00.
+     * @param ratios The ratios to split in. For example, {12, 7, 5}. Ratios 
+     * may be 0, but none may be negative, and at least one must be positive.
+     * @return A batch with the shares, in the same order as the ratios. For 
+     * example, $125.00, $72.92, $52.08.
+     * @throws ArithmeticException If the ratios add up to more than {@code 
+     * Long.MAX_VALUE}.
+     * @throws IllegalArgumentException If {@code ratios} is empty, contains a 
+     * negative number or contains only zeroes.
+     * @throws NullPointerException If {@code amount} or {@code ratios} is 
+     * null.
+     */
+    public static MoneyBatch allocateToBatch(MoneyAmount amount, 
+            long[] ratios) {
+        Currency currency = amount.getCurrency();
+        long[] shares = allocate(amount.getFullAmountInCents(), ratios);
+        MoneyBatch.Builder builder = new MoneyBatch.Builder(shares.length);
+        for (long share : shares) {
+            builder.addCents(share, currency);
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Splits a money amount into equal shares, as nearly as possible. The 
+     * shares differ by at most one of the smallest division of the currency, 
+     * with the larger shares coming first.
+     * @param amount The amount to split. For example, $100.00.
+     * @param parts How many shares to split into. For example, 3.
+     * @return The shares. For example, $33.34, $33.33, $33.33.
+     * @throws IllegalArgumentException If {@code parts} is 0 or negative.
+     * @throws NullPointerException If {@code amount} is null.
+     */
+    public static MoneyAmount[] split(MoneyAmount amount, int parts) {
+        if (parts < 1) {
+            String excMsg = "Can't split " + amount.toString() + " into " 
+                    + parts + " parts";
+            throw new IllegalArgumentException(excMsg);
+        }
+        long[] ratios = new long[parts];
+        Arrays.fill(ratios, 1L);
+        return allocate(amount, ratios);
+    }
+    
+    private MoneyAllocator() {
+        // No instances needed
+    }
+    
+}
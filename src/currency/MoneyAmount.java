@@ -55,17 +55,6 @@ public class MoneyAmount implements Comparable<MoneyAmount> {
         return currency.getDefaultFractionDigits() > -1;
     }
     
-    private static int calculateMultiplier(Currency currency) {
-        int mult = 1;
-        int multCount = 0;
-        int stop = currency.getDefaultFractionDigits();
-        while (multCount < stop) {
-            mult *= 10;
-            multCount++;
-        }
-        return mult;
-    }
-    
     /**
      * Tells how many full units of currency there are in the amount. Any cents, 
      * mills, darahim, etc., are ignored.
@@ -114,6 +103,8 @@ public class MoneyAmount implements Comparable<MoneyAmount> {
      * @throws CurrencyMismatchException If <code>addend</code> is not of the 
      * same currency amount as this one (e.g., if this amount is in U.&nbsp;S. 
      * dollars and <code>addend</code> is in euros).
+     * @throws ArithmeticException If the sum is too large to represent. For 
+     * sums that large, use {@link LargeMoneyAmount}.
      */
     public MoneyAmount plus(MoneyAmount addend) {
         if (!this.currencyID.equals(addend.currencyID)) {
@@ -124,8 +115,8 @@ public class MoneyAmount implements Comparable<MoneyAmount> {
                     + addend.currencyID.getCurrencyCode() + ")";
             throw new CurrencyMismatchException(excMsg, this, addend);
         }
-        return new MoneyAmount(currencyID, this.allCents + addend.allCents, 
-                this.multiplier);
+        return new MoneyAmount(currencyID, 
+                Math.addExact(this.allCents, addend.allCents), this.multiplier);
     }
     
     /**
@@ -135,10 +126,13 @@ public class MoneyAmount implements Comparable<MoneyAmount> {
      * @return This amount negated. For example, 119,35&euro;. Note that 0 of 
      * any currency is its own additive inverse. This function may or may not 
      * return a fresh instance in that case.
+     * @throws ArithmeticException In the unlikely event that this amount is 
+     * the least amount that can be represented, as its negation is too large 
+     * to represent.
      */
     public MoneyAmount negate() {
-        return new MoneyAmount(this.currencyID, -this.allCents, 
-                this.multiplier);
+        return new MoneyAmount(this.currencyID, 
+                Math.negateExact(this.allCents), this.multiplier);
     }
     
     /**
@@ -161,9 +155,12 @@ public class MoneyAmount implements Comparable<MoneyAmount> {
      * @return The money amount multiplied by <code>multiplicand</code>. For 
      * example, if this money amount is 73,55&euro;, multiplied by 12 the result 
      * would be 882,60&euro;.
+     * @throws ArithmeticException If the product is too large to represent. 
+     * For products that large, use {@link LargeMoneyAmount}.
      */
     public MoneyAmount times(int multiplicand) {
-        return new MoneyAmount(this.currencyID, allCents * multiplicand, 
+        return new MoneyAmount(this.currencyID, 
+                Math.multiplyExact(this.allCents, multiplicand), 
                 this.multiplier);
     }
     
@@ -183,9 +180,29 @@ public class MoneyAmount implements Comparable<MoneyAmount> {
                 this.multiplier);
     }
     
-    // TODO: Write tests for this
+    /**
+     * Divides this money amount by an integer, provided the division comes out 
+     * exact to the smallest division of the currency. To split an amount that 
+     * doesn't divide evenly without losing any cents, use {@link 
+     * MoneyAllocator}.
+     * @param divisor The number to divide by. For example, 4.
+     * @return The money amount divided by <code>divisor</code>. For example, 
+     * if this money amount is $128.20, divided by 4 the result would be 
+     * $32.05.
+     * @throws ArithmeticException If <code>divisor</code> is 0, or if the 
+     * division would leave a remainder. For example, $128.20 divided by 3.
+     */
     public MoneyAmount divides(int divisor) {
-        return this;
+        if (divisor == 0 || this.allCents % divisor != 0) {
+            String excMsg = "Can't divide " + this.toString() + " by " 
+                    + divisor + " exactly";
+            throw new ArithmeticException(excMsg);
+        }
+        if (divisor == -1) {
+            return this.negate();
+        }
+        return new MoneyAmount(this.currencyID, this.allCents / divisor, 
+                this.multiplier);
     }
     
     /**
@@ -209,10 +226,11 @@ public class MoneyAmount implements Comparable<MoneyAmount> {
     
     @Override
     public String toString() {
+        String symbol = CurrencyMetadata.of(this.currencyID).getSymbol();
         if (this.multiplier == 1) {
-            return this.currencyID.getSymbol() + this.singles;
+            return symbol + this.singles;
         }
-        String intermediate = this.currencyID.getSymbol() 
+        String intermediate = symbol 
                 + Math.abs(this.singles) + '.';
         if (this.singles < 0) {
             intermediate = '-' + intermediate;
@@ -249,6 +267,37 @@ public class MoneyAmount implements Comparable<MoneyAmount> {
         return (this.currencyID.hashCode() << 16) + (int) this.allCents;
     }
     
+    /**
+     * Gives a money amount from a number of divisions of the unit of currency. 
+     * This is the inverse of {@link #getFullAmountInCents()}. For the example, 
+     * let's say the currency is the United States dollar (USD).
+     * @param fullAmountInCents The number of divisions of the unit. For 
+     * example, 19754. May be negative.
+     * @param currency The currency. For example, USD.
+     * @return A money amount. In the example, $197.54.
+     * @throws IllegalArgumentException If {@code currency} is a pseudocurrency 
+     * like gold (XAU).
+     * @throws NullPointerException If {@code currency} is null.
+     */
+    public static MoneyAmount fromFullAmountInCents(long fullAmountInCents, 
+            Currency currency) {
+        return new MoneyAmount(currency, fullAmountInCents, 
+                checkedMultiplier(currency));
+    }
+    
+    private static int checkedMultiplier(Currency currency) {
+        if (currency == null) {
+            throw new NullPointerException("Currency should not be null");
+        }
+        CurrencyMetadata metadata = CurrencyMetadata.of(currency);
+        if (metadata.isPseudocurrency()) {
+            String excMsg = "Pseudocurrency " + currency.getDisplayName() + " (" 
+                    + currency.getCurrencyCode() + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        return metadata.getMultiplier();
+    }
+    
     /**
      * Auxiliary constructor. If the cents or mills are 0 or not applicable, 
      * they can simply be omitted.
@@ -275,15 +324,7 @@ public class MoneyAmount implements Comparable<MoneyAmount> {
      * @throws NullPointerException If {@code currency} is null.
      */
     public MoneyAmount(long units, Currency currency, short divisions) {
-        if (currency == null) {
-            throw new NullPointerException("Currency should not be null");
-        }
-        if (currency.getDefaultFractionDigits() < 0) {
-            String excMsg = "Pseudocurrency " + currency.getDisplayName() + " (" 
-                    + currency.getCurrencyCode() + " is not valid";
-            throw new IllegalArgumentException(excMsg);
-        }
-        this.multiplier = calculateMultiplier(currency);
+        this.multiplier = checkedMultiplier(currency);
         if (divisions > this.multiplier) {
             long overflowUnits = divisions / this.multiplier;
             units += overflowUnits;
@@ -295,10 +336,29 @@ public class MoneyAmount implements Comparable<MoneyAmount> {
         this.allCents = this.singles * this.multiplier + this.cents;
     }
 
+    // Division by a constant compiles to a multiplication and a shift, which
+    // is a lot quicker than dividing a long by a variable
+    private static long unitsOf(long fullAmountInCents, int multiplier) {
+        switch (multiplier) {
+            case 1:
+                return fullAmountInCents;
+            case 10:
+                return fullAmountInCents / 10;
+            case 100:
+                return fullAmountInCents / 100;
+            case 1000:
+                return fullAmountInCents / 1000;
+            case 10000:
+                return fullAmountInCents / 10000;
+            default:
+                return fullAmountInCents / multiplier;
+        }
+    }
+    
     private MoneyAmount(Currency currency, long fullAmountInCents, 
             int verifiedMultiplier) {
         this.multiplier = verifiedMultiplier;
-        this.singles = fullAmountInCents / this.multiplier;
+        this.singles = unitsOf(fullAmountInCents, verifiedMultiplier);
         this.cents = (short) (fullAmountInCents - this.singles 
                 * this.multiplier);
         this.currencyID = currency;
@@ -0,0 +1,464 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Holds a large number of money amounts in columns rather than as separate 
+ * {@link MoneyAmount} instances. The amounts are kept in an array of 
+ * <code>long</code> as numbers of divisions of the unit of currency (e.g., 
+ * cents), and alongside it an array of <code>int</code> tells which currency 
+ * each amount is drawn in. The currencies themselves are listed once per 
+ * batch.
+ * <p>The operations on a batch are written as plain loops over primitive 
+ * arrays, with no branches that depend on the amounts themselves, so that the 
+ * HotSpot compiler can vectorize them. Amounts are only turned into {@code 
+ * MoneyAmount} instances at the edges, by {@link #get(int)}, {@link 
+ * #toList()} and the aggregate functions.</p>
+ * <p>Instances of this class are immutable. Batches are put together with a 
+ * {@link Builder}.</p>
+ * @author Alonso del Arte
+ */
+public class MoneyBatch {
+    
+    private static final long LOW_BITS_MASK = 0xFFFFFFFFL;
+    
+    private final long[] allCents;
+    
+    private final int[] currencyIndices;
+    
+    private final Currency[] currencies;
+    
+    /**
+     * Tells how many amounts are in this batch.
+     * @return The number of amounts. For example, 1000000.
+     */
+    public int size() {
+        return this.allCents.length;
+    }
+    
+    /**
+     * Tells which currencies the amounts in this batch are drawn in.
+     * @return The currencies, in the order they were first added to the batch. 
+     * For example, United States dollars (USD), euros (EUR) and Japanese yen 
+     * (JPY). The set may be modified without affecting this batch.
+     */
+    public Set<Currency> getCurrencies() {
+        return new LinkedHashSet<>(Arrays.asList(this.currencies));
+    }
+    
+    /**
+     * Retrieves one amount from this batch.
+     * @param index The position of the amount, counting from 0. For example, 
+     * 3.
+     * @return The amount at that position. For example, &yen;15000.
+     * @throws IndexOutOfBoundsException If {@code index} is negative or not 
+     * less than {@link #size()}.
+     */
+    public MoneyAmount get(int index) {
+        return MoneyAmount.fromFullAmountInCents(this.allCents[index], 
+                this.currencies[this.currencyIndices[index]]);
+    }
+    
+    /**
+     * Gives the amounts in this batch as a list of money amounts. This creates 
+     * as many {@link MoneyAmount} instances as there are amounts in the batch, 
+     * so it should only be used once the heavy lifting has been done.
+     * @return A list of the amounts, in the order they were added. The list 
+     * may be modified without affecting this batch.
+     */
+    public List<MoneyAmount> toList() {
+        int len = this.allCents.length;
+        List<MoneyAmount> amounts = new ArrayList<>(len);
+        for (int i = 0; i < len; i++) {
+            amounts.add(this.get(i));
+        }
+        return amounts;
+    }
+    
+    private int indexOf(Currency currency) {
+        for (int i = 0; i < this.currencies.length; i++) {
+            if (this.currencies[i].equals(currency)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static long combineHalves(long highSum, long lowSum) {
+        long carriedHighSum = highSum + (lowSum >>> 32);
+        return Math.multiplyExact(carriedHighSum, 1L << 32) 
+                + (lowSum & LOW_BITS_MASK);
+    }
+    
+    /**
+     * Adds up all the amounts of a given currency in this batch. The sum is 
+     * computed in two halves, high 32 bits and low 32 bits, which can't 
+     * overflow for any batch that fits in an array, and then the halves are 
+     * put together with overflow checking. This way the loop itself has no 
+     * overflow checks that would keep it from being vectorized.
+     * @param currency The currency to add up. For example, United States 
+     * dollars (USD).
+     * @return The sum of the amounts of that currency. For example, if the 
+     * batch contains $128.20, &euro;15.00 and $69.34, the sum for USD would be 
+     * $197.54. If the batch contains no amounts of that currency, the sum is 0 
+     * of that currency.
+     * @throws ArithmeticException If the sum doesn't fit in a 
+     * <code>long</code>.
+     * @throws IllegalArgumentException If {@code currency} is a pseudocurrency 
+     * like gold (XAU).
+     * @throws NullPointerException If {@code currency} is null.
+     */
+    public MoneyAmount sum(Currency currency) {
+        int index = this.indexOf(currency);
+        long highSum = 0L;
+        long lowSum = 0L;
+        if (index > -1) {
+            int len = this.allCents.length;
+            for (int i = 0; i < len; i++) {
+                long cents = (this.currencyIndices[i] == index) 
+                        ? this.allCents[i] : 0L;
+                highSum += cents >> 32;
+                lowSum += cents & LOW_BITS_MASK;
+            }
+        }
+        return MoneyAmount.fromFullAmountInCents(combineHalves(highSum, 
+                lowSum), currency);
+    }
+    
+    /**
+     * Adds up the amounts in this batch separately for each currency, in a 
+     * single pass over the batch.
+     * @return A map from each currency in this batch to the sum of the amounts 
+     * of that currency. For example, if the batch contains $128.20, 
+     * &euro;15.00 and $69.34, the map would be USD to $197.54 and EUR to 
+     * &euro;15.00. The map may be modified without affecting this batch.
+     * @throws ArithmeticException If any of the sums doesn't fit in a 
+     * <code>long</code>.
+     */
+    public Map<Currency, MoneyAmount> sums() {
+        int currencyCount = this.currencies.length;
+        long[] highSums = new long[currencyCount];
+        long[] lowSums = new long[currencyCount];
+        int len = this.allCents.length;
+        for (int i = 0; i < len; i++) {
+            int index = this.currencyIndices[i];
+            long cents = this.allCents[i];
+            highSums[index] += cents >> 32;
+            lowSums[index] += cents & LOW_BITS_MASK;
+        }
+        Map<Currency, MoneyAmount> map = new HashMap<>(currencyCount * 2);
+        for (int j = 0; j < currencyCount; j++) {
+            Currency currency = this.currencies[j];
+            map.put(currency, MoneyAmount.fromFullAmountInCents(
+                    combineHalves(highSums[j], lowSums[j]), currency));
+        }
+        return map;
+    }
+    
+    private void checkPresent(int index, Currency currency) {
+        if (index < 0) {
+            String excMsg = "Batch has no amounts of " 
+                    + currency.getDisplayName() + " (" 
+                    + currency.getCurrencyCode() + ")";
+            throw new NoSuchElementException(excMsg);
+        }
+    }
+    
+    /**
+     * Finds the least amount of a given currency in this batch.
+     * @param currency The currency. For example, United States dollars (USD).
+     * @return The least amount of that currency. For example, if the batch 
+     * contains $128.20, &euro;15.00 and $69.34, this would be $69.34.
+     * @throws NoSuchElementException If the batch has no amounts of {@code 
+     * currency}.
+     * @throws NullPointerException If {@code currency} is null.
+     */
+    public MoneyAmount min(Currency currency) {
+        int index = this.indexOf(currency);
+        this.checkPresent(index, currency);
+        long least = Long.MAX_VALUE;
+        int len = this.allCents.length;
+        for (int i = 0; i < len; i++) {
+            long cents = (this.currencyIndices[i] == index) 
+                    ? this.allCents[i] : Long.MAX_VALUE;
+            least = Math.min(least, cents);
+        }
+        return MoneyAmount.fromFullAmountInCents(least, currency);
+    }
+    
+    /**
+     * Finds the greatest amount of a given currency in this batch.
+     * @param currency The currency. For example, United States dollars (USD).
+     * @return The greatest amount of that currency. For example, if the batch 
+     * contains $128.20, &euro;15.00 and $69.34, this would be $128.20.
+     * @throws NoSuchElementException If the batch has no amounts of {@code 
+     * currency}.
+     * @throws NullPointerException If {@code currency} is null.
+     */
+    public MoneyAmount max(Currency currency) {
+        int index = this.indexOf(currency);
+        this.checkPresent(index, currency);
+        long greatest = Long.MIN_VALUE;
+        int len = this.allCents.length;
+        for (int i = 0; i < len; i++) {
+            long cents = (this.currencyIndices[i] == index) 
+                    ? this.allCents[i] : Long.MIN_VALUE;
+            greatest = Math.max(greatest, cents);
+        }
+        return MoneyAmount.fromFullAmountInCents(greatest, currency);
+    }
+    
+    /**
+     * Multiplies every amount in this batch by a floating point number. The 
+     * currencies stay the same. Rounding is the same as for {@link 
+     * MoneyAmount#times(double)}, so that scaling a batch gives the same 
+     * amounts as scaling each amount separately.
+     * @param multiplicand The number to multiply by. For example, 9.75.
+     * @return A new batch with the scaled amounts. For example, if this batch 
+     * contains $10.25 and &euro;2.00, the new batch would contain $99.94 and 
+     * &euro;19.50.
+     */
+    public MoneyBatch scale(double multiplicand) {
+        int len = this.allCents.length;
+        long[] scaled = new long[len];
+        for (int i = 0; i < len; i++) {
+            scaled[i] = (long) Math.ceil(multiplicand * this.allCents[i]);
+        }
+        return new MoneyBatch(scaled, this.currencyIndices, this.currencies);
+    }
+    
+    private MoneyBatch select(boolean[] keep, int keepCount) {
+        long[] selectedCents = new long[keepCount];
+        int[] selectedIndices = new int[keepCount];
+        int pos = 0;
+        int len = this.allCents.length;
+        for (int i = 0; i < len; i++) {
+            if (keep[i]) {
+                selectedCents[pos] = this.allCents[i];
+                selectedIndices[pos] = this.currencyIndices[i];
+                pos++;
+            }
+        }
+        return new MoneyBatch(selectedCents, selectedIndices, this.currencies);
+    }
+    
+    /**
+     * Gives a batch with only the amounts of a given currency from this batch.
+     * @param currency The currency to keep. For example, United States dollars 
+     * (USD).
+     * @return A new batch, with the amounts in the same order as in this batch. 
+     * For example, if this batch contains $128.20, &euro;15.00 and $69.34, the 
+     * new batch would contain $128.20 and $69.34. If this batch has no amounts 
+     * of {@code currency}, the new batch is empty.
+     * @throws NullPointerException If {@code currency} is null.
+     */
+    public MoneyBatch filter(Currency currency) {
+        if (currency == null) {
+            throw new NullPointerException("Currency should not be null");
+        }
+        int index = this.indexOf(currency);
+        int len = this.allCents.length;
+        boolean[] keep = new boolean[len];
+        int keepCount = 0;
+        for (int i = 0; i < len; i++) {
+            keep[i] = this.currencyIndices[i] == index;
+            keepCount += keep[i] ? 1 : 0;
+        }
+        return this.select(keep, keepCount);
+    }
+    
+    /**
+     * Gives a batch with only the amounts from this batch that are of the same 
+     * currency as a given threshold and at least as much as that threshold.
+     * @param threshold The least amount to keep. For example, $100.00.
+     * @return A new batch, with the amounts in the same order as in this batch. 
+     * For example, if this batch contains $128.20, &euro;150.00 and $69.34, 
+     * the new batch would contain just $128.20.
+     * @throws NullPointerException If {@code threshold} is null.
+     */
+    public MoneyBatch filterAtLeast(MoneyAmount threshold) {
+        int index = this.indexOf(threshold.getCurrency());
+        long least = threshold.getFullAmountInCents();
+        int len = this.allCents.length;
+        boolean[] keep = new boolean[len];
+        int keepCount = 0;
+        for (int i = 0; i < len; i++) {
+            keep[i] = this.currencyIndices[i] == index 
+                    && this.allCents[i] >= least;
+            keepCount += keep[i] ? 1 : 0;
+        }
+        return this.select(keep, keepCount);
+    }
+    
+    /**
+     * Puts together a batch from a collection of money amounts.
+     * @param amounts The amounts. For example, $128.20, &euro;15.00 and 
+     * $69.34. May be empty but should not contain nulls.
+     * @return A batch with the amounts in the order the collection's iterator 
+     * gives them.
+     * @throws NullPointerException If {@code amounts} is null or contains 
+     * nulls.
+     */
+    public static MoneyBatch of(Collection<MoneyAmount> amounts) {
+        Builder builder = new Builder(amounts.size());
+        for (MoneyAmount amount : amounts) {
+            builder.add(amount);
+        }
+        return builder.build();
+    }
+    
+    private MoneyBatch(long[] cents, int[] indices, Currency[] dictionary) {
+        this.allCents = cents;
+        this.currencyIndices = indices;
+        this.currencies = dictionary;
+    }
+    
+    /**
+     * Puts together a {@link MoneyBatch} one amount at a time. A builder can't 
+     * be used again after {@link #build()} is called.
+     */
+    public static class Builder {
+        
+        private long[] allCents;
+        
+        private int[] currencyIndices;
+        
+        private int count = 0;
+        
+        private final List<Currency> currencies = new ArrayList<>();
+        
+        private final Map<Currency, Integer> currencyIndexMap 
+                = new HashMap<>();
+        
+        private boolean built = false;
+        
+        private int indexFor(Currency currency) {
+            if (currency == null) {
+                throw new NullPointerException("Currency should not be null");
+            }
+            Integer index = this.currencyIndexMap.get(currency);
+            if (index == null) {
+                CurrencyMetadata.ofSupported(currency);
+                index = this.currencies.size();
+                this.currencies.add(currency);
+                this.currencyIndexMap.put(currency, index);
+            }
+            return index;
+        }
+        
+        /**
+         * Adds a number of divisions of the unit of currency to the batch, 
+         * without having to wrap it in a {@link MoneyAmount} first.
+         * @param cents The number of divisions. For example, 12820. May be 
+         * negative.
+         * @param currency The currency. For example, United States dollars 
+         * (USD), so that 12820 means $128.20.
+         * @return This builder, so that calls can be chained.
+         * @throws IllegalArgumentException If {@code currency} is a 
+         * pseudocurrency like gold (XAU).
+         * @throws IllegalStateException If {@link #build()} was already called.
+         * @throws NullPointerException If {@code currency} is null.
+         */
+        public Builder addCents(long cents, Currency currency) {
+            if (this.built) {
+                String excMsg = "Batch was already built";
+                throw new IllegalStateException(excMsg);
+            }
+            int index = this.indexFor(currency);
+            if (this.count == this.allCents.length) {
+                int newCapacity = Math.max(16, this.count * 2);
+                this.allCents = Arrays.copyOf(this.allCents, newCapacity);
+                this.currencyIndices = Arrays.copyOf(this.currencyIndices, 
+                        newCapacity);
+            }
+            this.allCents[this.count] = cents;
+            this.currencyIndices[this.count] = index;
+            this.count++;
+            return this;
+        }
+        
+        /**
+         * Adds a money amount to the batch.
+         * @param amount The amount to add. For example, $128.20.
+         * @return This builder, so that calls can be chained.
+         * @throws IllegalStateException If {@link #build()} was already called.
+         * @throws NullPointerException If {@code amount} is null.
+         */
+        public Builder add(MoneyAmount amount) {
+            return this.addCents(amount.getFullAmountInCents(), 
+                    amount.getCurrency());
+        }
+        
+        /**
+         * Finishes putting together the batch.
+         * @return The batch, with the amounts in the order they were added.
+         * @throws IllegalStateException If this function was already called.
+         */
+        public MoneyBatch build() {
+            if (this.built) {
+                String excMsg = "Batch was already built";
+                throw new IllegalStateException(excMsg);
+            }
+            this.built = true;
+            long[] cents = (this.count == this.allCents.length) 
+                    ? this.allCents : Arrays.copyOf(this.allCents, this.count);
+            int[] indices = (this.count == this.currencyIndices.length) 
+                    ? this.currencyIndices 
+                    : Arrays.copyOf(this.currencyIndices, this.count);
+            Currency[] dictionary 
+                    = this.currencies.toArray(new Currency[0]);
+            return new MoneyBatch(cents, indices, dictionary);
+        }
+        
+        /**
+         * Auxiliary constructor. Starts with room for 16 amounts.
+         */
+        public Builder() {
+            this(16);
+        }
+        
+        /**
+         * Primary constructor.
+         * @param initialCapacity How many amounts to make room for initially. 
+         * For example, 1000000. The builder grows as needed past that.
+         * @throws IllegalArgumentException If {@code initialCapacity} is 
+         * negative.
+         */
+        public Builder(int initialCapacity) {
+            if (initialCapacity < 0) {
+                String excMsg = "Initial capacity " + initialCapacity 
+                        + " should not be negative";
+                throw new IllegalArgumentException(excMsg);
+            }
+            this.allCents = new long[initialCapacity];
+            this.currencyIndices = new int[initialCapacity];
+        }
+    
+    }
+    
+}
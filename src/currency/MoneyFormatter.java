@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Formats money amounts according to the conventions of a particular locale. 
+ * The output is the same as that of {@code 
+ * NumberFormat.getCurrencyInstance()} for the same locale, with the currency 
+ * and its default fraction digits set, but the prefixes, suffixes and 
+ * separators are worked out only once per currency, and the 
+ * digits are written directly into a {@code StringBuilder} or a {@code 
+ * ByteBuffer} supplied by the caller. This is meant for generating reports or 
+ * JSON with a lot of money amounts in them.
+ * <p>Instances of this class are thread-safe, unlike instances of {@code 
+ * NumberFormat}, so a single instance can be shared by any number of threads. 
+ * </p>
+ * @author Alonso del Arte
+ */
+public class MoneyFormatter {
+    
+    private static final long[] POWERS_OF_TEN = new long[19];
+    
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+    
+    private final Locale formatLocale;
+    
+    private final AtomicReferenceArray<Pattern> patterns 
+            = new AtomicReferenceArray<>(CurrencyMetadata.count());
+    
+    /**
+     * Retrieves the locale this formatter was constructed with.
+     * @return The locale. For example, {@code Locale.FRANCE}.
+     */
+    public Locale getLocale() {
+        return this.formatLocale;
+    }
+    
+    private Pattern patternFor(Currency currency) {
+        int ordinal = CurrencyMetadata.of(currency).getOrdinal();
+        Pattern pattern = this.patterns.get(ordinal);
+        if (pattern == null) {
+            pattern = new Pattern(currency, this.formatLocale);
+            this.patterns.set(ordinal, pattern);
+        }
+        return pattern;
+    }
+    
+    private static int countDigits(long number) {
+        if (number < 0) {
+            return 19;
+        }
+        int count = 1;
+        while (count < POWERS_OF_TEN.length 
+                && number >= POWERS_OF_TEN[count]) {
+            count++;
+        }
+        return count;
+    }
+    
+    private static long unitsOf(long magnitude, int multiplier) {
+        if (magnitude < 0) {
+            return Long.divideUnsigned(magnitude, multiplier);
+        }
+        return magnitude / multiplier;
+    }
+    
+    private static long divisionsOf(long magnitude, int multiplier) {
+        if (magnitude < 0) {
+            return Long.remainderUnsigned(magnitude, multiplier);
+        }
+        return magnitude % multiplier;
+    }
+    
+    private static int countGroupingSeparators(int unitDigits, 
+            int groupingInterval) {
+        return (unitDigits - 1) / groupingInterval;
+    }
+    
+    /**
+     * Appends a formatted money amount to a {@code StringBuilder}. The digits 
+     * are counted first, so that the builder can be lengthened once by the 
+     * exact number of characters needed. The digits are then written in 
+     * place, from right to left, so no scratch arrays or intermediate {@code 
+     * String} instances are created.
+     * @param amount The amount to format. For example, &minus;$1,234.56.
+     * @param builder The builder to append to. For example, a builder that 
+     * already contains <code>{"total":"</code>.
+     * @return The same builder. In the example, with the locale being {@code 
+     * Locale.US}, the builder would then contain 
+     * <code>{"total":"-$1,234.56</code>.
+     * @throws NullPointerException If {@code amount} or {@code builder} is 
+     * null.
+     */
+    public StringBuilder format(MoneyAmount amount, StringBuilder builder) {
+        Pattern pattern = this.patternFor(amount.getCurrency());
+        long allCents = amount.getFullAmountInCents();
+        boolean negative = allCents < 0;
+        long magnitude = negative ? -allCents : allCents;
+        long units = unitsOf(magnitude, pattern.multiplier);
+        long divisions = divisionsOf(magnitude, pattern.multiplier);
+        int unitDigits = countDigits(units);
+        int length = unitDigits + countGroupingSeparators(unitDigits, 
+                pattern.groupingInterval) + pattern.fractionLength;
+        builder.append(negative ? pattern.negativePrefix 
+                : pattern.positivePrefix);
+        int pos = builder.length() + length;
+        builder.setLength(pos);
+        for (int i = 0; i < pattern.fractionDigits; i++) {
+            builder.setCharAt(--pos, 
+                    (char) (pattern.zeroDigit + divisions % 10));
+            divisions /= 10;
+        }
+        if (pattern.fractionDigits > 0) {
+            builder.setCharAt(--pos, pattern.decimalSeparator);
+        }
+        int grouped = 0;
+        if (units < 0) {
+            builder.setCharAt(--pos, (char) (pattern.zeroDigit 
+                    + Long.remainderUnsigned(units, 10)));
+            units = Long.divideUnsigned(units, 10);
+            grouped++;
+        }
+        do {
+            if (grouped == pattern.groupingInterval) {
+                builder.setCharAt(--pos, pattern.groupingSeparator);
+                grouped = 0;
+            }
+            builder.setCharAt(--pos, (char) (pattern.zeroDigit + units % 10));
+            units /= 10;
+            grouped++;
+        } while (units != 0);
+        return builder.append(negative ? pattern.negativeSuffix 
+                : pattern.positiveSuffix);
+    }
+    
+    // Writes straight into the backing array of a heap buffer, which skips
+    // the bounds check on each byte, or through the buffer otherwise
+    private static int putBackwards(ByteBuffer buffer, byte[] array, 
+            int offset, int pos, byte[] source) {
+        for (int i = source.length - 1; i >= 0; i--) {
+            if (array == null) {
+                buffer.put(--pos, source[i]);
+            } else {
+                array[offset + --pos] = source[i];
+            }
+        }
+        return pos;
+    }
+    
+    /**
+     * Writes a formatted money amount into a {@code ByteBuffer} as UTF-8. The 
+     * number of bytes needed is worked out first. The digits are then written 
+     * in place, from right to left, so no scratch arrays or intermediate 
+     * {@code String} instances are created.
+     * @param amount The amount to format. For example, 
+     * 1&nbsp;234,56&nbsp;&euro;.
+     * @param buffer The buffer to write to, starting at its current position.
+     * @return The same buffer, with its position advanced past the formatted 
+     * amount. In the example, with the locale being {@code Locale.FRANCE}, 
+     * that would be 15 bytes, as the narrow no-break space and the euro sign 
+     * each take up 3 bytes in UTF-8.
+     * @throws java.nio.BufferOverflowException If there is not enough room 
+     * left in {@code buffer}. Nothing is written in that case.
+     * @throws java.nio.ReadOnlyBufferException If {@code buffer} is read-only.
+     * @throws NullPointerException If {@code amount} or {@code buffer} is null.
+     */
+    public ByteBuffer format(MoneyAmount amount, ByteBuffer buffer) {
+        Pattern pattern = this.patternFor(amount.getCurrency());
+        long allCents = amount.getFullAmountInCents();
+        boolean negative = allCents < 0;
+        long magnitude = negative ? -allCents : allCents;
+        long units = unitsOf(magnitude, pattern.multiplier);
+        long divisions = divisionsOf(magnitude, pattern.multiplier);
+        byte[] prefix = negative ? pattern.negativePrefixBytes 
+                : pattern.positivePrefixBytes;
+        byte[] suffix = negative ? pattern.negativeSuffixBytes 
+                : pattern.positiveSuffixBytes;
+        int unitDigits = countDigits(units);
+        int length = prefix.length + (unitDigits + pattern.fractionDigits) 
+                * pattern.digitBytes[0].length 
+                + countGroupingSeparators(unitDigits, pattern.groupingInterval) 
+                * pattern.groupingSeparatorBytes.length 
+                + (pattern.fractionDigits > 0 
+                        ? pattern.decimalSeparatorBytes.length : 0) 
+                + suffix.length;
+        if (buffer.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        buffer.put(prefix);
+        byte[] array = buffer.hasArray() ? buffer.array() : null;
+        int offset = (array == null) ? 0 : buffer.arrayOffset();
+        int pos = buffer.position() + length - prefix.length - suffix.length;
+        for (int i = 0; i < pattern.fractionDigits; i++) {
+            pos = putBackwards(buffer, array, offset, pos, 
+                    pattern.digitBytes[(int) (divisions % 10)]);
+            divisions /= 10;
+        }
+        if (pattern.fractionDigits > 0) {
+            pos = putBackwards(buffer, array, offset, pos, 
+                    pattern.decimalSeparatorBytes);
+        }
+        int grouped = 0;
+        if (units < 0) {
+            pos = putBackwards(buffer, array, offset, pos, 
+                    pattern.digitBytes[(int) Long.remainderUnsigned(units, 
+                            10)]);
+            units = Long.divideUnsigned(units, 10);
+            grouped++;
+        }
+        do {
+            if (grouped == pattern.groupingInterval) {
+                pos = putBackwards(buffer, array, offset, pos, 
+                        pattern.groupingSeparatorBytes);
+                grouped = 0;
+            }
+            pos = putBackwards(buffer, array, offset, pos, 
+                    pattern.digitBytes[(int) (units % 10)]);
+            units /= 10;
+            grouped++;
+        } while (units != 0);
+        buffer.position(buffer.position() + length - prefix.length 
+                - suffix.length);
+        return buffer.put(suffix);
+    }
+    
+    /**
+     * Formats a money amount. This is a convenience for when there is no 
+     * builder or buffer to write into.
+     * @param amount The amount to format. For example, &yen;15000.
+     * @return The formatted amount. For example, "&yen;15,000" for {@code 
+     * Locale.US}.
+     * @throws NullPointerException If {@code amount} is null.
+     */
+    public String format(MoneyAmount amount) {
+        return this.format(amount, new StringBuilder(24)).toString();
+    }
+    
+    @Override
+    public String toString() {
+        return "MoneyFormatter for " + this.formatLocale.toLanguageTag();
+    }
+    
+    /**
+     * Sole constructor.
+     * @param locale The locale to format amounts for. For example, {@code 
+     * Locale.GERMANY}.
+     * @throws NullPointerException If {@code locale} is null.
+     */
+    public MoneyFormatter(Locale locale) {
+        if (locale == null) {
+            throw new NullPointerException("Locale should not be null");
+        }
+        this.formatLocale = locale;
+    }
+    
+    private static final class Pattern {
+        
+        private final String positivePrefix;
+        
+        private final String positiveSuffix;
+        
+        private final String negativePrefix;
+        
+        private final String negativeSuffix;
+        
+        private final byte[] positivePrefixBytes;
+        
+        private final byte[] positiveSuffixBytes;
+        
+        private final byte[] negativePrefixBytes;
+        
+        private final byte[] negativeSuffixBytes;
+        
+        private final int multiplier;
+        
+        private final int fractionDigits;
+        
+        // The fraction digits and the decimal separator, if any
+        private final int fractionLength;
+        
+        private final int groupingInterval;
+        
+        private final char groupingSeparator;
+        
+        private final char decimalSeparator;
+        
+        private final char zeroDigit;
+        
+        private final byte[] groupingSeparatorBytes;
+        
+        private final byte[] decimalSeparatorBytes;
+        
+        private final byte[][] digitBytes = new byte[10][];
+        
+        private static byte[] utf8(String s) {
+            return s.getBytes(StandardCharsets.UTF_8);
+        }
+        
+        private static byte[] utf8(char ch) {
+            return utf8(String.valueOf(ch));
+        }
+        
+        private static DecimalFormat currencyFormat(Locale locale) {
+            NumberFormat format = NumberFormat.getCurrencyInstance(locale);
+            if (format instanceof DecimalFormat) {
+                return (DecimalFormat) format;
+            }
+            return new DecimalFormat("\u00A4#,##0.00", 
+                    DecimalFormatSymbols.getInstance(locale));
+        }
+        
+        Pattern(Currency currency, Locale locale) {
+            DecimalFormat format = currencyFormat(locale);
+            format.setCurrency(currency);
+            DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+            this.positivePrefix = format.getPositivePrefix();
+            this.positiveSuffix = format.getPositiveSuffix();
+            this.negativePrefix = format.getNegativePrefix();
+            this.negativeSuffix = format.getNegativeSuffix();
+            this.positivePrefixBytes = utf8(this.positivePrefix);
+            this.positiveSuffixBytes = utf8(this.positiveSuffix);
+            this.negativePrefixBytes = utf8(this.negativePrefix);
+            this.negativeSuffixBytes = utf8(this.negativeSuffix);
+            CurrencyMetadata metadata = CurrencyMetadata.of(currency);
+            this.multiplier = metadata.getMultiplier();
+            this.fractionDigits = Math.max(0, metadata.getFractionDigits());
+            this.fractionLength = this.fractionDigits > 0 
+                    ? this.fractionDigits + 1 : 0;
+            this.groupingInterval = format.isGroupingUsed() 
+                    && format.getGroupingSize() > 0 
+                    ? format.getGroupingSize() : Integer.MAX_VALUE;
+            this.groupingSeparator = symbols.getMonetaryGroupingSeparator();
+            this.decimalSeparator = symbols.getMonetaryDecimalSeparator();
+            this.zeroDigit = symbols.getZeroDigit();
+            this.groupingSeparatorBytes = utf8(this.groupingSeparator);
+            this.decimalSeparatorBytes = utf8(this.decimalSeparator);
+            for (int d = 0; d < 10; d++) {
+                this.digitBytes[d] = utf8((char) (this.zeroDigit + d));
+            }
+        }
+    
+    }
+    
+}
@@ -0,0 +1,391 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parses text into money amounts according to the conventions of a 
+ * particular locale. The digits are read straight into a number of divisions 
+ * of the unit of currency, without going through {@code BigDecimal} or 
+ * floating point. The currency is worked out from a symbol or a 3-letter 
+ * ISO-4217 code, which may come before or after the number.
+ * <p>Symbols are those the locale uses for the currencies available to the 
+ * Java runtime. Where a symbol is shared by several currencies, the locale's 
+ * own currency wins, so that "$" is the United States dollar (USD) for {@code 
+ * Locale.US} but the Canadian dollar (CAD) for {@code Locale.CANADA}. If the 
+ * text has no symbol or code at all, the locale's own currency is assumed.</p>
+ * <p>Instances of this class are immutable and thus thread-safe.</p>
+ * @author Alonso del Arte
+ */
+public class MoneyParser {
+    
+    private final Locale parseLocale;
+    
+    private final Currency localCurrency;
+    
+    private final char groupingSeparator;
+    
+    private final char decimalSeparator;
+    
+    private final char minusSign;
+    
+    private final Map<Character, Symbol[]> symbolsByFirstChar;
+    
+    /**
+     * Retrieves the locale this parser was constructed with.
+     * @return The locale. For example, {@code Locale.GERMANY}.
+     */
+    public Locale getLocale() {
+        return this.parseLocale;
+    }
+    
+    private static boolean isSkippable(char ch) {
+        return Character.isWhitespace(ch) || Character.isSpaceChar(ch) 
+                || Character.getType(ch) == Character.FORMAT;
+    }
+    
+    private static int skip(CharSequence text, int pos, int end) {
+        while (pos < end && isSkippable(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+    
+    private static int digitValue(char ch) {
+        if (ch >= '0' && ch <= '9') {
+            return ch - '0';
+        }
+        return (ch < 128) ? -1 : Character.digit(ch, 10);
+    }
+    
+    private boolean isMinus(char ch) {
+        return ch == '-' || ch == this.minusSign || ch == '\u2212';
+    }
+    
+    private boolean isGroupingSeparator(char ch) {
+        if (ch == this.groupingSeparator) {
+            return true;
+        }
+        return Character.isSpaceChar(this.groupingSeparator) 
+                && Character.isSpaceChar(ch);
+    }
+    
+    private Symbol matchSymbol(CharSequence text, int pos, int end) {
+        Symbol[] candidates = this.symbolsByFirstChar.get(text.charAt(pos));
+        if (candidates != null) {
+            for (Symbol candidate : candidates) {
+                if (candidate.matches(text, pos, end)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+    
+    private static NumberFormatException failure(CharSequence text, 
+            String reason) {
+        String excMsg = "Can't parse \"" + text + "\" as money amount: " 
+                + reason;
+        return new NumberFormatException(excMsg);
+    }
+    
+    /**
+     * Parses text into a money amount.
+     * @param text The text to parse. Examples: "$1,234.56" for {@code 
+     * Locale.US}, "1.234,56&nbsp;&euro;" for {@code Locale.GERMANY}, 
+     * "&minus;&yen;160" for {@code Locale.US}, "EUR 12.00" for any locale that 
+     * uses a period as the decimal separator.
+     * @return The money amount. In the examples, $1,234.56, 1234,56&euro;, 
+     * &minus;&yen;160, 12,00&euro;.
+     * @throws NumberFormatException If the text can't be parsed, such as if 
+     * it has no digits, or more fraction digits than the currency allows, or 
+     * a symbol or code that doesn't match any currency, or an amount too 
+     * large to be represented.
+     * @throws NullPointerException If {@code text} is null.
+     */
+    public MoneyAmount parse(CharSequence text) {
+        int end = text.length();
+        int pos = skip(text, 0, end);
+        boolean negative = false;
+        if (pos < end && this.isMinus(text.charAt(pos))) {
+            negative = true;
+            pos = skip(text, pos + 1, end);
+        }
+        Currency currency = null;
+        if (pos < end && digitValue(text.charAt(pos)) < 0) {
+            Symbol symbol = this.matchSymbol(text, pos, end);
+            if (symbol == null) {
+                throw failure(text, "unrecognized currency symbol");
+            }
+            currency = symbol.currency;
+            pos = skip(text, pos + symbol.text.length(), end);
+            if (!negative && pos < end && this.isMinus(text.charAt(pos))) {
+                negative = true;
+                pos = skip(text, pos + 1, end);
+            }
+        }
+        long units = 0L;
+        int digitCount = 0;
+        while (pos < end) {
+            char ch = text.charAt(pos);
+            int digit = digitValue(ch);
+            if (digit >= 0) {
+                if (units > (Long.MAX_VALUE - digit) / 10) {
+                    throw failure(text, "amount out of range");
+                }
+                units = units * 10 + digit;
+                digitCount++;
+            } else if (!(this.isGroupingSeparator(ch) && digitCount > 0 
+                    && pos + 1 < end 
+                    && digitValue(text.charAt(pos + 1)) >= 0)) {
+                break;
+            }
+            pos++;
+        }
+        if (digitCount == 0) {
+            throw failure(text, "no digits");
+        }
+        long fraction = 0L;
+        int fractionDigitCount = 0;
+        if (pos < end && text.charAt(pos) == this.decimalSeparator) {
+            pos++;
+            while (pos < end && digitValue(text.charAt(pos)) >= 0) {
+                if (fractionDigitCount == 18) {
+                    throw failure(text, "too many fraction digits");
+                }
+                fraction = fraction * 10 + digitValue(text.charAt(pos));
+                fractionDigitCount++;
+                pos++;
+            }
+        }
+        pos = skip(text, pos, end);
+        if (pos < end && currency == null) {
+            Symbol symbol = this.matchSymbol(text, pos, end);
+            if (symbol == null) {
+                throw failure(text, "unrecognized currency symbol");
+            }
+            currency = symbol.currency;
+            pos = skip(text, pos + symbol.text.length(), end);
+        }
+        if (pos < end) {
+            throw failure(text, "unexpected characters at end");
+        }
+        if (currency == null) {
+            if (this.localCurrency == null) {
+                throw failure(text, "no currency symbol or code");
+            }
+            currency = this.localCurrency;
+        }
+        CurrencyMetadata metadata = CurrencyMetadata.of(currency);
+        int allowedDigits = metadata.getFractionDigits();
+        while (fractionDigitCount > allowedDigits) {
+            if (fraction % 10 != 0) {
+                throw failure(text, "too many fraction digits for " 
+                        + currency.getCurrencyCode());
+            }
+            fraction /= 10;
+            fractionDigitCount--;
+        }
+        while (fractionDigitCount < allowedDigits) {
+            fraction *= 10;
+            fractionDigitCount++;
+        }
+        long allCents;
+        try {
+            allCents = Math.addExact(Math.multiplyExact(units, 
+                    metadata.getMultiplier()), fraction);
+        } catch (ArithmeticException ae) {
+            throw failure(text, "amount out of range");
+        }
+        return MoneyAmount.fromFullAmountInCents(negative ? -allCents 
+                : allCents, currency);
+    }
+    
+    /**
+     * Parses a range of UTF-8 bytes into a money amount. If the bytes are all 
+     * ASCII, they are read in place. Otherwise they are decoded first.
+     * @param bytes The array containing the bytes to parse. For example, the 
+     * bytes of a JSON document.
+     * @param offset Where in {@code bytes} the text to parse starts. For 
+     * example, 12.
+     * @param length How many bytes to parse. For example, 9, for the bytes of 
+     * "$1,234.56".
+     * @return The money amount. In the example, $1,234.56.
+     * @throws IndexOutOfBoundsException If {@code offset} and {@code length} 
+     * don't describe a range within {@code bytes}.
+     * @throws NumberFormatException If the text can't be parsed. See {@link 
+     * #parse(java.lang.CharSequence)}.
+     * @throws NullPointerException If {@code bytes} is null.
+     */
+    public MoneyAmount parse(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            String excMsg = "Range from " + offset + " of length " + length 
+                    + " is not within array of length " + bytes.length;
+            throw new IndexOutOfBoundsException(excMsg);
+        }
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] < 0) {
+                return this.parse(new String(bytes, offset, length, 
+                        StandardCharsets.UTF_8));
+            }
+        }
+        return this.parse(new AsciiSequence(bytes, offset, length));
+    }
+    
+    @Override
+    public String toString() {
+        return "MoneyParser for " + this.parseLocale.toLanguageTag();
+    }
+    
+    /**
+     * Sole constructor. The symbols for all the currencies available to the 
+     * Java runtime are looked up once here, so an instance should be reused 
+     * rather than constructed for each amount.
+     * @param locale The locale to parse amounts for. For example, {@code 
+     * Locale.GERMANY}.
+     * @throws NullPointerException If {@code locale} is null.
+     */
+    public MoneyParser(Locale locale) {
+        if (locale == null) {
+            throw new NullPointerException("Locale should not be null");
+        }
+        this.parseLocale = locale;
+        Currency local;
+        try {
+            local = Currency.getInstance(locale);
+        } catch (IllegalArgumentException iae) {
+            local = null;
+        }
+        this.localCurrency = (local != null 
+                && CurrencyMetadata.of(local).isPseudocurrency()) ? null 
+                : local;
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        this.groupingSeparator = symbols.getMonetaryGroupingSeparator();
+        this.decimalSeparator = symbols.getMonetaryDecimalSeparator();
+        this.minusSign = symbols.getMinusSign();
+        Map<String, Currency> map = new HashMap<>();
+        int count = CurrencyMetadata.count();
+        for (int i = 0; i < count; i++) {
+            CurrencyMetadata metadata = CurrencyMetadata.forOrdinal(i);
+            if (!metadata.isPseudocurrency()) {
+                Currency currency = metadata.getCurrency();
+                map.put(currency.getCurrencyCode(), currency);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            CurrencyMetadata metadata = CurrencyMetadata.forOrdinal(i);
+            Currency currency = metadata.getCurrency();
+            String symbol = currency.getSymbol(locale);
+            Currency existing = map.get(symbol);
+            boolean takenByCode = existing != null 
+                    && existing.getCurrencyCode().equals(symbol);
+            if (!metadata.isPseudocurrency() && !takenByCode 
+                    && (existing == null 
+                    || currency.equals(this.localCurrency))) {
+                map.put(symbol, currency);
+            }
+        }
+        Map<Character, List<Symbol>> grouped = new HashMap<>();
+        for (Map.Entry<String, Currency> entry : map.entrySet()) {
+            String key = entry.getKey();
+            grouped.computeIfAbsent(key.charAt(0), k -> new ArrayList<>())
+                    .add(new Symbol(key, entry.getValue()));
+        }
+        this.symbolsByFirstChar = new HashMap<>(grouped.size() * 2);
+        for (Map.Entry<Character, List<Symbol>> entry : grouped.entrySet()) {
+            List<Symbol> list = entry.getValue();
+            list.sort((a, b) -> b.text.length() - a.text.length());
+            this.symbolsByFirstChar.put(entry.getKey(), 
+                    list.toArray(new Symbol[0]));
+        }
+    }
+    
+    private static final class Symbol {
+        
+        private final String text;
+        
+        private final Currency currency;
+        
+        boolean matches(CharSequence sequence, int pos, int end) {
+            int len = this.text.length();
+            if (pos + len > end) {
+                return false;
+            }
+            for (int i = 0; i < len; i++) {
+                if (sequence.charAt(pos + i) != this.text.charAt(i)) {
+                    return false;
+                }
+            }
+            return pos + len == end 
+                    || !Character.isLetter(sequence.charAt(pos + len)) 
+                    || !Character.isLetter(this.text.charAt(len - 1));
+        }
+        
+        Symbol(String text, Currency currency) {
+            this.text = text;
+            this.currency = currency;
+        }
+    
+    }
+    
+    private static final class AsciiSequence implements CharSequence {
+        
+        private final byte[] bytes;
+        
+        private final int offset;
+        
+        private final int length;
+        
+        @Override
+        public int length() {
+            return this.length;
+        }
+        
+        @Override
+        public char charAt(int index) {
+            return (char) this.bytes[this.offset + index];
+        }
+        
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiSequence(this.bytes, this.offset + start, 
+                    end - start);
+        }
+        
+        @Override
+        public String toString() {
+            return new String(this.bytes, this.offset, this.length, 
+                    StandardCharsets.US_ASCII);
+        }
+        
+        AsciiSequence(byte[] bytes, int offset, int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+    
+    }
+    
+}
@@ -24,7 +24,8 @@ import java.util.Set;
  * java.util.Currency} but not others. To query whether or not a specific 
  * currency is supported, call {@link #supports(java.util.Currency) supports()}. 
  * For the full set of supported currencies, call {@link 
- * #supportedCurrencies()}.
+ * #supportedCurrencies()}, or {@link #supportedCurrencySet()} for a read-only 
+ * view that doesn't need to be copied.
  * @author Alonso del Arte
  */
 public interface SpecificCurrenciesSupport {
@@ -37,10 +38,25 @@ public interface SpecificCurrenciesSupport {
      */
     Set<Currency> supportedCurrencies();
     
+    /**
+     * The currencies that are supported, as an immutable {@link CurrencySet}. 
+     * A default implementation is provided that copies {@link 
+     * #supportedCurrencies()} into a new currency set each time. Classes with 
+     * a fixed set of supported currencies should override this function to 
+     * give back the same currency set each time.
+     * @return A set of currencies. For example, a set containing United States 
+     * dollars (USD), euros (EUR) and the rest of the top 20 most traded 
+     * currencies in the world.
+     */
+    default CurrencySet supportedCurrencySet() {
+        return CurrencySet.of(this.supportedCurrencies());
+    }
+    
     /**
      * Tells whether or not a specific currency is supported. A default 
-     * implementation is provided that calls {@link #supportedCurrencies()}. 
-     * This function should be overridden for classes having a more efficient 
+     * implementation is provided that calls {@link #supportedCurrencySet()}, 
+     * which is a single bit test if that function has been overridden. This 
+     * function should be overridden for classes having a more efficient 
      * way of determining whether or not a currency is supported. For the 
      * examples, suppose this instance supports the 20 most traded currencies 
      * and no others.
@@ -53,8 +69,7 @@ public interface SpecificCurrenciesSupport {
      * people do.
      */
     default boolean supports(Currency currency) {
-        Set<Currency> currencies = this.supportedCurrencies();
-        return currencies.contains(currency);
+        return this.supportedCurrencySet().contains(currency);
     }
     
 }
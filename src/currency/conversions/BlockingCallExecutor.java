@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking rate lookups for the default implementation of {@link 
+ * ExchangeRateProvider#getRateAsync(java.util.Currency, java.util.Currency)}. 
+ * On a Java runtime that has virtual threads (Java 21 and later), each lookup 
+ * gets its own virtual thread, so thousands of lookups can be in flight at 
+ * once without tying up thousands of platform threads. On earlier runtimes, 
+ * lookups share a fixed pool of {@link #FALLBACK_POOL_SIZE} daemon threads, 
+ * and any lookups beyond that wait their turn.
+ * <p>The virtual thread executor is looked up reflectively so that this 
+ * project can still be compiled for Java 17.</p>
+ * @author Alonso del Arte
+ */
+final class BlockingCallExecutor {
+    
+    /**
+     * How many threads there are in the pool used when virtual threads are 
+     * not available.
+     */
+    static final int FALLBACK_POOL_SIZE = 64;
+    
+    private static final ExecutorService EXECUTOR;
+    
+    private static final boolean VIRTUAL;
+    
+    static {
+        ExecutorService executor;
+        boolean virtual;
+        try {
+            Method factoryMethod = Executors.class 
+                    .getMethod("newVirtualThreadPerTaskExecutor");
+            executor = (ExecutorService) factoryMethod.invoke(null);
+            virtual = true;
+        } catch (ReflectiveOperationException | UnsupportedOperationException 
+                e) {
+            executor = Executors.newFixedThreadPool(FALLBACK_POOL_SIZE, 
+                    new DaemonThreadFactory());
+            virtual = false;
+        }
+        EXECUTOR = executor;
+        VIRTUAL = virtual;
+    }
+    
+    /**
+     * Gives the executor to run blocking lookups on.
+     * @return The executor. It should not be shut down.
+     */
+    static Executor get() {
+        return EXECUTOR;
+    }
+    
+    /**
+     * Tells whether blocking lookups are run on virtual threads.
+     * @return True if the Java runtime has virtual threads, false if lookups 
+     * are run on the fallback pool.
+     */
+    static boolean usesVirtualThreads() {
+        return VIRTUAL;
+    }
+    
+    private static class DaemonThreadFactory implements ThreadFactory {
+        
+        private final AtomicInteger threadCount = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "rate-lookup-" 
+                    + this.threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    
+    }
+    
+    private BlockingCallExecutor() {
+        // No instances needed
+    }
+    
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyPair;
+import currency.CurrencySet;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Gives exchange rates from another provider, keeping recent quotes in an 
+ * {@link InvertibleRateQuoteCache} so that the other provider doesn't have to 
+ * be queried again for the same pair of currencies, or for the flipped pair, 
+ * as long as the cached quote is fresh. For example, after a query for United 
+ * States dollars (USD) to euros (EUR), a query for EUR to USD within the 
+ * freshness period is answered by inverting the cached quote. This is meant to 
+ * go in front of providers that make API calls, like {@link 
+ * currency.conversions.mannys.FreeForExRateProvider}.
+ * <p>This provider also keeps count of how many rates were requested and how 
+ * many of those requests had to be passed on to the other provider. Access to 
+ * the cache and the counts is synchronized, so an instance may be shared 
+ * between threads. The lock is not held while the other provider is queried, 
+ * so a slow query holds up only the callers waiting on that same pair of 
+ * currencies. If several threads miss on the same pair at once, the other 
+ * provider is queried only once for all of them.</p>
+ * @author Alonso del Arte
+ */
+public class CachingExchangeRateProvider implements ExchangeRateProvider {
+    
+    /**
+     * The capacity of the cache if none is specified. For example, enough for 
+     * the rates from a base currency to each of the currencies that {@link 
+     * HardCodedRateProvider} supports.
+     */
+    public static final int DEFAULT_CAPACITY = 32;
+    
+    /**
+     * How long a quote stays fresh if no freshness period is specified.
+     */
+    public static final Duration DEFAULT_FRESHNESS = Duration.ofHours(1L);
+    
+    private final ExchangeRateProvider provider;
+    
+    private final Duration freshness;
+    
+    private final QuoteStore quoteCache;
+    
+    private final Map<CurrencyPair, CompletableFuture<ConversionRateQuote>> 
+            inFlight = new HashMap<>();
+    
+    private long requestCount = 0L;
+    
+    private long upstreamCallCount = 0L;
+    
+    private long inverseHitCount = 0L;
+    
+    /**
+     * Gives the provider that rates not in the cache are obtained from.
+     * @return The provider that was passed to the constructor. For example, an 
+     * instance of {@link currency.conversions.mannys.FreeForExRateProvider}.
+     */
+    public ExchangeRateProvider getProvider() {
+        return this.provider;
+    }
+    
+    /**
+     * Gives how long a cached quote is considered fresh.
+     * @return The freshness period that was passed to the constructor. For 
+     * example, 15 minutes.
+     */
+    public Duration getFreshness() {
+        return this.freshness;
+    }
+    
+    /**
+     * Gives the rate to convert one unit of the source currency to the target 
+     * currency. If the cache has a fresh quote for that pair, or for the 
+     * flipped pair, that quote is used. Otherwise the other provider is 
+     * queried and its quote is put in the cache.
+     * @param source The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param target The currency to convert to. For example, euros (EUR).
+     * @return The rate. For example, 0.8623.
+     * @throws IllegalArgumentException If the other provider gives NaN or 
+     * &plusmn;&infin;, since such a rate can't be cached.
+     * @throws NullPointerException If {@code source} or {@code target} is 
+     * null.
+     */
+    @Override
+    public double getRate(Currency source, Currency target) {
+        return this.getRate(new CurrencyPair(source, target));
+    }
+    
+    /**
+     * Gives the rate to convert one unit of the From currency of a pair to the 
+     * To currency. If the cache has a fresh quote for that pair, or for the 
+     * flipped pair, that quote is used. Otherwise the other provider is 
+     * queried and its quote is put in the cache.
+     * @param currencies The pair of currencies. For example, United States 
+     * dollars (USD) to euros (EUR).
+     * @return The rate. For example, 0.8623.
+     * @throws IllegalArgumentException If the other provider gives NaN or 
+     * &plusmn;&infin;, since such a rate can't be cached.
+     * @throws NullPointerException If {@code currencies} is null.
+     */
+    @Override
+    public double getRate(CurrencyPair currencies) {
+        if (currencies == null) {
+            String excMsg = "Currency pair should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        CurrencyPair flipped = currencies.flip();
+        CurrencyPair key = currencies;
+        CompletableFuture<ConversionRateQuote> pending;
+        boolean fetching = false;
+        synchronized (this) {
+            this.requestCount++;
+            if (!this.quoteCache.hasPair(currencies) 
+                    && this.quoteCache.hasPair(flipped)) {
+                this.inverseHitCount++;
+                key = flipped;
+            }
+            if (this.quoteCache.hasPair(key) 
+                    && !this.quoteCache.needsRefresh(key)) {
+                return this.quoteCache.retrieve(currencies).getRate();
+            }
+            if (!this.inFlight.containsKey(key) 
+                    && this.inFlight.containsKey(key.flip())) {
+                key = key.flip();
+            }
+            pending = this.inFlight.get(key);
+            if (pending == null) {
+                pending = new CompletableFuture<>();
+                this.inFlight.put(key, pending);
+                this.upstreamCallCount++;
+                fetching = true;
+            }
+        }
+        ConversionRateQuote quote = fetching ? this.fetchQuote(key, pending) 
+                : awaitQuote(pending);
+        return key.equals(currencies) ? quote.getRate() 
+                : quote.invert().getRate();
+    }
+    
+    private static ConversionRateQuote awaitQuote(
+            CompletableFuture<ConversionRateQuote> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException ce) {
+            Throwable cause = ce.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw ce;
+        }
+    }
+    
+    /**
+     * Gives the currencies supported by the other provider.
+     * @return The same set of currencies as the other provider gives.
+     */
+    @Override
+    public Set<Currency> supportedCurrencies() {
+        return this.provider.supportedCurrencies();
+    }
+    
+    /**
+     * Gives the currencies supported by the other provider, as an immutable 
+     * currency set.
+     * @return The same currency set as the other provider gives.
+     */
+    @Override
+    public CurrencySet supportedCurrencySet() {
+        return this.provider.supportedCurrencySet();
+    }
+    
+    /**
+     * Tells whether the other provider gives rates without querying a remote 
+     * source.
+     * @return The same as the other provider gives.
+     */
+    @Override
+    public boolean isLocal() {
+        return this.provider.isLocal();
+    }
+    
+    /**
+     * Tells how many rates have been requested from this provider so far.
+     * @return The number of calls to {@link #getRate(currency.CurrencyPair) 
+     * getRate()}, including the calls made through the other overloads. For 
+     * example, 20.
+     */
+    public synchronized long getRequestCount() {
+        return this.requestCount;
+    }
+    
+    /**
+     * Tells how many times the other provider has been queried so far, 
+     * whether for a pair not in the cache or to refresh a stale quote.
+     * @return The number of queries passed on to the other provider. For 
+     * example, 3.
+     */
+    public synchronized long getUpstreamCallCount() {
+        return this.upstreamCallCount;
+    }
+    
+    /**
+     * Tells how many queries to the other provider the cache has saved so far.
+     * @return The number of requests minus the number of queries to the other 
+     * provider. In the example, 17.
+     */
+    public synchronized long getCallsSaved() {
+        return this.requestCount - this.upstreamCallCount;
+    }
+    
+    /**
+     * Tells how many requests were for a pair of currencies not in the cache 
+     * when the flipped pair was. Unless the flipped quote was stale, each of 
+     * these requests was answered by inverting the flipped quote.
+     * @return The number of requests that found the flipped pair in the 
+     * cache. For example, 9.
+     */
+    public synchronized long getInverseHitCount() {
+        return this.inverseHitCount;
+    }
+    
+    // Called without holding the lock, so that other pairs can be served
+    // from the cache while the other provider is being queried
+    private ConversionRateQuote fetchQuote(CurrencyPair currencies, 
+            CompletableFuture<ConversionRateQuote> pending) {
+        ConversionRateQuote quote;
+        try {
+            double rate = this.provider.getRate(currencies.getFromCurrency(), 
+                    currencies.getToCurrency());
+            quote = new ConversionRateQuote(currencies, rate);
+        } catch (RuntimeException re) {
+            synchronized (this) {
+                this.inFlight.remove(currencies);
+            }
+            pending.completeExceptionally(re);
+            throw re;
+        }
+        synchronized (this) {
+            this.quoteCache.store(quote);
+            this.inFlight.remove(currencies);
+        }
+        pending.complete(quote);
+        return quote;
+    }
+    
+    /**
+     * Constructor with default capacity and default freshness period.
+     * @param rateProvider The provider to get rates not in the cache from. For 
+     * example, an instance of {@link 
+     * currency.conversions.mannys.FreeForExRateProvider}.
+     * @throws NullPointerException If {@code rateProvider} is null.
+     */
+    public CachingExchangeRateProvider(ExchangeRateProvider rateProvider) {
+        this(rateProvider, DEFAULT_CAPACITY, DEFAULT_FRESHNESS);
+    }
+    
+    /**
+     * Primary constructor.
+     * @param rateProvider The provider to get rates not in the cache from. For 
+     * example, an instance of {@link 
+     * currency.conversions.mannys.FreeForExRateProvider}.
+     * @param capacity How many quotes the cache can hold. For example, 64. 
+     * Should be at least {@link cacheops.LRUCache#MINIMUM_CAPACITY} but not 
+     * more than {@link cacheops.LRUCache#MAXIMUM_CAPACITY}.
+     * @param freshnessPeriod How long a cached quote can be used before the 
+     * other provider has to be queried again. For example, 15 minutes. May be 
+     * 0, in which case every request is passed on to the other provider.
+     * @throws IllegalArgumentException If {@code capacity} is less than {@link 
+     * cacheops.LRUCache#MINIMUM_CAPACITY} or more than {@link 
+     * cacheops.LRUCache#MAXIMUM_CAPACITY}, or if {@code freshnessPeriod} is 
+     * negative.
+     * @throws NullPointerException If {@code rateProvider} or {@code 
+     * freshnessPeriod} is null.
+     */
+    public CachingExchangeRateProvider(ExchangeRateProvider rateProvider, 
+            int capacity, Duration freshnessPeriod) {
+        if (rateProvider == null || freshnessPeriod == null) {
+            String excMsg = "Rate provider, freshness period should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (freshnessPeriod.isNegative()) {
+            String excMsg = "Freshness period " + freshnessPeriod 
+                    + " should not be negative";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.provider = rateProvider;
+        this.freshness = freshnessPeriod;
+        this.quoteCache = new QuoteStore(capacity, freshnessPeriod);
+    }
+            
+    /**
+     * The cache proper. It never queries the other provider itself. Quotes 
+     * are put in with {@link #store(ConversionRateQuote)} once they've been 
+     * fetched, and looked up with {@code retrieve()} only when they're known 
+     * to be in the cache and fresh.
+     */
+    private static class QuoteStore extends InvertibleRateQuoteCache {
+        
+        private final Duration freshness;
+        
+        private ConversionRateQuote incoming = null;
+        
+        @Override
+        public boolean needsRefresh(CurrencyPair currencies) {
+            for (int i = 0; i < this.names.length; i++) {
+                if (currencies.equals(this.names[i])) {
+                    LocalDateTime expiry 
+                            = ((ConversionRateQuote) this.values[i])
+                                    .getDate().plus(this.freshness);
+                    return !expiry.isAfter(LocalDateTime.now());
+                }
+            }
+            return false;
+        }
+            
+        @Override
+        protected ConversionRateQuote create(CurrencyPair currencies) {
+            if (this.incoming == null) {
+                String excMsg = "No fetched quote for " + currencies.toString() 
+                        + " to put in the cache";
+                throw new IllegalStateException(excMsg);
+            }
+            return this.incoming;
+        }
+        
+        // If the flipped pair got in the cache while the quote was being
+        // fetched, the quote is stored inverted in place of the flipped quote
+        void store(ConversionRateQuote quote) {
+            CurrencyPair currencies = quote.getCurrencies();
+            if (!this.hasPair(currencies) 
+                    && this.hasPair(currencies.flip())) {
+                quote = quote.invert();
+                currencies = quote.getCurrencies();
+            }
+            this.incoming = quote;
+            try {
+                if (this.hasPair(currencies)) {
+                    this.refresh(currencies);
+                }
+                this.retrieve(currencies);
+            } finally {
+                this.incoming = null;
+            }
+        }
+        
+        QuoteStore(int capacity, Duration freshnessPeriod) {
+            super(capacity);
+            this.freshness = freshnessPeriod;
+        }
+    
+    }
+    
+}
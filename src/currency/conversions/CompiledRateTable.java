@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyMetadata;
+import currency.CurrencyPair;
+import currency.CurrencySet;
+import currency.UnsupportedCurrencyException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * An immutable table of the rates to convert each of a number of currencies 
+ * to each of the others, with any weights already applied. Tables are put 
+ * together by a {@link RateTableCompiler} from a chain of providers, such as a 
+ * {@link WeightedExchangeRateProvider} around a {@link 
+ * CachingExchangeRateProvider} around a network provider.
+ * <p>The rates are held in a single primitive array, one row per source 
+ * currency, and the row and column for a currency are found by its {@link 
+ * CurrencyMetadata#getOrdinal() ordinal}. So getting a rate takes two array 
+ * lookups and no calls to other providers, and creates no objects. Since this 
+ * class implements {@link ExchangeRateProvider}, a table can stand in for the 
+ * chain it was compiled from, but it will throw an {@link 
+ * UnsupportedCurrencyException} for any currency it was not compiled for.</p>
+ * @author Alonso del Arte
+ */
+public final class CompiledRateTable implements ExchangeRateProvider {
+    
+    private final CurrencySet currencies;
+    
+    private final int[] indicesByOrdinal;
+    
+    private final double[] rates;
+    
+    private final int size;
+    
+    private final LocalDateTime compileTime;
+    
+    /**
+     * Tells when this table was compiled.
+     * @return The time of the compilation. For example, 9:30 a.m. on October 
+     * 19, 2026.
+     */
+    public LocalDateTime getTimestamp() {
+        return this.compileTime;
+    }
+    
+    /**
+     * Tells how many currencies this table has rates for.
+     * @return The number of currencies. For example, 24. The table then has 
+     * 576 rates, counting the rates of the currencies to themselves.
+     */
+    public int size() {
+        return this.size;
+    }
+    
+    private int indexOf(Currency currency, String role) {
+        int ordinal = CurrencyMetadata.of(currency).getOrdinal();
+        int index = this.indicesByOrdinal[ordinal];
+        if (index < 0) {
+            String excMsg = "Compiled rate table has no rates for " + role 
+                    + " " + currency.getDisplayName() + " (" 
+                    + currency.getCurrencyCode() + ")";
+            throw new UnsupportedCurrencyException(currency, excMsg);
+        }
+        return index;
+    }
+    
+    /**
+     * Gives the compiled rate to convert one unit of the source currency to 
+     * the target currency.
+     * @param source The source to convert from. For example, United States 
+     * dollars (USD).
+     * @param target The target to convert one unit of {@code source} to. For 
+     * example, Japanese yen (JPY).
+     * @return The rate with all weights applied, as it was at the time of the 
+     * compilation. For example, 1.586152, if the rate was 158.6152 and JPY 
+     * was weighted to 0.01.
+     * @throws UnsupportedCurrencyException If this table was not compiled for 
+     * {@code source} or {@code target}.
+     * @throws NullPointerException If {@code source} or {@code target} is 
+     * null.
+     */
+    @Override
+    public double getRate(Currency source, Currency target) {
+        int row = this.indexOf(source, "source");
+        return this.rates[row * this.size + this.indexOf(target, "target")];
+    }
+    
+    /**
+     * Gives the compiled rate to convert one unit of the source currency to 
+     * the target currency.
+     * @param currencies The pair of currencies, source and target. For 
+     * example, United States dollars (USD) and Japanese yen (JPY).
+     * @return The rate with all weights applied, as it was at the time of the 
+     * compilation. For example, 1.586152.
+     * @throws UnsupportedCurrencyException If this table was not compiled for 
+     * either currency of the pair.
+     * @throws NullPointerException If {@code currencies} is null.
+     */
+    @Override
+    public double getRate(CurrencyPair currencies) {
+        return this.getRate(currencies.getFromCurrency(), 
+                currencies.getToCurrency());
+    }
+    
+    /**
+     * Gives the compiled rates to convert one unit of a base currency to each 
+     * of a number of target currencies. The rates are copied straight out of 
+     * the row for the base currency.
+     * @param base The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param targets The currencies to convert to. For example, euros (EUR) 
+     * and Japanese yen (JPY).
+     * @return The rates with all weights applied. For example, 0.8623 for EUR 
+     * and 1.586152 for JPY.
+     * @throws UnsupportedCurrencyException If this table was not compiled for 
+     * {@code base} or any of {@code targets}.
+     * @throws NullPointerException If {@code base} or {@code targets} is null, 
+     * or if {@code targets} contains null.
+     */
+    @Override
+    public RateVector getRates(Currency base, Collection<Currency> targets) {
+        int offset = this.indexOf(base, "source") * this.size;
+        RateVector.Builder builder = new RateVector.Builder(base);
+        for (Currency target : targets) {
+            builder.put(target, 
+                    this.rates[offset + this.indexOf(target, "target")]);
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Gives the currencies this table has rates for.
+     * @return A new set of the currencies. The caller is free to modify this 
+     * set.
+     */
+    @Override
+    public Set<Currency> supportedCurrencies() {
+        return new HashSet<>(this.currencies);
+    }
+    
+    /**
+     * Gives the currencies this table has rates for, as an immutable currency 
+     * set. This is the same set every time.
+     * @return The currencies the table was compiled for.
+     */
+    @Override
+    public CurrencySet supportedCurrencySet() {
+        return this.currencies;
+    }
+    
+    /**
+     * Tells whether this table gives rates without querying a remote source. 
+     * The rates are all in the table, so they're always local.
+     * @return Always true.
+     */
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+    
+    @Override
+    public String toString() {
+        return "Compiled rate table of " + this.size 
+                + " currencies compiled at " + this.compileTime.toString();
+    }
+    
+    /**
+     * Sole constructor. Only {@link RateTableCompiler} is expected to call 
+     * this, after working out the rates.
+     * @param currencies The currencies the table is for.
+     * @param rates The rates, one row per source currency, in the order given 
+     * by iterating {@code currencies}. This array is not copied.
+     * @param timestamp The time the compilation started.
+     */
+    CompiledRateTable(CurrencySet currencies, double[] rates, 
+            LocalDateTime timestamp) {
+        this.currencies = currencies;
+        this.size = currencies.size();
+        this.indicesByOrdinal = new int[CurrencyMetadata.count()];
+        Arrays.fill(this.indicesByOrdinal, -1);
+        int index = 0;
+        for (Currency currency : currencies) {
+            this.indicesByOrdinal[CurrencyMetadata.of(currency).getOrdinal()] 
+                    = index++;
+        }
+        this.rates = rates;
+        this.compileTime = timestamp;
+    }
+    
+}
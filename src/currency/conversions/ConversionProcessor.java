@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.MoneyAmount;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Converts amounts of money published by some upstream publisher and passes 
+ * them on to a single downstream subscriber. This honors backpressure: each 
+ * amount the downstream subscriber requests is requested from upstream, and 
+ * nothing more, so no amounts ever pile up in this processor. The conversions 
+ * are done by a {@link ConversionStage}, so the exchange rate provider is 
+ * queried only once for each distinct source currency.
+ * <p>Only one subscriber is allowed. A second subscriber is told of an {@code 
+ * IllegalStateException} through its {@code onError()}. If a conversion fails, 
+ * the upstream subscription is cancelled and the downstream subscriber is 
+ * told of the exception.</p>
+ * @author Alonso del Arte
+ */
+public class ConversionProcessor 
+        implements Flow.Processor<MoneyAmount, MoneyAmount> {
+    
+    private final ConversionStage conversionStage;
+    
+    private final Object lock = new Object();
+    
+    private Flow.Subscription upstream = null;
+    
+    private Flow.Subscriber<? super MoneyAmount> downstream = null;
+    
+    private long pendingDemand = 0L;
+    
+    private boolean cancelled = false;
+    
+    private volatile boolean done = false;
+    
+    private Throwable pendingError = null;
+    
+    private boolean pendingCompletion = false;
+    
+    /**
+     * Subscribes a subscriber to the converted amounts. Only one subscriber 
+     * is allowed.
+     * @param subscriber The subscriber. For example, a subscriber that writes 
+     * the converted amounts to a file.
+     * @throws NullPointerException If {@code subscriber} is null.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super MoneyAmount> subscriber) {
+        if (subscriber == null) {
+            String excMsg = "Subscriber should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        boolean accepted;
+        synchronized (this.lock) {
+            accepted = this.downstream == null;
+            if (accepted) {
+                this.downstream = subscriber;
+            }
+        }
+        if (!accepted) {
+            subscriber.onSubscribe(new RejectedSubscription());
+            String excMsg = "This processor already has a subscriber";
+            subscriber.onError(new IllegalStateException(excMsg));
+            return;
+        }
+        subscriber.onSubscribe(new DownstreamSubscription());
+        Throwable error;
+        boolean completion;
+        synchronized (this.lock) {
+            error = this.pendingError;
+            completion = this.pendingCompletion;
+            this.pendingError = null;
+            this.pendingCompletion = false;
+        }
+        if (error != null) {
+            subscriber.onError(error);
+        } else if (completion) {
+            subscriber.onComplete();
+        }
+    }
+    
+    /**
+     * Receives the upstream subscription. Any demand the downstream 
+     * subscriber has already signaled is passed on to it. If there already is 
+     * an upstream subscription, the new one is cancelled.
+     * @param subscription The upstream subscription.
+     * @throws NullPointerException If {@code subscription} is null.
+     */
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (subscription == null) {
+            String excMsg = "Subscription should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        boolean accepted;
+        boolean cancel;
+        long demand;
+        synchronized (this.lock) {
+            accepted = this.upstream == null;
+            if (accepted) {
+                this.upstream = subscription;
+            }
+            cancel = this.cancelled;
+            demand = this.pendingDemand;
+            this.pendingDemand = 0L;
+        }
+        if (!accepted || cancel) {
+            subscription.cancel();
+        } else if (demand > 0L) {
+            subscription.request(demand);
+        }
+    }
+    
+    /**
+     * Converts an amount and passes it on to the downstream subscriber.
+     * @param item The amount to convert. For example, $100.00.
+     */
+    @Override
+    public void onNext(MoneyAmount item) {
+        if (this.done) {
+            return;
+        }
+        MoneyAmount converted;
+        try {
+            converted = this.conversionStage.apply(item);
+        } catch (RuntimeException re) {
+            this.done = true;
+            this.upstream.cancel();
+            this.downstream.onError(re);
+            return;
+        }
+        this.downstream.onNext(converted);
+    }
+    
+    /**
+     * Passes an upstream error on to the downstream subscriber. If there is 
+     * no downstream subscriber yet, the error is held until there is one.
+     * @param throwable The error.
+     */
+    @Override
+    public void onError(Throwable throwable) {
+        if (this.done) {
+            return;
+        }
+        this.done = true;
+        Flow.Subscriber<? super MoneyAmount> subscriber;
+        synchronized (this.lock) {
+            subscriber = this.downstream;
+            if (subscriber == null) {
+                this.pendingError = throwable;
+            }
+        }
+        if (subscriber != null) {
+            subscriber.onError(throwable);
+        }
+    }
+    
+    /**
+     * Passes the completion of the upstream publisher on to the downstream 
+     * subscriber. If there is no downstream subscriber yet, the completion is 
+     * held until there is one.
+     */
+    @Override
+    public void onComplete() {
+        if (this.done) {
+            return;
+        }
+        this.done = true;
+        Flow.Subscriber<? super MoneyAmount> subscriber;
+        synchronized (this.lock) {
+            subscriber = this.downstream;
+            if (subscriber == null) {
+                this.pendingCompletion = true;
+            }
+        }
+        if (subscriber != null) {
+            subscriber.onComplete();
+        }
+    }
+    
+    private class DownstreamSubscription implements Flow.Subscription {
+        
+        @Override
+        public void request(long n) {
+            if (n <= 0L) {
+                this.cancel();
+                String excMsg = "Request for " + n 
+                        + " items is not valid, should be positive";
+                ConversionProcessor.this.onError(
+                        new IllegalArgumentException(excMsg));
+                return;
+            }
+            Flow.Subscription subscription;
+            synchronized (ConversionProcessor.this.lock) {
+                subscription = ConversionProcessor.this.upstream;
+                if (subscription == null) {
+                    long demand = ConversionProcessor.this.pendingDemand + n;
+                    ConversionProcessor.this.pendingDemand 
+                            = (demand < 0L) ? Long.MAX_VALUE : demand;
+                }
+            }
+            if (subscription != null) {
+                subscription.request(n);
+            }
+        }
+        
+        @Override
+        public void cancel() {
+            Flow.Subscription subscription;
+            synchronized (ConversionProcessor.this.lock) {
+                ConversionProcessor.this.cancelled = true;
+                subscription = ConversionProcessor.this.upstream;
+            }
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    
+    }
+    
+    private static class RejectedSubscription implements Flow.Subscription {
+        
+        @Override
+        public void request(long n) {
+            // Nothing to request
+        }
+        
+        @Override
+        public void cancel() {
+            // Nothing to cancel
+        }
+    
+    }
+    
+    /**
+     * Constructor.
+     * @param stage The stage to do the conversions with. For example, a stage 
+     * converting to euros (EUR). The stage should not be used for anything 
+     * else while this processor is in use.
+     * @throws NullPointerException If {@code stage} is null.
+     */
+    public ConversionProcessor(ConversionStage stage) {
+        if (stage == null) {
+            String excMsg = "Stage should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.conversionStage = stage;
+    }
+    
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyMetadata;
+import currency.MoneyAmount;
+import currency.UnsupportedCurrencyException;
+
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Converts amounts of money against a single {@link RateSnapshot}, so that 
+ * every conversion in a batch uses the same rates no matter how long the batch 
+ * takes or whether the live provider refreshes in the meantime. For example, 
+ * every line of a quarterly report converted at the rates as of the close of 
+ * the quarter. No exchange rate provider is queried after the session is 
+ * opened, and since the snapshot is immutable, a session may be used by 
+ * several threads at once.
+ * @author Alonso del Arte
+ */
+public final class ConversionSession {
+    
+    private final RateSnapshot rateSnapshot;
+    
+    private final RoundingMode roundingMode;
+    
+    /**
+     * Gives the snapshot this session converts against.
+     * @return The snapshot. For example, rates from USD, GBP and JPY to EUR.
+     */
+    public RateSnapshot getSnapshot() {
+        return this.rateSnapshot;
+    }
+    
+    /**
+     * Tells when the rates this session uses were captured. This is the same 
+     * as {@code getSnapshot().getTimestamp()}.
+     * @return The time of the capture. For example, 9:30 a.m. on October 19, 
+     * 2026.
+     */
+    public LocalDateTime getTimestamp() {
+        return this.rateSnapshot.getTimestamp();
+    }
+    
+    /**
+     * Gives the target currency of this session.
+     * @return The target currency. For example, euros (EUR).
+     */
+    public Currency getTarget() {
+        return this.rateSnapshot.getTarget();
+    }
+    
+    /**
+     * Converts an amount of money to a number of divisions of the unit of the 
+     * target currency, at the rate in the snapshot.
+     * @param source The amount to convert. For example, $100.00.
+     * @return The number of divisions of the unit of the target currency. For 
+     * example, 9082, meaning 90,82&euro;.
+     * @throws ArithmeticException If the rounding mode of this session is 
+     * {@code RoundingMode.UNNECESSARY} but rounding is necessary, or if the 
+     * converted amount is too large for a <code>long</code>.
+     * @throws UnsupportedCurrencyException If the snapshot has no rate for the 
+     * currency of {@code source}.
+     * @throws NullPointerException If {@code source} is null.
+     */
+    public long convertToCents(MoneyAmount source) {
+        Currency sourceCurrency = source.getCurrency();
+        double rate = this.rateSnapshot.getRate(sourceCurrency);
+        return CurrencyConverter.convertCents(source.getFullAmountInCents(), 
+                sourceCurrency, this.rateSnapshot.getTarget(), rate, 
+                this.roundingMode);
+    }
+    
+    /**
+     * Converts an amount of money to the target currency, at the rate in the 
+     * snapshot.
+     * @param source The amount to convert. For example, $100.00.
+     * @return The converted amount. For example, 90,82&euro;.
+     * @throws ArithmeticException If the rounding mode of this session is 
+     * {@code RoundingMode.UNNECESSARY} but rounding is necessary, or if the 
+     * converted amount is too large to represent.
+     * @throws UnsupportedCurrencyException If the snapshot has no rate for the 
+     * currency of {@code source}.
+     * @throws NullPointerException If {@code source} is null.
+     */
+    public MoneyAmount convert(MoneyAmount source) {
+        return MoneyAmount.fromFullAmountInCents(this.convertToCents(source), 
+                this.rateSnapshot.getTarget());
+    }
+    
+    /**
+     * Converts several amounts of money to the target currency, at the rates 
+     * in the snapshot.
+     * @param sources The amounts to convert. For example, $100.00, 
+     * &pound;50.00 and $20.00.
+     * @return The converted amounts, in the same order as {@code sources}. For 
+     * example, 90,82&euro;, 58,41&euro; and 18,16&euro;.
+     * @throws ArithmeticException If the rounding mode of this session is 
+     * {@code RoundingMode.UNNECESSARY} but rounding is necessary, or if a 
+     * converted amount is too large to represent.
+     * @throws UnsupportedCurrencyException If the snapshot has no rate for the 
+     * currency of one of the amounts in {@code sources}.
+     * @throws NullPointerException If {@code sources} is null or contains 
+     * null.
+     */
+    public MoneyAmount[] convertAll(MoneyAmount[] sources) {
+        MoneyAmount[] results = new MoneyAmount[sources.length];
+        this.convertRange(sources, results, 0, sources.length);
+        return results;
+    }
+    
+    /**
+     * Converts several amounts of money to the target currency, at the rates 
+     * in the snapshot, writing the results into an array supplied by the 
+     * caller.
+     * @param sources The amounts to convert. For example, $100.00, 
+     * &pound;50.00 and $20.00. The array is not modified.
+     * @param results The array to write the converted amounts into, in the 
+     * same order as {@code sources}. It must be at least as long as {@code 
+     * sources}; any positions past the length of {@code sources} are left 
+     * alone. In the example, this would get 90,82&euro;, 58,41&euro; and 
+     * 18,16&euro;.
+     * @throws ArithmeticException If the rounding mode of this session is 
+     * {@code RoundingMode.UNNECESSARY} but rounding is necessary, or if a 
+     * converted amount is too large to represent.
+     * @throws IllegalArgumentException If {@code results} is shorter than 
+     * {@code sources}.
+     * @throws UnsupportedCurrencyException If the snapshot has no rate for the 
+     * currency of one of the amounts in {@code sources}.
+     * @throws NullPointerException If {@code sources} or {@code results} is 
+     * null, or if {@code sources} contains null.
+     */
+    public void convertAll(MoneyAmount[] sources, MoneyAmount[] results) {
+        checkResultsLength(sources, results);
+        this.convertRange(sources, results, 0, sources.length);
+    }
+    
+    /**
+     * Converts a collection of amounts of money to the target currency, at 
+     * the rates in the snapshot.
+     * @param sources The amounts to convert. For example, $100.00, 
+     * &pound;50.00 and $20.00.
+     * @return The converted amounts, in the iteration order of {@code 
+     * sources}. For example, 90,82&euro;, 58,41&euro; and 18,16&euro;.
+     * @throws ArithmeticException If the rounding mode of this session is 
+     * {@code RoundingMode.UNNECESSARY} but rounding is necessary, or if a 
+     * converted amount is too large to represent.
+     * @throws UnsupportedCurrencyException If the snapshot has no rate for the 
+     * currency of one of the amounts in {@code sources}.
+     * @throws NullPointerException If {@code sources} is null or contains 
+     * null.
+     */
+    public List<MoneyAmount> convertAll(Collection<MoneyAmount> sources) {
+        MoneyAmount[] amounts = sources.toArray(new MoneyAmount[0]);
+        return Arrays.asList(this.convertAll(amounts));
+    }
+    
+    // Converts the sources from start up to but not including end into the
+    // same positions of results. The rate is only looked up again when the
+    // currency changes from one amount to the next, since ledgers tend to
+    // have long runs of amounts in the same currency
+    void convertRange(MoneyAmount[] sources, MoneyAmount[] results, 
+            int start, int end) {
+        Currency target = this.rateSnapshot.getTarget();
+        Currency previousCurrency = null;
+        double rate = Double.NaN;
+        for (int i = start; i < end; i++) {
+            Currency sourceCurrency = sources[i].getCurrency();
+            if (sourceCurrency != previousCurrency) {
+                rate = this.rateSnapshot.getRate(sourceCurrency);
+                previousCurrency = sourceCurrency;
+            }
+            long cents = CurrencyConverter.convertCents(
+                    sources[i].getFullAmountInCents(), sourceCurrency, target, 
+                    rate, this.roundingMode);
+            results[i] = MoneyAmount.fromFullAmountInCents(cents, target);
+        }
+    }
+    
+    static void checkResultsLength(MoneyAmount[] sources, 
+            MoneyAmount[] results) {
+        if (results.length < sources.length) {
+            String excMsg = "Results array of length " + results.length 
+                    + " is too short for " + sources.length + " amounts";
+            throw new IllegalArgumentException(excMsg);
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "Conversion session on " + this.rateSnapshot.toString() 
+                + ", rounding " + this.roundingMode.toString();
+    }
+    
+    /**
+     * Constructor. Any fraction of the smallest division of the target 
+     * currency is dropped, rounding toward negative infinity, the same as 
+     * {@link CurrencyConverter#convert(currency.MoneyAmount, 
+     * java.util.Currency)}.
+     * @param snapshot The snapshot to convert against. For example, rates from 
+     * USD, GBP and JPY to EUR.
+     * @throws NullPointerException If {@code snapshot} is null.
+     */
+    public ConversionSession(RateSnapshot snapshot) {
+        this(snapshot, RoundingMode.FLOOR);
+    }
+    
+    /**
+     * Constructor with a rounding mode.
+     * @param snapshot The snapshot to convert against. For example, rates from 
+     * USD, GBP and JPY to EUR.
+     * @param roundingMode How to round off any fraction of the smallest 
+     * division of the target currency. For example, {@code 
+     * RoundingMode.HALF_EVEN}.
+     * @throws IllegalArgumentException If the target currency of {@code 
+     * snapshot} is a pseudocurrency like gold (XAU).
+     * @throws NullPointerException If {@code snapshot} or {@code 
+     * roundingMode} is null.
+     */
+    public ConversionSession(RateSnapshot snapshot, RoundingMode roundingMode) {
+        if (snapshot == null) {
+            String excMsg = "Rate snapshot should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (roundingMode == null) {
+            String excMsg = "Rounding mode should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        CurrencyMetadata.ofSupported(snapshot.getTarget());
+        this.rateSnapshot = snapshot;
+        this.roundingMode = roundingMode;
+    }
+    
+}
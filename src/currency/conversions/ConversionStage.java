@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyMetadata;
+import currency.MoneyAmount;
+
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Converts amounts of money to a target currency one at a time, as they come 
+ * in from some source, without first gathering them all up into a list. The 
+ * exchange rate provider is queried the first time each source currency comes 
+ * up, and that rate is then used for all further amounts in that currency. So, 
+ * for example, streaming a million ledger lines in a dozen currencies through 
+ * a stage takes a dozen queries, and the stage holds on to nothing but a dozen 
+ * rates no matter how many lines go through it.
+ * <p>Since the rates are fixed once they're first seen, a stage should be used 
+ * for one job and then dropped. A new stage will query the provider again. 
+ * Instances are not safe for use by multiple threads at once; for converting 
+ * on several threads, use {@link 
+ * CurrencyConverter#convertAllParallel(currency.MoneyAmount[], 
+ * java.util.Currency)} instead.</p>
+ * @author Alonso del Arte
+ */
+public final class ConversionStage implements Function<MoneyAmount, 
+        MoneyAmount> {
+    
+    private final ExchangeRateProvider exchangeRateProvider;
+    
+    private final Currency targetCurrency;
+    
+    private final RoundingMode roundingMode;
+    
+    private final double[] ratesByOrdinal;
+    
+    private Currency previousCurrency = null;
+    
+    private double previousRate = Double.NaN;
+    
+    /**
+     * Gives the target currency of this stage.
+     * @return The target currency. For example, euros (EUR).
+     */
+    public Currency getTarget() {
+        return this.targetCurrency;
+    }
+    
+    // Ledgers tend to have runs of the same currency, so checking the previous
+    // currency first saves a metadata lookup for most amounts
+    private double rateFor(Currency sourceCurrency) {
+        if (sourceCurrency == this.previousCurrency) {
+            return this.previousRate;
+        }
+        int ordinal = CurrencyMetadata.of(sourceCurrency).getOrdinal();
+        double rate = this.ratesByOrdinal[ordinal];
+        if (Double.isNaN(rate)) {
+            rate = this.exchangeRateProvider.getRate(sourceCurrency, 
+                    this.targetCurrency);
+            this.ratesByOrdinal[ordinal] = rate;
+        }
+        this.previousCurrency = sourceCurrency;
+        this.previousRate = rate;
+        return rate;
+    }
+    
+    /**
+     * Converts an amount of money to the target currency of this stage. The 
+     * exchange rate provider is only queried if this is the first amount in 
+     * its currency that this stage has seen.
+     * @param source The amount of money to convert. For example, $100.00.
+     * @return The converted amount. For example, 90,82&euro;.
+     * @throws ArithmeticException If the rounding mode given to the 
+     * constructor is {@code RoundingMode.UNNECESSARY} but rounding is 
+     * necessary, or if the converted amount is too large to represent.
+     * @throws IllegalArgumentException If the source or target currency is a 
+     * pseudocurrency like gold (XAU), or if the rate provider gives a 
+     * negative, infinite or NaN rate.
+     * @throws NullPointerException If {@code source} is null.
+     */
+    @Override
+    public MoneyAmount apply(MoneyAmount source) {
+        Currency sourceCurrency = source.getCurrency();
+        double rate = this.rateFor(sourceCurrency);
+        long cents = CurrencyConverter.convertCents(
+                source.getFullAmountInCents(), sourceCurrency, 
+                this.targetCurrency, rate, this.roundingMode);
+        return MoneyAmount.fromFullAmountInCents(cents, this.targetCurrency);
+    }
+    
+    /**
+     * Wraps an iterator of amounts of money in an iterator of converted 
+     * amounts. Nothing is read from {@code sources} until it's asked for, and 
+     * each amount is converted only as it's taken from the returned iterator.
+     * @param sources The amounts to convert. For example, an iterator over the 
+     * lines of a ledger being read in from a file.
+     * @return An iterator that gives the converted amounts, in the same order 
+     * as {@code sources}. It supports removal only if {@code sources} does.
+     * @throws NullPointerException If {@code sources} is null.
+     */
+    public Iterator<MoneyAmount> convert(
+            Iterator<? extends MoneyAmount> sources) {
+        if (sources == null) {
+            String excMsg = "Source iterator should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        return new Iterator<MoneyAmount>() {
+            
+            @Override
+            public boolean hasNext() {
+                return sources.hasNext();
+            }
+            
+            @Override
+            public MoneyAmount next() {
+                return ConversionStage.this.apply(sources.next());
+            }
+            
+            @Override
+            public void remove() {
+                sources.remove();
+            }
+        
+        };
+    }
+    
+    /**
+     * Adds this stage to a stream of amounts of money. This is simply {@code 
+     * sources.map(this)}, so the conversion is as lazy as the rest of the 
+     * stream. The stream should be sequential, as this stage is not safe for 
+     * use by multiple threads at once.
+     * @param sources The amounts to convert. For example, a stream of the 
+     * lines of a ledger being read in from a file.
+     * @return A stream of the converted amounts.
+     * @throws NullPointerException If {@code sources} is null.
+     */
+    public Stream<MoneyAmount> convert(Stream<? extends MoneyAmount> sources) {
+        return sources.map(this);
+    }
+    
+    /**
+     * Constructor. Any fraction of the smallest division of the target 
+     * currency is dropped, rounding toward negative infinity, the same as 
+     * {@link CurrencyConverter#convert(currency.MoneyAmount, 
+     * java.util.Currency)}.
+     * @param converter The converter whose exchange rate provider is to be 
+     * queried. For example, a converter using an instance of {@link 
+     * HardCodedRateProvider}.
+     * @param target The target currency. For example, euros (EUR).
+     * @throws NullPointerException If {@code converter} or {@code target} is 
+     * null.
+     */
+    public ConversionStage(CurrencyConverter converter, Currency target) {
+        this(converter, target, RoundingMode.FLOOR);
+    }
+    
+    /**
+     * Constructor with a rounding mode.
+     * @param converter The converter whose exchange rate provider is to be 
+     * queried. For example, a converter using an instance of {@link 
+     * HardCodedRateProvider}.
+     * @param target The target currency. For example, euros (EUR).
+     * @param roundingMode How to round off any fraction of the smallest 
+     * division of the target currency. For example, {@code 
+     * RoundingMode.HALF_EVEN}.
+     * @throws NullPointerException If {@code converter}, {@code target} or 
+     * {@code roundingMode} is null.
+     */
+    public ConversionStage(CurrencyConverter converter, Currency target, 
+            RoundingMode roundingMode) {
+        if (target == null) {
+            String excMsg = "Target currency should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (roundingMode == null) {
+            String excMsg = "Rounding mode should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.exchangeRateProvider = converter.getProvider();
+        this.targetCurrency = target;
+        this.roundingMode = roundingMode;
+        this.ratesByOrdinal = OrdinalRates.emptyTable();
+    }
+    
+}
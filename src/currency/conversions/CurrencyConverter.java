@@ -16,9 +16,17 @@
  */
 package currency.conversions;
 
+import currency.CurrencyMetadata;
 import currency.MoneyAmount;
 
+import java.math.RoundingMode;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Converts currencies. To construct an instance of this class, an instance of 
@@ -38,9 +46,26 @@ public class CurrencyConverter {
         return this.exchangeRateProvider;
     }
     
+    private static final double[] POWERS_OF_TEN = {1E0, 1E1, 1E2, 1E3, 1E4, 
+        1E5, 1E6, 1E7, 1E8, 1E9, 1E10, 1E11, 1E12, 1E13, 1E14, 1E15, 1E16, 
+        1E17, 1E18};
+    
+    private static final int SIGNIFICAND_BITS = 52;
+    
+    private static final long SIGNIFICAND_MASK 
+            = (1L << SIGNIFICAND_BITS) - 1L;
+    
+    private static final int EXPONENT_OFFSET = 1075;
+    
+    private static final int MAXIMUM_SHIFT = 126;
+    
     /**
      * Converts a source amount of money to a target currency. The exchange rate 
-     * provider that was given to the constructor is queried.
+     * provider that was given to the constructor is queried. Any fraction of 
+     * the smallest division of the target currency is dropped, rounding toward 
+     * negative infinity. That's the same as calling {@link 
+     * #convert(currency.MoneyAmount, java.util.Currency, 
+     * java.math.RoundingMode)} with {@code RoundingMode.FLOOR}.
      * @param source The source amount of money. For example, $100.00 in United 
      * States dollars (USD).
      * @param target The target currency. For example, euros (EUR).
@@ -48,25 +73,514 @@ public class CurrencyConverter {
      * provider. In the example, this might be 90,82&euro;.
      */
     public MoneyAmount convert(MoneyAmount source, Currency target) {
-        double intermediate = source.getFullAmountInCents();
+        return this.convert(source, target, RoundingMode.FLOOR);
+    }
+    
+    /**
+     * Converts a source amount of money to a target currency, rounding as 
+     * specified. The exchange rate provider that was given to the constructor 
+     * is queried.
+     * @param source The source amount of money. For example, $100.00 in United 
+     * States dollars (USD).
+     * @param target The target currency. For example, euros (EUR).
+     * @param roundingMode How to round off any fraction of the smallest 
+     * division of the target currency. For example, {@code 
+     * RoundingMode.HALF_EVEN}.
+     * @return The converted amount, according to the given exchange rate 
+     * provider. In the example, if the rate is 0.908249, this would be 
+     * 90,82&euro;.
+     * @throws ArithmeticException If {@code roundingMode} is {@code 
+     * RoundingMode.UNNECESSARY} but rounding is necessary, or if the converted 
+     * amount is too large to represent.
+     * @throws IllegalArgumentException If {@code target} is a pseudocurrency 
+     * like gold (XAU), or if the rate provider gives a negative, infinite or 
+     * NaN rate.
+     */
+    public MoneyAmount convert(MoneyAmount source, Currency target, 
+            RoundingMode roundingMode) {
+        // End to end, this takes about as long as the floating point version
+        // it replaced. Most of the time goes to the rate lookup and to the
+        // MoneyAmount result, not to convertCents(). See
+        // CurrencyConverterBenchmark in the tests.
+        long cents = this.convertToCents(source, target, roundingMode);
+        return MoneyAmount.fromFullAmountInCents(cents, target);
+    }
+    
+    /**
+     * Converts a source amount of money to a number of divisions of the unit 
+     * of a target currency. This is for callers that don't need a {@link 
+     * MoneyAmount} instance, such as those working with a {@link 
+     * currency.MoneyBatch}. The exchange rate provider that was given to the 
+     * constructor is queried.
+     * @param source The source amount of money. For example, $100.00 in United 
+     * States dollars (USD).
+     * @param target The target currency. For example, euros (EUR).
+     * @param roundingMode How to round off any fraction of the smallest 
+     * division of the target currency. For example, {@code 
+     * RoundingMode.HALF_EVEN}.
+     * @return The number of divisions of the unit of the target currency. In 
+     * the example, if the rate is 0.908249, this would be 9082, meaning 
+     * 90,82&euro;.
+     * @throws ArithmeticException If {@code roundingMode} is {@code 
+     * RoundingMode.UNNECESSARY} but rounding is necessary, or if the converted 
+     * amount is too large for a <code>long</code>.
+     * @throws IllegalArgumentException If {@code target} is a pseudocurrency 
+     * like gold (XAU), or if the rate provider gives a negative, infinite or 
+     * NaN rate.
+     */
+    public long convertToCents(MoneyAmount source, Currency target, 
+            RoundingMode roundingMode) {
         Currency sourceCurrency = source.getCurrency();
-        int sourceExponent = sourceCurrency.getDefaultFractionDigits();
-        while (sourceExponent > 0) {
-            intermediate /= 10.0;
-            sourceExponent--;
-        }
-        double rate = this.exchangeRateProvider.getRate(sourceCurrency, target);
-        double converted = intermediate * rate;
-        double floored = Math.floor(converted);
-        double roughDivs = converted - floored;
-        int targetExponent = target.getDefaultFractionDigits();
-        while (targetExponent > 0) {
-            roughDivs *= 10.0;
-            targetExponent--;
-        }
-        long units = (long) floored;
-        short divisions = (short) Math.floor(roughDivs);
-        return new MoneyAmount(units, target, divisions);
+        double rate = this.exchangeRateProvider.getRate(sourceCurrency, 
+                target);
+        return convertCents(source.getFullAmountInCents(), sourceCurrency, 
+                target, rate, roundingMode);
+    }
+    
+    /**
+     * Converts a number of divisions of the unit of one currency to a number 
+     * of divisions of the unit of another currency at a given rate. No objects 
+     * are created. The rate and the difference in the number of fraction 
+     * digits of the two currencies are first combined into a single binary 
+     * fixed-point factor, so that the conversion itself is a 128-bit integer 
+     * multiplication followed by a shift, with the bits shifted out used only 
+     * for rounding. Thus the result is exact to within the precision of the 
+     * <code>double</code> rate, with no intermediate rounding.
+     * @param cents The number of divisions of the unit of the source currency. 
+     * For example, 10000.
+     * @param source The source currency. For example, United States dollars 
+     * (USD), so that 10000 means $100.00.
+     * @param target The target currency. For example, euros (EUR).
+     * @param rate The rate to convert one unit of {@code source} to {@code 
+     * target}. For example, 0.908249.
+     * @param roundingMode How to round off any fraction of the smallest 
+     * division of the target currency. For example, {@code 
+     * RoundingMode.HALF_EVEN}.
+     * @return The number of divisions of the unit of the target currency. In 
+     * the example, 9082, meaning 90,82&euro;.
+     * @throws ArithmeticException If {@code roundingMode} is {@code 
+     * RoundingMode.UNNECESSARY} but rounding is necessary, or if the converted 
+     * amount is too large for a <code>long</code>.
+     * @throws IllegalArgumentException If {@code source} or {@code target} is 
+     * a pseudocurrency like gold (XAU), or if {@code rate} is negative, 
+     * infinite or NaN.
+     * @throws NullPointerException If {@code source}, {@code target} or {@code 
+     * roundingMode} is null.
+     */
+    public static long convertCents(long cents, Currency source, 
+            Currency target, double rate, RoundingMode roundingMode) {
+        if (roundingMode == null) {
+            String excMsg = "Rounding mode should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        int sourceDigits = checkedFractionDigits(source);
+        int targetDigits = checkedFractionDigits(target);
+        if (!(rate >= 0.0) || Double.isInfinite(rate)) {
+            String excMsg = describeRate(rate, source, target) 
+                    + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        double scaledRate = (targetDigits >= sourceDigits) 
+                ? rate * POWERS_OF_TEN[targetDigits - sourceDigits] 
+                : rate / POWERS_OF_TEN[sourceDigits - targetDigits];
+        if (scaledRate == 0.0 || cents == 0L) {
+            return 0L;
+        }
+        if (scaledRate >= 0x1p63) {
+            String excMsg = describeRate(rate, source, target) 
+                    + " is too large";
+            throw new ArithmeticException(excMsg);
+        }
+        long bits = Double.doubleToRawLongBits(scaledRate);
+        int biasedExponent = (int) (bits >>> SIGNIFICAND_BITS);
+        long factor = bits & SIGNIFICAND_MASK;
+        int shift;
+        if (biasedExponent == 0) {
+            shift = EXPONENT_OFFSET - 1;
+        } else {
+            factor |= SIGNIFICAND_MASK + 1L;
+            shift = EXPONENT_OFFSET - biasedExponent;
+        }
+        if (shift < 0) {
+            factor <<= -shift;
+            shift = 0;
+        } else if (shift > MAXIMUM_SHIFT) {
+            // Rates this small convert almost anything to 0, but a sticky bit
+            // is kept so that rounding up still knows the result is inexact
+            int excess = Math.min(shift - MAXIMUM_SHIFT, Long.SIZE - 1);
+            long discarded = factor & ((1L << excess) - 1L);
+            factor = (factor >>> excess) | ((discarded == 0L) ? 0L : 1L);
+            shift = MAXIMUM_SHIFT;
+        }
+        return multiplyAndShift(cents, factor, shift, roundingMode);
+    }
+    
+    private static String describeRate(double rate, Currency source, 
+            Currency target) {
+        return "Rate " + rate + " to convert " + source.getCurrencyCode() 
+                + " to " + target.getCurrencyCode();
+    }
+    
+    private static int checkedFractionDigits(Currency currency) {
+        return CurrencyMetadata.ofSupported(currency).getFractionDigits();
+    }
+    
+    // Works on the magnitude of cents as an unsigned number, so that
+    // Long.MIN_VALUE needs no special handling. Since factor is less than
+    // 2^63, the unsigned high half of the product is the signed high half plus
+    // factor if the top bit of the magnitude is set. The quotient is likewise
+    // unsigned until the end, as its magnitude may be 2^63 if negative. This
+    // is kept small enough to be inlined, with the less common shifts of 0 or
+    // 64 or more split off into another function.
+    private static long multiplyAndShift(long cents, long factor, int shift, 
+            RoundingMode roundingMode) {
+        long magnitude = (cents < 0L) ? -cents : cents;
+        long high = Math.multiplyHigh(magnitude, factor) 
+                + ((magnitude >> 63) & factor);
+        long low = magnitude * factor;
+        if (shift == 0 || shift >= Long.SIZE) {
+            return shiftWide(cents, high, low, shift, roundingMode);
+        }
+        if ((high >>> shift) != 0L) {
+            throw tooLarge(cents);
+        }
+        long quotient = (low >>> shift) | (high << (Long.SIZE - shift));
+        long remainder = low & ((1L << shift) - 1L);
+        return round(cents, quotient, 
+                Long.compareUnsigned(remainder, 1L << (shift - 1)), 
+                remainder != 0L, roundingMode);
+    }
+    
+    private static long shiftWide(long cents, long high, long low, int shift, 
+            RoundingMode roundingMode) {
+        if (shift == 0) {
+            if (high != 0L) {
+                throw tooLarge(cents);
+            }
+            return round(cents, low, -1, false, roundingMode);
+        }
+        if (shift == Long.SIZE) {
+            return round(cents, high, Long.compareUnsigned(low, Long.MIN_VALUE), 
+                    low != 0L, roundingMode);
+        }
+        int highShift = shift - Long.SIZE;
+        long remainderHigh = high & ((1L << highShift) - 1L);
+        int halfComparison = Long.compareUnsigned(remainderHigh, 
+                1L << (highShift - 1));
+        if (halfComparison == 0 && low != 0L) {
+            halfComparison = 1;
+        }
+        return round(cents, high >>> highShift, halfComparison, 
+                remainderHigh != 0L || low != 0L, roundingMode);
+    }
+    
+    private static long round(long cents, long quotient, int halfComparison, 
+            boolean inexact, RoundingMode roundingMode) {
+        boolean negative = cents < 0L;
+        if (quotient < 0L && (quotient != Long.MIN_VALUE || !negative)) {
+            throw tooLarge(cents);
+        }
+        if (inexact && roundsAway(roundingMode, negative, halfComparison, 
+                (quotient & 1L) == 1L, cents)) {
+            if (quotient == Long.MIN_VALUE 
+                    || (quotient == Long.MAX_VALUE && !negative)) {
+                throw tooLarge(cents);
+            }
+            quotient++;
+        }
+        return negative ? -quotient : quotient;
+    }
+    
+    private static boolean roundsAway(RoundingMode roundingMode, 
+            boolean negative, int halfComparison, boolean odd, long cents) {
+        switch (roundingMode) {
+            case UP:
+                return true;
+            case DOWN:
+                return false;
+            case CEILING:
+                return !negative;
+            case FLOOR:
+                return negative;
+            case HALF_UP:
+                return halfComparison >= 0;
+            case HALF_DOWN:
+                return halfComparison > 0;
+            case HALF_EVEN:
+                return halfComparison > 0 || (halfComparison == 0 && odd);
+            default:
+                String excMsg = "Converting " + cents 
+                        + " divisions requires rounding";
+                throw new ArithmeticException(excMsg);
+        }
+    }
+    
+    private static ArithmeticException tooLarge(long cents) {
+        String excMsg = "Converting " + cents 
+                + " divisions gives too large a result";
+        return new ArithmeticException(excMsg);
+    }
+    
+    /**
+     * Converts several amounts of money to a target currency, writing the 
+     * results into an array supplied by the caller. The exchange rate provider 
+     * that was given to the constructor is queried only once for each distinct 
+     * source currency, no matter how many amounts there are of that currency. 
+     * Each amount is converted exactly as {@link #convert(currency.MoneyAmount, 
+     * java.util.Currency) convert()} would convert it with the same rate.
+     * @param sources The amounts of money to convert. For example, $100.00, 
+     * &pound;50.00 and $20.00. May be of any number of different currencies. 
+     * The array is not modified.
+     * @param target The target currency. For example, euros (EUR).
+     * @param results The array to write the converted amounts into, in the 
+     * same order as {@code sources}. It must be at least as long as {@code 
+     * sources}; any positions past the length of {@code sources} are left 
+     * alone. In the example, this might get 90,82&euro;, 58,41&euro; and 
+     * 18,16&euro;, and the provider would've been queried for two rates, not 
+     * three.
+     * @throws IllegalArgumentException If {@code results} is shorter than 
+     * {@code sources}, if {@code target} is a pseudocurrency like gold (XAU), 
+     * or if the provider gives a negative, infinite or NaN rate.
+     * @throws NullPointerException If {@code sources}, {@code target} or 
+     * {@code results} is null, or if {@code sources} contains null.
+     */
+    public void convertAll(MoneyAmount[] sources, Currency target, 
+            MoneyAmount[] results) {
+        this.openSession(sources, target, results)
+                .convertRange(sources, results, 0, sources.length);
+    }
+    
+    /**
+     * Converts several amounts of money to a target currency. The exchange 
+     * rate provider that was given to the constructor is queried only once for 
+     * each distinct source currency.
+     * @param sources The amounts of money to convert. For example, $100.00, 
+     * &pound;50.00 and $20.00.
+     * @param target The target currency. For example, euros (EUR).
+     * @return The converted amounts, in the same order as {@code sources}. In 
+     * the example, this might be 90,82&euro;, 58,41&euro; and 18,16&euro;.
+     * @throws NullPointerException If {@code sources} or {@code target} is 
+     * null, or if {@code sources} contains null.
+     */
+    public MoneyAmount[] convertAll(MoneyAmount[] sources, Currency target) {
+        MoneyAmount[] results = new MoneyAmount[sources.length];
+        this.convertAll(sources, target, results);
+        return results;
+    }
+    
+    /**
+     * Converts a collection of amounts of money to a target currency. The 
+     * exchange rate provider that was given to the constructor is queried only 
+     * once for each distinct source currency. So, for example, a ledger of a 
+     * hundred thousand lines in a dozen different currencies takes only a 
+     * dozen queries rather than a hundred thousand.
+     * @param sources The amounts of money to convert. For example, $100.00, 
+     * &pound;50.00 and $20.00.
+     * @param target The target currency. For example, euros (EUR).
+     * @return The converted amounts, in the iteration order of {@code 
+     * sources}. In the example, this might be 90,82&euro;, 58,41&euro; and 
+     * 18,16&euro;.
+     * @throws NullPointerException If {@code sources} or {@code target} is 
+     * null, or if {@code sources} contains null.
+     */
+    public List<MoneyAmount> convertAll(Collection<MoneyAmount> sources, 
+            Currency target) {
+        MoneyAmount[] amounts = sources.toArray(new MoneyAmount[0]);
+        return Arrays.asList(this.convertAll(amounts, target));
+    }
+    
+    // Checks that the results array is long enough, then captures the rates
+    // for the currencies of the sources, querying the provider just once for
+    // each distinct source currency
+    private ConversionSession openSession(MoneyAmount[] sources, 
+            Currency target, MoneyAmount[] results) {
+        ConversionSession.checkResultsLength(sources, results);
+        RateSnapshot snapshot = RateSnapshot.capture(this.exchangeRateProvider, 
+                target, new CurrenciesOf(sources));
+        return new ConversionSession(snapshot);
+    }
+    
+    /**
+     * Converts several amounts of money to a target currency on several 
+     * threads, writing the results into an array supplied by the caller. This 
+     * is meant for ledgers of hundreds of thousands or millions of lines. 
+     * First the exchange rate provider is queried once for each distinct 
+     * source currency, on the calling thread, so that the whole job uses one 
+     * consistent set of rates even if the provider's rates change while the 
+     * job is running. Then the array is split into ranges which are converted 
+     * by fork-join workers, each writing only to its own range of {@code 
+     * results}, so the results come out in the same order as the sources. 
+     * Each amount is converted exactly as {@link #convert(currency.MoneyAmount, 
+     * java.util.Currency) convert()} would convert it with the same rate.
+     * @param sources The amounts of money to convert. For example, a million 
+     * amounts in a dozen different currencies. The array is not modified, and 
+     * it should not be modified by another thread while this function runs.
+     * @param target The target currency. For example, euros (EUR).
+     * @param results The array to write the converted amounts into, in the 
+     * same order as {@code sources}. It must be at least as long as {@code 
+     * sources}; any positions past the length of {@code sources} are left 
+     * alone.
+     * @param pool The pool to run the conversions in. For example, {@code 
+     * ForkJoinPool.commonPool()}.
+     * @throws IllegalArgumentException If {@code results} is shorter than 
+     * {@code sources}, if {@code target} is a pseudocurrency like gold (XAU), 
+     * or if the provider gives a negative, infinite or NaN rate.
+     * @throws NullPointerException If {@code sources}, {@code target}, {@code 
+     * results} or {@code pool} is null, or if {@code sources} contains null.
+     */
+    public void convertAllParallel(MoneyAmount[] sources, Currency target, 
+            MoneyAmount[] results, ForkJoinPool pool) {
+        if (pool == null) {
+            String excMsg = "Pool should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        ConversionSession session = this.openSession(sources, target, 
+                results);
+        pool.invoke(new ConversionTask(session, sources, results, 0, 
+                sources.length));
+    }
+    
+    /**
+     * Converts several amounts of money to a target currency on several 
+     * threads of the common fork-join pool. See {@link 
+     * #convertAllParallel(currency.MoneyAmount[], java.util.Currency, 
+     * currency.MoneyAmount[], java.util.concurrent.ForkJoinPool)} for details.
+     * @param sources The amounts of money to convert. For example, a million 
+     * amounts in a dozen different currencies.
+     * @param target The target currency. For example, euros (EUR).
+     * @return The converted amounts, in the same order as {@code sources}.
+     * @throws NullPointerException If {@code sources} or {@code target} is 
+     * null, or if {@code sources} contains null.
+     */
+    public MoneyAmount[] convertAllParallel(MoneyAmount[] sources, 
+            Currency target) {
+        MoneyAmount[] results = new MoneyAmount[sources.length];
+        this.convertAllParallel(sources, target, results, 
+                ForkJoinPool.commonPool());
+        return results;
+    }
+    
+    /**
+     * Converts a collection of amounts of money to a target currency on 
+     * several threads of the common fork-join pool. See {@link 
+     * #convertAllParallel(currency.MoneyAmount[], java.util.Currency, 
+     * currency.MoneyAmount[], java.util.concurrent.ForkJoinPool)} for details.
+     * @param sources The amounts of money to convert. For example, a million 
+     * amounts in a dozen different currencies.
+     * @param target The target currency. For example, euros (EUR).
+     * @return The converted amounts, in the iteration order of {@code 
+     * sources}.
+     * @throws NullPointerException If {@code sources} or {@code target} is 
+     * null, or if {@code sources} contains null.
+     */
+    public List<MoneyAmount> convertAllParallel(
+            Collection<MoneyAmount> sources, Currency target) {
+        MoneyAmount[] amounts = sources.toArray(new MoneyAmount[0]);
+        return Arrays.asList(this.convertAllParallel(amounts, target));
+    }
+    
+    /**
+     * Converts a range of a ledger for {@link 
+     * #convertAllParallel(currency.MoneyAmount[], java.util.Currency, 
+     * currency.MoneyAmount[], java.util.concurrent.ForkJoinPool) 
+     * convertAllParallel()}. A range longer than {@link #LEAF_SIZE} is split in 
+     * half, and the halves are converted in parallel.
+     */
+    private static class ConversionTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 4553250781163982848L;
+        
+        /**
+         * How many amounts are converted in a single task without splitting 
+         * any further. This is large enough that the overhead of forking a 
+         * task is negligible compared to converting the amounts.
+         */
+        static final int LEAF_SIZE = 4096;
+        
+        private final ConversionSession session;
+        
+        private final MoneyAmount[] sources;
+        
+        private final MoneyAmount[] results;
+        
+        private final int start;
+        
+        private final int end;
+        
+        @Override
+        protected void compute() {
+            if (this.end - this.start <= LEAF_SIZE) {
+                this.session.convertRange(this.sources, this.results, 
+                        this.start, this.end);
+            } else {
+                int middle = (this.start + this.end) >>> 1;
+                invokeAll(new ConversionTask(this.session, this.sources, 
+                        this.results, this.start, middle), 
+                        new ConversionTask(this.session, this.sources, 
+                                this.results, middle, this.end));
+            }
+        }
+        
+        ConversionTask(ConversionSession session, MoneyAmount[] sources, 
+                MoneyAmount[] results, int start, int end) {
+            this.session = session;
+            this.sources = sources;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+        }
+    
+    }
+    
+    /**
+     * A read-only view of the currencies of an array of amounts of money, so 
+     * that the rates for a ledger can be captured without copying the 
+     * currencies out to a list first.
+     */
+    private static class CurrenciesOf extends AbstractList<Currency> {
+        
+        private final MoneyAmount[] amounts;
+        
+        @Override
+        public Currency get(int index) {
+            return this.amounts[index].getCurrency();
+        }
+        
+        @Override
+        public int size() {
+            return this.amounts.length;
+        }
+        
+        CurrenciesOf(MoneyAmount[] amounts) {
+            this.amounts = amounts;
+        }
+    
+    }
+    
+    /**
+     * Opens a conversion session pinned to the current rates of the exchange 
+     * rate provider that was given to the constructor. The provider is queried 
+     * once for each of the source currencies right away, and the session 
+     * never queries it again. For example, to convert every line of a report 
+     * at the same rates even if the provider refreshes while the report is 
+     * being put together.
+     * @param target The target currency. For example, euros (EUR).
+     * @param sources The source currencies the session will need to convert. 
+     * For example, United States dollars (USD), British pounds (GBP) and 
+     * Japanese yen (JPY).
+     * @return A new session, with the time the rates were captured available 
+     * from {@link ConversionSession#getTimestamp()}.
+     * @throws IllegalArgumentException If {@code target} is a pseudocurrency 
+     * like gold (XAU), or if the provider gives a negative, infinite or NaN 
+     * rate.
+     * @throws NullPointerException If {@code target} or {@code sources} is 
+     * null, or if {@code sources} contains null.
+     */
+    public ConversionSession openSession(Currency target, 
+            Collection<Currency> sources) {
+        RateSnapshot snapshot = RateSnapshot.capture(this.exchangeRateProvider, 
+                target, sources);
+        return new ConversionSession(snapshot);
     }
     
     /**
@@ -19,7 +19,9 @@ package currency.conversions;
 import currency.CurrencyPair;
 import currency.SpecificCurrenciesSupport;
 
+import java.util.Collection;
 import java.util.Currency;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Provides currency exchange rates in 64-bit floating point. Note that it is 
@@ -60,4 +62,69 @@ public interface ExchangeRateProvider extends SpecificCurrenciesSupport {
                 currencies.getToCurrency());
     }
     
+    /**
+     * Gives the rates to convert one unit of a base currency to each of a 
+     * number of target currencies. The provided default implementation calls 
+     * {@link #getRate(java.util.Currency, java.util.Currency) getRate()} once 
+     * for each target currency. Implementations that can get many rates at 
+     * once, such as from a single response of an online API, should override 
+     * this function.
+     * @param base The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param targets The currencies to convert to. For example, euros (EUR), 
+     * British pounds (GBP) and Japanese yen (JPY).
+     * @return The rates, one for each distinct currency in {@code targets}. 
+     * For example, 0.8623 for EUR, 0.7452 for GBP and 160.1652 for JPY.
+     * @throws NullPointerException If {@code base} or {@code targets} is null, 
+     * or if {@code targets} contains null.
+     * @throws RuntimeException If some kind of {@code IOException} or other 
+     * checked exception occurs, it may be wrapped into an unchecked exception.
+     */
+    default RateVector getRates(Currency base, Collection<Currency> targets) {
+        RateVector.Builder builder = new RateVector.Builder(base);
+        for (Currency target : targets) {
+            builder.put(target, this.getRate(base, target));
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Tells whether this provider gives rates without querying a remote source 
+     * such as an online API. A local provider has a fixed set of supported 
+     * currencies, and asking it for every rate it has is cheap. The provided 
+     * default implementation returns false, since that's the safe answer for 
+     * a provider that doesn't say. Decorators should give the same answer as 
+     * the provider they wrap.
+     * @return True if rates come from local data, false otherwise. For 
+     * example, true for {@link HardCodedRateProvider}, false for {@link 
+     * currency.conversions.ayrtech.FreeAPIAccess}.
+     */
+    default boolean isLocal() {
+        return false;
+    }
+    
+    /**
+     * Gives the rate to convert one unit of the source currency to the target 
+     * currency without blocking the calling thread. The provided default 
+     * implementation runs {@link #getRate(java.util.Currency, 
+     * java.util.Currency) getRate()} on a virtual thread if the Java runtime 
+     * has virtual threads, or on a shared pool of daemon threads otherwise. 
+     * Implementations that can query their source without blocking, such as by 
+     * way of {@code java.net.http.HttpClient.sendAsync()}, should override 
+     * this function.
+     * @param source The source to convert from. For example, United States 
+     * dollars (USD).
+     * @param target The target to convert one unit of {@code source} to. For 
+     * example, euros (EUR).
+     * @return A future for the conversion rate. In the example as of August 
+     * 12, 2024, this would complete with 0.915796. If the lookup fails, the 
+     * future completes exceptionally with whatever exception the lookup 
+     * threw.
+     */
+    default CompletableFuture<Double> getRateAsync(Currency source, 
+            Currency target) {
+        return CompletableFuture.supplyAsync(() -> this.getRate(source, 
+                target), BlockingCallExecutor.get());
+    }
+    
 }
@@ -16,10 +16,13 @@
  */
 package currency.conversions;
 
+import currency.CurrencyMetadata;
 import currency.CurrencyPair;
+import currency.CurrencySet;
 
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.Collection;
 import java.util.Currency;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -58,6 +61,9 @@ public class HardCodedRateProvider implements ExchangeRateProvider {
                     currencyCode -> Currency.getInstance(currencyCode)
             ).collect(Collectors.toSet());
     
+    private static final CurrencySet SUPPORTED_CURRENCY_SET 
+            = CurrencySet.of(SUPPORTED_CURRENCIES);
+    
     // TODO: Figure out a better way to attach rates
     private static final double[] HARD_CODED_RATES = {1.414, 5.0542, 1.3982, 
         6.7719, 0.8623, 0.7452, 7.8347, 2.9078, 94.7038, 1256504.6773, 160.1652, 
@@ -66,9 +72,14 @@ public class HardCodedRateProvider implements ExchangeRateProvider {
     
     private static final Map<CurrencyPair, Double> QUOTES_MAP = new HashMap<>();
     
+    private static final double[] USD_RATES_BY_ORDINAL 
+            = OrdinalRates.emptyTable();
+    
     static {
         for (int i = 0; i < CURRENCY_CODES.length; i++) {
             Currency to = Currency.getInstance(CURRENCY_CODES[i]);
+            USD_RATES_BY_ORDINAL[CurrencyMetadata.of(to).getOrdinal()] 
+                    = HARD_CODED_RATES[i];
             CurrencyPair key = new CurrencyPair(UNITED_STATES_DOLLARS, to);
             double value = HARD_CODED_RATES[i];
             QUOTES_MAP.put(key, value);
@@ -81,13 +92,35 @@ public class HardCodedRateProvider implements ExchangeRateProvider {
         return new HashSet<>(SUPPORTED_CURRENCIES);
     }
     
+    /**
+     * Gives the currencies this provider has hard-coded rates for, as an 
+     * immutable currency set. This is the same set every time.
+     * @return The set of supported currencies. For example, a set containing 
+     * United States dollars (USD), euros (EUR) and Japanese yen (JPY), among 
+     * others.
+     */
+    @Override
+    public CurrencySet supportedCurrencySet() {
+        return SUPPORTED_CURRENCY_SET;
+    }
+    
+    /**
+     * Tells whether this provider gives rates without querying a remote 
+     * source. The rates are hard-coded, so they're always local.
+     * @return Always true.
+     */
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+    
     private static void checkSupport(Currency source, Currency target) {
-        if (!SUPPORTED_CURRENCIES.contains(source)) {
+        if (!SUPPORTED_CURRENCY_SET.contains(source)) {
             String excMsg = "Source currency " + source.getDisplayName() + " (" 
                     + source.getCurrencyCode() + ") is not supported";
             throw new NoSuchElementException(excMsg);
         }
-        if (!SUPPORTED_CURRENCIES.contains(target)) {
+        if (!SUPPORTED_CURRENCY_SET.contains(target)) {
             String excMsg = "Target currency " + target.getDisplayName() + " (" 
                     + target.getCurrencyCode() + ") is not supported";
             throw new NoSuchElementException(excMsg);
@@ -100,7 +133,7 @@ public class HardCodedRateProvider implements ExchangeRateProvider {
         } else {
             CurrencyPair key = currencies.flip();
             if (QUOTES_MAP.containsKey(key)) {
-                return QUOTES_MAP.get(key);
+                return 1.0 / QUOTES_MAP.get(key);
             } else {
                 CurrencyPair sourcePair 
                         = new CurrencyPair(UNITED_STATES_DOLLARS, 
@@ -155,4 +188,52 @@ public class HardCodedRateProvider implements ExchangeRateProvider {
         return validatedPairGetRate(currencies);
     }
     
+    /**
+     * Gives the rates to convert one unit of a base currency to each of a 
+     * number of target currencies. Each rate is worked out from the 
+     * hard-coded rates from United States dollars (USD), without looking up 
+     * or caching any currency pairs.
+     * @param base The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param targets The currencies to convert to. For example, euros (EUR), 
+     * British pounds (GBP) and Japanese yen (JPY).
+     * @return The rates. In the example as of June 15, 2026, this would have 
+     * 0.8623 for EUR, 0.7452 for GBP and 160.1652 for JPY.
+     * @throws NoSuchElementException If {@code base} or any of the currencies 
+     * in {@code targets} is not among the supported currencies. See {@link 
+     * #supportedCurrencies()}.
+     */
+    @Override
+    public RateVector getRates(Currency base, Collection<Currency> targets) {
+        double usdToBase 
+                = USD_RATES_BY_ORDINAL[CurrencyMetadata.of(base).getOrdinal()];
+        if (Double.isNaN(usdToBase)) {
+            String excMsg = "Source currency " + base.getDisplayName() + " (" 
+                    + base.getCurrencyCode() + ") is not supported";
+            throw new NoSuchElementException(excMsg);
+        }
+        boolean baseIsDollars = base.equals(UNITED_STATES_DOLLARS);
+        RateVector.Builder builder = new RateVector.Builder(base);
+        for (Currency target : targets) {
+            double usdToTarget = USD_RATES_BY_ORDINAL[CurrencyMetadata 
+                    .of(target).getOrdinal()];
+            if (Double.isNaN(usdToTarget)) {
+                String excMsg = "Target currency " + target.getDisplayName() 
+                        + " (" + target.getCurrencyCode() 
+                        + ") is not supported";
+                throw new NoSuchElementException(excMsg);
+            }
+            double rate;
+            if (baseIsDollars) {
+                rate = usdToTarget;
+            } else if (target.equals(UNITED_STATES_DOLLARS)) {
+                rate = 1.0 / usdToBase;
+            } else {
+                rate = usdToTarget / usdToBase;
+            }
+            builder.put(target, rate);
+        }
+        return builder.build();
+    }
+    
 }
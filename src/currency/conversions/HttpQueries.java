@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends queries to the currency conversion APIs without blocking the calling 
+ * thread. Queries are sent with {@code HttpClient.sendAsync()}, so no thread 
+ * waits on the response. All the providers that query an API asynchronously 
+ * share the one client, which is created the first time it's needed.
+ * @author Alonso del Arte
+ */
+public final class HttpQueries {
+    
+    private static final String USER_AGENT_ID = "Java/" 
+            + System.getProperty("java.version");
+    
+    /**
+     * Sends a query to an API without blocking the calling thread.
+     * @param queryPath The full query path, including the API key if the API 
+     * requires one. For example, 
+     * "https://v6.exchangerate-api.com/v6/API_KEY/latest/USD".
+     * @return A future for the body of the response, which completes 
+     * exceptionally with a {@code RuntimeException} if {@code queryPath} is not 
+     * a valid URI, if the API returns an HTTP status code other than HTTP OK 
+     * (200), or if there is an I/O problem.
+     * @throws NullPointerException If {@code queryPath} is null.
+     */
+    public static CompletableFuture<String> sendAsync(String queryPath) {
+        if (queryPath == null) {
+            String excMsg = "Query path should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(new URI(queryPath))
+                    .header("User-Agent", USER_AGENT_ID).build();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            String excMsg = "Query path <" + queryPath + "> is not valid";
+            return CompletableFuture.failedFuture(new RuntimeException(excMsg, 
+                    e));
+        }
+        return HttpClientHolder.CLIENT.sendAsync(request, 
+                HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+                    if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+                        String excMsg = "Query " + queryPath 
+                                + " returned status " + response.statusCode();
+                        throw new RuntimeException(excMsg);
+                    }
+                    return response.body();
+                });
+    }
+    
+    // Creating a client starts a selector thread, so it's created the first
+    // time a query is sent
+    private static class HttpClientHolder {
+        
+        private static final HttpClient CLIENT = HttpClient.newHttpClient();
+    
+    }
+    
+    private HttpQueries() {
+        // No instances needed
+    }
+    
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyPair;
+import currency.CurrencySet;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gives exchange rates from another provider, recording how many calls are 
+ * made, how many fail and how long they take. The readings are kept for the 
+ * provider overall and for each currency pair that is queried often, and can 
+ * be taken at any time with {@link #snapshot()}. For example, wrapping {@link 
+ * currency.conversions.mannys.FreeForExRateProvider} in an instance of this 
+ * class shows how slow that API is and which pairs it's asked for the most.
+ * <p>So that the memory used doesn't keep growing with the number of pairs 
+ * queried, at most a set number of pairs are tracked individually. When a new 
+ * pair comes in and the table is full, the pair with the fewest calls is 
+ * folded into the readings for other pairs. The new pair is credited with the 
+ * calls of the pair it replaced, as in the Space-Saving algorithm, so that a 
+ * pair that becomes popular later on can still work its way into the table. 
+ * Thus the pairs in the table are the most often queried pairs, 
+ * approximately.</p>
+ * <p>Recording takes no lock except when a pair is added to the table, so 
+ * instances may be shared between threads.</p>
+ * @author Alonso del Arte
+ */
+public class InstrumentedExchangeRateProvider implements ExchangeRateProvider {
+    
+    /**
+     * How many currency pairs are tracked individually if no number is 
+     * specified.
+     */
+    public static final int DEFAULT_TRACKED_PAIRS = 32;
+    
+    private final ExchangeRateProvider provider;
+    
+    private final String name;
+    
+    private final int trackedPairs;
+    
+    private final CallStats overallStats = new CallStats(0L);
+    
+    private final CallStats otherStats = new CallStats(0L);
+    
+    private final Map<CurrencyPair, CallStats> pairStats 
+            = new ConcurrentHashMap<>();
+    
+    /**
+     * Gives the provider that calls are passed on to.
+     * @return The provider that was given to the constructor.
+     */
+    public ExchangeRateProvider getProvider() {
+        return this.provider;
+    }
+    
+    /**
+     * Gives the name the readings are reported under.
+     * @return The name that was given to the constructor. For example, 
+     * "Manny's".
+     */
+    public String getName() {
+        return this.name;
+    }
+    
+    private CallStats statsFor(CurrencyPair currencies) {
+        CallStats stats = this.pairStats.get(currencies);
+        if (stats != null) {
+            return stats;
+        }
+        synchronized (this.pairStats) {
+            stats = this.pairStats.get(currencies);
+            if (stats == null) {
+                long inherited = 0L;
+                if (this.pairStats.size() >= this.trackedPairs) {
+                    Map.Entry<CurrencyPair, CallStats> fewest = null;
+                    for (Map.Entry<CurrencyPair, CallStats> entry 
+                            : this.pairStats.entrySet()) {
+                        if (fewest == null || entry.getValue().estimate() 
+                                < fewest.getValue().estimate()) {
+                            fewest = entry;
+                        }
+                    }
+                    this.pairStats.remove(fewest.getKey());
+                    this.otherStats.add(fewest.getValue());
+                    inherited = fewest.getValue().estimate();
+                }
+                stats = new CallStats(inherited);
+                this.pairStats.put(currencies, stats);
+            }
+            return stats;
+        }
+    }
+    
+    /**
+     * Gives the rate from the other provider, recording the call.
+     * @param source The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param target The currency to convert to. For example, euros (EUR).
+     * @return The rate the other provider gives. For example, 0.8623.
+     * @throws RuntimeException If the other provider throws one. It's counted 
+     * as an error and then rethrown as is.
+     */
+    @Override
+    public double getRate(Currency source, Currency target) {
+        CallStats stats = this.statsFor(new CurrencyPair(source, target));
+        long start = System.nanoTime();
+        try {
+            double rate = this.provider.getRate(source, target);
+            long elapsed = System.nanoTime() - start;
+            this.overallStats.record(elapsed, false);
+            stats.record(elapsed, false);
+            return rate;
+        } catch (RuntimeException re) {
+            long elapsed = System.nanoTime() - start;
+            this.overallStats.record(elapsed, true);
+            stats.record(elapsed, true);
+            throw re;
+        }
+    }
+    
+    /**
+     * Gives the rates from the other provider with a single bulk call, 
+     * recording the call. Since the bulk call can't be timed pair by pair, it 
+     * counts towards the overall readings only.
+     * @param base The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param targets The currencies to convert to. For example, euros (EUR) 
+     * and Japanese yen (JPY).
+     * @return The rates the other provider gives.
+     * @throws RuntimeException If the other provider throws one. It's counted 
+     * as an error and then rethrown as is.
+     */
+    @Override
+    public RateVector getRates(Currency base, Collection<Currency> targets) {
+        long start = System.nanoTime();
+        try {
+            RateVector rates = this.provider.getRates(base, targets);
+            this.overallStats.record(System.nanoTime() - start, false);
+            return rates;
+        } catch (RuntimeException re) {
+            this.overallStats.record(System.nanoTime() - start, true);
+            throw re;
+        }
+    }
+    
+    /**
+     * Gives the currencies supported by the other provider. This call is not 
+     * recorded.
+     * @return The same set of currencies as the other provider gives.
+     */
+    @Override
+    public Set<Currency> supportedCurrencies() {
+        return this.provider.supportedCurrencies();
+    }
+    
+    /**
+     * Gives the currencies supported by the other provider, as an immutable 
+     * currency set. This call is not recorded either.
+     * @return The same currency set as the other provider gives.
+     */
+    @Override
+    public CurrencySet supportedCurrencySet() {
+        return this.provider.supportedCurrencySet();
+    }
+    
+    /**
+     * Tells whether the wrapped provider gives rates without querying a remote 
+     * source.
+     * @return The same as the wrapped provider gives.
+     */
+    @Override
+    public boolean isLocal() {
+        return this.provider.isLocal();
+    }
+    
+    /**
+     * Takes a reading of everything recorded so far. Recording goes on 
+     * unaffected.
+     * @return A snapshot of the readings, with the individually tracked pairs 
+     * ordered from most calls to fewest calls.
+     */
+    public MetricsSnapshot snapshot() {
+        List<Map.Entry<CurrencyPair, CallStats>> entries 
+                = new ArrayList<>(this.pairStats.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().calls.get(), 
+                a.getValue().calls.get()));
+        Map<CurrencyPair, MetricsSnapshot.Reading> pairs 
+                = new LinkedHashMap<>();
+        for (Map.Entry<CurrencyPair, CallStats> entry : entries) {
+            pairs.put(entry.getKey(), entry.getValue().read());
+        }
+        return new MetricsSnapshot(this.name, LocalDateTime.now(), 
+                this.overallStats.read(), pairs, this.otherStats.read());
+    }
+    
+    /**
+     * Constructor with the default number of tracked pairs.
+     * @param rateProvider The provider to pass calls on to. For example, an 
+     * instance of {@link currency.conversions.mannys.FreeForExRateProvider}.
+     * @param providerName The name to report the readings under. For example, 
+     * "Manny's".
+     * @throws NullPointerException If {@code rateProvider} or {@code 
+     * providerName} is null.
+     */
+    public InstrumentedExchangeRateProvider(ExchangeRateProvider rateProvider, 
+            String providerName) {
+        this(rateProvider, providerName, DEFAULT_TRACKED_PAIRS);
+    }
+    
+    /**
+     * Primary constructor.
+     * @param rateProvider The provider to pass calls on to. For example, an 
+     * instance of {@link currency.conversions.mannys.FreeForExRateProvider}.
+     * @param providerName The name to report the readings under. For example, 
+     * "Manny's".
+     * @param maxTrackedPairs How many currency pairs to track individually. 
+     * For example, 16.
+     * @throws IllegalArgumentException If {@code maxTrackedPairs} is less than 
+     * 1.
+     * @throws NullPointerException If {@code rateProvider} or {@code 
+     * providerName} is null.
+     */
+    public InstrumentedExchangeRateProvider(ExchangeRateProvider rateProvider, 
+            String providerName, int maxTrackedPairs) {
+        if (rateProvider == null || providerName == null) {
+            String excMsg = "Rate provider, name should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (maxTrackedPairs < 1) {
+            String excMsg = "Number of tracked pairs " + maxTrackedPairs 
+                    + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.provider = rateProvider;
+        this.name = providerName;
+        this.trackedPairs = maxTrackedPairs;
+    }
+    
+    private static class CallStats {
+        
+        private final long inheritedCalls;
+        
+        private final AtomicLong calls = new AtomicLong();
+        
+        private final AtomicLong errors = new AtomicLong();
+        
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        
+        void record(long nanos, boolean failed) {
+            this.calls.incrementAndGet();
+            if (failed) {
+                this.errors.incrementAndGet();
+            }
+            this.histogram.record(nanos);
+        }
+        
+        long estimate() {
+            return this.inheritedCalls + this.calls.get();
+        }
+        
+        void add(CallStats other) {
+            this.calls.addAndGet(other.calls.get());
+            this.errors.addAndGet(other.errors.get());
+            this.histogram.add(other.histogram);
+        }
+        
+        MetricsSnapshot.Reading read() {
+            return new MetricsSnapshot.Reading(this.calls.get(), 
+                    this.errors.get(), this.histogram);
+        }
+        
+        CallStats(long inherited) {
+            this.inheritedCalls = inherited;
+        }
+    
+    }
+    
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts how many recorded durations fall into each of a fixed set of ranges, 
+ * so that percentiles can be read off without keeping every duration. The 
+ * ranges are laid out the way HdrHistogram lays them out: each power of two 
+ * is split into {@link #SUB_BUCKET_COUNT} equal ranges. Thus any duration, 
+ * from a nanosecond to centuries, falls into one of a few hundred counters, 
+ * and any percentile read off is within 12.5% of the actual duration. For 
+ * example, 1,000 ns falls into the range from 960 to 1,023 ns.
+ * <p>Recording a duration takes no lock and creates no objects, so instances 
+ * may be shared between threads. A reading taken while other threads are 
+ * recording might be off by the durations being recorded at that moment.</p>
+ * @author Alonso del Arte
+ */
+public final class LatencyHistogram {
+    
+    /**
+     * How many ranges each power of two is split into.
+     */
+    public static final int SUB_BUCKET_COUNT = 8;
+    
+    private static final int SUB_BUCKET_BITS = 3;
+    
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) 
+            * SUB_BUCKET_COUNT;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    
+    private final AtomicLong totalCount = new AtomicLong();
+    
+    private final AtomicLong totalNanos = new AtomicLong();
+    
+    private final AtomicLong maxNanos = new AtomicLong();
+    
+    static int indexFor(long nanos) {
+        if (nanos < SUB_BUCKET_COUNT) {
+            return (int) Math.max(nanos, 0L);
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (nanos >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+    
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowest = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) 
+                << shift;
+        return lowest + (1L << shift) - 1L;
+    }
+    
+    /**
+     * Records a duration.
+     * @param nanos The duration in nanoseconds. For example, 1,250,000 for 
+     * 1.25 milliseconds. A negative duration is recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+        this.counts.incrementAndGet(indexFor(value));
+        this.totalCount.incrementAndGet();
+        this.totalNanos.addAndGet(value);
+        this.maxNanos.accumulateAndGet(value, Math::max);
+    }
+    
+    /**
+     * Tells how many durations have been recorded.
+     * @return The number of durations. For example, 1,000.
+     */
+    public long getCount() {
+        return this.totalCount.get();
+    }
+    
+    /**
+     * Gives the longest duration recorded. Unlike the percentiles, this is 
+     * exact.
+     * @return The longest duration in nanoseconds, or 0 if no durations have 
+     * been recorded. For example, 48,000,000.
+     */
+    public long getMax() {
+        return this.maxNanos.get();
+    }
+    
+    /**
+     * Gives the mean of the durations recorded. Unlike the percentiles, this 
+     * is exact, unless the durations add up to more than {@code 
+     * Long.MAX_VALUE} nanoseconds, which is more than 292 years.
+     * @return The mean in nanoseconds, or 0.0 if no durations have been 
+     * recorded. For example, 1,310,522.5.
+     */
+    public double getMean() {
+        long count = this.totalCount.get();
+        return (count == 0L) ? 0.0 : (double) this.totalNanos.get() / count;
+    }
+    
+    /**
+     * Gives the duration that a given fraction of the recorded durations are 
+     * no longer than.
+     * @param fraction The fraction, from 0 to 1. For example, 0.99 for the 
+     * 99th percentile.
+     * @return The highest duration in the range that the percentile falls 
+     * into, but no more than {@link #getMax()}. For example, 2,359,295. If no 
+     * durations have been recorded, 0.
+     * @throws IllegalArgumentException If {@code fraction} is less than 0, 
+     * more than 1, or NaN.
+     */
+    public long getValueAtPercentile(double fraction) {
+        if (!(fraction >= 0.0 && fraction <= 1.0)) {
+            String excMsg = "Fraction " + fraction + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        long count = this.totalCount.get();
+        if (count == 0L) {
+            return 0L;
+        }
+        long rank = Math.max((long) Math.ceil(fraction * count), 1L);
+        long seen = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += this.counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), this.maxNanos.get());
+            }
+        }
+        return this.maxNanos.get();
+    }
+    
+    /**
+     * Adds the durations recorded in another histogram to this one. The other 
+     * histogram is not changed.
+     * @param other The histogram to add. For example, the histogram for a 
+     * currency pair that is no longer being tracked on its own.
+     * @throws NullPointerException If {@code other} is null.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count != 0L) {
+                this.counts.addAndGet(i, count);
+            }
+        }
+        this.totalCount.addAndGet(other.totalCount.get());
+        this.totalNanos.addAndGet(other.totalNanos.get());
+        this.maxNanos.accumulateAndGet(other.maxNanos.get(), Math::max);
+    }
+    
+    /**
+     * Makes a copy of this histogram. Later durations recorded in either one 
+     * are not recorded in the other.
+     * @return A new histogram with the same counts as this one.
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.add(this);
+        return histogram;
+    }
+    
+}
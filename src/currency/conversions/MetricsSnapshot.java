@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyPair;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The readings of an {@link InstrumentedExchangeRateProvider} at a moment in 
+ * time. Instances are immutable, so a snapshot can be handed to a logger or 
+ * to a server thread while the provider goes on recording.
+ * @author Alonso del Arte
+ */
+public final class MetricsSnapshot {
+    
+    private final String name;
+    
+    private final LocalDateTime timestamp;
+    
+    private final Reading overallReading;
+    
+    private final Map<CurrencyPair, Reading> pairReadings;
+    
+    private final Reading otherReading;
+    
+    /**
+     * Gives the name of the provider the readings are for.
+     * @return The name. For example, "ExchangeRate-API".
+     */
+    public String getProviderName() {
+        return this.name;
+    }
+    
+    /**
+     * Gives the date and time this snapshot was taken.
+     * @return The date and time. For example, October 19, 2026 at 3:15 p.m.
+     */
+    public LocalDateTime getTimestamp() {
+        return this.timestamp;
+    }
+    
+    /**
+     * Gives the readings for all the calls to the provider.
+     * @return The overall reading. For example, 1,200 calls with 3 errors.
+     */
+    public Reading getOverall() {
+        return this.overallReading;
+    }
+    
+    /**
+     * Gives the readings for the currency pairs tracked individually, which 
+     * are the pairs that were queried most often.
+     * @return An unmodifiable map from currency pairs to their readings, with 
+     * the most often queried pair first. For example, USD to EUR with 400 
+     * calls, then USD to JPY with 250 calls.
+     */
+    public Map<CurrencyPair, Reading> getPairs() {
+        return this.pairReadings;
+    }
+    
+    /**
+     * Gives the reading for the calls for currency pairs that are not tracked 
+     * individually.
+     * @return The reading for the other pairs. For example, 35 calls with no 
+     * errors.
+     */
+    public Reading getOtherPairs() {
+        return this.otherReading;
+    }
+    
+    private static String quote(String s) {
+        return '"' + s.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+    
+    /**
+     * Gives this snapshot as a JSON object, suitable for a server response or 
+     * a log line. The durations are given in nanoseconds.
+     * @return A JSON object. For example, <code>{"provider":"Hard-coded", 
+     * "timestamp":"2026-10-19T15:15:00","overall":{"calls":3,"errors":0, 
+     * "meanNanos":1200,"p50Nanos":1023,"p90Nanos":1510,"p99Nanos":1510, 
+     * "maxNanos":1510},"pairs":{"USD_EUR":{...}},"otherPairs":{...}}</code>, 
+     * but without line breaks.
+     */
+    public String toJSON() {
+        StringBuilder builder = new StringBuilder("{\"provider\":");
+        builder.append(quote(this.name)).append(",\"timestamp\":\"")
+                .append(this.timestamp).append("\",\"overall\":")
+                .append(this.overallReading.toJSON()).append(",\"pairs\":{");
+        String separator = "";
+        for (Map.Entry<CurrencyPair, Reading> entry 
+                : this.pairReadings.entrySet()) {
+            builder.append(separator).append(quote(entry.getKey().toString()))
+                    .append(':').append(entry.getValue().toJSON());
+            separator = ",";
+        }
+        return builder.append("},\"otherPairs\":")
+                .append(this.otherReading.toJSON()).append('}').toString();
+    }
+    
+    @Override
+    public String toString() {
+        return this.toJSON();
+    }
+    
+    MetricsSnapshot(String providerName, LocalDateTime time, Reading overall, 
+            Map<CurrencyPair, Reading> pairs, Reading other) {
+        this.name = providerName;
+        this.timestamp = time;
+        this.overallReading = overall;
+        this.pairReadings = Collections.unmodifiableMap(new LinkedHashMap<>(
+                pairs));
+        this.otherReading = other;
+    }
+    
+    /**
+     * The call count, error count and response times for a provider or for a 
+     * currency pair, at the moment the snapshot was taken.
+     */
+    public static final class Reading {
+        
+        private final long calls;
+        
+        private final long errors;
+        
+        private final LatencyHistogram histogram;
+        
+        /**
+         * Tells how many calls were made.
+         * @return The number of calls, including those that failed. For 
+         * example, 400.
+         */
+        public long getCallCount() {
+            return this.calls;
+        }
+        
+        /**
+         * Tells how many calls failed.
+         * @return The number of calls that threw an exception. For example, 2.
+         */
+        public long getErrorCount() {
+            return this.errors;
+        }
+        
+        /**
+         * Gives the mean response time.
+         * @return The mean in nanoseconds. For example, 1,310,522.5.
+         */
+        public double getMeanNanos() {
+            return this.histogram.getMean();
+        }
+        
+        /**
+         * Gives the response time that a given fraction of the calls took no 
+         * longer than. See {@link 
+         * LatencyHistogram#getValueAtPercentile(double)}.
+         * @param fraction The fraction, from 0 to 1. For example, 0.99.
+         * @return The response time in nanoseconds, to within 12.5%. For 
+         * example, 2,359,295.
+         * @throws IllegalArgumentException If {@code fraction} is less than 0, 
+         * more than 1, or NaN.
+         */
+        public long getPercentileNanos(double fraction) {
+            return this.histogram.getValueAtPercentile(fraction);
+        }
+        
+        /**
+         * Gives the longest response time.
+         * @return The longest response time in nanoseconds. For example, 
+         * 48,000,000.
+         */
+        public long getMaxNanos() {
+            return this.histogram.getMax();
+        }
+        
+        String toJSON() {
+            return "{\"calls\":" + this.calls + ",\"errors\":" + this.errors 
+                    + ",\"meanNanos\":" + Math.round(this.getMeanNanos()) 
+                    + ",\"p50Nanos\":" + this.getPercentileNanos(0.5) 
+                    + ",\"p90Nanos\":" + this.getPercentileNanos(0.9) 
+                    + ",\"p99Nanos\":" + this.getPercentileNanos(0.99) 
+                    + ",\"maxNanos\":" + this.getMaxNanos() + "}";
+        }
+        
+        Reading(long callCount, long errorCount, LatencyHistogram latencies) {
+            this.calls = callCount;
+            this.errors = errorCount;
+            this.histogram = latencies.copy();
+        }
+    
+    }
+    
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyMetadata;
+
+import java.util.Arrays;
+
+/**
+ * Makes the tables that the classes in this package use to hold a rate or a 
+ * weight for each currency. A table has one slot for each currency available 
+ * to the Java runtime, at the index given by {@link 
+ * CurrencyMetadata#getOrdinal()}, and NaN marks a slot with nothing in it yet.
+ * @author Alonso del Arte
+ */
+final class OrdinalRates {
+    
+    /**
+     * Makes a table with nothing in it.
+     * @return An array of {@link CurrencyMetadata#count()} elements, all of 
+     * them NaN.
+     */
+    static double[] emptyTable() {
+        double[] table = new double[CurrencyMetadata.count()];
+        Arrays.fill(table, Double.NaN);
+        return table;
+    }
+    
+    private OrdinalRates() {
+        // No instances needed
+    }
+    
+}
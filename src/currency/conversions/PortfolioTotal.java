@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyMetadata;
+import currency.MoneyAmount;
+
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collector;
+
+/**
+ * The total of a portfolio of money amounts in several different currencies, 
+ * converted to a single target currency, along with a breakdown by source 
+ * currency. For example, a portfolio of $100.00, &pound;50.00 and $20.00 
+ * might total 168,57&euro;, broken down into $120.00 worth 109,01&euro; and 
+ * &pound;50.00 worth 59,56&euro;.
+ * <p>Use {@link #summing(ExchangeRateProvider, java.util.Currency)} to get a 
+ * collector that works this out in one pass over a stream of amounts. The 
+ * amounts are summed as raw divisions of the unit of each currency (e.g., 
+ * cents) in a primitive array indexed by currency ordinal, so no intermediate 
+ * money amounts are created. Only once the stream is done is each 
+ * currency's subtotal converted, which means the exchange rate provider is 
+ * queried once per currency, and each subtotal is rounded only once.</p>
+ * @author Alonso del Arte
+ */
+public final class PortfolioTotal {
+    
+    private final MoneyAmount totalAmount;
+    
+    private final Map<Currency, MoneyAmount> subtotalsBySource;
+    
+    private final Map<Currency, MoneyAmount> convertedBySource;
+    
+    /**
+     * Gives the total of the portfolio in the target currency.
+     * @return The total. For example, 168,57&euro;. This is always the sum of 
+     * the values of {@link #getConvertedSubtotals()}.
+     */
+    public MoneyAmount getTotal() {
+        return this.totalAmount;
+    }
+    
+    /**
+     * Gives the subtotal of the portfolio in each source currency, before 
+     * conversion.
+     * @return An unmodifiable map from each source currency to the sum of the 
+     * amounts in that currency, ordered by currency code. For example, GBP 
+     * &rarr; &pound;50.00, USD &rarr; $120.00. A currency whose amounts cancel 
+     * out is still included, with a subtotal of 0.
+     */
+    public Map<Currency, MoneyAmount> getSubtotals() {
+        return this.subtotalsBySource;
+    }
+    
+    /**
+     * Gives the subtotal of the portfolio in each source currency, converted 
+     * to the target currency.
+     * @return An unmodifiable map from each source currency to its subtotal 
+     * converted to the target currency, ordered by source currency code. For 
+     * example, GBP &rarr; 59,56&euro;, USD &rarr; 109,01&euro;.
+     */
+    public Map<Currency, MoneyAmount> getConvertedSubtotals() {
+        return this.convertedBySource;
+    }
+    
+    @Override
+    public String toString() {
+        return "Portfolio total " + this.totalAmount.toString() + " from " 
+                + this.subtotalsBySource.values().toString();
+    }
+    
+    /**
+     * Sums raw divisions of the unit of each currency for {@link 
+     * PortfolioTotal#summing(ExchangeRateProvider, java.util.Currency, 
+     * java.math.RoundingMode) summing()}.
+     */
+    private static class Holdings {
+        
+        private final long[] centsByOrdinal 
+                = new long[CurrencyMetadata.count()];
+        
+        private final boolean[] seen = new boolean[CurrencyMetadata.count()];
+        
+        private void addCents(int ordinal, long cents) {
+            this.centsByOrdinal[ordinal] 
+                    = Math.addExact(this.centsByOrdinal[ordinal], cents);
+            this.seen[ordinal] = true;
+        }
+        
+        void add(MoneyAmount amount) {
+            int ordinal = CurrencyMetadata.of(amount.getCurrency())
+                    .getOrdinal();
+            this.addCents(ordinal, amount.getFullAmountInCents());
+        }
+        
+        Holdings combine(Holdings other) {
+            for (int i = 0; i < other.seen.length; i++) {
+                if (other.seen[i]) {
+                    this.addCents(i, other.centsByOrdinal[i]);
+                }
+            }
+            return this;
+        }
+    
+    }
+    
+    private static PortfolioTotal finish(Holdings holdings, 
+            ExchangeRateProvider provider, Currency target, 
+            RoundingMode roundingMode) {
+        Map<Currency, MoneyAmount> subtotals = new LinkedHashMap<>();
+        Map<Currency, MoneyAmount> converted = new LinkedHashMap<>();
+        long totalCents = 0L;
+        for (int i = 0; i < holdings.seen.length; i++) {
+            if (holdings.seen[i]) {
+                Currency source = CurrencyMetadata.forOrdinal(i).getCurrency();
+                long cents = holdings.centsByOrdinal[i];
+                double rate = provider.getRate(source, target);
+                long convertedCents = CurrencyConverter.convertCents(cents, 
+                        source, target, rate, roundingMode);
+                totalCents = Math.addExact(totalCents, convertedCents);
+                subtotals.put(source, 
+                        MoneyAmount.fromFullAmountInCents(cents, source));
+                converted.put(source, 
+                        MoneyAmount.fromFullAmountInCents(convertedCents, 
+                                target));
+            }
+        }
+        MoneyAmount total = MoneyAmount.fromFullAmountInCents(totalCents, 
+                target);
+        return new PortfolioTotal(total, 
+                Collections.unmodifiableMap(subtotals), 
+                Collections.unmodifiableMap(converted));
+    }
+    
+    /**
+     * Gives a collector to total up a stream of money amounts in any number of 
+     * currencies, converted to a target currency. Any fraction of the smallest 
+     * division of the target currency in a converted subtotal is dropped, 
+     * rounding toward negative infinity, the same as {@link 
+     * CurrencyConverter#convert(currency.MoneyAmount, java.util.Currency)}.
+     * @param provider The provider to query for exchange rates. For example, 
+     * an instance of {@link HardCodedRateProvider}.
+     * @param target The target currency. For example, euros (EUR).
+     * @return A collector that gives the portfolio total. For an empty 
+     * stream, the total is 0 of {@code target} with an empty breakdown. The 
+     * collector will throw an {@code ArithmeticException} if a subtotal or 
+     * the total overflows.
+     * @throws IllegalArgumentException If {@code target} is a pseudocurrency 
+     * like gold (XAU).
+     * @throws NullPointerException If {@code provider} or {@code target} is 
+     * null.
+     */
+    public static Collector<MoneyAmount, ?, PortfolioTotal> 
+            summing(ExchangeRateProvider provider, Currency target) {
+        return summing(provider, target, RoundingMode.FLOOR);
+    }
+    
+    /**
+     * Gives a collector to total up a stream of money amounts in any number of 
+     * currencies, converted to a target currency, rounding as specified.
+     * @param provider The provider to query for exchange rates. For example, 
+     * an instance of {@link HardCodedRateProvider}.
+     * @param target The target currency. For example, euros (EUR).
+     * @param roundingMode How to round off any fraction of the smallest 
+     * division of the target currency in each converted subtotal. For 
+     * example, {@code RoundingMode.HALF_EVEN}.
+     * @return A collector that gives the portfolio total. For an empty 
+     * stream, the total is 0 of {@code target} with an empty breakdown. The 
+     * collector will throw an {@code ArithmeticException} if a subtotal or 
+     * the total overflows, or if {@code roundingMode} is {@code 
+     * RoundingMode.UNNECESSARY} but rounding is necessary.
+     * @throws IllegalArgumentException If {@code target} is a pseudocurrency 
+     * like gold (XAU).
+     * @throws NullPointerException If {@code provider}, {@code target} or 
+     * {@code roundingMode} is null.
+     */
+    public static Collector<MoneyAmount, ?, PortfolioTotal> 
+            summing(ExchangeRateProvider provider, Currency target, 
+                    RoundingMode roundingMode) {
+        if (provider == null) {
+            String excMsg = "Rate provider should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (target == null) {
+            String excMsg = "Target currency should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (roundingMode == null) {
+            String excMsg = "Rounding mode should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        CurrencyMetadata.ofSupported(target);
+        return Collector.of(Holdings::new, Holdings::add, Holdings::combine, 
+                holdings -> finish(holdings, provider, target, roundingMode));
+    }
+    
+    private PortfolioTotal(MoneyAmount total, 
+            Map<Currency, MoneyAmount> subtotals, 
+            Map<Currency, MoneyAmount> converted) {
+        this.totalAmount = total;
+        this.subtotalsBySource = subtotals;
+        this.convertedBySource = converted;
+    }
+    
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyPair;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes batches of conversion rate quotes to a compact binary format and 
+ * decodes them back. The format is as follows:
+ * <ol>
+ * <li>The magic number {@link #MAGIC_NUMBER}, 4 bytes.</li>
+ * <li>The format version, 1 byte. See {@link #VERSION}.</li>
+ * <li>The number of distinct currency pairs in the batch as a variable length 
+ * integer (varint), followed by each pair as the 3-letter ISO-4217 codes of the 
+ * From and To currencies in ASCII.</li>
+ * <li>The number of quotes as a varint, followed by each quote: the index of 
+ * its pair in the pair table as a varint, the rate as a raw 64-bit IEEE-754 
+ * double, the seconds of the timestamp as a zigzag varint delta from the 
+ * previous quote, and the nanoseconds of the timestamp as a varint.</li>
+ * </ol>
+ * <p>Multi-byte values are in the byte order of the buffer, which for a new 
+ * buffer is big endian. Encoding writes straight into the caller's buffer and 
+ * decoding reads straight from it, starting at the buffer's position. Neither 
+ * makes an intermediate copy of the bytes.</p>
+ * @author Alonso del Arte
+ */
+public class QuoteBatchCodec {
+    
+    /**
+     * The magic number at the start of every encoded batch. In ASCII, this is 
+     * "CRQB."
+     */
+    public static final int MAGIC_NUMBER = 0x43525142;
+    
+    /**
+     * The version of the format written by {@link 
+     * #encode(java.util.Collection, java.nio.ByteBuffer) encode()}. Decoding 
+     * rejects any other version.
+     */
+    public static final byte VERSION = 1;
+    
+    private static final int CURRENCY_CODE_LENGTH = 3;
+    
+    private static final int MAXIMUM_VARINT_LENGTH = 10;
+    
+    private static final int HEADER_LENGTH = 5;
+    
+    private static final int PAIR_LENGTH = 2 * CURRENCY_CODE_LENGTH;
+    
+    // A one-byte pair index, the rate, one-byte seconds delta and nanoseconds
+    private static final int MINIMUM_QUOTE_LENGTH = Double.BYTES + 3;
+    
+    private static final long MAXIMUM_NANOS = 999_999_999L;
+    
+    private static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+    
+    private static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift >= 7 * MAXIMUM_VARINT_LENGTH) {
+                String excMsg = "Malformed varint at position " 
+                        + buffer.position();
+                throw new IllegalArgumentException(excMsg);
+            }
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+    
+    // Each of the items counted takes at least minimumLength bytes, so a
+    // count that couldn't possibly fit in what's left of the buffer is
+    // rejected before anything is allocated for it
+    private static int getCount(ByteBuffer buffer, int minimumLength, 
+            String description) {
+        long count = getVarint(buffer);
+        if (count < 0L || count > buffer.remaining() / minimumLength) {
+            String excMsg = description + " count " 
+                    + Long.toUnsignedString(count) + " is not valid with " 
+                    + buffer.remaining() + " bytes remaining";
+            throw new IllegalArgumentException(excMsg);
+        }
+        return (int) count;
+    }
+    
+    private static int varintLength(long value) {
+        int length = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static void putCurrency(ByteBuffer buffer, Currency currency) {
+        String code = currency.getCurrencyCode();
+        for (int i = 0; i < CURRENCY_CODE_LENGTH; i++) {
+            buffer.put((byte) code.charAt(i));
+        }
+    }
+    
+    private static Currency getCurrency(ByteBuffer buffer) {
+        char[] code = new char[CURRENCY_CODE_LENGTH];
+        for (int i = 0; i < CURRENCY_CODE_LENGTH; i++) {
+            code[i] = (char) buffer.get();
+        }
+        return Currency.getInstance(new String(code));
+    }
+    
+    private static Map<CurrencyPair, Integer> indexPairs(
+            Collection<ConversionRateQuote> quotes) {
+        Map<CurrencyPair, Integer> pairIndices = new HashMap<>();
+        for (ConversionRateQuote quote : quotes) {
+            pairIndices.putIfAbsent(quote.getCurrencies(), pairIndices.size());
+        }
+        return pairIndices;
+    }
+    
+    /**
+     * Tells how many bytes a batch of quotes takes up in the binary format. 
+     * This can be used to allocate a buffer of the right size before calling 
+     * {@link #encode(java.util.Collection, java.nio.ByteBuffer) encode()}.
+     * @param quotes The quotes. For example, 150 quotes with United States 
+     * dollars (USD) as the From currency.
+     * @return The number of bytes. For example, 2869.
+     * @throws NullPointerException If {@code quotes} is null or contains 
+     * nulls.
+     */
+    public static int encodedSize(Collection<ConversionRateQuote> quotes) {
+        Map<CurrencyPair, Integer> pairIndices = indexPairs(quotes);
+        int size = HEADER_LENGTH + varintLength(pairIndices.size()) 
+                + 2 * CURRENCY_CODE_LENGTH * pairIndices.size() 
+                + varintLength(quotes.size());
+        long previousSeconds = 0;
+        for (ConversionRateQuote quote : quotes) {
+            LocalDateTime date = quote.getDate();
+            long seconds = date.toEpochSecond(ZoneOffset.UTC);
+            size += varintLength(pairIndices.get(quote.getCurrencies())) 
+                    + Double.BYTES 
+                    + varintLength(zigzag(seconds - previousSeconds)) 
+                    + varintLength(date.getNano());
+            previousSeconds = seconds;
+        }
+        return size;
+    }
+    
+    /**
+     * Encodes a batch of quotes into a buffer. The quotes are written in the 
+     * order given by the collection's iterator, starting at the buffer's 
+     * current position. When this function returns, the buffer's position is 
+     * just past the end of the batch.
+     * @param quotes The quotes to encode. For example, 150 quotes with United 
+     * States dollars (USD) as the From currency. May be empty.
+     * @param buffer The buffer to write to. Should have at least {@link 
+     * #encodedSize(java.util.Collection) encodedSize(quotes)} bytes remaining.
+     * @return The number of bytes written. For example, 2869.
+     * @throws java.nio.BufferOverflowException If {@code buffer} does not have 
+     * enough room for the batch. Part of the batch may have been written by 
+     * then.
+     * @throws NullPointerException If {@code quotes} or {@code buffer} is 
+     * null, or if {@code quotes} contains nulls.
+     */
+    public static int encode(Collection<ConversionRateQuote> quotes, 
+            ByteBuffer buffer) {
+        int start = buffer.position();
+        Map<CurrencyPair, Integer> pairIndices = indexPairs(quotes);
+        CurrencyPair[] pairs = new CurrencyPair[pairIndices.size()];
+        pairIndices.forEach((pair, index) -> pairs[index] = pair);
+        buffer.putInt(MAGIC_NUMBER);
+        buffer.put(VERSION);
+        putVarint(buffer, pairs.length);
+        for (CurrencyPair pair : pairs) {
+            putCurrency(buffer, pair.getFromCurrency());
+            putCurrency(buffer, pair.getToCurrency());
+        }
+        putVarint(buffer, quotes.size());
+        long previousSeconds = 0;
+        for (ConversionRateQuote quote : quotes) {
+            LocalDateTime date = quote.getDate();
+            long seconds = date.toEpochSecond(ZoneOffset.UTC);
+            putVarint(buffer, pairIndices.get(quote.getCurrencies()));
+            buffer.putDouble(quote.getRate());
+            putVarint(buffer, zigzag(seconds - previousSeconds));
+            putVarint(buffer, date.getNano());
+            previousSeconds = seconds;
+        }
+        return buffer.position() - start;
+    }
+    
+    /**
+     * Decodes a batch of quotes from a buffer. Reading starts at the buffer's 
+     * current position. When this function returns, the buffer's position is 
+     * just past the end of the batch, so that another batch following it can 
+     * be decoded with another call.
+     * @param buffer The buffer to read from. For example, a buffer filled by 
+     * {@link #encode(java.util.Collection, java.nio.ByteBuffer) encode()} and 
+     * then flipped.
+     * @return The quotes, in the order they were encoded.
+     * @throws IllegalArgumentException If the bytes at the buffer's position 
+     * don't start with {@link #MAGIC_NUMBER}, if the version is not {@link 
+     * #VERSION}, or if the batch is otherwise malformed.
+     * @throws java.nio.BufferUnderflowException If the batch is truncated.
+     * @throws NullPointerException If {@code buffer} is null.
+     */
+    public static List<ConversionRateQuote> decode(ByteBuffer buffer) {
+        int magic = buffer.getInt();
+        if (magic != MAGIC_NUMBER) {
+            String excMsg = "Magic number 0x" + Integer.toHexString(magic) 
+                    + " does not indicate a quote batch";
+            throw new IllegalArgumentException(excMsg);
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            String excMsg = "Quote batch version " + version 
+                    + " is not supported, only version " + VERSION;
+            throw new IllegalArgumentException(excMsg);
+        }
+        int pairCount = getCount(buffer, PAIR_LENGTH, "Pair");
+        CurrencyPair[] pairs = new CurrencyPair[pairCount];
+        for (int i = 0; i < pairCount; i++) {
+            Currency from = getCurrency(buffer);
+            Currency to = getCurrency(buffer);
+            pairs[i] = new CurrencyPair(from, to);
+        }
+        int quoteCount = getCount(buffer, MINIMUM_QUOTE_LENGTH, "Quote");
+        List<ConversionRateQuote> quotes = new ArrayList<>(quoteCount);
+        long seconds = 0;
+        for (int i = 0; i < quoteCount; i++) {
+            long pairIndex = getVarint(buffer);
+            if (pairIndex < 0L || pairIndex >= pairCount) {
+                String excMsg = "Pair index " 
+                        + Long.toUnsignedString(pairIndex) 
+                        + " is out of range for " + pairCount + " pairs";
+                throw new IllegalArgumentException(excMsg);
+            }
+            double rate = buffer.getDouble();
+            seconds += unzigzag(getVarint(buffer));
+            long nanos = getVarint(buffer);
+            if (nanos < 0L || nanos > MAXIMUM_NANOS) {
+                String excMsg = "Nanoseconds " + Long.toUnsignedString(nanos) 
+                        + " of quote " + i + " are out of range";
+                throw new IllegalArgumentException(excMsg);
+            }
+            LocalDateTime date;
+            try {
+                date = LocalDateTime.ofEpochSecond(seconds, (int) nanos, 
+                        ZoneOffset.UTC);
+            } catch (DateTimeException dte) {
+                String excMsg = "Seconds " + seconds + " of quote " + i 
+                        + " are out of range";
+                throw new IllegalArgumentException(excMsg, dte);
+            }
+            quotes.add(new ConversionRateQuote(pairs[(int) pairIndex], rate, 
+                    date));
+        }
+        return quotes;
+    }
+    
+}
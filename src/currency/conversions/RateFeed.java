@@ -0,0 +1,409 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyPair;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Publishes conversion rate quotes to any number of subscribers as the quotes 
+ * come in, so that subscribers like a converter window don't have to keep 
+ * polling an exchange rate provider. Each subscriber can be given a filter so 
+ * that it only gets quotes for the currency pairs it cares about.
+ * <p>This honors backpressure. Quotes for a subscriber wait in a buffer until 
+ * the subscriber requests them. A new quote for a pair that already has a 
+ * quote waiting replaces the waiting quote, keeping its place in line, since 
+ * only the latest rate matters. This is known as conflation. Thus a slow 
+ * subscriber never gets stale quotes, and its buffer never holds more than one 
+ * quote per pair. Each buffer is further limited to a set number of pairs. If 
+ * a quote comes in for a new pair when a buffer is full, the quote that has 
+ * waited longest is dropped from that buffer.</p>
+ * <p>Quotes are delivered on threads of the executor given to the 
+ * constructor. Signals to any one subscriber are never concurrent, but 
+ * signals to different subscribers may be. A subscriber that throws an 
+ * exception from {@code onNext()} is treated as having cancelled. Instances 
+ * may be shared between threads.</p>
+ * @author Alonso del Arte
+ */
+public class RateFeed implements Flow.Publisher<ConversionRateQuote>, 
+        AutoCloseable {
+    
+    /**
+     * How many currency pairs each subscriber's buffer can hold if no number 
+     * is specified.
+     */
+    public static final int DEFAULT_BUFFER_CAPACITY = 256;
+    
+    private final Executor executor;
+    
+    private final int bufferCapacity;
+    
+    private final List<FeedSubscription> subscriptions 
+            = new CopyOnWriteArrayList<>();
+    
+    private final Map<CurrencyPair, Double> lastRates 
+            = new ConcurrentHashMap<>();
+    
+    private final AtomicLong conflatedCount = new AtomicLong();
+    
+    private final AtomicLong droppedCount = new AtomicLong();
+    
+    private volatile boolean closed = false;
+    
+    /**
+     * Subscribes a subscriber to quotes for all currency pairs.
+     * @param subscriber The subscriber. For example, a subscriber that updates 
+     * a display of rates.
+     * @throws NullPointerException If {@code subscriber} is null.
+     */
+    @Override
+    public void subscribe(
+            Flow.Subscriber<? super ConversionRateQuote> subscriber) {
+        this.subscribe(subscriber, pair -> true);
+    }
+    
+    /**
+     * Subscribes a subscriber to quotes for the currency pairs that pass a 
+     * filter. If this feed has been closed, the subscriber is told of the 
+     * completion right after it's given its subscription.
+     * @param subscriber The subscriber. For example, a subscriber that 
+     * revalues a portfolio held in euros (EUR).
+     * @param filter The filter for currency pairs. For example, {@code pair 
+     * -> pair.getToCurrency().equals(EUR)}.
+     * @throws NullPointerException If {@code subscriber} or {@code filter} is 
+     * null.
+     */
+    public void subscribe(
+            Flow.Subscriber<? super ConversionRateQuote> subscriber, 
+            Predicate<CurrencyPair> filter) {
+        if (subscriber == null || filter == null) {
+            String excMsg = "Subscriber, filter should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        FeedSubscription subscription 
+                = new FeedSubscription(subscriber, filter);
+        subscriber.onSubscribe(subscription);
+        this.subscriptions.add(subscription);
+        if (this.closed) {
+            subscription.complete();
+        }
+    }
+    
+    /**
+     * Publishes a quote to each subscriber whose filter accepts the quote's 
+     * currency pair. This returns right away, without waiting for the quote 
+     * to be delivered.
+     * @param quote The quote. For example, United States dollars (USD) to 
+     * euros (EUR) at 0.8623 as of 3:15 p.m. today.
+     * @return How many subscribers the quote was offered to. For example, 2.
+     * @throws IllegalStateException If this feed has been closed.
+     * @throws NullPointerException If {@code quote} is null.
+     */
+    public int publish(ConversionRateQuote quote) {
+        if (quote == null) {
+            String excMsg = "Quote should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (this.closed) {
+            String excMsg = "Feed was already closed";
+            throw new IllegalStateException(excMsg);
+        }
+        CurrencyPair currencies = quote.getCurrencies();
+        this.lastRates.put(currencies, quote.getRate());
+        int count = 0;
+        for (FeedSubscription subscription : this.subscriptions) {
+            if (subscription.offer(currencies, quote)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Queries a provider for the rates of some currency pairs, and publishes a 
+     * quote for each pair whose rate is different from the rate last 
+     * published for that pair. This is meant to be called on a schedule, so 
+     * that only the code calling this function has to poll the provider.
+     * @param provider The provider to query. For example, an instance of 
+     * {@link CachingExchangeRateProvider}.
+     * @param pairs The currency pairs to query. For example, USD to EUR and 
+     * USD to Japanese yen (JPY).
+     * @return How many quotes were published. For example, 1 if the USD to 
+     * EUR rate changed but the USD to JPY rate did not.
+     * @throws IllegalStateException If this feed has been closed.
+     * @throws RuntimeException If {@code provider} throws one. Quotes for 
+     * pairs queried before the failure stay published.
+     */
+    public int refresh(ExchangeRateProvider provider, 
+            Collection<CurrencyPair> pairs) {
+        int count = 0;
+        for (CurrencyPair currencies : pairs) {
+            double rate = provider.getRate(currencies);
+            Double last = this.lastRates.get(currencies);
+            if (last == null || last != rate) {
+                this.publish(new ConversionRateQuote(currencies, rate));
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Tells how many subscribers this feed has.
+     * @return The number of subscribers that have not cancelled and have not 
+     * been told of completion. For example, 3.
+     */
+    public int getSubscriberCount() {
+        return this.subscriptions.size();
+    }
+    
+    /**
+     * Tells how many quotes replaced a quote for the same pair that was still 
+     * waiting in a subscriber's buffer. Each subscriber is counted separately.
+     * @return The number of conflated quotes. For example, 120.
+     */
+    public long getConflatedCount() {
+        return this.conflatedCount.get();
+    }
+    
+    /**
+     * Tells how many quotes were dropped because a subscriber's buffer was 
+     * full. Each subscriber is counted separately.
+     * @return The number of dropped quotes. Hopefully 0.
+     */
+    public long getDroppedCount() {
+        return this.droppedCount.get();
+    }
+    
+    /**
+     * Tells whether this feed has been closed.
+     * @return True if {@link #close()} has been called, false otherwise.
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+    
+    /**
+     * Closes this feed. No more quotes can be published. Each subscriber gets 
+     * the quotes still waiting in its buffer, as it requests them, and is then 
+     * told of the completion. Calling this function again has no effect.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        for (FeedSubscription subscription : this.subscriptions) {
+            subscription.complete();
+        }
+    }
+    
+    /**
+     * Auxiliary constructor. Quotes are delivered on threads of the common 
+     * fork-join pool, and each subscriber's buffer can hold {@link 
+     * #DEFAULT_BUFFER_CAPACITY} pairs.
+     */
+    public RateFeed() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BUFFER_CAPACITY);
+    }
+    
+    /**
+     * Primary constructor.
+     * @param deliveryExecutor The executor to deliver quotes on. For example, 
+     * {@code ForkJoinPool.commonPool()}.
+     * @param maxBufferedPairs How many currency pairs each subscriber's buffer 
+     * can hold. For example, 64.
+     * @throws IllegalArgumentException If {@code maxBufferedPairs} is less 
+     * than 1.
+     * @throws NullPointerException If {@code deliveryExecutor} is null.
+     */
+    public RateFeed(Executor deliveryExecutor, int maxBufferedPairs) {
+        if (deliveryExecutor == null) {
+            String excMsg = "Executor should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (maxBufferedPairs < 1) {
+            String excMsg = "Buffer capacity " + maxBufferedPairs 
+                    + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.executor = deliveryExecutor;
+        this.bufferCapacity = maxBufferedPairs;
+    }
+    
+    private class FeedSubscription implements Flow.Subscription {
+        
+        private final Flow.Subscriber<? super ConversionRateQuote> subscriber;
+        
+        private final Predicate<CurrencyPair> pairFilter;
+        
+        private final LinkedHashMap<CurrencyPair, ConversionRateQuote> pending 
+                = new LinkedHashMap<>();
+        
+        private long demand = 0L;
+        
+        private boolean completing = false;
+        
+        private boolean terminated = false;
+        
+        private boolean scheduled = false;
+        
+        private Throwable error = null;
+        
+        boolean offer(CurrencyPair currencies, ConversionRateQuote quote) {
+            if (!this.pairFilter.test(currencies)) {
+                return false;
+            }
+            synchronized (this) {
+                if (this.terminated || this.completing) {
+                    return false;
+                }
+                if (this.pending.containsKey(currencies)) {
+                    RateFeed.this.conflatedCount.incrementAndGet();
+                } else if (this.pending.size() >= RateFeed.this.bufferCapacity) {
+                    Iterator<CurrencyPair> iterator 
+                            = this.pending.keySet().iterator();
+                    iterator.next();
+                    iterator.remove();
+                    RateFeed.this.droppedCount.incrementAndGet();
+                }
+                this.pending.put(currencies, quote);
+            }
+            this.schedule();
+            return true;
+        }
+        
+        void complete() {
+            synchronized (this) {
+                this.completing = true;
+            }
+            this.schedule();
+        }
+        
+        private void schedule() {
+            synchronized (this) {
+                if (this.scheduled || this.terminated) {
+                    return;
+                }
+                this.scheduled = true;
+            }
+            try {
+                RateFeed.this.executor.execute(this::drain);
+            } catch (RejectedExecutionException ree) {
+                synchronized (this) {
+                    this.scheduled = false;
+                }
+            }
+        }
+        
+        private void drain() {
+            while (true) {
+                ConversionRateQuote next = null;
+                Throwable exc = null;
+                synchronized (this) {
+                    if (this.terminated) {
+                        this.scheduled = false;
+                        return;
+                    }
+                    if (this.error != null) {
+                        exc = this.error;
+                        this.terminated = true;
+                    } else if (this.demand > 0L && !this.pending.isEmpty()) {
+                        Iterator<ConversionRateQuote> iterator 
+                                = this.pending.values().iterator();
+                        next = iterator.next();
+                        iterator.remove();
+                        if (this.demand != Long.MAX_VALUE) {
+                            this.demand--;
+                        }
+                    } else if (this.completing && this.pending.isEmpty()) {
+                        this.terminated = true;
+                    } else {
+                        this.scheduled = false;
+                        return;
+                    }
+                }
+                if (next != null) {
+                    try {
+                        this.subscriber.onNext(next);
+                    } catch (RuntimeException re) {
+                        this.cancel();
+                        synchronized (this) {
+                            this.scheduled = false;
+                        }
+                        return;
+                    }
+                } else {
+                    RateFeed.this.subscriptions.remove(this);
+                    if (exc != null) {
+                        this.subscriber.onError(exc);
+                    } else {
+                        this.subscriber.onComplete();
+                    }
+                    synchronized (this) {
+                        this.scheduled = false;
+                    }
+                    return;
+                }
+            }
+        }
+        
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (n <= 0L) {
+                    String excMsg = "Request for " + n 
+                            + " quotes is not valid, should be positive";
+                    this.error = new IllegalArgumentException(excMsg);
+                    this.pending.clear();
+                } else {
+                    long total = this.demand + n;
+                    this.demand = (total < 0L) ? Long.MAX_VALUE : total;
+                }
+            }
+            this.schedule();
+        }
+        
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                this.terminated = true;
+                this.pending.clear();
+            }
+            RateFeed.this.subscriptions.remove(this);
+        }
+        
+        FeedSubscription(Flow.Subscriber<? super ConversionRateQuote> sub, 
+                Predicate<CurrencyPair> filter) {
+            this.subscriber = sub;
+            this.pairFilter = filter;
+        }
+    
+    }
+    
+}
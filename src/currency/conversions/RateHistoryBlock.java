@@ -0,0 +1,416 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyPair;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A compressed block of conversion rate quotes for a single currency pair. The 
+ * timestamps are stored as deltas of deltas and the rates are stored as the 
+ * bitwise exclusive or (XOR) of each rate with the previous one, in the manner 
+ * of the Gorilla time series database. Rate histories taken at regular 
+ * intervals compress very well this way, since most deltas of deltas are 0 and 
+ * consecutive rates tend to only differ in the low-order bits of the mantissa.
+ * <p>Blocks are built with a {@link Encoder} and read back with the iterator. 
+ * Neither requires the whole history to be in memory as {@link 
+ * ConversionRateQuote} instances at any one time. The timestamps are measured 
+ * against UTC only as a frame of reference for the arithmetic; they come back 
+ * exactly as they went in, nanoseconds included.</p>
+ * @author Alonso del Arte
+ */
+public class RateHistoryBlock implements Iterable<ConversionRateQuote> {
+    
+    /**
+     * How many bytes a quote would take up uncompressed: 8 bytes for the rate, 
+     * 8 bytes for the seconds of the timestamp and 4 bytes for the nanoseconds 
+     * of the timestamp. The currency pair is not counted, as it's the same for 
+     * the entire block.
+     */
+    public static final int UNCOMPRESSED_QUOTE_SIZE = 20;
+    
+    private static final int NANOS_BIT_LENGTH = 30;
+    
+    private static final int LEADING_ZEROS_BIT_LENGTH = 5;
+    
+    private static final int MAXIMUM_LEADING_ZEROS = 31;
+    
+    private static final int MEANINGFUL_BITS_BIT_LENGTH = 6;
+    
+    private final CurrencyPair pair;
+    
+    private final int count;
+    
+    private final long[] words;
+    
+    private final int bitLength;
+    
+    /**
+     * Retrieves the currency pair that all the quotes in this block are for.
+     * @return The currency pair. For example, United States dollars (USD) to 
+     * euros (EUR).
+     */
+    public CurrencyPair getCurrencies() {
+        return this.pair;
+    }
+    
+    /**
+     * Tells how many quotes are in this block.
+     * @return The number of quotes. For example, 525600 for a year of quotes 
+     * taken every minute.
+     */
+    public int size() {
+        return this.count;
+    }
+    
+    /**
+     * Tells how many bytes the compressed quotes take up.
+     * @return The number of bytes, rounded up to the nearest byte. For example, 
+     * 1193. Does not include the overhead of this object itself.
+     */
+    public int sizeInBytes() {
+        return (this.bitLength + 7) / 8;
+    }
+    
+    /**
+     * Compares the size of the compressed quotes to the size the quotes would 
+     * take up uncompressed. See {@link #UNCOMPRESSED_QUOTE_SIZE}.
+     * @return The ratio of the uncompressed size to the compressed size. For 
+     * example, 9.5. If this block is empty, the ratio is 1.0.
+     */
+    public double compressionRatio() {
+        if (this.count == 0) {
+            return 1.0;
+        }
+        return (double) this.count * UNCOMPRESSED_QUOTE_SIZE 
+                / this.sizeInBytes();
+    }
+    
+    /**
+     * Gives an iterator that decompresses the quotes one at a time, in the 
+     * order they were appended to the encoder. Each call to this function gives 
+     * an independent iterator.
+     * @return An iterator. It does not support {@link Iterator#remove()}.
+     */
+    @Override
+    public Iterator<ConversionRateQuote> iterator() {
+        return new Decoder();
+    }
+    
+    @Override
+    public String toString() {
+        return "Block of " + this.count + " quotes for " + this.pair.toString() 
+                + " in " + this.sizeInBytes() + " bytes";
+    }
+    
+    /**
+     * Compresses the quotes given by an iterator. The iterator is exhausted in 
+     * the process.
+     * @param currencies The currency pair. For example, United States dollars 
+     * (USD) to euros (EUR).
+     * @param quotes The quotes to compress. For example, a year of quotes for 
+     * USD to EUR taken every minute.
+     * @return A compressed block.
+     * @throws IllegalArgumentException If any of the quotes is for a pair other 
+     * than {@code currencies}.
+     * @throws NullPointerException If {@code currencies} or {@code quotes} is 
+     * null.
+     */
+    public static RateHistoryBlock encode(CurrencyPair currencies, 
+            Iterator<ConversionRateQuote> quotes) {
+        Encoder encoder = new Encoder(currencies);
+        while (quotes.hasNext()) {
+            encoder.append(quotes.next());
+        }
+        return encoder.build();
+    }
+    
+    private RateHistoryBlock(CurrencyPair currencies, int quoteCount, 
+            long[] bits, int bitCount) {
+        this.pair = currencies;
+        this.count = quoteCount;
+        this.words = bits;
+        this.bitLength = bitCount;
+    }
+    
+    /**
+     * Compresses quotes one at a time. The encoder can be used to build more 
+     * than one block, each one a snapshot of the quotes appended up to that 
+     * point.
+     */
+    public static class Encoder {
+        
+        private final CurrencyPair pair;
+        
+        private long[] words = new long[16];
+        
+        private int bitLength = 0;
+        
+        private int count = 0;
+        
+        private long previousSeconds;
+        
+        private long previousDelta;
+        
+        private int previousNanos;
+        
+        private long previousRateBits;
+        
+        private int previousLeadingZeros = Integer.MAX_VALUE;
+        
+        private int previousTrailingZeros = 0;
+        
+        private void writeBits(long value, int length) {
+            int available = 64 - (this.bitLength & 63);
+            int index = this.bitLength >>> 6;
+            if (index + 1 >= this.words.length) {
+                this.words = Arrays.copyOf(this.words, this.words.length * 2);
+            }
+            long masked = (length == 64) ? value : value & ((1L << length) - 1);
+            if (length <= available) {
+                this.words[index] |= masked << (available - length);
+            } else {
+                int overflow = length - available;
+                this.words[index] |= masked >>> overflow;
+                this.words[index + 1] |= masked << (64 - overflow);
+            }
+            this.bitLength += length;
+        }
+        
+        private void writeTimestamp(long seconds, int nanos) {
+            if (this.count == 0) {
+                this.writeBits(seconds, 64);
+                this.writeBits(nanos, NANOS_BIT_LENGTH);
+                return;
+            }
+            long delta = seconds - this.previousSeconds;
+            long deltaOfDelta = delta - this.previousDelta;
+            if (deltaOfDelta == 0) {
+                this.writeBits(0b0, 1);
+            } else if (deltaOfDelta >= -64 && deltaOfDelta < 64) {
+                this.writeBits(0b10, 2);
+                this.writeBits(deltaOfDelta, 7);
+            } else if (deltaOfDelta >= -256 && deltaOfDelta < 256) {
+                this.writeBits(0b110, 3);
+                this.writeBits(deltaOfDelta, 9);
+            } else if (deltaOfDelta >= -2048 && deltaOfDelta < 2048) {
+                this.writeBits(0b1110, 4);
+                this.writeBits(deltaOfDelta, 12);
+            } else {
+                this.writeBits(0b1111, 4);
+                this.writeBits(deltaOfDelta, 64);
+            }
+            if (nanos == this.previousNanos) {
+                this.writeBits(0b0, 1);
+            } else {
+                this.writeBits(0b1, 1);
+                this.writeBits(nanos, NANOS_BIT_LENGTH);
+            }
+            this.previousDelta = delta;
+        }
+        
+        private void writeRate(long rateBits) {
+            if (this.count == 0) {
+                this.writeBits(rateBits, 64);
+                return;
+            }
+            long xor = rateBits ^ this.previousRateBits;
+            if (xor == 0) {
+                this.writeBits(0b0, 1);
+                return;
+            }
+            int leadingZeros = Math.min(Long.numberOfLeadingZeros(xor), 
+                    MAXIMUM_LEADING_ZEROS);
+            int trailingZeros = Long.numberOfTrailingZeros(xor);
+            if (leadingZeros >= this.previousLeadingZeros 
+                    && trailingZeros >= this.previousTrailingZeros) {
+                int meaningful = 64 - this.previousLeadingZeros 
+                        - this.previousTrailingZeros;
+                this.writeBits(0b10, 2);
+                this.writeBits(xor >>> this.previousTrailingZeros, meaningful);
+            } else {
+                int meaningful = 64 - leadingZeros - trailingZeros;
+                this.writeBits(0b11, 2);
+                this.writeBits(leadingZeros, LEADING_ZEROS_BIT_LENGTH);
+                this.writeBits(meaningful - 1, MEANINGFUL_BITS_BIT_LENGTH);
+                this.writeBits(xor >>> trailingZeros, meaningful);
+                this.previousLeadingZeros = leadingZeros;
+                this.previousTrailingZeros = trailingZeros;
+            }
+        }
+        
+        /**
+         * Adds a quote to the block being built.
+         * @param quote The quote to add. For example, United States dollars 
+         * (USD) to euros (EUR) at 0.86237 as of 10:52 a.m. on November 11, 
+         * 2025. Quotes will ideally be appended in chronological order, but 
+         * this is not required.
+         * @throws IllegalArgumentException If {@code quote} is for a currency 
+         * pair other than the one this encoder was constructed with.
+         * @throws NullPointerException If {@code quote} is null.
+         */
+        public void append(ConversionRateQuote quote) {
+            if (!this.pair.equals(quote.getCurrencies())) {
+                String excMsg = "Quote " + quote.toString() 
+                        + " does not match block pair " + this.pair.toString();
+                throw new IllegalArgumentException(excMsg);
+            }
+            LocalDateTime date = quote.getDate();
+            long seconds = date.toEpochSecond(ZoneOffset.UTC);
+            int nanos = date.getNano();
+            long rateBits = Double.doubleToRawLongBits(quote.getRate());
+            this.writeTimestamp(seconds, nanos);
+            this.writeRate(rateBits);
+            this.previousSeconds = seconds;
+            this.previousNanos = nanos;
+            this.previousRateBits = rateBits;
+            this.count++;
+        }
+        
+        /**
+         * Builds a block from the quotes appended so far. The encoder may go on 
+         * to take more quotes after this.
+         * @return A block with the quotes appended so far.
+         */
+        public RateHistoryBlock build() {
+            int wordCount = (this.bitLength + 63) >>> 6;
+            return new RateHistoryBlock(this.pair, this.count, 
+                    Arrays.copyOf(this.words, wordCount), this.bitLength);
+        }
+        
+        /**
+         * Sole constructor.
+         * @param currencies The currency pair for the block. For example, 
+         * United States dollars (USD) to euros (EUR).
+         * @throws NullPointerException If {@code currencies} is null.
+         */
+        public Encoder(CurrencyPair currencies) {
+            if (currencies == null) {
+                String excMsg = "Currency pair should not be null";
+                throw new NullPointerException(excMsg);
+            }
+            this.pair = currencies;
+        }
+    
+    }
+    
+    private class Decoder implements Iterator<ConversionRateQuote> {
+        
+        private int position = 0;
+        
+        private int index = 0;
+        
+        private long seconds;
+        
+        private long delta;
+        
+        private int nanos;
+        
+        private long rateBits;
+        
+        private int leadingZeros;
+        
+        private int trailingZeros;
+        
+        private long readBits(int length) {
+            int offset = this.position & 63;
+            int wordIndex = this.position >>> 6;
+            long value = words[wordIndex] << offset;
+            if (offset + length > 64) {
+                value |= words[wordIndex + 1] >>> (64 - offset);
+            }
+            this.position += length;
+            return (length == 64) ? value : value >>> (64 - length);
+        }
+        
+        private long readSigned(int length) {
+            long value = this.readBits(length);
+            return (value << (64 - length)) >> (64 - length);
+        }
+        
+        private void readTimestamp() {
+            if (this.index == 0) {
+                this.seconds = this.readBits(64);
+                this.nanos = (int) this.readBits(NANOS_BIT_LENGTH);
+                return;
+            }
+            long deltaOfDelta;
+            if (this.readBits(1) == 0) {
+                deltaOfDelta = 0;
+            } else if (this.readBits(1) == 0) {
+                deltaOfDelta = this.readSigned(7);
+            } else if (this.readBits(1) == 0) {
+                deltaOfDelta = this.readSigned(9);
+            } else if (this.readBits(1) == 0) {
+                deltaOfDelta = this.readSigned(12);
+            } else {
+                deltaOfDelta = this.readBits(64);
+            }
+            this.delta += deltaOfDelta;
+            this.seconds += this.delta;
+            if (this.readBits(1) == 1) {
+                this.nanos = (int) this.readBits(NANOS_BIT_LENGTH);
+            }
+        }
+        
+        private void readRate() {
+            if (this.index == 0) {
+                this.rateBits = this.readBits(64);
+                return;
+            }
+            if (this.readBits(1) == 0) {
+                return;
+            }
+            if (this.readBits(1) == 1) {
+                this.leadingZeros 
+                        = (int) this.readBits(LEADING_ZEROS_BIT_LENGTH);
+                int meaningful 
+                        = (int) this.readBits(MEANINGFUL_BITS_BIT_LENGTH) + 1;
+                this.trailingZeros = 64 - this.leadingZeros - meaningful;
+            }
+            int meaningful = 64 - this.leadingZeros - this.trailingZeros;
+            this.rateBits ^= this.readBits(meaningful) << this.trailingZeros;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return this.index < count;
+        }
+        
+        @Override
+        public ConversionRateQuote next() {
+            if (!this.hasNext()) {
+                String excMsg = "All " + count + " quotes already decoded";
+                throw new NoSuchElementException(excMsg);
+            }
+            this.readTimestamp();
+            this.readRate();
+            this.index++;
+            LocalDateTime date = LocalDateTime.ofEpochSecond(this.seconds, 
+                    this.nanos, ZoneOffset.UTC);
+            return new ConversionRateQuote(pair, 
+                    Double.longBitsToDouble(this.rateBits), date);
+        }
+    
+    }
+    
+}
@@ -0,0 +1,449 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencySet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Funnels rate requests to a provider with a request quota through a {@link 
+ * TokenBucket}, so that a burst of requests can't use up the quota. For 
+ * example, {@link currency.conversions.ayrtech.FreeAPIAccess}, since 
+ * ExchangeRate-API keys are limited to a set number of requests per month.
+ * <p>Requests wait in a queue until the bucket has a token. Requests for the 
+ * same base currency that are waiting at the same time are merged into a 
+ * single call to {@link ExchangeRateProvider#getRates(java.util.Currency, 
+ * java.util.Collection) getRates()} on the provider, which for many APIs costs 
+ * the same as a single rate. Requests with {@link Priority#INTERACTIVE} 
+ * priority go ahead of requests with {@link Priority#BATCH} priority, and 
+ * otherwise requests are served in the order they came in.</p>
+ * <p>A single daemon thread makes the calls to the provider. Call {@link 
+ * #shutdown()} to stop it once the scheduler is no longer needed.</p>
+ * @author Alonso del Arte
+ */
+public final class RateRequestScheduler implements ExchangeRateProvider {
+    
+    /**
+     * How urgently a rate is needed.
+     */
+    public enum Priority {
+        
+        /**
+         * For a rate that someone is waiting on, such as to show a converted 
+         * price on screen.
+         */
+        INTERACTIVE, 
+        
+        /**
+         * For a rate that can wait, such as when refreshing a cache in the 
+         * background.
+         */
+        BATCH 
+    
+    }
+    
+    private final ExchangeRateProvider provider;
+    
+    private final TokenBucket bucket;
+    
+    private final Map<Currency, PendingCall> pendingCalls = new HashMap<>();
+    
+    private final Deque<PendingCall> interactiveQueue = new ArrayDeque<>();
+    
+    private final Deque<PendingCall> batchQueue = new ArrayDeque<>();
+    
+    private final Thread dispatcher;
+    
+    private boolean stopped = false;
+    
+    private long requestCount = 0L;
+    
+    private long mergedRequestCount = 0L;
+    
+    private long upstreamCallCount = 0L;
+    
+    /**
+     * Gives the provider that requests are passed on to.
+     * @return The provider that was given to the constructor.
+     */
+    public ExchangeRateProvider getProvider() {
+        return this.provider;
+    }
+    
+    /**
+     * Gives the token bucket that limits calls to the provider. The bucket can 
+     * be queried for how much of the quota is left.
+     * @return The bucket that was given to the constructor.
+     */
+    public TokenBucket getBucket() {
+        return this.bucket;
+    }
+    
+    /**
+     * Queues a request for a rate.
+     * @param source The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param target The currency to convert to. For example, euros (EUR).
+     * @param priority How urgently the rate is needed. For example, {@link 
+     * Priority#INTERACTIVE}.
+     * @return A future that completes with the rate once the provider has 
+     * been called. For example, 0.8623. If the provider fails, the future 
+     * completes exceptionally with whatever exception the provider threw.
+     * @throws IllegalStateException If this scheduler has been shut down.
+     * @throws NullPointerException If {@code source}, {@code target} or 
+     * {@code priority} is null.
+     */
+    public synchronized CompletableFuture<Double> submit(Currency source, 
+            Currency target, Priority priority) {
+        if (source == null || target == null || priority == null) {
+            String excMsg = "Source, target, priority should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (this.stopped) {
+            String excMsg = "Scheduler was already shut down";
+            throw new IllegalStateException(excMsg);
+        }
+        this.requestCount++;
+        PendingCall call = this.pendingCalls.get(source);
+        if (call == null) {
+            call = new PendingCall(source, priority);
+            this.pendingCalls.put(source, call);
+            this.queueFor(priority).add(call);
+            this.notifyAll();
+        } else {
+            this.mergedRequestCount++;
+            if (priority.compareTo(call.priority) < 0) {
+                this.queueFor(call.priority).remove(call);
+                call.priority = priority;
+                this.queueFor(priority).add(call);
+            }
+        }
+        CompletableFuture<Double> future = new CompletableFuture<>();
+        call.futures.computeIfAbsent(target, key -> new ArrayList<>())
+                .add(future);
+        return future;
+    }
+    
+    private Deque<PendingCall> queueFor(Priority priority) {
+        return (priority == Priority.INTERACTIVE) ? this.interactiveQueue 
+                : this.batchQueue;
+    }
+    
+    private synchronized void awaitWork() throws InterruptedException {
+        while (!this.stopped && this.pendingCalls.isEmpty()) {
+            this.wait();
+        }
+    }
+    
+    private synchronized PendingCall takeNext() {
+        PendingCall call = this.interactiveQueue.poll();
+        if (call == null) {
+            call = this.batchQueue.poll();
+        }
+        if (call != null) {
+            this.pendingCalls.remove(call.base);
+            this.upstreamCallCount++;
+        }
+        return call;
+    }
+    
+    private void dispatch(PendingCall call) {
+        RateVector rates;
+        try {
+            rates = this.provider.getRates(call.base, call.futures.keySet());
+        } catch (RuntimeException re) {
+            call.fail(re);
+            return;
+        }
+        for (Map.Entry<Currency, List<CompletableFuture<Double>>> entry 
+                : call.futures.entrySet()) {
+            try {
+                double rate = rates.getRate(entry.getKey());
+                entry.getValue().forEach(future -> future.complete(rate));
+            } catch (RuntimeException re) {
+                entry.getValue()
+                        .forEach(future -> future.completeExceptionally(re));
+            }
+        }
+    }
+    
+    private void runDispatcher() {
+        try {
+            while (true) {
+                this.awaitWork();
+                if (this.isShutDown()) {
+                    return;
+                }
+                this.bucket.acquire();
+                PendingCall call = this.takeNext();
+                if (call != null) {
+                    this.dispatch(call);
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Gives the rate to convert one unit of the source currency to the target 
+     * currency. The request is queued with {@link Priority#INTERACTIVE} 
+     * priority and the calling thread waits for it to be served.
+     * @param source The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param target The currency to convert to. For example, euros (EUR).
+     * @return The rate. For example, 0.8623.
+     * @throws IllegalStateException If this scheduler has been shut down.
+     * @throws RuntimeException If the provider fails. This is the exception 
+     * the provider threw, or wraps it if it's a checked exception.
+     */
+    @Override
+    public double getRate(Currency source, Currency target) {
+        try {
+            return this.submit(source, target, Priority.INTERACTIVE).join();
+        } catch (CompletionException ce) {
+            Throwable cause = ce.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw ce;
+        }
+    }
+    
+    /**
+     * Gives the rates to convert one unit of a base currency to each of a 
+     * number of target currencies. The requests are queued with {@link 
+     * Priority#INTERACTIVE} priority all at once, so they're served by a 
+     * single call to the provider.
+     * @param base The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param targets The currencies to convert to. For example, euros (EUR), 
+     * British pounds (GBP) and Japanese yen (JPY).
+     * @return The rates. For example, 0.8623 for EUR, 0.7512 for GBP and 
+     * 147.39 for JPY.
+     * @throws IllegalStateException If this scheduler has been shut down.
+     * @throws RuntimeException If the provider fails. This is the exception 
+     * the provider threw, or wraps it if it's a checked exception.
+     */
+    @Override
+    public RateVector getRates(Currency base, Collection<Currency> targets) {
+        Map<Currency, CompletableFuture<Double>> futures 
+                = new LinkedHashMap<>();
+        synchronized (this) {
+            for (Currency target : targets) {
+                futures.put(target, this.submit(base, target, 
+                        Priority.INTERACTIVE));
+            }
+        }
+        RateVector.Builder builder = new RateVector.Builder(base);
+        for (Map.Entry<Currency, CompletableFuture<Double>> entry 
+                : futures.entrySet()) {
+            try {
+                builder.put(entry.getKey(), entry.getValue().join());
+            } catch (CompletionException ce) {
+                Throwable cause = ce.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw ce;
+            }
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Queues a request for a rate with {@link Priority#INTERACTIVE} priority.
+     * @param source The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param target The currency to convert to. For example, euros (EUR).
+     * @return A future that completes with the rate once the provider has 
+     * been called. For example, 0.8623.
+     * @throws IllegalStateException If this scheduler has been shut down.
+     */
+    @Override
+    public CompletableFuture<Double> getRateAsync(Currency source, 
+            Currency target) {
+        return this.submit(source, target, Priority.INTERACTIVE);
+    }
+    
+    /**
+     * Gives the currencies supported by the provider. This does not go 
+     * through the token bucket.
+     * @return The same set of currencies as the provider gives.
+     */
+    @Override
+    public Set<Currency> supportedCurrencies() {
+        return this.provider.supportedCurrencies();
+    }
+    
+    /**
+     * Gives the currencies supported by the provider, as an immutable 
+     * currency set. This does not go through the token bucket either.
+     * @return The same currency set as the provider gives.
+     */
+    @Override
+    public CurrencySet supportedCurrencySet() {
+        return this.provider.supportedCurrencySet();
+    }
+    
+    /**
+     * Tells whether the wrapped provider gives rates without querying a remote 
+     * source.
+     * @return The same as the wrapped provider gives.
+     */
+    @Override
+    public boolean isLocal() {
+        return this.provider.isLocal();
+    }
+    
+    /**
+     * Tells how many rates have been requested so far.
+     * @return The number of requests, whether made through {@link 
+     * #submit(java.util.Currency, java.util.Currency, 
+     * currency.conversions.RateRequestScheduler.Priority) submit()} or through 
+     * the {@link ExchangeRateProvider} functions. For example, 50.
+     */
+    public synchronized long getRequestCount() {
+        return this.requestCount;
+    }
+    
+    /**
+     * Tells how many requests were merged into a call that was already 
+     * queued for the same base currency.
+     * @return The number of merged requests. For example, 38.
+     */
+    public synchronized long getMergedRequestCount() {
+        return this.mergedRequestCount;
+    }
+    
+    /**
+     * Tells how many calls have been made to the provider so far. Each of 
+     * these calls took a token from the bucket.
+     * @return The number of calls to the provider. For example, 12.
+     */
+    public synchronized long getUpstreamCallCount() {
+        return this.upstreamCallCount;
+    }
+    
+    /**
+     * Tells how many requests are waiting to be served.
+     * @return The number of queued requests, counting each target currency of 
+     * each queued call once. For example, 3.
+     */
+    public synchronized int getQueuedRequestCount() {
+        int count = 0;
+        for (PendingCall call : this.pendingCalls.values()) {
+            count += call.futures.size();
+        }
+        return count;
+    }
+    
+    /**
+     * Tells whether this scheduler has been shut down.
+     * @return True if {@link #shutdown()} has been called, false otherwise.
+     */
+    public synchronized boolean isShutDown() {
+        return this.stopped;
+    }
+    
+    /**
+     * Stops this scheduler. Requests still in the queue are not passed on to 
+     * the provider. Their futures complete exceptionally with an {@code 
+     * IllegalStateException}. Calling this function again has no effect.
+     */
+    public void shutdown() {
+        List<PendingCall> abandoned;
+        synchronized (this) {
+            if (this.stopped) {
+                return;
+            }
+            this.stopped = true;
+            abandoned = new ArrayList<>(this.pendingCalls.values());
+            this.pendingCalls.clear();
+            this.interactiveQueue.clear();
+            this.batchQueue.clear();
+            this.notifyAll();
+        }
+        this.dispatcher.interrupt();
+        for (PendingCall call : abandoned) {
+            String excMsg = "Scheduler was shut down before rates from " 
+                    + call.base.getCurrencyCode() + " were fetched";
+            call.fail(new IllegalStateException(excMsg));
+        }
+    }
+    
+    /**
+     * Constructor. The dispatcher thread is started right away.
+     * @param rateProvider The provider to pass requests on to. For example, an 
+     * instance of {@link currency.conversions.ayrtech.FreeAPIAccess}.
+     * @param tokenBucket The bucket that limits calls to {@code rateProvider}. 
+     * For example, a bucket with a capacity of 10 refilled at 1 token every 
+     * five minutes. It should not be shared with anything else that calls 
+     * {@code rateProvider}, unless that's meant to count against the same 
+     * quota.
+     * @throws NullPointerException If {@code rateProvider} or {@code 
+     * tokenBucket} is null.
+     */
+    public RateRequestScheduler(ExchangeRateProvider rateProvider, 
+            TokenBucket tokenBucket) {
+        if (rateProvider == null || tokenBucket == null) {
+            String excMsg = "Rate provider, token bucket should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.provider = rateProvider;
+        this.bucket = tokenBucket;
+        this.dispatcher = new Thread(this::runDispatcher, 
+                "rate-request-scheduler");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+    
+    private static class PendingCall {
+        
+        private final Currency base;
+        
+        private final Map<Currency, List<CompletableFuture<Double>>> futures 
+                = new LinkedHashMap<>();
+        
+        private Priority priority;
+        
+        void fail(Throwable exc) {
+            for (List<CompletableFuture<Double>> list : this.futures.values()) {
+                list.forEach(future -> future.completeExceptionally(exc));
+            }
+        }
+        
+        PendingCall(Currency baseCurrency, Priority initialPriority) {
+            this.base = baseCurrency;
+            this.priority = initialPriority;
+        }
+    
+    }
+    
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyMetadata;
+import currency.CurrencySet;
+import currency.UnsupportedCurrencyException;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * An immutable record of the rates to convert a number of source currencies to 
+ * a single target currency, as given by an exchange rate provider at a 
+ * particular moment. For example, the rates to convert United States dollars 
+ * (USD), British pounds (GBP) and Japanese yen (JPY) to euros (EUR), as of 
+ * 9:30 this morning.
+ * <p>The rates are held in an array indexed by currency ordinal, so looking up 
+ * a rate takes no queries and creates no objects. Since this class implements 
+ * {@link ExchangeRateProvider}, a snapshot can stand in for a live provider 
+ * wherever one is called for, but it will throw an {@link 
+ * UnsupportedCurrencyException} for any pair of currencies it did not 
+ * capture.</p>
+ * @author Alonso del Arte
+ */
+public final class RateSnapshot implements ExchangeRateProvider {
+    
+    private final Currency targetCurrency;
+    
+    private final LocalDateTime captureTime;
+    
+    private final double[] ratesByOrdinal;
+    
+    private final int sourceCount;
+    
+    private final CurrencySet currencySet;
+    
+    /**
+     * Gives the target currency of this snapshot.
+     * @return The target currency. For example, euros (EUR).
+     */
+    public Currency getTarget() {
+        return this.targetCurrency;
+    }
+    
+    /**
+     * Tells when this snapshot was captured. This is the time just before the 
+     * first rate was queried, and it's meant for audit trails.
+     * @return The time of the capture. For example, 9:30 a.m. on October 19, 
+     * 2026.
+     */
+    public LocalDateTime getTimestamp() {
+        return this.captureTime;
+    }
+    
+    /**
+     * Gives the source currencies this snapshot has rates for.
+     * @return A new set of the source currencies. For example, a set 
+     * containing USD, GBP and JPY. The caller is free to modify this set.
+     */
+    public Set<Currency> getSources() {
+        Set<Currency> sources = new HashSet<>(this.sourceCount);
+        for (int i = 0; i < this.ratesByOrdinal.length; i++) {
+            if (!Double.isNaN(this.ratesByOrdinal[i])) {
+                sources.add(CurrencyMetadata.forOrdinal(i).getCurrency());
+            }
+        }
+        return sources;
+    }
+    
+    /**
+     * Tells whether this snapshot has a rate for a source currency.
+     * @param source The source currency. For example, United States dollars 
+     * (USD).
+     * @return True if this snapshot has a rate to convert {@code source} to 
+     * the target currency, false otherwise.
+     * @throws NullPointerException If {@code source} is null.
+     */
+    public boolean covers(Currency source) {
+        int ordinal = CurrencyMetadata.of(source).getOrdinal();
+        return !Double.isNaN(this.ratesByOrdinal[ordinal]);
+    }
+    
+    /**
+     * Gives the captured rate to convert one unit of a source currency to the 
+     * target currency of this snapshot.
+     * @param source The source currency. For example, United States dollars 
+     * (USD).
+     * @return The rate as it was at the time of the capture. For example, 
+     * 0.908249.
+     * @throws UnsupportedCurrencyException If this snapshot has no rate for 
+     * {@code source}.
+     * @throws NullPointerException If {@code source} is null.
+     */
+    public double getRate(Currency source) {
+        double rate 
+                = this.ratesByOrdinal[CurrencyMetadata.of(source).getOrdinal()];
+        if (Double.isNaN(rate)) {
+            String excMsg = "Rate snapshot taken at " 
+                    + this.captureTime.toString() + " has no rate for " 
+                    + source.getDisplayName() + " (" 
+                    + source.getCurrencyCode() + ") to " 
+                    + this.targetCurrency.getCurrencyCode();
+            throw new UnsupportedCurrencyException(source, excMsg);
+        }
+        return rate;
+    }
+    
+    /**
+     * Gives the captured rate to convert one unit of a source currency to a 
+     * target currency.
+     * @param source The source currency. For example, United States dollars 
+     * (USD).
+     * @param target The target currency. It must be the target currency of 
+     * this snapshot. For example, euros (EUR).
+     * @return The rate as it was at the time of the capture. For example, 
+     * 0.908249.
+     * @throws UnsupportedCurrencyException If {@code target} is not the target 
+     * currency of this snapshot, or if this snapshot has no rate for {@code 
+     * source}.
+     * @throws NullPointerException If {@code source} is null.
+     */
+    @Override
+    public double getRate(Currency source, Currency target) {
+        if (!this.targetCurrency.equals(target)) {
+            String excMsg = "Rate snapshot for " 
+                    + this.targetCurrency.getCurrencyCode() 
+                    + " has no rates to " + target;
+            throw new UnsupportedCurrencyException(target, excMsg);
+        }
+        return this.getRate(source);
+    }
+    
+    /**
+     * Gives the currencies this snapshot has rates for, source and target.
+     * @return A new set of the source currencies and the target currency. For 
+     * example, a set containing USD, GBP, JPY and EUR.
+     */
+    @Override
+    public Set<Currency> supportedCurrencies() {
+        Set<Currency> currencies = this.getSources();
+        currencies.add(this.targetCurrency);
+        return currencies;
+    }
+    
+    /**
+     * Gives the currencies this snapshot has rates for, source and target, as 
+     * an immutable currency set. This set is worked out once, when the 
+     * snapshot is taken.
+     * @return The source currencies and the target currency. For example, a 
+     * set containing USD, GBP, JPY and EUR.
+     */
+    @Override
+    public CurrencySet supportedCurrencySet() {
+        return this.currencySet;
+    }
+    
+    /**
+     * Tells whether this snapshot gives rates without querying a remote 
+     * source. The rates are all in the snapshot, so they're always local.
+     * @return Always true.
+     */
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+    
+    @Override
+    public String toString() {
+        return "Rate snapshot of " + this.sourceCount + " rates to " 
+                + this.targetCurrency.getCurrencyCode() + " taken at " 
+                + this.captureTime.toString();
+    }
+    
+    /**
+     * Captures the rates to convert several source currencies to a target 
+     * currency. The provider is queried once for each distinct currency in 
+     * {@code sources}, and never again for this snapshot.
+     * @param provider The provider to query. For example, an instance of 
+     * {@link HardCodedRateProvider}.
+     * @param target The target currency. For example, euros (EUR).
+     * @param sources The source currencies. For example, United States dollars 
+     * (USD), British pounds (GBP) and Japanese yen (JPY). Duplicates are 
+     * ignored.
+     * @return A new snapshot.
+     * @throws IllegalArgumentException If the provider gives a negative, 
+     * infinite or NaN rate.
+     * @throws NullPointerException If {@code provider}, {@code target} or 
+     * {@code sources} is null, or if {@code sources} contains null.
+     */
+    public static RateSnapshot capture(ExchangeRateProvider provider, 
+            Currency target, Collection<Currency> sources) {
+        if (provider == null) {
+            String excMsg = "Rate provider should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (target == null) {
+            String excMsg = "Target currency should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        LocalDateTime timestamp = LocalDateTime.now();
+        double[] rates = OrdinalRates.emptyTable();
+        int count = 0;
+        Currency previousSource = null;
+        for (Currency source : sources) {
+            if (source == previousSource && source != null) {
+                continue;
+            }
+            int ordinal = CurrencyMetadata.of(source).getOrdinal();
+            if (Double.isNaN(rates[ordinal])) {
+                double rate = provider.getRate(source, target);
+                if (!(rate >= 0.0) || Double.isInfinite(rate)) {
+                    String excMsg = "Rate " + rate + " to convert " 
+                            + source.getCurrencyCode() + " to " 
+                            + target.getCurrencyCode() + " is not valid";
+                    throw new IllegalArgumentException(excMsg);
+                }
+                rates[ordinal] = rate;
+                count++;
+            }
+            previousSource = source;
+        }
+        return new RateSnapshot(target, timestamp, rates, count);
+    }
+    
+    private RateSnapshot(Currency target, LocalDateTime timestamp, 
+            double[] rates, int count) {
+        this.targetCurrency = target;
+        this.captureTime = timestamp;
+        this.ratesByOrdinal = rates;
+        this.sourceCount = count;
+        Set<Currency> currencies = this.getSources();
+        currencies.add(target);
+        this.currencySet = CurrencySet.of(currencies);
+    }
+    
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyPair;
+import currency.CurrencySet;
+import currency.UnsupportedCurrencyException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flattens a chain of exchange rate providers into a single {@link 
+ * CompiledRateTable}. For example, a {@link WeightedExchangeRateProvider} 
+ * around a {@link CachingExchangeRateProvider} around {@link 
+ * currency.conversions.ayrtech.FreeAPIAccess}. Going through each layer of 
+ * such a chain for every rate costs a call per layer, and with several kinds 
+ * of providers in use the calls can't be inlined. A compiled table answers 
+ * from a single array instead.
+ * <p>The chain is taken apart from the outside in. Weighted providers have 
+ * their current weight tables folded into the compiled rates. The first 
+ * provider that isn't a weighted provider is the base. A caching provider is 
+ * not taken apart, so that compiling goes through its cache and shows up in 
+ * its counts. The base is asked for the rates from each currency with one 
+ * call to {@link ExchangeRateProvider#getRates(java.util.Currency, 
+ * java.util.Collection) getRates()}. Spread tiers are not folded in, since 
+ * they depend on the amount to convert.</p>
+ * <p>Nothing is compiled until the table is first needed. Compiling takes one 
+ * {@code getRates()} call to the base for each currency in the table, and a 
+ * base that doesn't override {@code getRates()} looks up each rate separately, 
+ * so a table of <i>n</i> currencies can take as many as <i>n</i><sup>2</sup> 
+ * lookups. With a base that queries a remote API for each lookup, such as 
+ * {@link currency.conversions.mannys.FreeForExRateProvider}, it's best to give 
+ * the constructor just the currencies needed. The currencies must be given 
+ * unless the base is {@link ExchangeRateProvider#isLocal() local}.</p>
+ * <p>When the weight table of any of the weighted providers in the chain is 
+ * changed, the table is compiled again the next time a rate is asked for. 
+ * Changes in the rates given by the base can't be detected, so to pick those 
+ * up, call {@link #recompile()}.</p>
+ * @author Alonso del Arte
+ */
+public final class RateTableCompiler implements ExchangeRateProvider {
+    
+    private final ExchangeRateProvider base;
+    
+    // Innermost first, which is the order the weights are applied in
+    private final WeightedExchangeRateProvider[] weightedLayers;
+    
+    private final int layerCount;
+    
+    private final CurrencySet currencies;
+    
+    private final AtomicLong compileCount = new AtomicLong();
+    
+    private volatile Compilation compilation;
+    
+    /**
+     * Gives the base provider, the first provider in the chain that is not a 
+     * weighted provider.
+     * @return The base provider. For example, a caching provider around an 
+     * instance of {@link currency.conversions.ayrtech.FreeAPIAccess}.
+     */
+    public ExchangeRateProvider getBase() {
+        return this.base;
+    }
+    
+    /**
+     * Tells how many layers were flattened, not counting the base.
+     * @return The number of weighted providers taken apart. For example, 2 
+     * for a weighted provider around another weighted provider around the 
+     * base.
+     */
+    public int getLayerCount() {
+        return this.layerCount;
+    }
+    
+    /**
+     * Tells how many times the table has been compiled. The table is first 
+     * compiled the first time it's needed, not by the constructor.
+     * @return The number of compilations. For example, 3. This is 0 for a 
+     * compiler that hasn't been asked for any rates yet.
+     */
+    public long getCompileCount() {
+        return this.compileCount.get();
+    }
+    
+    /**
+     * Tells whether the weight table of any weighted provider in the chain has 
+     * changed since the table was last compiled.
+     * @return True if a weight table has changed or if the table hasn't been 
+     * compiled yet, false otherwise.
+     */
+    public boolean isStale() {
+        Compilation current = this.compilation;
+        return current == null || current.isStale(this.weightedLayers);
+    }
+    
+    private Compilation compile() {
+        WeightTable[] folded = new WeightTable[this.weightedLayers.length];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = this.weightedLayers[i].getWeightTable();
+        }
+        LocalDateTime timestamp = LocalDateTime.now();
+        int size = this.currencies.size();
+        double[] rates = new double[size * size];
+        int index = 0;
+        for (Currency source : this.currencies) {
+            RateVector vector = this.base.getRates(source, this.currencies);
+            for (Currency target : this.currencies) {
+                double rate = vector.getRate(target);
+                for (WeightTable table : folded) {
+                    rate = table.apply(source, target, rate);
+                }
+                rates[index++] = rate;
+            }
+        }
+        this.compileCount.incrementAndGet();
+        return new Compilation(new CompiledRateTable(this.currencies, rates, 
+                timestamp), folded);
+    }
+    
+    /**
+     * Compiles the table again, whether or not any weight table has changed. 
+     * This is how to pick up new rates from the base provider.
+     * @return The newly compiled table.
+     * @throws RuntimeException If the base provider throws one while giving 
+     * the rates. The previously compiled table then stays in use.
+     */
+    public synchronized CompiledRateTable recompile() {
+        Compilation recompiled = this.compile();
+        this.compilation = recompiled;
+        return recompiled.table;
+    }
+    
+    private synchronized Compilation compileIfStale() {
+        Compilation current = this.compilation;
+        if (current == null || current.isStale(this.weightedLayers)) {
+            current = this.compile();
+            this.compilation = current;
+        }
+        return current;
+    }
+    
+    /**
+     * Gives the compiled table, compiling it first if this is the first time 
+     * it's needed, or compiling it again first if any weight table has 
+     * changed. Checking for changes takes one read per weighted layer.
+     * @return The compiled table. For example, a table of the 24 currencies 
+     * supported by {@link HardCodedRateProvider}, with Japanese yen (JPY) 
+     * weighted to 0.01.
+     * @throws RuntimeException If the table needs to be compiled and the base 
+     * provider throws one while giving the rates. For example, {@link 
+     * UnsupportedCurrencyException} if the base doesn't support one of the 
+     * currencies given to the constructor.
+     */
+    public CompiledRateTable getTable() {
+        Compilation current = this.compilation;
+        if (current == null || current.isStale(this.weightedLayers)) {
+            current = this.compileIfStale();
+        }
+        return current.table;
+    }
+    
+    /**
+     * Gives the rate to convert one unit of the source currency to the target 
+     * currency, from the compiled table.
+     * @param source The source to convert from. For example, United States 
+     * dollars (USD).
+     * @param target The target to convert one unit of {@code source} to. For 
+     * example, Japanese yen (JPY).
+     * @return The rate with all weights applied. For example, 1.586152, if the 
+     * base gave 158.6152 and JPY was weighted to 0.01.
+     * @throws UnsupportedCurrencyException If the table was not compiled for 
+     * {@code source} or {@code target}.
+     * @throws NullPointerException If {@code source} or {@code target} is 
+     * null.
+     */
+    @Override
+    public double getRate(Currency source, Currency target) {
+        return this.getTable().getRate(source, target);
+    }
+    
+    /**
+     * Gives the rate to convert one unit of the source currency to the target 
+     * currency, from the compiled table.
+     * @param currencies The pair of currencies, source and target. For 
+     * example, United States dollars (USD) and Japanese yen (JPY).
+     * @return The rate with all weights applied. For example, 1.586152.
+     * @throws UnsupportedCurrencyException If the table was not compiled for 
+     * either currency of the pair.
+     * @throws NullPointerException If {@code currencies} is null.
+     */
+    @Override
+    public double getRate(CurrencyPair currencies) {
+        return this.getTable().getRate(currencies);
+    }
+    
+    /**
+     * Gives the rates to convert one unit of a base currency to each of a 
+     * number of target currencies, from the compiled table.
+     * @param base The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param targets The currencies to convert to. For example, euros (EUR) 
+     * and Japanese yen (JPY).
+     * @return The rates with all weights applied. For example, 0.8623 for EUR 
+     * and 1.586152 for JPY.
+     * @throws UnsupportedCurrencyException If the table was not compiled for 
+     * {@code base} or any of {@code targets}.
+     */
+    @Override
+    public RateVector getRates(Currency base, Collection<Currency> targets) {
+        return this.getTable().getRates(base, targets);
+    }
+    
+    /**
+     * Gives the currencies the table was compiled for.
+     * @return A new set of the currencies. The caller is free to modify this 
+     * set.
+     */
+    @Override
+    public Set<Currency> supportedCurrencies() {
+        return this.getTable().supportedCurrencies();
+    }
+    
+    /**
+     * Gives the currencies the table was compiled for, as an immutable 
+     * currency set.
+     * @return The currencies the table was compiled for.
+     */
+    @Override
+    public CurrencySet supportedCurrencySet() {
+        return this.getTable().supportedCurrencySet();
+    }
+    
+    /**
+     * Tells whether this compiler gives rates without querying a remote 
+     * source. Once compiled, the rates all come from the table, and the table 
+     * is for a fixed set of currencies.
+     * @return Always true.
+     */
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+    
+    /**
+     * Constructor for a table of all the currencies the base supports. The 
+     * table is not compiled until it's first needed, and then compiling it 
+     * takes one call to the base for each currency it supports.
+     * @param provider The outermost provider of the chain. For example, a 
+     * weighted provider around a caching provider around {@link 
+     * HardCodedRateProvider}.
+     * @throws IllegalArgumentException If the base is not {@link 
+     * ExchangeRateProvider#isLocal() local}. For example, {@link 
+     * currency.conversions.mannys.FreeForExRateProvider}, or a caching 
+     * provider around one. Use {@link 
+     * #RateTableCompiler(currency.conversions.ExchangeRateProvider, 
+     * java.util.Collection)} for such a base.
+     * @throws NullPointerException If {@code provider} is null.
+     */
+    public RateTableCompiler(ExchangeRateProvider provider) {
+        this(provider, null);
+    }
+    
+    /**
+     * Constructor for a table of only some currencies. The table is not 
+     * compiled until it's first needed, and then compiling it takes one call 
+     * to the base for each currency.
+     * @param provider The outermost provider of the chain. For example, a 
+     * weighted provider around a caching provider around {@link 
+     * HardCodedRateProvider}.
+     * @param currencies The currencies to compile the table for. For example, 
+     * United States dollars (USD), euros (EUR) and Japanese yen (JPY). May be 
+     * null, in which case the table is for all the currencies the base 
+     * supports, provided the base is {@link ExchangeRateProvider#isLocal() 
+     * local}.
+     * @throws IllegalArgumentException If {@code currencies} is empty, or if 
+     * {@code currencies} is null and the base is not local.
+     * @throws NullPointerException If {@code provider} is null, or if {@code 
+     * currencies} contains null.
+     */
+    public RateTableCompiler(ExchangeRateProvider provider, 
+            Collection<Currency> currencies) {
+        if (provider == null) {
+            String excMsg = "Provider should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (currencies != null && currencies.isEmpty()) {
+            String excMsg = "There should be at least one currency";
+            throw new IllegalArgumentException(excMsg);
+        }
+        List<WeightedExchangeRateProvider> layers = new ArrayList<>();
+        int count = 0;
+        ExchangeRateProvider current = provider;
+        while (current instanceof WeightedExchangeRateProvider) {
+            WeightedExchangeRateProvider weighted 
+                    = (WeightedExchangeRateProvider) current;
+            layers.add(weighted);
+            current = weighted.getProvider();
+            count++;
+        }
+        Collections.reverse(layers);
+        this.base = current;
+        this.weightedLayers 
+                = layers.toArray(new WeightedExchangeRateProvider[0]);
+        this.layerCount = count;
+        if (currencies == null) {
+            if (!this.base.isLocal()) {
+                String excMsg = "Base provider " + this.base.toString() 
+                        + " is not local, so the currencies to compile for" 
+                        + " should be given";
+                throw new IllegalArgumentException(excMsg);
+            }
+            this.currencies = this.base.supportedCurrencySet();
+        } else {
+            this.currencies = CurrencySet.of(currencies);
+        }
+    }
+    
+    private static final class Compilation {
+        
+        private final CompiledRateTable table;
+        
+        private final WeightTable[] foldedTables;
+        
+        boolean isStale(WeightedExchangeRateProvider[] layers) {
+            for (int i = 0; i < layers.length; i++) {
+                if (layers[i].getWeightTable() != this.foldedTables[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        Compilation(CompiledRateTable table, WeightTable[] folded) {
+            this.table = table;
+            this.foldedTables = folded;
+        }
+    
+    }
+    
+}
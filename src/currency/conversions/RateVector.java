@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyMetadata;
+import currency.UnsupportedCurrencyException;
+
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The rates to convert one unit of a base currency to each of a number of 
+ * target currencies. For example, the rates to convert one United States 
+ * dollar (USD) to euros (EUR), British pounds (GBP) and Japanese yen (JPY). 
+ * The rates are held in a primitive array indexed by the {@link 
+ * CurrencyMetadata#getOrdinal() ordinal} of each target currency, so looking 
+ * up a rate creates no objects. Instances are immutable, and are put together 
+ * with a {@link RateVector.Builder}.
+ * @author Alonso del Arte
+ */
+public final class RateVector {
+    
+    private final Currency baseCurrency;
+    
+    private final double[] ratesByOrdinal;
+    
+    private final int targetCount;
+    
+    /**
+     * Gives the base currency.
+     * @return The base currency. For example, United States dollars (USD).
+     */
+    public Currency getBase() {
+        return this.baseCurrency;
+    }
+    
+    /**
+     * Tells how many target currencies there are rates for.
+     * @return The number of target currencies. For example, 3.
+     */
+    public int size() {
+        return this.targetCount;
+    }
+    
+    /**
+     * Tells whether there is a rate for a target currency.
+     * @param target The target currency. For example, euros (EUR).
+     * @return True if there is a rate to convert the base currency to {@code 
+     * target}, false otherwise.
+     * @throws NullPointerException If {@code target} is null.
+     */
+    public boolean contains(Currency target) {
+        int ordinal = CurrencyMetadata.of(target).getOrdinal();
+        return !Double.isNaN(this.ratesByOrdinal[ordinal]);
+    }
+    
+    /**
+     * Gives the rate to convert one unit of the base currency to a target 
+     * currency.
+     * @param target The target currency. For example, euros (EUR).
+     * @return The rate. For example, 0.8623.
+     * @throws UnsupportedCurrencyException If there is no rate for {@code 
+     * target} in this vector.
+     * @throws NullPointerException If {@code target} is null.
+     */
+    public double getRate(Currency target) {
+        double rate 
+                = this.ratesByOrdinal[CurrencyMetadata.of(target).getOrdinal()];
+        if (Double.isNaN(rate)) {
+            String excMsg = "No rate for " + this.baseCurrency.getCurrencyCode() 
+                    + " to " + target.getDisplayName() + " (" 
+                    + target.getCurrencyCode() + ") in this vector";
+            throw new UnsupportedCurrencyException(target, excMsg);
+        }
+        return rate;
+    }
+    
+    /**
+     * Gives the rate to convert one unit of the base currency to the target 
+     * currency with the given ordinal. This is meant for callers that already 
+     * have the ordinal at hand, such as ones keeping their own arrays indexed 
+     * by ordinal.
+     * @param ordinal The {@link CurrencyMetadata#getOrdinal() ordinal} of the 
+     * target currency. For example, the ordinal of euros (EUR).
+     * @return The rate, or NaN if there is no rate for that currency in this 
+     * vector. For example, 0.8623.
+     * @throws ArrayIndexOutOfBoundsException If {@code ordinal} is negative or 
+     * not less than {@link CurrencyMetadata#count()}.
+     */
+    public double getRateByOrdinal(int ordinal) {
+        return this.ratesByOrdinal[ordinal];
+    }
+    
+    /**
+     * Gives the target currencies there are rates for.
+     * @return A new set of the target currencies. For example, a set 
+     * containing EUR, GBP and JPY. The caller is free to modify this set.
+     */
+    public Set<Currency> getTargets() {
+        Set<Currency> targets = new HashSet<>(this.targetCount);
+        for (int i = 0; i < this.ratesByOrdinal.length; i++) {
+            if (!Double.isNaN(this.ratesByOrdinal[i])) {
+                targets.add(CurrencyMetadata.forOrdinal(i).getCurrency());
+            }
+        }
+        return targets;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Rates from ");
+        builder.append(this.baseCurrency.getCurrencyCode()).append(" {");
+        String separator = "";
+        for (int i = 0; i < this.ratesByOrdinal.length; i++) {
+            if (!Double.isNaN(this.ratesByOrdinal[i])) {
+                builder.append(separator)
+                        .append(CurrencyMetadata.forOrdinal(i).getCurrency()
+                                .getCurrencyCode())
+                        .append('=').append(this.ratesByOrdinal[i]);
+                separator = ", ";
+            }
+        }
+        return builder.append('}').toString();
+    }
+    
+    /**
+     * Determines whether this rate vector is equal to some other object.
+     * @param obj The object to compare to. For example, a rate vector from USD 
+     * with the same rates to the same target currencies.
+     * @return True if {@code obj} is a rate vector with the same base currency 
+     * and exactly the same rates to exactly the same target currencies, false 
+     * in all other cases.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+        RateVector other = (RateVector) obj;
+        if (!this.baseCurrency.equals(other.baseCurrency)) {
+            return false;
+        }
+        return Arrays.equals(this.ratesByOrdinal, other.ratesByOrdinal);
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * this.baseCurrency.hashCode() 
+                + Arrays.hashCode(this.ratesByOrdinal);
+    }
+    
+    private RateVector(Currency base, double[] rates, int count) {
+        this.baseCurrency = base;
+        this.ratesByOrdinal = rates;
+        this.targetCount = count;
+    }
+    
+    /**
+     * Puts together a {@link RateVector} one rate at a time. A builder can't 
+     * be used again after {@link #build()} is called.
+     */
+    public static class Builder {
+        
+        private final Currency baseCurrency;
+        
+        private final double[] ratesByOrdinal;
+        
+        private int count = 0;
+        
+        private boolean built = false;
+        
+        /**
+         * Puts in the rate to convert one unit of the base currency to a 
+         * target currency. If there already is a rate for that target 
+         * currency, it's replaced.
+         * @param target The target currency. For example, euros (EUR).
+         * @param rate The rate. For example, 0.8623.
+         * @return This builder, so that calls can be chained.
+         * @throws IllegalArgumentException If {@code rate} is NaN.
+         * @throws IllegalStateException If {@link #build()} was already 
+         * called.
+         * @throws NullPointerException If {@code target} is null.
+         */
+        public Builder put(Currency target, double rate) {
+            if (this.built) {
+                String excMsg = "Rate vector was already built";
+                throw new IllegalStateException(excMsg);
+            }
+            if (Double.isNaN(rate)) {
+                String excMsg = "Rate for " 
+                        + this.baseCurrency.getCurrencyCode() + " to " 
+                        + target.getCurrencyCode() + " should not be NaN";
+                throw new IllegalArgumentException(excMsg);
+            }
+            int ordinal = CurrencyMetadata.of(target).getOrdinal();
+            if (Double.isNaN(this.ratesByOrdinal[ordinal])) {
+                this.count++;
+            }
+            this.ratesByOrdinal[ordinal] = rate;
+            return this;
+        }
+        
+        /**
+         * Finishes putting together the rate vector.
+         * @return The rate vector.
+         * @throws IllegalStateException If this function was already called.
+         */
+        public RateVector build() {
+            if (this.built) {
+                String excMsg = "Rate vector was already built";
+                throw new IllegalStateException(excMsg);
+            }
+            this.built = true;
+            return new RateVector(this.baseCurrency, this.ratesByOrdinal, 
+                    this.count);
+        }
+        
+        /**
+         * Sole constructor.
+         * @param base The base currency. For example, United States dollars 
+         * (USD).
+         * @throws NullPointerException If {@code base} is null.
+         */
+        public Builder(Currency base) {
+            if (base == null) {
+                String excMsg = "Base currency should not be null";
+                throw new NullPointerException(excMsg);
+            }
+            this.baseCurrency = base;
+            this.ratesByOrdinal = OrdinalRates.emptyTable();
+        }
+    
+    }
+    
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyPair;
+import currency.CurrencySet;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Gives exchange rates from the first of an ordered list of providers that 
+ * answers. The first provider in the list is the primary tier. If it hasn't 
+ * answered within a set percentile of its recent response times, a hedged 
+ * request is sent to the next tier, and whichever answers first is used. If a 
+ * tier fails, the next tier is queried right away. For example, the tiers 
+ * might be {@link currency.conversions.mannys.FreeForExRateProvider}, then 
+ * {@link currency.conversions.ayrtech.FreeAPIAccess}, then {@link 
+ * HardCodedRateProvider} as the last resort, which always answers right away 
+ * for the currencies it supports.
+ * <p>The primary tier's response times are kept in a ring buffer of the last 
+ * {@link #LATENCY_SAMPLE_SIZE} successful queries. Until there have been at 
+ * least {@link #MINIMUM_LATENCY_SAMPLES}, the initial hedge delay given to 
+ * the constructor is used instead of the percentile. Requests to all tiers go 
+ * through {@link ExchangeRateProvider#getRateAsync(java.util.Currency, 
+ * java.util.Currency) getRateAsync()}, so a slow tier only ties up the calling 
+ * thread for as long as it takes the fastest tier to answer.</p>
+ * <p>This provider keeps track of which tier served the latest rate for each 
+ * pair of currencies, and how many rates each tier has served. Instances may 
+ * be shared between threads.</p>
+ * @author Alonso del Arte
+ */
+public class TieredExchangeRateProvider implements ExchangeRateProvider {
+    
+    /**
+     * How many of the primary tier's most recent response times are used to 
+     * work out the hedge delay.
+     */
+    public static final int LATENCY_SAMPLE_SIZE = 256;
+    
+    /**
+     * How many response times need to be recorded for the primary tier before 
+     * the percentile is used for the hedge delay.
+     */
+    public static final int MINIMUM_LATENCY_SAMPLES = 16;
+    
+    /**
+     * The percentile of the primary tier's response times to wait for before 
+     * sending a hedged request, if none is specified.
+     */
+    public static final double DEFAULT_HEDGE_PERCENTILE = 0.95;
+    
+    /**
+     * How long to wait before sending a hedged request while there are not 
+     * yet enough recorded response times, if none is specified.
+     */
+    public static final Duration DEFAULT_INITIAL_HEDGE_DELAY 
+            = Duration.ofMillis(500L);
+    
+    private final List<ExchangeRateProvider> providers;
+    
+    private final double percentile;
+    
+    private final long initialDelayNanos;
+    
+    private final LatencyWindow primaryLatencies = new LatencyWindow();
+    
+    private final Map<CurrencyPair, Integer> servingTiers 
+            = new ConcurrentHashMap<>();
+    
+    private final AtomicLongArray serveCounts;
+    
+    private final AtomicLong hedgeCount = new AtomicLong();
+    
+    /**
+     * Gives the tiers in order.
+     * @return A new list of the providers that were given to the constructor, 
+     * in the same order. The caller is free to modify this list.
+     */
+    public List<ExchangeRateProvider> getTiers() {
+        return new ArrayList<>(this.providers);
+    }
+    
+    /**
+     * Gives how long the next request will wait on a tier before sending a 
+     * hedged request to the next tier.
+     * @return The hedge delay. For example, 180 milliseconds, if that's the 
+     * 95th percentile of the primary tier's recent response times.
+     */
+    public Duration getHedgeDelay() {
+        return Duration.ofNanos(this.hedgeDelayNanos());
+    }
+    
+    private long hedgeDelayNanos() {
+        long delay = this.primaryLatencies.percentile(this.percentile);
+        return (delay < 0L) ? this.initialDelayNanos : delay;
+    }
+    
+    private void launch(int tier, Currency source, Currency target, 
+            BlockingQueue<Outcome> outcomes) {
+        long start = System.nanoTime();
+        CompletableFuture<Double> future;
+        try {
+            future = this.providers.get(tier).getRateAsync(source, target);
+        } catch (RuntimeException re) {
+            outcomes.add(new Outcome(tier, Double.NaN, re));
+            return;
+        }
+        future.whenComplete((rate, exc) -> {
+            if (exc == null && rate != null) {
+                if (tier == 0) {
+                    this.primaryLatencies.record(System.nanoTime() - start);
+                }
+                outcomes.add(new Outcome(tier, rate, null));
+            } else {
+                Throwable cause = exc;
+                if (exc == null) {
+                    String excMsg = "Tier " + tier + " gave null rate";
+                    cause = new NullPointerException(excMsg);
+                } else if (exc instanceof CompletionException 
+                        && exc.getCause() != null) {
+                    cause = exc.getCause();
+                }
+                outcomes.add(new Outcome(tier, Double.NaN, cause));
+            }
+        });
+    }
+    
+    /**
+     * Gives the rate to convert one unit of the source currency to the target 
+     * currency, from whichever tier answers first. The primary tier is queried 
+     * first. Each time the hedge delay passes without an answer, the next tier 
+     * is queried as well. Each time a tier fails, the next tier is queried 
+     * right away.
+     * @param source The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param target The currency to convert to. For example, euros (EUR).
+     * @return The rate. For example, 0.8623.
+     * @throws RuntimeException If every tier fails. This is the exception 
+     * thrown by the primary tier, or wraps it if it's a checked exception, 
+     * with the exceptions thrown by the other tiers added as suppressed 
+     * exceptions. For example, if all the tiers are like {@link 
+     * HardCodedRateProvider} and none of them supports {@code target}, a 
+     * {@code NoSuchElementException}. Also if the calling thread is 
+     * interrupted while waiting, in which case the interrupt status is set 
+     * again.
+     */
+    @Override
+    public double getRate(Currency source, Currency target) {
+        BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        int tierCount = this.providers.size();
+        long delay = this.hedgeDelayNanos();
+        this.launch(0, source, target, outcomes);
+        int next = 1;
+        int pending = 1;
+        RuntimeException failure = null;
+        while (pending > 0) {
+            Outcome outcome;
+            try {
+                outcome = (next < tierCount) 
+                        ? outcomes.poll(delay, TimeUnit.NANOSECONDS) 
+                        : outcomes.take();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                String excMsg = "Interrupted while waiting for rate for " 
+                        + source.getCurrencyCode() + " to " 
+                        + target.getCurrencyCode();
+                throw new RuntimeException(excMsg, ie);
+            }
+            if (outcome == null) {
+                this.hedgeCount.incrementAndGet();
+                this.launch(next, source, target, outcomes);
+                next++;
+                pending++;
+            } else {
+                pending--;
+                if (outcome.failure == null) {
+                    this.servingTiers.put(new CurrencyPair(source, target), 
+                            outcome.tier);
+                    this.serveCounts.incrementAndGet(outcome.tier);
+                    return outcome.rate;
+                }
+                if (failure == null) {
+                    failure = (outcome.failure instanceof RuntimeException) 
+                            ? (RuntimeException) outcome.failure 
+                            : new RuntimeException(outcome.failure);
+                } else {
+                    failure.addSuppressed(outcome.failure);
+                }
+                if (next < tierCount) {
+                    this.launch(next, source, target, outcomes);
+                    next++;
+                    pending++;
+                }
+            }
+        }
+        throw failure;
+    }
+    
+    /**
+     * Gives the currencies supported by at least one of the tiers.
+     * @return A new set of the currencies supported by any of the tiers. The 
+     * caller is free to modify this set.
+     */
+    @Override
+    public Set<Currency> supportedCurrencies() {
+        Set<Currency> currencies = new HashSet<>();
+        for (ExchangeRateProvider provider : this.providers) {
+            currencies.addAll(provider.supportedCurrencies());
+        }
+        return currencies;
+    }
+    
+    /**
+     * Gives the currencies supported by at least one of the tiers, as an 
+     * immutable currency set. This is the word-by-word union of the currency 
+     * sets of the tiers, so no per-currency work is done.
+     * @return The currencies supported by any of the tiers.
+     */
+    @Override
+    public CurrencySet supportedCurrencySet() {
+        CurrencySet currencies = CurrencySet.empty();
+        for (ExchangeRateProvider provider : this.providers) {
+            currencies = currencies.union(provider.supportedCurrencySet());
+        }
+        return currencies;
+    }
+    
+    /**
+     * Tells whether all of the tiers give rates without querying a remote 
+     * source.
+     * @return True if every tier is local, false if any tier isn't.
+     */
+    @Override
+    public boolean isLocal() {
+        for (ExchangeRateProvider provider : this.providers) {
+            if (!provider.isLocal()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Tells which tier served the most recent rate for a pair of currencies.
+     * @param source The currency converted from. For example, United States 
+     * dollars (USD).
+     * @param target The currency converted to. For example, euros (EUR).
+     * @return The index of the tier in the list given to the constructor. For 
+     * example, 0 if the primary tier answered. If no rate has been served yet 
+     * for the pair, &minus;1.
+     */
+    public int getServingTier(Currency source, Currency target) {
+        Integer tier = this.servingTiers.get(new CurrencyPair(source, target));
+        return (tier == null) ? -1 : tier;
+    }
+    
+    /**
+     * Tells how many rates each tier has served so far.
+     * @return An array with one count per tier, in the same order as the list 
+     * given to the constructor. For example, {97, 2, 1}.
+     */
+    public long[] getServeCounts() {
+        long[] counts = new long[this.serveCounts.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = this.serveCounts.get(i);
+        }
+        return counts;
+    }
+    
+    /**
+     * Tells how many hedged requests have been sent so far. A request sent 
+     * because a tier failed is not counted as a hedged request.
+     * @return The number of hedged requests. For example, 5.
+     */
+    public long getHedgeCount() {
+        return this.hedgeCount.get();
+    }
+    
+    /**
+     * Constructor with the default hedge percentile and the default initial 
+     * hedge delay.
+     * @param tiers The providers to query, in order. For example, {@link 
+     * currency.conversions.mannys.FreeForExRateProvider} followed by {@link 
+     * HardCodedRateProvider}.
+     * @throws IllegalArgumentException If {@code tiers} is empty.
+     * @throws NullPointerException If {@code tiers} is null or contains null.
+     */
+    public TieredExchangeRateProvider(List<ExchangeRateProvider> tiers) {
+        this(tiers, DEFAULT_HEDGE_PERCENTILE, DEFAULT_INITIAL_HEDGE_DELAY);
+    }
+    
+    /**
+     * Primary constructor.
+     * @param tiers The providers to query, in order. For example, {@link 
+     * currency.conversions.mannys.FreeForExRateProvider} followed by {@link 
+     * HardCodedRateProvider}. The list is copied, so later changes to it have 
+     * no effect on this provider.
+     * @param hedgePercentile The percentile of the primary tier's recent 
+     * response times to wait for before sending a hedged request, as a number 
+     * greater than 0 but not more than 1. For example, 0.95.
+     * @param initialHedgeDelay How long to wait before sending a hedged request 
+     * while there are not yet enough recorded response times. For example, 
+     * 500 milliseconds.
+     * @throws IllegalArgumentException If {@code tiers} is empty, if {@code 
+     * hedgePercentile} is not greater than 0 and not more than 1, or if 
+     * {@code initialHedgeDelay} is negative.
+     * @throws NullPointerException If {@code tiers} or {@code 
+     * initialHedgeDelay} is null, or if {@code tiers} contains null.
+     */
+    public TieredExchangeRateProvider(List<ExchangeRateProvider> tiers, 
+            double hedgePercentile, Duration initialHedgeDelay) {
+        if (tiers == null || initialHedgeDelay == null) {
+            String excMsg = "Tiers, initial hedge delay should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (tiers.isEmpty()) {
+            String excMsg = "There should be at least one tier";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (tiers.contains(null)) {
+            String excMsg = "Tiers should not contain null";
+            throw new NullPointerException(excMsg);
+        }
+        if (!(hedgePercentile > 0.0 && hedgePercentile <= 1.0)) {
+            String excMsg = "Hedge percentile " + hedgePercentile 
+                    + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (initialHedgeDelay.isNegative()) {
+            String excMsg = "Initial hedge delay " + initialHedgeDelay 
+                    + " should not be negative";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.providers = new ArrayList<>(tiers);
+        this.percentile = hedgePercentile;
+        this.initialDelayNanos = initialHedgeDelay.toNanos();
+        this.serveCounts = new AtomicLongArray(tiers.size());
+    }
+    
+    private static class Outcome {
+        
+        private final int tier;
+        
+        private final double rate;
+        
+        private final Throwable failure;
+        
+        Outcome(int tierIndex, double value, Throwable exc) {
+            this.tier = tierIndex;
+            this.rate = value;
+            this.failure = exc;
+        }
+    
+    }
+    
+    // Ring buffer of the most recent response times, in nanoseconds. The
+    // percentile is worked out by sorting a copy, which for 256 samples is
+    // cheap next to a network call.
+    private static class LatencyWindow {
+        
+        private final long[] samples = new long[LATENCY_SAMPLE_SIZE];
+        
+        private int count = 0;
+        
+        private int nextIndex = 0;
+        
+        synchronized void record(long nanos) {
+            this.samples[this.nextIndex] = nanos;
+            this.nextIndex = (this.nextIndex + 1) % this.samples.length;
+            if (this.count < this.samples.length) {
+                this.count++;
+            }
+        }
+        
+        // Nearest rank method. Gives -1 if there are not enough samples yet
+        long percentile(double fraction) {
+            long[] sorted;
+            synchronized (this) {
+                if (this.count < MINIMUM_LATENCY_SAMPLES) {
+                    return -1L;
+                }
+                sorted = Arrays.copyOf(this.samples, this.count);
+            }
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(fraction * sorted.length);
+            return sorted[Math.max(rank, 1) - 1];
+        }
+    
+    }
+    
+}
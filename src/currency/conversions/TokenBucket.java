@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits how often something can be done, such as calling an API with a hard 
+ * request quota. The bucket holds up to a set number of tokens and is refilled 
+ * at a steady rate. Each call takes one token, so short bursts up to the 
+ * capacity are allowed, but over time calls can't go faster than the refill 
+ * rate. For example, a bucket with a capacity of 10 refilled at 0.5 tokens per 
+ * second allows 10 calls right away, then one call every two seconds.
+ * <p>Tokens are refilled lazily, by working out how many would have been added 
+ * since the last time the bucket was checked. No thread is needed to refill 
+ * the bucket. Instances may be shared between threads.</p>
+ * @author Alonso del Arte
+ */
+public class TokenBucket {
+    
+    private static final double NANOS_PER_SECOND = 1E9;
+    
+    private final int bucketCapacity;
+    
+    private final double refillRate;
+    
+    private final LongSupplier nanoClock;
+    
+    private double tokens;
+    
+    private long lastRefill;
+    
+    private long acquiredCount = 0L;
+    
+    /**
+     * Gives the capacity of this bucket.
+     * @return The capacity. For example, 10.
+     */
+    public int getCapacity() {
+        return this.bucketCapacity;
+    }
+    
+    /**
+     * Gives the rate at which this bucket is refilled.
+     * @return The number of tokens added per second. For example, 0.5.
+     */
+    public double getRefillRate() {
+        return this.refillRate;
+    }
+    
+    // Only to be called while holding the lock on this bucket
+    private void refill() {
+        long now = this.nanoClock.getAsLong();
+        long elapsed = now - this.lastRefill;
+        if (elapsed > 0L) {
+            this.tokens = Math.min(this.bucketCapacity, this.tokens 
+                    + elapsed * this.refillRate / NANOS_PER_SECOND);
+            this.lastRefill = now;
+        }
+    }
+    
+    /**
+     * Tells how many whole tokens are in this bucket right now.
+     * @return The number of tokens available. For example, 7. Never more than 
+     * the capacity.
+     */
+    public synchronized int getAvailableTokens() {
+        this.refill();
+        return (int) this.tokens;
+    }
+    
+    /**
+     * Tells how many tokens have been taken from this bucket so far.
+     * @return The number of successful calls to {@link #tryAcquire()} and 
+     * {@link #acquire()}. For example, 42.
+     */
+    public synchronized long getAcquiredCount() {
+        return this.acquiredCount;
+    }
+    
+    /**
+     * Takes a token if one is available right away.
+     * @return True if a token was taken, false if the bucket was empty.
+     */
+    public synchronized boolean tryAcquire() {
+        this.refill();
+        if (this.tokens >= 1.0) {
+            this.tokens -= 1.0;
+            this.acquiredCount++;
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Tells how long it will be until a token is available, assuming no other 
+     * thread takes one in the meantime.
+     * @return The wait in nanoseconds. For example, 1,500,000,000 for a second 
+     * and a half. 0 if a token is available right now.
+     */
+    public synchronized long nanosUntilAvailable() {
+        this.refill();
+        if (this.tokens >= 1.0) {
+            return 0L;
+        }
+        return (long) Math.ceil((1.0 - this.tokens) * NANOS_PER_SECOND 
+                / this.refillRate);
+    }
+    
+    /**
+     * Takes a token, waiting for one to become available if necessary.
+     * @throws InterruptedException If the calling thread is interrupted while 
+     * waiting. No token is taken in that case.
+     */
+    public void acquire() throws InterruptedException {
+        while (!this.tryAcquire()) {
+            long wait = Math.max(this.nanosUntilAvailable(), 1L);
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+    
+    /**
+     * Constructor. The bucket starts out full.
+     * @param capacity How many tokens the bucket can hold. For example, 10.
+     * @param tokensPerSecond How many tokens are added per second. For example, 
+     * 0.5 for one token every two seconds.
+     * @throws IllegalArgumentException If {@code capacity} is less than 1, or 
+     * if {@code tokensPerSecond} is not a positive, finite number.
+     */
+    public TokenBucket(int capacity, double tokensPerSecond) {
+        this(capacity, tokensPerSecond, System::nanoTime);
+    }
+    
+    /**
+     * Constructor with a specific clock. This is intended for testing only.
+     * @param capacity How many tokens the bucket can hold. For example, 10.
+     * @param tokensPerSecond How many tokens are added per second. For example, 
+     * 0.5.
+     * @param clock The source of the current time in nanoseconds. For example, 
+     * a counter that the test advances by hand.
+     * @throws IllegalArgumentException If {@code capacity} is less than 1, or 
+     * if {@code tokensPerSecond} is not a positive, finite number.
+     */
+    TokenBucket(int capacity, double tokensPerSecond, LongSupplier clock) {
+        if (capacity < 1) {
+            String excMsg = "Capacity " + capacity + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (!(tokensPerSecond > 0.0) || Double.isInfinite(tokensPerSecond)) {
+            String excMsg = "Refill rate " + tokensPerSecond 
+                    + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.bucketCapacity = capacity;
+        this.refillRate = tokensPerSecond;
+        this.nanoClock = clock;
+        this.tokens = capacity;
+        this.lastRefill = clock.getAsLong();
+    }
+    
+}
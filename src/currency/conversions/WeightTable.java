@@ -0,0 +1,485 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyMetadata;
+
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The weights a {@link WeightedExchangeRateProvider} applies to the rates it 
+ * gets from another provider. A rate is multiplied by the weight of its target 
+ * currency, the weight of its source currency and, if the amount to convert 
+ * is known, the spread factor for the tier that amount falls in. Spread tiers 
+ * belong to a source currency, since their minimums are in the smallest 
+ * division of that currency. Currencies without a weight are weighted 1.0, as 
+ * are amounts below the lowest tier for their currency and amounts in 
+ * currencies without tiers. For example, Japanese yen (JPY) as a target 
+ * weighted to 0.01, British pounds (GBP) as a source marked up to 1.02, and a 
+ * factor of 0.99 for amounts of at least &pound;10,000.00.
+ * <p>The weights are held in primitive arrays indexed by currency {@link 
+ * CurrencyMetadata#getOrdinal() ordinal}, and the tiers of each source 
+ * currency in a sorted primitive array, also indexed by ordinal, so applying 
+ * the weights to a rate creates no objects. Instances are 
+ * immutable, and are put together with a {@link WeightTable.Builder}. To 
+ * change weights, make a builder from an existing table with {@link 
+ * #toBuilder()}.</p>
+ * @author Alonso del Arte
+ */
+public final class WeightTable {
+    
+    private static final long[] NO_TIER_MINIMUMS = {};
+    
+    private static final double[] NO_TIER_FACTORS = {};
+    
+    private static final WeightTable NEUTRAL = new Builder().build();
+    
+    private final double[] targetWeightsByOrdinal;
+    
+    private final double[] sourceWeightsByOrdinal;
+    
+    private final long[][] tierMinimumsByOrdinal;
+    
+    private final double[][] tierFactorsByOrdinal;
+    
+    /**
+     * Gives a table with no weights and no tiers. Applying it to a rate gives 
+     * the same rate.
+     * @return A table that weighs everything at 1.0.
+     */
+    public static WeightTable neutral() {
+        return NEUTRAL;
+    }
+    
+    /**
+     * Gives a table with the given target weights and nothing else.
+     * @param targetWeights A map matching target currencies to weights. For 
+     * example, Japanese yen (JPY) weighted to 0.01. May be empty.
+     * @return A table with the given target weights.
+     * @throws IllegalArgumentException If any of the weights is zero, negative, 
+     * infinite or NaN.
+     * @throws NullPointerException If {@code targetWeights} is null or has a 
+     * null key or value.
+     */
+    public static WeightTable of(Map<Currency, Double> targetWeights) {
+        Builder builder = new Builder();
+        for (Map.Entry<Currency, Double> entry : targetWeights.entrySet()) {
+            builder.putTargetWeight(entry.getKey(), entry.getValue());
+        }
+        return builder.build();
+    }
+    
+    private static double weightOrOne(double[] weights, Currency currency) {
+        double weight = weights[CurrencyMetadata.of(currency).getOrdinal()];
+        return Double.isNaN(weight) ? 1.0 : weight;
+    }
+    
+    private static Map<Currency, Double> toMap(double[] weights) {
+        Map<Currency, Double> map = new HashMap<>();
+        for (int i = 0; i < weights.length; i++) {
+            if (!Double.isNaN(weights[i])) {
+                map.put(CurrencyMetadata.forOrdinal(i).getCurrency(), 
+                        weights[i]);
+            }
+        }
+        return map;
+    }
+    
+    /**
+     * Gives the weight for a target currency.
+     * @param target The target currency. For example, Japanese yen (JPY).
+     * @return The weight, or 1.0 if the currency doesn't have a target weight 
+     * in this table. For example, 0.01.
+     * @throws NullPointerException If {@code target} is null.
+     */
+    public double getTargetWeight(Currency target) {
+        return weightOrOne(this.targetWeightsByOrdinal, target);
+    }
+    
+    /**
+     * Gives the weight for a source currency.
+     * @param source The source currency. For example, British pounds (GBP).
+     * @return The weight, or 1.0 if the currency doesn't have a source weight 
+     * in this table. For example, 1.02.
+     * @throws NullPointerException If {@code source} is null.
+     */
+    public double getSourceWeight(Currency source) {
+        return weightOrOne(this.sourceWeightsByOrdinal, source);
+    }
+    
+    /**
+     * Gives the target weights in this table.
+     * @return A new map of the target currencies that have weights to their 
+     * weights. The caller is free to modify this map.
+     */
+    public Map<Currency, Double> getTargetWeights() {
+        return toMap(this.targetWeightsByOrdinal);
+    }
+    
+    /**
+     * Gives the source weights in this table.
+     * @return A new map of the source currencies that have weights to their 
+     * weights. The caller is free to modify this map.
+     */
+    public Map<Currency, Double> getSourceWeights() {
+        return toMap(this.sourceWeightsByOrdinal);
+    }
+    
+    /**
+     * Tells how many spread tiers this table has, for all source currencies 
+     * together.
+     * @return The number of tiers. For example, 5, if there are 3 tiers for 
+     * United States dollars (USD) and 2 for British pounds (GBP).
+     */
+    public int getTierCount() {
+        int count = 0;
+        for (long[] minimums : this.tierMinimumsByOrdinal) {
+            count += minimums.length;
+        }
+        return count;
+    }
+    
+    /**
+     * Tells how many spread tiers this table has for a source currency.
+     * @param source The source currency. For example, United States dollars 
+     * (USD).
+     * @return The number of tiers for {@code source}. For example, 3.
+     * @throws NullPointerException If {@code source} is null.
+     */
+    public int getTierCount(Currency source) {
+        return this.tierMinimumsByOrdinal[CurrencyMetadata.of(source)
+                .getOrdinal()].length;
+    }
+    
+    /**
+     * Gives the spread factor for an amount in a source currency. The tier is 
+     * found by binary search among the tiers for that currency, with no 
+     * objects created.
+     * @param source The source currency. For example, United States dollars 
+     * (USD).
+     * @param cents The amount to convert, in the smallest division of {@code 
+     * source}. For example, 2500000, for $25,000.00. The sign is ignored.
+     * @return The factor of the highest tier for {@code source} whose minimum 
+     * is at most the magnitude of {@code cents}, or 1.0 if there is no such 
+     * tier. For example, 0.99 if the highest USD tier at or below 2500000 
+     * starts at 1000000 with a factor of 0.99.
+     * @throws NullPointerException If {@code source} is null.
+     */
+    public double getSpreadFactor(Currency source, long cents) {
+        int ordinal = CurrencyMetadata.of(source).getOrdinal();
+        long[] minimums = this.tierMinimumsByOrdinal[ordinal];
+        if (minimums.length == 0) {
+            return 1.0;
+        }
+        long magnitude = (cents < 0L) ? -cents : cents;
+        if (magnitude < 0L) {
+            magnitude = Long.MAX_VALUE;
+        }
+        int index = Arrays.binarySearch(minimums, magnitude);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return (index < 0) ? 1.0 : this.tierFactorsByOrdinal[ordinal][index];
+    }
+    
+    /**
+     * Applies the source and target weights to a rate. No spread factor is 
+     * applied, since the amount is not known.
+     * @param source The source currency. For example, British pounds (GBP).
+     * @param target The target currency. For example, Japanese yen (JPY).
+     * @param rate The rate to weigh. For example, 215.1.
+     * @return The weighted rate. For example, 2.19402, if JPY is weighted to 
+     * 0.01 and GBP is weighted to 1.02.
+     * @throws NullPointerException If {@code source} or {@code target} is 
+     * null.
+     */
+    public double apply(Currency source, Currency target, double rate) {
+        return rate * weightOrOne(this.sourceWeightsByOrdinal, source) 
+                * weightOrOne(this.targetWeightsByOrdinal, target);
+    }
+    
+    /**
+     * Applies the source and target weights and the spread factor for an 
+     * amount to a rate.
+     * @param source The source currency. For example, British pounds (GBP).
+     * @param target The target currency. For example, Japanese yen (JPY).
+     * @param cents The amount to convert, in the smallest division of the 
+     * source currency. For example, 2500000, for &pound;25,000.00.
+     * @param rate The rate to weigh. For example, 215.1.
+     * @return The weighted rate. For example, 2.1720798, if JPY is weighted to 
+     * 0.01, GBP is weighted to 1.02 and amounts of 1000000 pence and up have 
+     * a spread factor of 0.99.
+     * @throws NullPointerException If {@code source} or {@code target} is 
+     * null.
+     */
+    public double apply(Currency source, Currency target, long cents, 
+            double rate) {
+        return this.apply(source, target, rate) 
+                * this.getSpreadFactor(source, cents);
+    }
+    
+    /**
+     * Gives a builder that starts out with the weights and tiers of this 
+     * table. This table is not affected by anything done with the builder.
+     * @return A new builder.
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        System.arraycopy(this.targetWeightsByOrdinal, 0, 
+                builder.targetWeightsByOrdinal, 0, 
+                this.targetWeightsByOrdinal.length);
+        System.arraycopy(this.sourceWeightsByOrdinal, 0, 
+                builder.sourceWeightsByOrdinal, 0, 
+                this.sourceWeightsByOrdinal.length);
+        for (int i = 0; i < this.tierMinimumsByOrdinal.length; i++) {
+            long[] minimums = this.tierMinimumsByOrdinal[i];
+            for (int j = 0; j < minimums.length; j++) {
+                builder.tiersFor(i).put(minimums[j], 
+                        this.tierFactorsByOrdinal[i][j]);
+            }
+        }
+        return builder;
+    }
+    
+    @Override
+    public String toString() {
+        return "Weight table with " + this.getTargetWeights().size() 
+                + " target weights, " + this.getSourceWeights().size() 
+                + " source weights and " + this.getTierCount() 
+                + " spread tiers";
+    }
+    
+    /**
+     * Determines whether this table is equal to some other object.
+     * @param obj The object to compare to. For example, a table with JPY 
+     * weighted to 0.01 as a target and nothing else.
+     * @return True if {@code obj} is a weight table with exactly the same 
+     * weights and tiers, false in all other cases.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+        WeightTable other = (WeightTable) obj;
+        return Arrays.equals(this.targetWeightsByOrdinal, 
+                other.targetWeightsByOrdinal) 
+                && Arrays.equals(this.sourceWeightsByOrdinal, 
+                        other.sourceWeightsByOrdinal) 
+                && Arrays.deepEquals(this.tierMinimumsByOrdinal, 
+                        other.tierMinimumsByOrdinal) 
+                && Arrays.deepEquals(this.tierFactorsByOrdinal, 
+                        other.tierFactorsByOrdinal);
+    }
+    
+    @Override
+    public int hashCode() {
+        int hash = Arrays.hashCode(this.targetWeightsByOrdinal);
+        hash = 31 * hash + Arrays.hashCode(this.sourceWeightsByOrdinal);
+        hash = 31 * hash + Arrays.deepHashCode(this.tierMinimumsByOrdinal);
+        return 31 * hash + Arrays.deepHashCode(this.tierFactorsByOrdinal);
+    }
+    
+    private WeightTable(double[] targetWeights, double[] sourceWeights, 
+            long[][] minimums, double[][] factors) {
+        this.targetWeightsByOrdinal = targetWeights;
+        this.sourceWeightsByOrdinal = sourceWeights;
+        this.tierMinimumsByOrdinal = minimums;
+        this.tierFactorsByOrdinal = factors;
+    }
+    
+    /**
+     * Puts together a {@link WeightTable} one weight or tier at a time. A 
+     * builder can't be used again after {@link #build()} is called.
+     */
+    public static class Builder {
+        
+        private final double[] targetWeightsByOrdinal;
+        
+        private final double[] sourceWeightsByOrdinal;
+        
+        private final Map<Integer, TreeMap<Long, Double>> tiersByOrdinal 
+                = new HashMap<>();
+        
+        private boolean built = false;
+        
+        private void checkNotBuilt() {
+            if (this.built) {
+                String excMsg = "Weight table was already built";
+                throw new IllegalStateException(excMsg);
+            }
+        }
+        
+        private TreeMap<Long, Double> tiersFor(int ordinal) {
+            return this.tiersByOrdinal.computeIfAbsent(ordinal, 
+                    key -> new TreeMap<>());
+        }
+        
+        private static void checkWeight(double weight, String description) {
+            if (!(weight > 0.0) || Double.isInfinite(weight)) {
+                String excMsg = "Weight " + weight + " for " + description 
+                        + " should be positive and finite";
+                throw new IllegalArgumentException(excMsg);
+            }
+        }
+        
+        /**
+         * Puts in the weight for a target currency. If there already is a 
+         * weight for that target currency, it's replaced.
+         * @param target The target currency. For example, Japanese yen (JPY).
+         * @param weight The weight. For example, 0.01.
+         * @return This builder, so that calls can be chained.
+         * @throws IllegalArgumentException If {@code weight} is zero, 
+         * negative, infinite or NaN.
+         * @throws IllegalStateException If {@link #build()} was already 
+         * called.
+         * @throws NullPointerException If {@code target} is null.
+         */
+        public Builder putTargetWeight(Currency target, double weight) {
+            this.checkNotBuilt();
+            int ordinal = CurrencyMetadata.of(target).getOrdinal();
+            checkWeight(weight, "target " + target.getCurrencyCode());
+            this.targetWeightsByOrdinal[ordinal] = weight;
+            return this;
+        }
+        
+        /**
+         * Puts in the weight for a source currency. If there already is a 
+         * weight for that source currency, it's replaced.
+         * @param source The source currency. For example, British pounds 
+         * (GBP).
+         * @param weight The weight. For example, 1.02.
+         * @return This builder, so that calls can be chained.
+         * @throws IllegalArgumentException If {@code weight} is zero, 
+         * negative, infinite or NaN.
+         * @throws IllegalStateException If {@link #build()} was already 
+         * called.
+         * @throws NullPointerException If {@code source} is null.
+         */
+        public Builder putSourceWeight(Currency source, double weight) {
+            this.checkNotBuilt();
+            int ordinal = CurrencyMetadata.of(source).getOrdinal();
+            checkWeight(weight, "source " + source.getCurrencyCode());
+            this.sourceWeightsByOrdinal[ordinal] = weight;
+            return this;
+        }
+        
+        /**
+         * Takes out the target and source weights for a currency, if there 
+         * are any.
+         * @param currency The currency. For example, Japanese yen (JPY).
+         * @return This builder, so that calls can be chained.
+         * @throws IllegalStateException If {@link #build()} was already 
+         * called.
+         * @throws NullPointerException If {@code currency} is null.
+         */
+        public Builder removeWeights(Currency currency) {
+            this.checkNotBuilt();
+            int ordinal = CurrencyMetadata.of(currency).getOrdinal();
+            this.targetWeightsByOrdinal[ordinal] = Double.NaN;
+            this.sourceWeightsByOrdinal[ordinal] = Double.NaN;
+            return this;
+        }
+        
+        /**
+         * Puts in a spread tier for a source currency. The factor applies to 
+         * amounts in that currency from the minimum up to but not including 
+         * the minimum of the next tier for the same currency. If there already 
+         * is a tier for the currency with the same minimum, its factor is 
+         * replaced.
+         * @param source The source currency the tier is for. For example, 
+         * United States dollars (USD).
+         * @param minimumCents The smallest amount the tier applies to, in the 
+         * smallest division of {@code source}. For example, 1000000, for 
+         * $10,000.00.
+         * @param factor The spread factor for the tier. For example, 0.99.
+         * @return This builder, so that calls can be chained.
+         * @throws IllegalArgumentException If {@code minimumCents} is 
+         * negative, or if {@code factor} is zero, negative, infinite or NaN.
+         * @throws IllegalStateException If {@link #build()} was already 
+         * called.
+         * @throws NullPointerException If {@code source} is null.
+         */
+        public Builder putSpreadTier(Currency source, long minimumCents, 
+                double factor) {
+            this.checkNotBuilt();
+            int ordinal = CurrencyMetadata.of(source).getOrdinal();
+            if (minimumCents < 0L) {
+                String excMsg = "Tier minimum " + minimumCents + " for " 
+                        + source.getCurrencyCode() + " should not be negative";
+                throw new IllegalArgumentException(excMsg);
+            }
+            checkWeight(factor, "tier from " + minimumCents + " " 
+                    + source.getCurrencyCode());
+            this.tiersFor(ordinal).put(minimumCents, factor);
+            return this;
+        }
+        
+        /**
+         * Finishes putting together the weight table.
+         * @return The weight table.
+         * @throws IllegalStateException If this function was already called.
+         */
+        public WeightTable build() {
+            this.checkNotBuilt();
+            this.built = true;
+            int currencyCount = CurrencyMetadata.count();
+            long[][] minimums = new long[currencyCount][];
+            double[][] factors = new double[currencyCount][];
+            Arrays.fill(minimums, NO_TIER_MINIMUMS);
+            Arrays.fill(factors, NO_TIER_FACTORS);
+            for (Map.Entry<Integer, TreeMap<Long, Double>> tiers 
+                    : this.tiersByOrdinal.entrySet()) {
+                int count = tiers.getValue().size();
+                long[] tierMinimums = new long[count];
+                double[] tierFactors = new double[count];
+                int index = 0;
+                for (Map.Entry<Long, Double> entry 
+                        : tiers.getValue().entrySet()) {
+                    tierMinimums[index] = entry.getKey();
+                    tierFactors[index] = entry.getValue();
+                    index++;
+                }
+                minimums[tiers.getKey()] = tierMinimums;
+                factors[tiers.getKey()] = tierFactors;
+            }
+            return new WeightTable(this.targetWeightsByOrdinal, 
+                    this.sourceWeightsByOrdinal, minimums, factors);
+        }
+        
+        /**
+         * Sole constructor. The builder starts out with no weights and no 
+         * tiers.
+         */
+        public Builder() {
+            this.targetWeightsByOrdinal = OrdinalRates.emptyTable();
+            this.sourceWeightsByOrdinal = OrdinalRates.emptyTable();
+        }
+    
+    }
+    
+}
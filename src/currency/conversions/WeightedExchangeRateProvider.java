@@ -17,11 +17,15 @@
 package currency.conversions;
 
 import currency.CurrencyPair;
+import currency.CurrencySet;
+import currency.MoneyAmount;
 
+import java.util.Collection;
 import java.util.Currency;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 /**
  * Gives exchange rates from another provider multiplied by specified weights. 
@@ -29,28 +33,93 @@ import java.util.Set;
  * meaningful comparison of "strength." For example, if 1&euro; exchanges to, 
  * say, &yen;110, the yen could be weighted so that the rate is 1.1 rather than 
  * 110.
+ * <p>The weights are held in a {@link WeightTable}, which can also weigh 
+ * source currencies and apply spreads by amount tier for each source currency. 
+ * The table can be swapped out at runtime with {@link 
+ * #setWeightTable(WeightTable)} or {@link #updateWeightTable(UnaryOperator)}. 
+ * Each rate is weighed with a single table, so a rate never mixes weights from 
+ * before and after an update. Looking up weights creates no objects.</p>
  * @author Alonso del Arte
  */
 public class WeightedExchangeRateProvider implements ExchangeRateProvider {
     
-    private final Map<Currency, Double> currWeights;
+    private final AtomicReference<WeightTable> weightTable;
     
     private final ExchangeRateProvider provider;
 
     /**
-     * Retrieves the rates as provided to the constructor at the time of 
-     * construction.
+     * Gives the non-weighted provider that rates are obtained from.
+     * @return The provider that was passed to the constructor. For example, an 
+     * instance of {@link HardCodedRateProvider}.
+     */
+    public ExchangeRateProvider getProvider() {
+        return this.provider;
+    }
+    
+    /**
+     * Retrieves the target weights currently in use. Unless the weight table 
+     * has been changed, these are the weights provided to the constructor.
      * @return The weights. For example, Japanese yen (JPY) weighted to 0.01 and 
-     * a couple other currencies with appropriate weights.
+     * a couple other currencies with appropriate weights. The caller is free 
+     * to modify this map.
      */
     public Map<Currency, Double> getWeights() {
-        return new HashMap<>(this.currWeights);
+        return this.weightTable.get().getTargetWeights();
+    }
+    
+    /**
+     * Retrieves the weight table currently in use.
+     * @return The weight table. For example, a table with JPY weighted to 0.01 
+     * as a target.
+     */
+    public WeightTable getWeightTable() {
+        return this.weightTable.get();
+    }
+    
+    /**
+     * Replaces the weight table. Rates already being worked out with the 
+     * previous table are not affected.
+     * @param table The new weight table. For example, a table with JPY 
+     * weighted to 0.01 as a target and amounts of $10,000.00 and up given a 
+     * spread factor of 0.99.
+     * @throws NullPointerException If {@code table} is null.
+     */
+    public void setWeightTable(WeightTable table) {
+        if (table == null) {
+            String excMsg = "Weight table should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.weightTable.set(table);
+    }
+    
+    /**
+     * Replaces the weight table with one worked out from the current table. 
+     * The update is atomic: if another thread changes the table in the 
+     * meantime, {@code update} is called again with that thread's table. For 
+     * example, {@code provider.updateWeightTable(table -> 
+     * table.toBuilder().putSourceWeight(pounds, 1.02).build())}.
+     * @param update The function to work out the new table from the current 
+     * one. Should not have side effects, since it may be called more than 
+     * once.
+     * @return The new weight table.
+     * @throws NullPointerException If {@code update} is null or gives null.
+     */
+    public WeightTable updateWeightTable(UnaryOperator<WeightTable> update) {
+        return this.weightTable.updateAndGet(table -> {
+            WeightTable updated = update.apply(table);
+            if (updated == null) {
+                String excMsg = "Updated weight table should not be null";
+                throw new NullPointerException(excMsg);
+            }
+            return updated;
+        });
     }
     
     /**
      * Gives the rate to convert one unit of the source currency to the target 
      * currency. If a weight is specified for the target currency, then that 
-     * value is used. Otherwise the weight is 1.0.
+     * value is used. Otherwise the weight is 1.0. Likewise for a source 
+     * weight. No spread factor is applied.
      * @param source The source to convert from. For example, United States 
      * dollars (USD).
      * @param target The target to convert one unit of {@code source} to. For 
@@ -61,11 +130,31 @@ public class WeightedExchangeRateProvider implements ExchangeRateProvider {
      */
     @Override
     public double getRate(Currency source, Currency target) {
-        double weight = 1.0;
-        if (this.currWeights.containsKey(target)) {
-            weight = this.currWeights.get(target);
-        }
-        return this.provider.getRate(source, target) * weight;
+        double rate = this.provider.getRate(source, target);
+        return this.weightTable.get().apply(source, target, rate);
+    }
+    
+    /**
+     * Gives the rate to convert an amount of money to a target currency. This 
+     * is the same as {@link #getRate(java.util.Currency, java.util.Currency)} 
+     * multiplied by the spread factor for the tier the amount falls in.
+     * @param amount The amount to convert. For example, $25,000.00 in United 
+     * States dollars (USD).
+     * @param target The target to convert to. For example, the Japanese yen 
+     * (JPY).
+     * @return The rate of conversion, multiplied by the weights and the 
+     * spread factor. In the example, if the rate given by the provider is 
+     * 158.6152, JPY is weighted to 0.01 and USD amounts of 1000000 cents and 
+     * up have a spread factor of 0.99, then this function would return 
+     * 1.57029048.
+     * @throws NullPointerException If {@code amount} or {@code target} is 
+     * null.
+     */
+    public double getRate(MoneyAmount amount, Currency target) {
+        Currency source = amount.getCurrency();
+        double rate = this.provider.getRate(source, target);
+        return this.weightTable.get().apply(source, target, 
+                amount.getFullAmountInCents(), rate);
     }
 
     /**
@@ -84,6 +173,33 @@ public class WeightedExchangeRateProvider implements ExchangeRateProvider {
                 currencies.getToCurrency());
     }
     
+    /**
+     * Gives the rates to convert one unit of a base currency to each of a 
+     * number of target currencies, each multiplied by the weight of its target 
+     * currency and the weight of the base currency. The rates are obtained 
+     * from the non-weighted provider with a single call to its {@link 
+     * ExchangeRateProvider#getRates(java.util.Currency, java.util.Collection) 
+     * getRates()}.
+     * @param base The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param targets The currencies to convert to. For example, euros (EUR) 
+     * and Japanese yen (JPY).
+     * @return The rates multiplied by the weights. In the example, if the 
+     * rates given by the provider are 0.8623 and 158.6152 but JPY is weighted 
+     * to 0.01, then this would have 0.8623 for EUR and 1.586152 for JPY.
+     */
+    @Override
+    public RateVector getRates(Currency base, Collection<Currency> targets) {
+        RateVector rates = this.provider.getRates(base, targets);
+        WeightTable table = this.weightTable.get();
+        RateVector.Builder builder = new RateVector.Builder(base);
+        for (Currency target : targets) {
+            builder.put(target, table.apply(base, target, 
+                    rates.getRate(target)));
+        }
+        return builder.build();
+    }
+    
     /**
      * The currencies that are supported. Note that a currency will not be 
      * listed as supported if it's not supported by the non-weighted provider 
@@ -98,7 +214,29 @@ public class WeightedExchangeRateProvider implements ExchangeRateProvider {
     }
     
     /**
-     * Sole constructor.
+     * The currencies that are supported, as an immutable currency set. As 
+     * with {@link #supportedCurrencies()}, a currency with a weight is not 
+     * listed unless the non-weighted provider supports it.
+     * @return The same currency set as the provider this weighted provider 
+     * was initialized with gives.
+     */
+    @Override
+    public CurrencySet supportedCurrencySet() {
+        return this.provider.supportedCurrencySet();
+    }
+    
+    /**
+     * Tells whether the other provider gives rates without querying a remote 
+     * source.
+     * @return The same as the other provider gives.
+     */
+    @Override
+    public boolean isLocal() {
+        return this.provider.isLocal();
+    }
+    
+    /**
+     * Constructor with a map of target weights.
      * @param weights A map matching currencies to weights. For example, 
      * Japanese yen (JPY) weighted to 0.01, and a couple other currencies 
      * similarly weighted. It's not necessary to specify all currencies. Those 
@@ -109,6 +247,8 @@ public class WeightedExchangeRateProvider implements ExchangeRateProvider {
      * @param rateProvider The rate provider to use. If nothing else, {@link 
      * HardCodedRateProvider} should always be available. Should not be another 
      * {@code WeightedExchangeRateProvider}, but this is not checked.
+     * @throws IllegalArgumentException If any of the weights is zero, 
+     * negative, infinite or NaN.
      * @throws NullPointerException If {@code weights} or {@code rateProvider} 
      * is null.
      */
@@ -118,7 +258,28 @@ public class WeightedExchangeRateProvider implements ExchangeRateProvider {
             String excMsg = "Weights map, rate provider should not be null";
             throw new NullPointerException(excMsg);
         }
-        this.currWeights = new HashMap<>(weights);
+        this.weightTable = new AtomicReference<>(WeightTable.of(weights));
+        this.provider = rateProvider;
+    }
+    
+    /**
+     * Constructor with a weight table.
+     * @param rateProvider The rate provider to use. For example, {@link 
+     * HardCodedRateProvider}.
+     * @param table The weight table. For example, a table with Japanese yen 
+     * (JPY) weighted to 0.01 as a target, British pounds (GBP) weighted to 
+     * 1.02 as a source and amounts of 1000000 pence and up given a spread 
+     * factor of 0.99.
+     * @throws NullPointerException If {@code rateProvider} or {@code table} is 
+     * null.
+     */
+    public WeightedExchangeRateProvider(ExchangeRateProvider rateProvider, 
+            WeightTable table) {
+        if (rateProvider == null || table == null) {
+            String excMsg = "Rate provider, weight table should not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.weightTable = new AtomicReference<>(table);
         this.provider = rateProvider;
     }
     
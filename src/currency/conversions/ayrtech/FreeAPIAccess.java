@@ -17,10 +17,11 @@
 package currency.conversions.ayrtech;
 
 import currency.CurrencyPair;
+import currency.CurrencySet;
 import currency.conversions.ConversionRateQuote;
 import currency.conversions.ExchangeRateProvider;
-import currency.conversions.InvertibleRateQuoteCache;
-import currency.conversions.RateQuoteCache;
+import currency.conversions.HttpQueries;
+import currency.conversions.RateVector;
 
 import java.io.InputStream;
 import java.io.IOException;
@@ -29,6 +30,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Currency;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -36,6 +38,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -51,6 +54,9 @@ import java.util.regex.Pattern;
  * haven't signed up for a paid plan and my access hasn't been deactivated as of 
  * November 17. So I guess I'll keep working on this, and if I can get it close 
  * to finished, great, and if not, it's just abandoned.</p>
+ * <p>Quotes for base currencies other than the one an instance was made with 
+ * are not kept. To keep from using up the quota, put an instance behind a 
+ * {@link currency.conversions.CachingExchangeRateProvider}.</p>
  * @author Alonso del Arte
  */
 public class FreeAPIAccess implements ExchangeRateProvider {
@@ -65,6 +71,8 @@ public class FreeAPIAccess implements ExchangeRateProvider {
     
     private static final Set<Currency> SUPPORTED_CURRENCIES = new HashSet<>();
     
+    private static final CurrencySet SUPPORTED_CURRENCY_SET;
+    
     private static final Set<String> CURRENCY_CODES = new HashSet<>();
     
     private static final Currency U_S_DOLLARS = Currency.getInstance(Locale.US);
@@ -107,6 +115,11 @@ public class FreeAPIAccess implements ExchangeRateProvider {
         return builder.toString();
     }
     
+    private static CompletableFuture<String> minifyAsync(String endPoint) {
+        return HttpQueries.sendAsync(QUERY_PATH_BEGIN + endPoint)
+                .thenApply(body -> body.replace("\n", "").replace("\r", ""));
+    }
+    
     static {
         String endPoint = "/codes";
         try {
@@ -131,30 +144,9 @@ public class FreeAPIAccess implements ExchangeRateProvider {
             System.err.println("Encountered problem accessing " + endPoint);
             System.err.println("\"" + ioe.getMessage() + "\"");
         }
+        SUPPORTED_CURRENCY_SET = CurrencySet.of(SUPPORTED_CURRENCIES);
     }
     
-    private final RateQuoteCache quoteCache 
-            = new InvertibleRateQuoteCache(cacheops.LRUCache.MAXIMUM_CAPACITY) {
-        
-        @Override
-        public boolean needsRefresh(CurrencyPair currencies) {
-            return false;
-        }
-        
-        @Override
-        public ConversionRateQuote create(CurrencyPair currencies) {
-            String currencyCode = currencies.getToCurrency().getCurrencyCode();
-            String endPoint = "/latest/" + currencyCode;
-            try {
-                String input = minify(endPoint);
-            } catch (IOException ioe) {
-                throw new RuntimeException(ioe);
-            }
-            return new ConversionRateQuote(currencies, 1.0);
-        }
-               
-    };
-    
     private Map<CurrencyPair, ConversionRateQuote> baseCurrQuoteMap 
             = new HashMap<>();
     
@@ -202,6 +194,18 @@ public class FreeAPIAccess implements ExchangeRateProvider {
         return new HashSet<>(SUPPORTED_CURRENCIES);
     }
     
+    /**
+     * Gives the currencies supported by the API, as an immutable currency set. 
+     * This is the same set every time, worked out once, when the list of 
+     * supported currencies was retrieved from the API.
+     * @return The set of supported currencies. Same as for {@link 
+     * #supportedCurrencies()}.
+     */
+    @Override
+    public CurrencySet supportedCurrencySet() {
+        return SUPPORTED_CURRENCY_SET;
+    }
+    
     String makeAPICall() {
         String endPoint = "/latest/" 
                 + this.currencyForNextAPICall.getCurrencyCode();
@@ -237,50 +241,134 @@ public class FreeAPIAccess implements ExchangeRateProvider {
         return 1.0;
     }
     
+    /**
+     * Gives the rates to convert one unit of a base currency to each of a 
+     * number of target currencies. If {@code base} is the base currency of 
+     * this provider, the rates are read straight from the quotes that were 
+     * fetched with a single API call when this provider was constructed. 
+     * Otherwise each rate is looked up individually, as by {@link 
+     * #getRate(java.util.Currency, java.util.Currency) getRate()}.
+     * @param base The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param targets The currencies to convert to. For example, euros (EUR), 
+     * British pounds (GBP) and Japanese yen (JPY).
+     * @return The rates. Any target currency the API gave no quote for gets a 
+     * rate of 1.0, same as with {@code getRate()}.
+     */
+    @Override
+    public RateVector getRates(Currency base, Collection<Currency> targets) {
+        if (!base.equals(this.baseCurrency)) {
+            return ExchangeRateProvider.super.getRates(base, targets);
+        }
+        RateVector.Builder builder = new RateVector.Builder(base);
+        for (Currency target : targets) {
+            double rate = 1.0;
+            if (!target.equals(base)) {
+                ConversionRateQuote quote = this.baseCurrQuoteMap 
+                        .get(new CurrencyPair(base, target));
+                if (quote != null) {
+                    rate = quote.getRate();
+                }
+            }
+            builder.put(target, rate);
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Gives the rate for a currency conversion without blocking. Since this 
+     * provider fetches all the rates for its base currency when it's 
+     * constructed, the lookup is answered from memory and the future is 
+     * already complete. To avoid blocking on that initial fetch as well, use 
+     * {@link #createAsync(java.util.Currency)}.
+     * @param source The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param target The currency to convert to. For example, euros (EUR).
+     * @return A completed future for the rate. If looking up the rate causes 
+     * a runtime exception, such as a {@code NullPointerException} for a null 
+     * currency, the future is completed exceptionally with that exception 
+     * rather than the exception being thrown to the caller.
+     */
+    @Override
+    public CompletableFuture<Double> getRateAsync(Currency source, 
+            Currency target) {
+        try {
+            return CompletableFuture.completedFuture(this.getRate(source, 
+                    target));
+        } catch (RuntimeException re) {
+            return CompletableFuture.failedFuture(re);
+        }
+    }
+    
+    private static Map<CurrencyPair, ConversionRateQuote> parseQuoteMap(
+            Currency base, String ratesResponse) {
+        String currencyCode = base.getCurrencyCode();
+        Map<CurrencyPair, ConversionRateQuote> map 
+                = new HashMap<>(156);
+        String str = "\"" + currencyCode + "\":1,";
+        int currIndex = ratesResponse.indexOf(str) + 7;
+        boolean hasNext = true;
+        while (hasNext) {
+            currIndex = ratesResponse.indexOf("\"", currIndex) + 1;
+            String key = ratesResponse.substring(currIndex, 
+                    currIndex + 3);
+            if (CURRENCY_CODES.contains(key)) {
+                Currency currency = Currency.getInstance(key);
+                CurrencyPair currencies 
+                        = new CurrencyPair(base, currency);
+                currIndex = ratesResponse.indexOf(":", currIndex) + 1;
+                int commaIndex = ratesResponse.indexOf(",", currIndex);
+                if (commaIndex < 0) {
+                    commaIndex = ratesResponse.indexOf("\u007D", currIndex);
+                    hasNext = false;
+                }
+                String numStr = ratesResponse.substring(currIndex, 
+                        commaIndex);
+                double rate = Double.parseDouble(numStr);
+                ConversionRateQuote value 
+                        = new ConversionRateQuote(currencies, rate, 
+                                LocalDateTime.now());
+                map.put(currencies, value);
+            } else {
+                currIndex = ratesResponse.indexOf("\"", currIndex + 4);
+            }
+        }
+        return map;
+    }
+    
     private Map<CurrencyPair, ConversionRateQuote> makeQuoteMap(Currency base) {
         String currencyCode = base.getCurrencyCode();
         String ratesEndPoint = "/latest/" + currencyCode;
         try {
             String ratesResponse = minify(ratesEndPoint);
-            Map<CurrencyPair, ConversionRateQuote> map 
-                    = new HashMap<>(156);
-            String str = "\"" + currencyCode + "\":1,";
-            int currIndex = ratesResponse.indexOf(str) + 7;
-            boolean hasNext = true;
-            while (hasNext) {
-                currIndex = ratesResponse.indexOf("\"", currIndex) + 1;
-                String key = ratesResponse.substring(currIndex, 
-                        currIndex + 3);
-                if (CURRENCY_CODES.contains(key)) {
-                    Currency currency = Currency.getInstance(key);
-                    CurrencyPair currencies 
-                            = new CurrencyPair(base, currency);
-                    currIndex = ratesResponse.indexOf(":", currIndex) + 1;
-                    int commaIndex = ratesResponse.indexOf(",", currIndex);
-                    if (commaIndex < 0) {
-                        commaIndex = ratesResponse.indexOf("\u007D", currIndex);
-                        hasNext = false;
-                    }
-                    String numStr = ratesResponse.substring(currIndex, 
-                            commaIndex);
-                    double rate = Double.parseDouble(numStr);
-                    ConversionRateQuote value 
-                            = new ConversionRateQuote(currencies, rate, 
-                                    LocalDateTime.now());
-                    System.out.println("Conversion for " + currencies.toString() 
-                            + " reported as " + rate);
-                    map.put(currencies, value);
-                } else {
-                    currIndex = ratesResponse.indexOf("\"", currIndex + 4);
-                }
-            }
-            return map;
+            return parseQuoteMap(base, ratesResponse);
         } catch (IOException ioe) {
             String excMsg = "Encountered " + ioe.getClass().getName() 
                     + " trying to get quotes for " + currencyCode;
             throw new RuntimeException(excMsg, ioe);
         }
     }
+    
+    /**
+     * Creates a provider without blocking the calling thread. The rates for 
+     * the base currency are fetched with {@code HttpClient.sendAsync()}, so no 
+     * thread waits on the response.
+     * @param base The base currency. For example, the British pound (GBP).
+     * @return A future for the provider, which completes once the rates for 
+     * {@code base} have been fetched, or completes exceptionally with a {@code 
+     * RuntimeException} if the API returns an HTTP status code other than 
+     * HTTP OK (200) or if there is an I/O problem.
+     * @throws NullPointerException If {@code base} is null.
+     */
+    public static CompletableFuture<FreeAPIAccess> createAsync(Currency base) {
+        if (base == null) {
+            String excMsg = "Base currency must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        String ratesEndPoint = "/latest/" + base.getCurrencyCode();
+        return minifyAsync(ratesEndPoint).thenApply(ratesResponse 
+                -> new FreeAPIAccess(base, parseQuoteMap(base, ratesResponse)));
+    }
 
     /**
      * Auxiliary constructor. The base currency is the United States dollar 
@@ -304,4 +392,10 @@ public class FreeAPIAccess implements ExchangeRateProvider {
         this.baseCurrQuoteMap = this.makeQuoteMap(this.baseCurrency);
     }
     
+    private FreeAPIAccess(Currency base, 
+            Map<CurrencyPair, ConversionRateQuote> quotes) {
+        this.baseCurrency = base;
+        this.baseCurrQuoteMap = quotes;
+    }
+    
 }
@@ -17,6 +17,7 @@
 package currency.conversions.ayrtech;
 
 import currency.CurrencyPair;
+import currency.CurrencySet;
 import currency.SpecificCurrenciesSupport;
 import currency.conversions.ExchangeRateProvider;
 
@@ -39,6 +40,12 @@ public class ProAPIAccess implements ExchangeRateProvider,
         return new HashSet<>();
     }
     
+    // TODO: Write tests for this
+    @Override
+    public CurrencySet supportedCurrencySet() {
+        return CurrencySet.empty();
+    }
+    
     // TODO: Write tests for this
     @Override
     public double getRate(Currency source, Currency target) {
@@ -16,7 +16,9 @@
  */
 package currency.conversions.mannys;
 
+import currency.CurrencySet;
 import currency.conversions.ExchangeRateProvider;
+import currency.conversions.HttpQueries;
 
 import java.io.InputStream;
 import java.io.IOException;
@@ -27,6 +29,7 @@ import java.net.URL;
 import java.util.Currency;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Provides access to Manny's Free Currency Converter API. To use this, you need 
@@ -54,9 +57,21 @@ public class FreeForExRateProvider
     private static final String USER_AGENT_ID = "Java/"
             + System.getProperty("java.version");
     
-    static double makeAPICall(Currency source, Currency target) {
-        String queryPath = QUERY_PATH_BEGIN + source.getCurrencyCode() + '_' 
+    private static final CurrencySet SUPPORTED_CURRENCY_SET 
+            = CurrencySet.of(Currency.getAvailableCurrencies());
+    
+    private static String makeQueryPath(Currency source, Currency target) {
+        return QUERY_PATH_BEGIN + source.getCurrencyCode() + '_' 
                 + target.getCurrencyCode() + QUERY_PATH_CONNECTOR + API_KEY;
+    }
+    
+    private static double parseQuote(String quote) {
+        return Double.parseDouble(quote.substring(quote.indexOf(':') + 1, 
+                quote.indexOf('}')));
+    }
+    
+    static double makeAPICall(Currency source, Currency target) {
+        String queryPath = makeQueryPath(source, target);
         try {
             URI uri = new URI(queryPath);
             URL queryURL = uri.toURL();
@@ -67,9 +82,7 @@ public class FreeForExRateProvider
             if (responseCode == HttpURLConnection.HTTP_OK) {
                 InputStream stream = (InputStream) connection.getContent();
                 Scanner scanner = new Scanner(stream);
-                String quote = scanner.nextLine();
-                return Double.parseDouble(quote
-                        .substring(quote.indexOf(':') + 1, quote.indexOf('}')));
+                return parseQuote(scanner.nextLine());
             } else {
                 String excMsg = "Query " + queryPath + " returned status " 
                         + responseCode;
@@ -86,7 +99,9 @@ public class FreeForExRateProvider
     
     /**
      * Gives the rate for a currency conversion. This function calls Manny's 
-     * Free Currency Converter API.
+     * Free Currency Converter API every time. Quotes are not cached here. For 
+     * that, put this provider behind a {@link 
+     * currency.conversions.CachingExchangeRateProvider}.
      * @param source The currency to convert from. For example, United States 
      * dollars (USD).
      * @param target The currency to convert to. For example, euros (EUR).
@@ -100,14 +115,41 @@ public class FreeForExRateProvider
      */
     @Override
     public double getRate(Currency source, Currency target) {
-        // TODO: Implement rate quote caching
         return makeAPICall(source, target);
     }
     
+    /**
+     * Gives the rate for a currency conversion without blocking the calling 
+     * thread. This function sends the query to Manny's Free Currency Converter 
+     * API with {@code HttpClient.sendAsync()}, so no thread waits on the 
+     * response.
+     * @param source The currency to convert from. For example, United States 
+     * dollars (USD).
+     * @param target The currency to convert to. For example, euros (EUR).
+     * @return A future for the rate. For example, one that completes with 
+     * 0.89854 as of September 16, 2024. The future completes exceptionally 
+     * with a {@code RuntimeException} if the API returns an HTTP status code 
+     * other than HTTP OK (200) or if there is an I/O problem, or with a {@code 
+     * NumberFormatException} if {@code target} is not a currency recognized by 
+     * the API.
+     */
+    @Override
+    public CompletableFuture<Double> getRateAsync(Currency source, 
+            Currency target) {
+        return HttpQueries.sendAsync(makeQueryPath(source, target))
+                .thenApply(FreeForExRateProvider::parseQuote);
+    }
+    
     // TODO: Write tests for this if Manny's free API ever comes back up
     @Override
     public Set<Currency> supportedCurrencies() {
         return Currency.getAvailableCurrencies();
     }
     
+    // TODO: Write tests for this if Manny's free API ever comes back up
+    @Override
+    public CurrencySet supportedCurrencySet() {
+        return SUPPORTED_CURRENCY_SET;
+    }
+    
 }
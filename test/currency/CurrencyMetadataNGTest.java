@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import static currency.CurrencyChooser.chooseCurrency;
+import static currency.CurrencyChooser.RANDOM;
+
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the CurrencyMetadata class.
+ * @author Alonso del Arte
+ */
+public class CurrencyMetadataNGTest {
+    
+    private static final Set<Currency> ALL_CURRENCIES 
+            = Currency.getAvailableCurrencies();
+    
+    @Test
+    public void testCount() {
+        System.out.println("count");
+        int expected = ALL_CURRENCIES.size();
+        int actual = CurrencyMetadata.count();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetCurrency() {
+        System.out.println("getCurrency");
+        Currency expected = chooseCurrency();
+        CurrencyMetadata instance = CurrencyMetadata.of(expected);
+        Currency actual = instance.getCurrency();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetOrdinal() {
+        System.out.println("getOrdinal");
+        int expected = RANDOM.nextInt(CurrencyMetadata.count());
+        CurrencyMetadata metadata = CurrencyMetadata.forOrdinal(expected);
+        int actual = CurrencyMetadata.of(metadata.getCurrency()).getOrdinal();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testOrdinalsFollowLetterCodes() {
+        int count = CurrencyMetadata.count();
+        for (int i = 1; i < count; i++) {
+            String previous = CurrencyMetadata.forOrdinal(i - 1).getCurrency()
+                    .getCurrencyCode();
+            String current = CurrencyMetadata.forOrdinal(i).getCurrency()
+                    .getCurrencyCode();
+            String msg = previous + " should come before " + current;
+            assert previous.compareTo(current) < 0 : msg;
+        }
+    }
+    
+    @Test
+    public void testGetFractionDigits() {
+        System.out.println("getFractionDigits");
+        for (Currency currency : ALL_CURRENCIES) {
+            int expected = currency.getDefaultFractionDigits();
+            int actual = CurrencyMetadata.of(currency).getFractionDigits();
+            assertEquals(actual, expected);
+        }
+    }
+    
+    @Test
+    public void testGetMultiplier() {
+        System.out.println("getMultiplier");
+        for (Currency currency : ALL_CURRENCIES) {
+            int digits = Math.max(0, currency.getDefaultFractionDigits());
+            int expected = (int) Math.pow(10, digits);
+            int actual = CurrencyMetadata.of(currency).getMultiplier();
+            String msg = "Multiplier for " + currency.getCurrencyCode();
+            assertEquals(actual, expected, msg);
+        }
+    }
+    
+    @Test
+    public void testGetNumericCode() {
+        System.out.println("getNumericCode");
+        Currency currency = chooseCurrency();
+        int expected = currency.getNumericCode();
+        int actual = CurrencyMetadata.of(currency).getNumericCode();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testIsPseudocurrency() {
+        System.out.println("isPseudocurrency");
+        Currency currency = CurrencyChooser.choosePseudocurrency();
+        String msg = currency.getDisplayName() + " (" 
+                + currency.getCurrencyCode() + ") is a pseudocurrency";
+        assert CurrencyMetadata.of(currency).isPseudocurrency() : msg;
+    }
+    
+    @Test
+    public void testIsNotPseudocurrency() {
+        Currency currency = chooseCurrency();
+        String msg = currency.getDisplayName() + " (" 
+                + currency.getCurrencyCode() + ") is not a pseudocurrency";
+        assert !CurrencyMetadata.of(currency).isPseudocurrency() : msg;
+    }
+    
+    @Test
+    public void testOfSupported() {
+        System.out.println("ofSupported");
+        Currency currency = chooseCurrency();
+        assertEquals(CurrencyMetadata.ofSupported(currency), 
+                CurrencyMetadata.of(currency));
+    }
+    
+    @Test
+    public void testOfSupportedRejectsPseudocurrency() {
+        Currency currency = CurrencyChooser.choosePseudocurrency();
+        String msg = "Pseudocurrency " + currency.getDisplayName() + " (" 
+                + currency.getCurrencyCode() + ") should cause exception";
+        Throwable t = assertThrows(() -> {
+            CurrencyMetadata badMetadata 
+                    = CurrencyMetadata.ofSupported(currency);
+            System.out.println(msg + ", not given " + badMetadata.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testGetSymbol() {
+        System.out.println("getSymbol");
+        Currency currency = chooseCurrency();
+        String expected = currency.getSymbol();
+        String actual = CurrencyMetadata.of(currency).getSymbol();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetSymbolFollowsDefaultLocaleChange() {
+        Locale originalLocale = Locale.getDefault(Locale.Category.DISPLAY);
+        Currency currency = Currency.getInstance("CAD");
+        CurrencyMetadata instance = CurrencyMetadata.of(currency);
+        try {
+            Locale.setDefault(Locale.Category.DISPLAY, Locale.US);
+            assertEquals(instance.getSymbol(), currency.getSymbol(Locale.US));
+            Locale.setDefault(Locale.Category.DISPLAY, Locale.CANADA);
+            assertEquals(instance.getSymbol(), 
+                    currency.getSymbol(Locale.CANADA));
+        } finally {
+            Locale.setDefault(Locale.Category.DISPLAY, originalLocale);
+        }
+    }
+    
+    @Test
+    public void testOfRejectsNull() {
+        String msg = "Null currency should cause exception";
+        Throwable t = assertThrows(() -> {
+            CurrencyMetadata badMetadata = CurrencyMetadata.of(null);
+            System.out.println(msg + ", not given " + badMetadata.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
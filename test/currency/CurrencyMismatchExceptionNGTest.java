@@ -75,6 +75,16 @@ public class CurrencyMismatchExceptionNGTest {
         assert excMsg.contains(amtBStr) : msg;
     }
     
+    @Test
+    public void testMessageOnlyConstructorHasNoAmounts() {
+        String expected = "FOR TESTING PURPOSES " + RANDOM.nextInt();
+        CurrencyMismatchException exc 
+                = new CurrencyMismatchException(expected);
+        assertEquals(exc.getMessage(), expected);
+        assertNull(exc.getAmountA());
+        assertNull(exc.getAmountB());
+    }
+    
     /**
      * Test of the getAmountA function, of the CurrencyMismatchException class.
      */
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import static currency.CurrencyChooser.chooseCurrency;
+import static currency.CurrencyChooser.RANDOM;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the CurrencySet class.
+ * @author Alonso del Arte
+ */
+public class CurrencySetNGTest {
+    
+    private static Set<Currency> makeSet() {
+        int size = RANDOM.nextInt(48) + 2;
+        Set<Currency> currencies = new HashSet<>(size);
+        while (currencies.size() < size) {
+            currencies.add(chooseCurrency());
+        }
+        return currencies;
+    }
+    
+    @Test
+    public void testEmpty() {
+        System.out.println("empty");
+        CurrencySet instance = CurrencySet.empty();
+        assert instance.isEmpty() : "Empty set should be empty";
+        assertEquals(instance.size(), 0);
+        assertEquals(instance, new HashSet<Currency>());
+    }
+    
+    @Test
+    public void testOf() {
+        System.out.println("of");
+        Set<Currency> expected = makeSet();
+        CurrencySet actual = CurrencySet.of(expected);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testOfCurrencySetGivesSameInstance() {
+        CurrencySet expected = CurrencySet.of(makeSet());
+        CurrencySet actual = CurrencySet.of(expected);
+        assertSame(actual, expected);
+    }
+    
+    @Test
+    public void testOfVarargsIgnoresDuplicates() {
+        Currency currencyA = chooseCurrency();
+        Currency currencyB = CurrencyChooser.chooseCurrencyOtherThan(currencyA);
+        CurrencySet instance = CurrencySet.of(currencyA, currencyB, currencyA);
+        Set<Currency> expected = new HashSet<>();
+        expected.add(currencyA);
+        expected.add(currencyB);
+        assertEquals(instance, expected);
+    }
+    
+    @Test
+    public void testOfRejectsNullElement() {
+        List<Currency> currencies = new ArrayList<>(makeSet());
+        currencies.add(RANDOM.nextInt(currencies.size()), null);
+        String msg = "List with null element should cause exception";
+        Throwable t = assertThrows(() -> {
+            CurrencySet badSet = CurrencySet.of(currencies);
+            System.out.println(msg + ", not given " + badSet.toString());
+        }, NullPointerException.class, msg);
+        System.out.println("\"" + t.getMessage() + "\"");
+    }
+    
+    @Test
+    public void testContains() {
+        System.out.println("contains");
+        Set<Currency> currencies = makeSet();
+        CurrencySet instance = CurrencySet.of(currencies);
+        for (Currency currency : currencies) {
+            String msg = "Set should contain " + currency.getCurrencyCode();
+            assert instance.contains(currency) : msg;
+        }
+        Currency currency = CurrencyChooser.chooseCurrencyNotIn(currencies);
+        String msg = "Set should not contain " + currency.getCurrencyCode();
+        assert !instance.contains(currency) : msg;
+    }
+    
+    @Test
+    public void testDoesNotContainNullOrNonCurrency() {
+        CurrencySet instance = CurrencySet.of(makeSet());
+        assert !instance.contains(null) : "Set should not contain null";
+        String code = instance.iterator().next().getCurrencyCode();
+        String msg = "Set should not contain String \"" + code + "\"";
+        assert !instance.contains(code) : msg;
+    }
+    
+    @Test
+    public void testContainsOrdinal() {
+        System.out.println("containsOrdinal");
+        Set<Currency> currencies = makeSet();
+        CurrencySet instance = CurrencySet.of(currencies);
+        int count = CurrencyMetadata.count();
+        for (int i = 0; i < count; i++) {
+            Currency currency = CurrencyMetadata.forOrdinal(i).getCurrency();
+            boolean expected = currencies.contains(currency);
+            boolean actual = instance.containsOrdinal(i);
+            String msg = "Containment of " + currency.getCurrencyCode() 
+                    + " at ordinal " + i;
+            assertEquals(actual, expected, msg);
+        }
+    }
+    
+    @Test
+    public void testContainsOrdinalRejectsOutOfBounds() {
+        CurrencySet instance = CurrencySet.of(makeSet());
+        int ordinal = CurrencyMetadata.count() + RANDOM.nextInt(64);
+        String msg = "Ordinal " + ordinal + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            boolean result = instance.containsOrdinal(ordinal);
+            System.out.println(msg + ", not given " + result);
+        }, ArrayIndexOutOfBoundsException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testContainsAll() {
+        System.out.println("containsAll");
+        Set<Currency> currencies = makeSet();
+        CurrencySet instance = CurrencySet.of(currencies);
+        Set<Currency> subset = new HashSet<>(currencies);
+        subset.remove(subset.iterator().next());
+        assert instance.containsAll(subset) : "Set should contain subset";
+        assert instance.containsAll(CurrencySet.of(subset)) 
+                : "Set should contain currency subset";
+        Set<Currency> superset = new HashSet<>(currencies);
+        superset.add(CurrencyChooser.chooseCurrencyNotIn(currencies));
+        assert !instance.containsAll(superset) 
+                : "Set should not contain superset";
+        assert !instance.containsAll(CurrencySet.of(superset)) 
+                : "Set should not contain currency superset";
+    }
+    
+    @Test
+    public void testIntersect() {
+        System.out.println("intersect");
+        Set<Currency> currenciesA = makeSet();
+        Set<Currency> currenciesB = makeSet();
+        currenciesB.add(currenciesA.iterator().next());
+        Set<Currency> expected = new HashSet<>(currenciesA);
+        expected.retainAll(currenciesB);
+        CurrencySet actual = CurrencySet.of(currenciesA)
+                .intersect(CurrencySet.of(currenciesB));
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testUnion() {
+        System.out.println("union");
+        Set<Currency> currenciesA = makeSet();
+        Set<Currency> currenciesB = makeSet();
+        Set<Currency> expected = new HashSet<>(currenciesA);
+        expected.addAll(currenciesB);
+        CurrencySet actual = CurrencySet.of(currenciesA)
+                .union(CurrencySet.of(currenciesB));
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSize() {
+        System.out.println("size");
+        Set<Currency> currencies = makeSet();
+        int expected = currencies.size();
+        int actual = CurrencySet.of(currencies).size();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testIteratorFollowsLetterCodes() {
+        System.out.println("iterator");
+        Set<Currency> currencies = makeSet();
+        TreeSet<String> codes = new TreeSet<>();
+        currencies.forEach(currency -> codes.add(currency.getCurrencyCode()));
+        List<String> expected = new ArrayList<>(codes);
+        List<String> actual = new ArrayList<>();
+        for (Currency currency : CurrencySet.of(currencies)) {
+            actual.add(currency.getCurrencyCode());
+        }
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testIteratorRejectsNextPastEnd() {
+        Iterator<Currency> iterator = CurrencySet.of(makeSet()).iterator();
+        while (iterator.hasNext()) {
+            iterator.next();
+        }
+        String msg = "Calling next() past end should cause exception";
+        Throwable t = assertThrows(() -> {
+            Currency badCurrency = iterator.next();
+            System.out.println(msg + ", not given " 
+                    + badCurrency.getCurrencyCode());
+        }, NoSuchElementException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testCanNotBeModified() {
+        CurrencySet instance = CurrencySet.of(makeSet());
+        Currency currency = chooseCurrency();
+        String msg = "Adding " + currency.getCurrencyCode() 
+                + " should cause exception";
+        assertThrows(() -> {
+            instance.add(currency);
+        }, UnsupportedOperationException.class, msg);
+        String removalMsg = "Removing through iterator should cause exception";
+        assertThrows(() -> {
+            Iterator<Currency> iterator = instance.iterator();
+            iterator.next();
+            iterator.remove();
+        }, UnsupportedOperationException.class, removalMsg);
+    }
+    
+    @Test
+    public void testEquals() {
+        System.out.println("equals");
+        Set<Currency> currencies = makeSet();
+        CurrencySet someSet = CurrencySet.of(currencies);
+        CurrencySet sameSet = CurrencySet.of(new ArrayList<>(currencies));
+        assertEquals(sameSet, someSet);
+        assertEquals(someSet, currencies);
+        assertEquals(currencies, someSet);
+    }
+    
+    @Test
+    public void testNotEqualsDiffSet() {
+        Set<Currency> currencies = makeSet();
+        CurrencySet someSet = CurrencySet.of(currencies);
+        currencies.add(CurrencyChooser.chooseCurrencyNotIn(currencies));
+        CurrencySet diffSet = CurrencySet.of(currencies);
+        assertNotEquals(diffSet, someSet);
+    }
+    
+    @Test
+    public void testHashCode() {
+        System.out.println("hashCode");
+        Set<Currency> currencies = makeSet();
+        int expected = currencies.hashCode();
+        int actual = CurrencySet.of(currencies).hashCode();
+        assertEquals(actual, expected);
+    }
+    
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import static currency.CurrencyChooser.chooseCurrency;
+import static currency.CurrencyChooser.RANDOM;
+
+import java.math.BigInteger;
+import java.util.Currency;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the LargeMoneyAmount class.
+ * @author Alonso del Arte
+ */
+public class LargeMoneyAmountNGTest {
+    
+    private static final Currency RIALS = Currency.getInstance("IRR");
+    
+    private static final BigInteger LONG_MAX 
+            = BigInteger.valueOf(Long.MAX_VALUE);
+    
+    @Test
+    public void testGetCurrency() {
+        System.out.println("getCurrency");
+        Currency expected = chooseCurrency();
+        LargeMoneyAmount instance = LargeMoneyAmount.valueOf(
+                new MoneyAmount(RANDOM.nextInt(), expected));
+        Currency actual = instance.getCurrency();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetFullAmountInCents() {
+        System.out.println("getFullAmountInCents");
+        BigInteger expected = LONG_MAX.multiply(BigInteger.valueOf(
+                RANDOM.nextInt(1000) + 2));
+        LargeMoneyAmount instance = LargeMoneyAmount.valueOf(expected, RIALS);
+        BigInteger actual = instance.getFullAmountInCents();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testIsLarge() {
+        System.out.println("isLarge");
+        LargeMoneyAmount instance = LargeMoneyAmount.valueOf(
+                LONG_MAX.add(BigInteger.ONE), RIALS);
+        assert instance.isLarge() : instance.toString() + " should be large";
+    }
+    
+    @Test
+    public void testIsNotLarge() {
+        LargeMoneyAmount instance = LargeMoneyAmount.valueOf(LONG_MAX, RIALS);
+        assert !instance.isLarge() : instance.toString() 
+                + " should not be large";
+    }
+    
+    @Test
+    public void testPlus() {
+        System.out.println("plus");
+        Currency currency = chooseCurrency();
+        MoneyAmount augend = MoneyAmount.fromFullAmountInCents(
+                RANDOM.nextInt(), currency);
+        MoneyAmount addend = MoneyAmount.fromFullAmountInCents(
+                RANDOM.nextInt(), currency);
+        LargeMoneyAmount expected = LargeMoneyAmount.valueOf(
+                augend.plus(addend));
+        LargeMoneyAmount actual = LargeMoneyAmount.valueOf(augend)
+                .plus(addend);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testPlusSwitchesToBigIntegerOnOverflow() {
+        LargeMoneyAmount augend = LargeMoneyAmount.valueOf(LONG_MAX, RIALS);
+        int cents = RANDOM.nextInt(1000000) + 1;
+        LargeMoneyAmount addend = LargeMoneyAmount.valueOf(
+                BigInteger.valueOf(cents), RIALS);
+        LargeMoneyAmount actual = augend.plus(addend);
+        assert actual.isLarge() : actual.toString() + " should be large";
+        BigInteger expected = LONG_MAX.add(BigInteger.valueOf(cents));
+        assertEquals(actual.getFullAmountInCents(), expected);
+    }
+    
+    @Test
+    public void testPlusSwitchesBackToLong() {
+        BigInteger cents = LONG_MAX.add(BigInteger.TEN);
+        LargeMoneyAmount augend = LargeMoneyAmount.valueOf(cents, RIALS);
+        LargeMoneyAmount addend = LargeMoneyAmount.valueOf(
+                BigInteger.valueOf(-20), RIALS);
+        LargeMoneyAmount actual = augend.plus(addend);
+        assert !actual.isLarge() : actual.toString() + " should not be large";
+        LargeMoneyAmount expected = LargeMoneyAmount.valueOf(
+                MoneyAmount.fromFullAmountInCents(Long.MAX_VALUE - 10, RIALS));
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testPlusRejectsCurrencyMismatch() {
+        Currency currency = chooseCurrency();
+        Currency otherCurrency = CurrencyChooser.chooseCurrencyOtherThan(
+                currency);
+        LargeMoneyAmount augend = LargeMoneyAmount.valueOf(
+                new MoneyAmount(RANDOM.nextInt(1000), currency));
+        MoneyAmount addend = new MoneyAmount(RANDOM.nextInt(1000), 
+                otherCurrency);
+        String msg = "Adding " + addend.toString() + " to " 
+                + augend.toString() + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            LargeMoneyAmount badAmount = augend.plus(addend);
+            System.out.println(msg + ", not given " + badAmount.toString());
+        }, CurrencyMismatchException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+        CurrencyMismatchException cme = (CurrencyMismatchException) t;
+        assertEquals(cme.getAmountA(), augend.toMoneyAmount());
+        assertEquals(cme.getAmountB(), addend);
+    }
+    
+    @Test
+    public void testPlusRejectsLargeCurrencyMismatch() {
+        Currency otherCurrency = CurrencyChooser.chooseCurrencyOtherThan(RIALS);
+        LargeMoneyAmount augend = LargeMoneyAmount.valueOf(
+                LONG_MAX.multiply(BigInteger.TEN), RIALS);
+        LargeMoneyAmount addend = LargeMoneyAmount.valueOf(
+                new MoneyAmount(RANDOM.nextInt(1000), otherCurrency));
+        String msg = "Adding " + addend.toString() + " to " 
+                + augend.toString() + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            LargeMoneyAmount badAmount = augend.plus(addend);
+            System.out.println(msg + ", not given " + badAmount.toString());
+        }, CurrencyMismatchException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert excMsg.contains(RIALS.getCurrencyCode()) 
+                : "Exception message should mention " + RIALS.getCurrencyCode();
+        System.out.println("\"" + excMsg + "\"");
+        CurrencyMismatchException cme = (CurrencyMismatchException) t;
+        assert cme.getAmountA() == null 
+                : "Too large amount should not be given as zero";
+    }
+    
+    @Test
+    public void testNegate() {
+        System.out.println("negate");
+        LargeMoneyAmount instance = LargeMoneyAmount.valueOf(
+                MoneyAmount.fromFullAmountInCents(Long.MIN_VALUE, RIALS));
+        BigInteger expected = BigInteger.valueOf(Long.MIN_VALUE).negate();
+        BigInteger actual = instance.negate().getFullAmountInCents();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testMinus() {
+        System.out.println("minus");
+        Currency currency = chooseCurrency();
+        MoneyAmount minuend = MoneyAmount.fromFullAmountInCents(
+                RANDOM.nextInt(), currency);
+        MoneyAmount subtrahend = MoneyAmount.fromFullAmountInCents(
+                RANDOM.nextInt(), currency);
+        LargeMoneyAmount expected = LargeMoneyAmount.valueOf(
+                minuend.minus(subtrahend));
+        LargeMoneyAmount actual = LargeMoneyAmount.valueOf(minuend)
+                .minus(LargeMoneyAmount.valueOf(subtrahend));
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testTimes() {
+        System.out.println("times");
+        Currency currency = chooseCurrency();
+        MoneyAmount amount = MoneyAmount.fromFullAmountInCents(
+                RANDOM.nextInt(65536), currency);
+        int multiplicand = RANDOM.nextInt(1024) - 512;
+        LargeMoneyAmount expected = LargeMoneyAmount.valueOf(
+                amount.times(multiplicand));
+        LargeMoneyAmount actual = LargeMoneyAmount.valueOf(amount)
+                .times(multiplicand);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testTimesSwitchesToBigIntegerOnOverflow() {
+        LargeMoneyAmount instance = LargeMoneyAmount.valueOf(LONG_MAX, RIALS);
+        long multiplicand = RANDOM.nextInt(1000000) + 2;
+        BigInteger expected = LONG_MAX.multiply(
+                BigInteger.valueOf(multiplicand));
+        BigInteger actual = instance.times(multiplicand)
+                .getFullAmountInCents();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testCompareTo() {
+        System.out.println("compareTo");
+        LargeMoneyAmount small = LargeMoneyAmount.valueOf(LONG_MAX, RIALS);
+        LargeMoneyAmount large = LargeMoneyAmount.valueOf(
+                LONG_MAX.add(BigInteger.ONE), RIALS);
+        assert small.compareTo(large) < 0 : small + " should be less than " 
+                + large;
+        assert large.compareTo(small) > 0 : large + " should be more than " 
+                + small;
+        assertEquals(large.compareTo(large.plus(large).minus(large)), 0);
+    }
+    
+    @Test
+    public void testToMoneyAmount() {
+        System.out.println("toMoneyAmount");
+        MoneyAmount expected = MoneyAmount.fromFullAmountInCents(
+                RANDOM.nextLong(), chooseCurrency());
+        MoneyAmount actual = LargeMoneyAmount.valueOf(expected)
+                .toMoneyAmount();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testToMoneyAmountRejectsLargeAmount() {
+        LargeMoneyAmount instance = LargeMoneyAmount.valueOf(
+                LONG_MAX.add(BigInteger.ONE), RIALS);
+        String msg = instance.toString() + " should be too large";
+        Throwable t = assertThrows(() -> {
+            MoneyAmount badAmount = instance.toMoneyAmount();
+            System.out.println(msg + ", not given " + badAmount.toString());
+        }, ArithmeticException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testToStringMatchesMoneyAmount() {
+        System.out.println("toString");
+        // MoneyAmount doesn't pad currencies with four decimal places like the
+        // Chilean unit of account (CLF) to four digits, so those are left out
+        Currency currency = chooseCurrency(c 
+                -> c.getDefaultFractionDigits() < 4);
+        MoneyAmount amount = MoneyAmount.fromFullAmountInCents(
+                RANDOM.nextInt(Integer.MAX_VALUE), currency);
+        String expected = amount.toString();
+        String actual = LargeMoneyAmount.valueOf(amount).toString();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testToStringFourDecimalPlaces() {
+        Currency currency = chooseCurrency(c 
+                -> c.getDefaultFractionDigits() == 4);
+        int units = RANDOM.nextInt(1000);
+        int divisions = RANDOM.nextInt(10000);
+        LargeMoneyAmount instance = LargeMoneyAmount.valueOf(
+                BigInteger.valueOf(units * 10000L + divisions), currency);
+        String expected = CurrencyMetadata.of(currency).getSymbol() + units 
+                + '.' + String.format("%04d", divisions);
+        String actual = instance.toString();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testEquals() {
+        System.out.println("equals");
+        BigInteger cents = LONG_MAX.multiply(BigInteger.TEN);
+        LargeMoneyAmount someAmount = LargeMoneyAmount.valueOf(cents, RIALS);
+        LargeMoneyAmount sameAmount = LargeMoneyAmount.valueOf(cents, RIALS);
+        assertEquals(sameAmount, someAmount);
+        assertEquals(sameAmount.hashCode(), someAmount.hashCode());
+        LargeMoneyAmount otherAmount = someAmount.plus(someAmount);
+        assertNotEquals(otherAmount, someAmount);
+    }
+    
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import static currency.CurrencyChooser.chooseCurrency;
+import static currency.CurrencyChooser.RANDOM;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the MoneyAccumulator class.
+ * @author Alonso del Arte
+ */
+public class MoneyAccumulatorNGTest {
+    
+    private static List<MoneyAmount> makeAmounts(Currency currency, 
+            int size) {
+        List<MoneyAmount> amounts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long cents = RANDOM.nextInt(1 << 20) - (1 << 19);
+            amounts.add(MoneyAmount.fromFullAmountInCents(cents, currency));
+        }
+        return amounts;
+    }
+    
+    @Test
+    public void testGetCurrency() {
+        System.out.println("getCurrency");
+        Currency expected = chooseCurrency();
+        MoneyAccumulator instance = new MoneyAccumulator(expected);
+        Currency actual = instance.getCurrency();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testAdd() {
+        System.out.println("add");
+        Currency currency = chooseCurrency();
+        List<MoneyAmount> amounts = makeAmounts(currency, 
+                RANDOM.nextInt(64) + 2);
+        MoneyAmount expected = new MoneyAmount(0, currency);
+        MoneyAccumulator instance = new MoneyAccumulator(currency);
+        for (MoneyAmount amount : amounts) {
+            expected = expected.plus(amount);
+            instance.add(amount);
+        }
+        MoneyAmount actual = instance.toMoneyAmount();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testAddRejectsCurrencyMismatch() {
+        Currency currency = chooseCurrency();
+        Currency otherCurrency = CurrencyChooser.chooseCurrencyOtherThan(
+                currency);
+        MoneyAccumulator instance = new MoneyAccumulator(currency);
+        MoneyAmount amount = new MoneyAmount(RANDOM.nextInt(1000) + 1, 
+                otherCurrency);
+        String msg = "Adding " + amount.toString() + " to accumulator for " 
+                + currency.getCurrencyCode() + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            instance.add(amount);
+        }, CurrencyMismatchException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testAddDetectsOverflow() {
+        Currency currency = chooseCurrency();
+        MoneyAccumulator instance = new MoneyAccumulator(currency);
+        instance.addCents(Long.MAX_VALUE - 1);
+        MoneyAmount amount = MoneyAmount.fromFullAmountInCents(2, currency);
+        String msg = "Adding " + amount.toString() 
+                + " to near maximum total should cause exception";
+        Throwable t = assertThrows(() -> {
+            instance.add(amount);
+        }, ArithmeticException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+        assertEquals(instance.getFullAmountInCents(), Long.MAX_VALUE - 1);
+    }
+    
+    @Test
+    public void testAddTimes() {
+        Currency currency = chooseCurrency();
+        MoneyAmount amount = MoneyAmount.fromFullAmountInCents(
+                RANDOM.nextInt(100000), currency);
+        int multiplicand = RANDOM.nextInt(64) + 2;
+        MoneyAmount expected = amount.times(multiplicand);
+        MoneyAccumulator instance = new MoneyAccumulator(currency);
+        instance.add(amount, multiplicand);
+        MoneyAmount actual = instance.toMoneyAmount();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSubtract() {
+        System.out.println("subtract");
+        Currency currency = chooseCurrency();
+        List<MoneyAmount> amounts = makeAmounts(currency, 
+                RANDOM.nextInt(64) + 2);
+        MoneyAmount expected = new MoneyAmount(0, currency);
+        MoneyAccumulator instance = new MoneyAccumulator(currency);
+        for (MoneyAmount amount : amounts) {
+            expected = expected.minus(amount);
+            instance.subtract(amount);
+        }
+        MoneyAmount actual = instance.toMoneyAmount();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testAddCents() {
+        System.out.println("addCents");
+        Currency currency = chooseCurrency();
+        MoneyAccumulator instance = new MoneyAccumulator(currency);
+        long expected = 0L;
+        for (int i = 0; i < 16; i++) {
+            long cents = RANDOM.nextInt();
+            expected += cents;
+            instance.addCents(cents);
+        }
+        long actual = instance.getFullAmountInCents();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testCombine() {
+        System.out.println("combine");
+        Currency currency = chooseCurrency();
+        long centsA = RANDOM.nextInt();
+        long centsB = RANDOM.nextInt();
+        MoneyAccumulator instance = new MoneyAccumulator(currency)
+                .addCents(centsA);
+        MoneyAccumulator other = new MoneyAccumulator(currency)
+                .addCents(centsB);
+        instance.combine(other);
+        assertEquals(instance.getFullAmountInCents(), centsA + centsB);
+        assertEquals(other.getFullAmountInCents(), centsB);
+    }
+    
+    @Test
+    public void testReset() {
+        System.out.println("reset");
+        Currency currency = chooseCurrency();
+        MoneyAccumulator instance = new MoneyAccumulator(currency)
+                .addCents(RANDOM.nextInt(1000) + 1);
+        instance.reset();
+        assertEquals(instance.getFullAmountInCents(), 0L);
+    }
+    
+    @Test
+    public void testSumming() {
+        System.out.println("summing");
+        Currency currency = chooseCurrency();
+        List<MoneyAmount> amounts = makeAmounts(currency, 
+                RANDOM.nextInt(1024) + 2);
+        MoneyAmount expected = new MoneyAmount(0, currency);
+        for (MoneyAmount amount : amounts) {
+            expected = expected.plus(amount);
+        }
+        MoneyAmount actual = amounts.parallelStream()
+                .collect(MoneyAccumulator.summing(currency));
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSummingEmptyStream() {
+        Currency currency = chooseCurrency();
+        MoneyAmount expected = new MoneyAmount(0, currency);
+        MoneyAmount actual = new ArrayList<MoneyAmount>().stream()
+                .collect(MoneyAccumulator.summing(currency));
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testConstructorRejectsPseudocurrency() {
+        Currency currency = CurrencyChooser.choosePseudocurrency();
+        String msg = "Pseudocurrency " + currency.getDisplayName() + " (" 
+                + currency.getCurrencyCode() + ") should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyAccumulator badAccumulator = new MoneyAccumulator(currency);
+            System.out.println(msg + ", not given " 
+                    + badAccumulator.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConstructorRejectsNullCurrency() {
+        String msg = "Null currency should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyAccumulator badAccumulator = new MoneyAccumulator(null);
+            System.out.println(msg + ", not given " 
+                    + badAccumulator.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import static currency.CurrencyChooser.chooseCurrency;
+import static currency.CurrencyChooser.RANDOM;
+import static currency.MoneyAmountNGTest.DOLLARS;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the MoneyAllocator class.
+ * @author Alonso del Arte
+ */
+public class MoneyAllocatorNGTest {
+    
+    private static long[] makeRatios(int size) {
+        long[] ratios = new long[size];
+        for (int i = 0; i < size; i++) {
+            ratios[i] = RANDOM.nextInt(1000);
+        }
+        ratios[RANDOM.nextInt(size)]++;
+        return ratios;
+    }
+    
+    private static void assertProportional(long totalCents, long[] ratios, 
+            long[] shares) {
+        BigInteger total = BigInteger.valueOf(totalCents).abs();
+        BigInteger ratioSum = BigInteger.valueOf(Arrays.stream(ratios).sum());
+        for (int i = 0; i < ratios.length; i++) {
+            BigInteger floor = total.multiply(BigInteger.valueOf(ratios[i]))
+                    .divide(ratioSum);
+            long difference = BigInteger.valueOf(shares[i]).abs()
+                    .subtract(floor).longValueExact();
+            String msg = "Share " + shares[i] + " at index " + i 
+                    + " should be within one cent of exact share";
+            assert difference == 0L || difference == 1L : msg;
+        }
+    }
+    
+    // Straightforward largest remainder method, with the leftover cents going
+    // to the indices sorted by remainder, largest first, then by index
+    private static long[] referenceAllocate(long totalCents, long[] ratios) {
+        BigInteger total = BigInteger.valueOf(totalCents).abs();
+        BigInteger ratioSum = BigInteger.valueOf(Arrays.stream(ratios).sum());
+        int size = ratios.length;
+        BigInteger[] shares = new BigInteger[size];
+        BigInteger[] remainders = new BigInteger[size];
+        BigInteger allocated = BigInteger.ZERO;
+        for (int i = 0; i < size; i++) {
+            BigInteger[] quotientAndRemainder = total 
+                    .multiply(BigInteger.valueOf(ratios[i]))
+                    .divideAndRemainder(ratioSum);
+            shares[i] = quotientAndRemainder[0];
+            remainders[i] = quotientAndRemainder[1];
+            allocated = allocated.add(shares[i]);
+        }
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int comparison = remainders[b].compareTo(remainders[a]);
+            return (comparison != 0) ? comparison : Integer.compare(a, b);
+        });
+        int leftover = total.subtract(allocated).intValueExact();
+        for (int i = 0; i < leftover; i++) {
+            shares[order[i]] = shares[order[i]].add(BigInteger.ONE);
+        }
+        long[] result = new long[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = (totalCents < 0L) ? shares[i].negate().longValue() 
+                    : shares[i].longValue();
+        }
+        return result;
+    }
+    
+    @Test
+    public void testAllocate() {
+        System.out.println("allocate");
+        long[] ratios = {12L, 7L, 5L};
+        long[] expected = {12500L, 7292L, 5208L};
+        long[] actual = MoneyAllocator.allocate(25000L, ratios);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testAllocateKeepsEveryCent() {
+        long totalCents = RANDOM.nextLong() >> RANDOM.nextInt(Long.SIZE);
+        long[] ratios = makeRatios(RANDOM.nextInt(64) + 2);
+        long[] shares = MoneyAllocator.allocate(totalCents, ratios);
+        long actual = Arrays.stream(shares).sum();
+        assertEquals(actual, totalCents);
+        assertProportional(totalCents, ratios, shares);
+    }
+    
+    @Test
+    public void testAllocateBreaksTiesByIndex() {
+        long[] ratios = {1L, 1L, 1L, 1L, 1L, 1L};
+        long[] expected = {17L, 17L, 17L, 17L, 16L, 16L};
+        long[] actual = MoneyAllocator.allocate(100L, ratios);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testAllocateNegativeAmount() {
+        long totalCents = RANDOM.nextInt(1 << 20) + 1;
+        long[] ratios = makeRatios(RANDOM.nextInt(64) + 2);
+        long[] expected = MoneyAllocator.allocate(totalCents, ratios);
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = -expected[i];
+        }
+        long[] actual = MoneyAllocator.allocate(-totalCents, ratios);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testAllocateGivesNothingToZeroRatio() {
+        long[] ratios = {3L, 0L, 3L, 0L, 1L};
+        long[] shares = MoneyAllocator.allocate(RANDOM.nextInt(1 << 20) + 1, 
+                ratios);
+        assertEquals(shares[1], 0L);
+        assertEquals(shares[3], 0L);
+    }
+    
+    @Test
+    public void testAllocateDoesNotModifyRatios() {
+        long[] ratios = makeRatios(RANDOM.nextInt(64) + 2);
+        long[] expected = ratios.clone();
+        MoneyAllocator.allocate(RANDOM.nextInt(1 << 20), ratios);
+        assertEquals(ratios, expected);
+    }
+    
+    @Test
+    public void testAllocateHandlesOverflow() {
+        long[] ratios = {Long.MAX_VALUE / 3, Long.MAX_VALUE / 3, 
+            Long.MAX_VALUE / 3 - 1L};
+        long[] totals = {Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1L};
+        for (long totalCents : totals) {
+            long[] shares = MoneyAllocator.allocate(totalCents, ratios);
+            long actual = Arrays.stream(shares).sum();
+            assertEquals(actual, totalCents);
+            assertProportional(totalCents, ratios, shares);
+        }
+    }
+    
+    @Test
+    public void testAllocateInParallel() {
+        int size = MoneyAllocator.PARALLEL_THRESHOLD + RANDOM.nextInt(1024);
+        long[] ratios = makeRatios(size);
+        long totalCents = RANDOM.nextInt() + (1L << 40);
+        long[] expected = referenceAllocate(totalCents, ratios);
+        long[] actual = MoneyAllocator.allocate(totalCents, ratios);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testAllocateMatchesReference() {
+        long totalCents = RANDOM.nextLong() >> RANDOM.nextInt(Long.SIZE);
+        long[] ratios = makeRatios(RANDOM.nextInt(256) + 2);
+        long[] expected = referenceAllocate(totalCents, ratios);
+        long[] actual = MoneyAllocator.allocate(totalCents, ratios);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testAllocateRejectsEmptyRatios() {
+        String msg = "Empty ratios should cause exception";
+        Throwable t = assertThrows(() -> {
+            long[] badShares = MoneyAllocator.allocate(10000L, new long[0]);
+            System.out.println(msg + ", not given " 
+                    + Arrays.toString(badShares));
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testAllocateRejectsNegativeRatio() {
+        long[] ratios = makeRatios(RANDOM.nextInt(64) + 2);
+        ratios[RANDOM.nextInt(ratios.length)] = -RANDOM.nextInt(1000) - 1;
+        String msg = "Ratios " + Arrays.toString(ratios) 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            long[] badShares = MoneyAllocator.allocate(10000L, ratios);
+            System.out.println(msg + ", not given " 
+                    + Arrays.toString(badShares));
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testAllocateRejectsAllZeroRatios() {
+        long[] ratios = new long[RANDOM.nextInt(64) + 1];
+        String msg = "All zero ratios should cause exception";
+        Throwable t = assertThrows(() -> {
+            long[] badShares = MoneyAllocator.allocate(10000L, ratios);
+            System.out.println(msg + ", not given " 
+                    + Arrays.toString(badShares));
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testAllocateMoneyAmount() {
+        Currency currency = chooseCurrency();
+        MoneyAmount amount = MoneyAmount.fromFullAmountInCents(
+                RANDOM.nextInt(1 << 20), currency);
+        long[] ratios = makeRatios(RANDOM.nextInt(64) + 2);
+        long[] shares = MoneyAllocator.allocate(amount.getFullAmountInCents(), 
+                ratios);
+        MoneyAmount[] expected = new MoneyAmount[shares.length];
+        for (int i = 0; i < shares.length; i++) {
+            expected[i] = MoneyAmount.fromFullAmountInCents(shares[i], 
+                    currency);
+        }
+        MoneyAmount[] actual = MoneyAllocator.allocate(amount, ratios);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testAllocateToBatch() {
+        System.out.println("allocateToBatch");
+        Currency currency = chooseCurrency();
+        MoneyAmount amount = MoneyAmount.fromFullAmountInCents(
+                RANDOM.nextInt(1 << 20), currency);
+        long[] ratios = makeRatios(RANDOM.nextInt(64) + 2);
+        MoneyBatch batch = MoneyAllocator.allocateToBatch(amount, ratios);
+        List<MoneyAmount> expected 
+                = Arrays.asList(MoneyAllocator.allocate(amount, ratios));
+        assertEquals(batch.toList(), expected);
+        assertEquals(batch.sum(currency), amount);
+    }
+    
+    @Test
+    public void testSplit() {
+        System.out.println("split");
+        MoneyAmount amount = new MoneyAmount(100, DOLLARS);
+        MoneyAmount larger = MoneyAmount.fromFullAmountInCents(3334L, DOLLARS);
+        MoneyAmount smaller = MoneyAmount.fromFullAmountInCents(3333L, 
+                DOLLARS);
+        MoneyAmount[] expected = {larger, smaller, smaller};
+        MoneyAmount[] actual = MoneyAllocator.split(amount, 3);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSplitRejectsZeroParts() {
+        MoneyAmount amount = new MoneyAmount(RANDOM.nextInt(1000), DOLLARS);
+        int parts = -RANDOM.nextInt(16);
+        String msg = "Splitting " + amount.toString() + " into " + parts 
+                + " parts should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyAmount[] badShares = MoneyAllocator.split(amount, parts);
+            System.out.println(msg + ", not given " 
+                    + Arrays.toString(badShares));
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
@@ -676,6 +676,108 @@ public class MoneyAmountNGTest {
         assertEquals(actual, expected);
     }
     
+    @Test
+    public void testPlusDetectsOverflow() {
+        Currency currency = chooseCurrency();
+        MoneyAmount augend = MoneyAmount.fromFullAmountInCents(Long.MAX_VALUE, 
+                currency);
+        MoneyAmount addend = MoneyAmount.fromFullAmountInCents(
+                RANDOM.nextInt(1000) + 1, currency);
+        String msg = "Adding " + addend.toString() + " to " 
+                + augend.toString() + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyAmount badAmount = augend.plus(addend);
+            System.out.println(msg + ", not given result " 
+                    + badAmount.toString());
+        }, ArithmeticException.class, msg);
+        System.out.println("\"" + t.getMessage() + "\"");
+    }
+    
+    @Test
+    public void testTimesDetectsOverflow() {
+        Currency currency = chooseCurrency();
+        MoneyAmount amount = MoneyAmount.fromFullAmountInCents(
+                Long.MAX_VALUE / 2 + RANDOM.nextInt(1000) + 1, currency);
+        String msg = "Doubling " + amount.toString() 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyAmount badAmount = amount.times(2);
+            System.out.println(msg + ", not given result " 
+                    + badAmount.toString());
+        }, ArithmeticException.class, msg);
+        System.out.println("\"" + t.getMessage() + "\"");
+    }
+    
+    @Test
+    public void testDivides() {
+        System.out.println("divides");
+        Currency currency = chooseCurrency();
+        int divisor = RANDOM.nextInt(64) + 2;
+        long cents = RANDOM.nextInt(1 << 20) - (1 << 19);
+        MoneyAmount expected = MoneyAmount.fromFullAmountInCents(cents, 
+                currency);
+        MoneyAmount amount = MoneyAmount.fromFullAmountInCents(cents 
+                * divisor, currency);
+        MoneyAmount actual = amount.divides(divisor);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testDividesByNegativeNumber() {
+        MoneyAmount amount = new MoneyAmount(128, DOLLARS, (short) 20);
+        MoneyAmount expected = MoneyAmount.fromFullAmountInCents(-3205L, 
+                DOLLARS);
+        MoneyAmount actual = amount.divides(-4);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testDividesRejectsInexactDivision() {
+        Currency currency = chooseCurrency();
+        int divisor = RANDOM.nextInt(64) + 2;
+        long cents = (long) divisor * (RANDOM.nextInt(1 << 20) + 1) 
+                + RANDOM.nextInt(divisor - 1) + 1;
+        MoneyAmount amount = MoneyAmount.fromFullAmountInCents(cents, 
+                currency);
+        String msg = "Dividing " + amount.toString() + " by " + divisor 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyAmount badAmount = amount.divides(divisor);
+            System.out.println(msg + ", not given result " 
+                    + badAmount.toString());
+        }, ArithmeticException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testDividesRejectsZero() {
+        MoneyAmount amount = new MoneyAmount(RANDOM.nextInt(1000), DOLLARS);
+        String msg = "Dividing " + amount.toString() 
+                + " by 0 should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyAmount badAmount = amount.divides(0);
+            System.out.println(msg + ", not given result " 
+                    + badAmount.toString());
+        }, ArithmeticException.class, msg);
+        System.out.println("\"" + t.getMessage() + "\"");
+    }
+    
+    @Test
+    public void testDividesDetectsOverflow() {
+        MoneyAmount amount = MoneyAmount.fromFullAmountInCents(Long.MIN_VALUE, 
+                DOLLARS);
+        String msg = "Dividing least amount by -1 should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyAmount badAmount = amount.divides(-1);
+            System.out.println(msg + ", not given result " 
+                    + badAmount.toString());
+        }, ArithmeticException.class, msg);
+        System.out.println("\"" + t.getMessage() + "\"");
+    }
+    
     @Test
     public void testCompareToThrowsExceptionForMismatchedCurrencies() {
         Currency currencyA = CurrencyChooser.chooseCurrency();
@@ -744,6 +846,28 @@ public class MoneyAmountNGTest {
         assertEquals(actual, expected);
     }
     
+    @Test
+    public void testFromFullAmountInCents() {
+        System.out.println("fromFullAmountInCents");
+        int dollars = RANDOM.nextInt(524288);
+        short cents = (short) RANDOM.nextInt(100);
+        MoneyAmount expected = new MoneyAmount(dollars, DOLLARS, cents);
+        long fullAmountInCents = dollars * 100L + cents;
+        MoneyAmount actual = MoneyAmount.fromFullAmountInCents(
+                fullAmountInCents, DOLLARS);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testFromFullAmountInCentsRoundTrip() {
+        Currency currency = chooseCurrency();
+        long expected = RANDOM.nextLong() >> 16;
+        MoneyAmount amount = MoneyAmount.fromFullAmountInCents(expected, 
+                currency);
+        long actual = amount.getFullAmountInCents();
+        assertEquals(actual, expected);
+    }
+    
     @Test
     public void testOverflowDivisionsRollOverToUnits() {
         Currency currency = chooseCurrency();
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import static currency.CurrencyChooser.chooseCurrency;
+import static currency.CurrencyChooser.RANDOM;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the MoneyBatch class.
+ * @author Alonso del Arte
+ */
+public class MoneyBatchNGTest {
+    
+    private static List<MoneyAmount> makeAmounts(Currency[] currencies, 
+            int size) {
+        List<MoneyAmount> amounts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Currency currency = currencies[RANDOM.nextInt(currencies.length)];
+            long cents = RANDOM.nextInt(1 << 20) - (1 << 19);
+            amounts.add(MoneyAmount.fromFullAmountInCents(cents, currency));
+        }
+        return amounts;
+    }
+    
+    private static Currency[] chooseCurrencies(int count) {
+        Set<Currency> currencies = new LinkedHashSet<>();
+        while (currencies.size() < count) {
+            currencies.add(chooseCurrency());
+        }
+        return currencies.toArray(new Currency[0]);
+    }
+    
+    @Test
+    public void testSize() {
+        System.out.println("size");
+        int expected = RANDOM.nextInt(1024) + 1;
+        List<MoneyAmount> amounts = makeAmounts(chooseCurrencies(3), 
+                expected);
+        MoneyBatch instance = MoneyBatch.of(amounts);
+        int actual = instance.size();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetCurrencies() {
+        System.out.println("getCurrencies");
+        Currency[] currencies = chooseCurrencies(4);
+        List<MoneyAmount> amounts = makeAmounts(currencies, 256);
+        MoneyBatch instance = MoneyBatch.of(amounts);
+        Set<Currency> expected = amounts.stream()
+                .map(MoneyAmount::getCurrency).collect(Collectors.toSet());
+        Set<Currency> actual = instance.getCurrencies();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGet() {
+        System.out.println("get");
+        List<MoneyAmount> amounts = makeAmounts(chooseCurrencies(3), 
+                RANDOM.nextInt(64) + 1);
+        MoneyBatch instance = MoneyBatch.of(amounts);
+        int index = RANDOM.nextInt(amounts.size());
+        MoneyAmount expected = amounts.get(index);
+        MoneyAmount actual = instance.get(index);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testToList() {
+        System.out.println("toList");
+        List<MoneyAmount> expected = makeAmounts(chooseCurrencies(5), 
+                RANDOM.nextInt(1024) + 1);
+        MoneyBatch instance = MoneyBatch.of(expected);
+        List<MoneyAmount> actual = instance.toList();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSum() {
+        System.out.println("sum");
+        Currency[] currencies = chooseCurrencies(3);
+        List<MoneyAmount> amounts = makeAmounts(currencies, 
+                RANDOM.nextInt(1024) + 1);
+        Currency currency = currencies[0];
+        MoneyAmount expected = new MoneyAmount(0, currency);
+        for (MoneyAmount amount : amounts) {
+            if (amount.getCurrency().equals(currency)) {
+                expected = expected.plus(amount);
+            }
+        }
+        MoneyBatch instance = MoneyBatch.of(amounts);
+        MoneyAmount actual = instance.sum(currency);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSumLargeAmounts() {
+        Currency currency = chooseCurrency();
+        long cents = Long.MAX_VALUE / 4 + RANDOM.nextInt(1 << 16);
+        MoneyBatch instance = new MoneyBatch.Builder()
+                .addCents(cents, currency).addCents(cents, currency)
+                .addCents(-cents, currency).addCents(cents, currency)
+                .build();
+        MoneyAmount expected = MoneyAmount.fromFullAmountInCents(2 * cents, 
+                currency);
+        MoneyAmount actual = instance.sum(currency);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSumAbsentCurrencyIsZero() {
+        Currency[] currencies = chooseCurrencies(2);
+        List<MoneyAmount> amounts = makeAmounts(new Currency[]{currencies[0]}, 
+                RANDOM.nextInt(64) + 1);
+        MoneyBatch instance = MoneyBatch.of(amounts);
+        MoneyAmount expected = new MoneyAmount(0, currencies[1]);
+        MoneyAmount actual = instance.sum(currencies[1]);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSumDetectsOverflow() {
+        Currency currency = chooseCurrency();
+        MoneyBatch instance = new MoneyBatch.Builder()
+                .addCents(Long.MAX_VALUE, currency).addCents(1L, currency)
+                .build();
+        String msg = "Sum past Long.MAX_VALUE should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyAmount badSum = instance.sum(currency);
+            System.out.println(msg + ", not given " + badSum.toString());
+        }, ArithmeticException.class, msg);
+        System.out.println("\"" + t.getMessage() + "\"");
+    }
+    
+    @Test
+    public void testSums() {
+        System.out.println("sums");
+        Currency[] currencies = chooseCurrencies(4);
+        List<MoneyAmount> amounts = makeAmounts(currencies, 
+                RANDOM.nextInt(1024) + 16);
+        Map<Currency, MoneyAmount> expected = new HashMap<>();
+        for (MoneyAmount amount : amounts) {
+            expected.merge(amount.getCurrency(), amount, MoneyAmount::plus);
+        }
+        MoneyBatch instance = MoneyBatch.of(amounts);
+        Map<Currency, MoneyAmount> actual = instance.sums();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testMin() {
+        System.out.println("min");
+        Currency[] currencies = chooseCurrencies(3);
+        List<MoneyAmount> amounts = makeAmounts(currencies, 
+                RANDOM.nextInt(1024) + 16);
+        Currency currency = amounts.get(0).getCurrency();
+        MoneyAmount expected = amounts.stream()
+                .filter(amount -> amount.getCurrency().equals(currency))
+                .min(MoneyAmount::compareTo).get();
+        MoneyBatch instance = MoneyBatch.of(amounts);
+        MoneyAmount actual = instance.min(currency);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testMinAbsentCurrency() {
+        Currency[] currencies = chooseCurrencies(2);
+        List<MoneyAmount> amounts = makeAmounts(new Currency[]{currencies[0]}, 
+                RANDOM.nextInt(64) + 1);
+        MoneyBatch instance = MoneyBatch.of(amounts);
+        String msg = "Min of absent currency " 
+                + currencies[1].getCurrencyCode() + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyAmount badMin = instance.min(currencies[1]);
+            System.out.println(msg + ", not given " + badMin.toString());
+        }, NoSuchElementException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testMax() {
+        System.out.println("max");
+        Currency[] currencies = chooseCurrencies(3);
+        List<MoneyAmount> amounts = makeAmounts(currencies, 
+                RANDOM.nextInt(1024) + 16);
+        Currency currency = amounts.get(0).getCurrency();
+        MoneyAmount expected = amounts.stream()
+                .filter(amount -> amount.getCurrency().equals(currency))
+                .max(MoneyAmount::compareTo).get();
+        MoneyBatch instance = MoneyBatch.of(amounts);
+        MoneyAmount actual = instance.max(currency);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testScale() {
+        System.out.println("scale");
+        List<MoneyAmount> amounts = makeAmounts(chooseCurrencies(3), 
+                RANDOM.nextInt(256) + 1);
+        double multiplicand = RANDOM.nextDouble() * 10;
+        List<MoneyAmount> expected = amounts.stream()
+                .map(amount -> amount.times(multiplicand))
+                .collect(Collectors.toList());
+        MoneyBatch instance = MoneyBatch.of(amounts);
+        List<MoneyAmount> actual = instance.scale(multiplicand).toList();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testFilter() {
+        System.out.println("filter");
+        Currency[] currencies = chooseCurrencies(3);
+        List<MoneyAmount> amounts = makeAmounts(currencies, 
+                RANDOM.nextInt(256) + 1);
+        Currency currency = currencies[RANDOM.nextInt(currencies.length)];
+        List<MoneyAmount> expected = amounts.stream()
+                .filter(amount -> amount.getCurrency().equals(currency))
+                .collect(Collectors.toList());
+        MoneyBatch instance = MoneyBatch.of(amounts);
+        List<MoneyAmount> actual = instance.filter(currency).toList();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testFilterAtLeast() {
+        System.out.println("filterAtLeast");
+        Currency[] currencies = chooseCurrencies(3);
+        List<MoneyAmount> amounts = makeAmounts(currencies, 
+                RANDOM.nextInt(256) + 1);
+        MoneyAmount threshold = amounts.get(RANDOM.nextInt(amounts.size()));
+        List<MoneyAmount> expected = amounts.stream()
+                .filter(amount -> amount.getCurrency()
+                        .equals(threshold.getCurrency()) 
+                        && amount.compareTo(threshold) >= 0)
+                .collect(Collectors.toList());
+        MoneyBatch instance = MoneyBatch.of(amounts);
+        List<MoneyAmount> actual = instance.filterAtLeast(threshold).toList();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testBuilderRejectsPseudocurrency() {
+        Currency currency = CurrencyChooser.choosePseudocurrency();
+        MoneyBatch.Builder builder = new MoneyBatch.Builder();
+        String msg = "Pseudocurrency " + currency.getDisplayName() + " (" 
+                + currency.getCurrencyCode() + ") should cause exception";
+        Throwable t = assertThrows(() -> {
+            builder.addCents(RANDOM.nextInt(), currency);
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testBuilderCannotBeReused() {
+        MoneyBatch.Builder builder = new MoneyBatch.Builder()
+                .addCents(RANDOM.nextInt(), chooseCurrency());
+        builder.build();
+        String msg = "Adding to builder after build should cause exception";
+        Throwable t = assertThrows(() -> {
+            builder.addCents(RANDOM.nextInt(), chooseCurrency());
+        }, IllegalStateException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
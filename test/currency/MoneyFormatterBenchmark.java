@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.text.NumberFormat;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the MoneyFormatter class against {@link 
+ * MoneyAmount#toString()} and {@code NumberFormat.getCurrencyInstance()}. 
+ * This needs the JMH core and annotation processor JARs on the test 
+ * classpath. Run it with {@link #main(java.lang.String[]) main()}, which turns 
+ * on the GC profiler so that the bytes allocated per call are reported next to 
+ * the nanoseconds per call. For example, {@code gc.alloc.rate.norm} should be 
+ * about 0 bytes for {@link #formatToStringBuilder()} and {@link 
+ * #formatToByteBuffer()}.
+ * @author Alonso del Arte
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyFormatterBenchmark {
+    
+    private static final int AMOUNT_COUNT = 1024;
+    
+    @Param({"en-US", "fr-FR", "ar-EG"})
+    public String languageTag;
+    
+    @Param({"USD", "EUR", "JPY"})
+    public String currencyCode;
+    
+    private final MoneyAmount[] amounts = new MoneyAmount[AMOUNT_COUNT];
+    
+    private int index = 0;
+    
+    private MoneyFormatter formatter;
+    
+    private NumberFormat numberFormat;
+    
+    private int fractionDigits;
+    
+    private final StringBuilder builder = new StringBuilder(64);
+    
+    private final ByteBuffer buffer = ByteBuffer.allocate(128);
+    
+    @Setup
+    public void setUp() {
+        Locale locale = Locale.forLanguageTag(this.languageTag);
+        Currency currency = Currency.getInstance(this.currencyCode);
+        Random random = new Random(this.languageTag.hashCode() 
+                ^ this.currencyCode.hashCode());
+        for (int i = 0; i < AMOUNT_COUNT; i++) {
+            long cents = random.nextLong() >> (16 + random.nextInt(48));
+            this.amounts[i] = MoneyAmount.fromFullAmountInCents(cents, 
+                    currency);
+        }
+        this.formatter = new MoneyFormatter(locale);
+        this.fractionDigits = currency.getDefaultFractionDigits();
+        this.numberFormat = NumberFormat.getCurrencyInstance(locale);
+        this.numberFormat.setCurrency(currency);
+        this.numberFormat.setMinimumFractionDigits(this.fractionDigits);
+        this.numberFormat.setMaximumFractionDigits(this.fractionDigits);
+    }
+    
+    private MoneyAmount nextAmount() {
+        this.index = (this.index + 1) & (AMOUNT_COUNT - 1);
+        return this.amounts[this.index];
+    }
+    
+    @Benchmark
+    public String moneyAmountToString() {
+        return this.nextAmount().toString();
+    }
+    
+    @Benchmark
+    public String numberFormat() {
+        MoneyAmount amount = this.nextAmount();
+        return this.numberFormat.format(BigDecimal.valueOf(
+                amount.getFullAmountInCents(), this.fractionDigits));
+    }
+    
+    @Benchmark
+    public String formatToString() {
+        return this.formatter.format(this.nextAmount());
+    }
+    
+    @Benchmark
+    public StringBuilder formatToStringBuilder() {
+        this.builder.setLength(0);
+        return this.formatter.format(this.nextAmount(), this.builder);
+    }
+    
+    @Benchmark
+    public ByteBuffer formatToByteBuffer() {
+        this.buffer.clear();
+        return this.formatter.format(this.nextAmount(), this.buffer);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MoneyFormatterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+    
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import static currency.CurrencyChooser.chooseCurrency;
+import static currency.CurrencyChooser.RANDOM;
+
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.util.Currency;
+import java.util.Locale;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the MoneyFormatter class. The expected results come from {@code 
+ * NumberFormat.getCurrencyInstance()}, given the amounts as {@code BigDecimal} 
+ * so that there are no floating point rounding issues in the comparison. Note 
+ * that {@code NumberFormat.setCurrency()} does not change the number of 
+ * fraction digits, so the tests have to set those explicitly.
+ * @author Alonso del Arte
+ */
+public class MoneyFormatterNGTest {
+    
+    private static final Locale[] LOCALES = {Locale.US, Locale.UK, 
+        Locale.GERMANY, Locale.FRANCE, Locale.JAPAN, Locale.CANADA_FRENCH, 
+        Locale.forLanguageTag("de-CH"), Locale.forLanguageTag("hi-IN"), 
+        Locale.forLanguageTag("ar-EG"), Locale.forLanguageTag("fa-IR")};
+    
+    private static String expectedFormat(MoneyAmount amount, Locale locale) {
+        NumberFormat format = NumberFormat.getCurrencyInstance(locale);
+        Currency currency = amount.getCurrency();
+        format.setCurrency(currency);
+        int digits = currency.getDefaultFractionDigits();
+        format.setMinimumFractionDigits(digits);
+        format.setMaximumFractionDigits(digits);
+        BigDecimal number = BigDecimal.valueOf(amount.getFullAmountInCents(), 
+                currency.getDefaultFractionDigits());
+        return format.format(number);
+    }
+    
+    private static MoneyAmount chooseAmount() {
+        long cents = RANDOM.nextLong() >> RANDOM.nextInt(64);
+        return MoneyAmount.fromFullAmountInCents(cents, chooseCurrency());
+    }
+    
+    @Test
+    public void testGetLocale() {
+        System.out.println("getLocale");
+        Locale expected = LOCALES[RANDOM.nextInt(LOCALES.length)];
+        MoneyFormatter instance = new MoneyFormatter(expected);
+        Locale actual = instance.getLocale();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testFormat() {
+        System.out.println("format");
+        for (Locale locale : LOCALES) {
+            MoneyFormatter instance = new MoneyFormatter(locale);
+            for (int i = 0; i < 32; i++) {
+                MoneyAmount amount = chooseAmount();
+                String expected = expectedFormat(amount, locale);
+                String actual = instance.format(amount);
+                String msg = "Formatting " + amount.getFullAmountInCents() 
+                        + " of " + amount.getCurrency().getCurrencyCode() 
+                        + " for " + locale.toLanguageTag();
+                assertEquals(actual, expected, msg);
+            }
+        }
+    }
+    
+    @Test
+    public void testFormatZero() {
+        Locale locale = LOCALES[RANDOM.nextInt(LOCALES.length)];
+        MoneyAmount amount = new MoneyAmount(0, chooseCurrency());
+        String expected = expectedFormat(amount, locale);
+        String actual = new MoneyFormatter(locale).format(amount);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testFormatExtremes() {
+        Currency[] currencies = {MoneyAmountNGTest.DOLLARS, 
+            Currency.getInstance("JPY"), Currency.getInstance("LYD")};
+        long[] extremes = {Long.MIN_VALUE, Long.MIN_VALUE + 1, Long.MAX_VALUE};
+        for (Locale locale : LOCALES) {
+            MoneyFormatter instance = new MoneyFormatter(locale);
+            for (Currency currency : currencies) {
+                for (long cents : extremes) {
+                    MoneyAmount amount 
+                            = MoneyAmount.fromFullAmountInCents(cents, 
+                                    currency);
+                    String expected = expectedFormat(amount, locale);
+                    String actual = instance.format(amount);
+                    assertEquals(actual, expected);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testFormatToStringBuilder() {
+        Locale locale = LOCALES[RANDOM.nextInt(LOCALES.length)];
+        MoneyFormatter instance = new MoneyFormatter(locale);
+        MoneyAmount amount = chooseAmount();
+        String start = "{\"total\":\"";
+        String expected = start + expectedFormat(amount, locale);
+        StringBuilder builder = new StringBuilder(start);
+        StringBuilder returned = instance.format(amount, builder);
+        assertSame(returned, builder);
+        String actual = builder.toString();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testFormatToByteBuffer() {
+        for (Locale locale : LOCALES) {
+            MoneyFormatter instance = new MoneyFormatter(locale);
+            MoneyAmount amount = chooseAmount();
+            byte[] expected = expectedFormat(amount, locale)
+                    .getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocate(128);
+            buffer.put((byte) '"');
+            instance.format(amount, buffer);
+            assertEquals(buffer.position(), expected.length + 1);
+            byte[] actual = new byte[expected.length];
+            buffer.position(1);
+            buffer.get(actual);
+            assertEquals(actual, expected);
+        }
+    }
+    
+    @Test
+    public void testFormatToDirectByteBuffer() {
+        for (Locale locale : LOCALES) {
+            MoneyFormatter instance = new MoneyFormatter(locale);
+            MoneyAmount amount = chooseAmount();
+            byte[] expected = expectedFormat(amount, locale)
+                    .getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(128);
+            buffer.put((byte) '"');
+            instance.format(amount, buffer);
+            assertEquals(buffer.position(), expected.length + 1);
+            byte[] actual = new byte[expected.length];
+            buffer.position(1);
+            buffer.get(actual);
+            assertEquals(actual, expected);
+        }
+    }
+    
+    @Test
+    public void testFormatToByteBufferTooSmall() {
+        MoneyFormatter instance = new MoneyFormatter(Locale.US);
+        MoneyAmount amount = new MoneyAmount(RANDOM.nextInt(1000) + 1000, 
+                MoneyAmountNGTest.DOLLARS);
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        String msg = "Formatting " + amount.toString() 
+                + " into 4 bytes should cause exception";
+        assertThrows(() -> {
+            instance.format(amount, buffer);
+        }, BufferOverflowException.class, msg);
+        assertEquals(buffer.position(), 0, "Nothing should have been written");
+    }
+    
+    @Test
+    public void testConstructorRejectsNullLocale() {
+        String msg = "Null locale should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyFormatter badFormatter = new MoneyFormatter(null);
+            System.out.println(msg + ", not given " 
+                    + badFormatter.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
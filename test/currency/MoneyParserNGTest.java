@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency;
+
+import static currency.CurrencyChooser.chooseCurrency;
+import static currency.CurrencyChooser.RANDOM;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Currency;
+import java.util.Locale;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the MoneyParser class.
+ * @author Alonso del Arte
+ */
+public class MoneyParserNGTest {
+    
+    private static final Locale[] LOCALES = {Locale.US, Locale.UK, 
+        Locale.GERMANY, Locale.FRANCE, Locale.JAPAN, Locale.CANADA_FRENCH, 
+        Locale.forLanguageTag("de-CH"), Locale.forLanguageTag("hi-IN"), 
+        Locale.forLanguageTag("ar-EG"), Locale.forLanguageTag("fa-IR")};
+    
+    private static final Currency EUROS = Currency.getInstance("EUR");
+    
+    private static final Currency YEN = Currency.getInstance("JPY");
+    
+    private static void assertParseFails(MoneyParser instance, String text) {
+        String msg = "Parsing \"" + text + "\" for " 
+                + instance.getLocale().toLanguageTag() 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyAmount badAmount = instance.parse(text);
+            System.out.println(msg + ", not given " + badAmount.toString());
+        }, NumberFormatException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testGetLocale() {
+        System.out.println("getLocale");
+        Locale expected = LOCALES[RANDOM.nextInt(LOCALES.length)];
+        MoneyParser instance = new MoneyParser(expected);
+        Locale actual = instance.getLocale();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testParse() {
+        System.out.println("parse");
+        MoneyParser instance = new MoneyParser(Locale.US);
+        MoneyAmount expected = new MoneyAmount(1234, 
+                MoneyAmountNGTest.DOLLARS, (short) 56);
+        MoneyAmount actual = instance.parse("$1,234.56");
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testParseNegativeYen() {
+        MoneyParser instance = new MoneyParser(Locale.US);
+        MoneyAmount expected = new MoneyAmount(-1600, YEN);
+        MoneyAmount actual = instance.parse("-\u00A51600");
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testParseEurosForGermany() {
+        MoneyParser instance = new MoneyParser(Locale.GERMANY);
+        MoneyAmount expected = new MoneyAmount(1234, EUROS, (short) 56);
+        MoneyAmount actual = instance.parse("1.234,56\u00A0\u20AC");
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testParseCurrencyCode() {
+        MoneyParser instance = new MoneyParser(Locale.UK);
+        Currency currency = chooseCurrency();
+        int units = RANDOM.nextInt(100000);
+        MoneyAmount expected = new MoneyAmount(units, currency);
+        String prefixed = currency.getCurrencyCode() + " " + units;
+        assertEquals(instance.parse(prefixed), expected);
+        String suffixed = units + " " + currency.getCurrencyCode();
+        assertEquals(instance.parse(suffixed), expected);
+    }
+    
+    @Test
+    public void testParseLocalCurrencyWinsSharedSymbol() {
+        MoneyParser instance = new MoneyParser(Locale.CANADA);
+        Currency expected = Currency.getInstance(Locale.CANADA);
+        Currency actual = instance.parse("$20.00").getCurrency();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testParseWithoutSymbolAssumesLocalCurrency() {
+        MoneyParser instance = new MoneyParser(Locale.JAPAN);
+        MoneyAmount expected = new MoneyAmount(15000, YEN);
+        MoneyAmount actual = instance.parse("15,000");
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testParseFormatterOutput() {
+        for (Locale locale : LOCALES) {
+            MoneyFormatter formatter = new MoneyFormatter(locale);
+            MoneyParser instance = new MoneyParser(locale);
+            for (int i = 0; i < 32; i++) {
+                long cents = RANDOM.nextLong() >> (RANDOM.nextInt(60) + 4);
+                MoneyAmount expected = MoneyAmount.fromFullAmountInCents(cents, 
+                        chooseCurrency());
+                String text = formatter.format(expected);
+                MoneyAmount actual;
+                try {
+                    actual = instance.parse(text);
+                } catch (NumberFormatException nfe) {
+                    throw new AssertionError("Parsing \"" + text + "\" for " 
+                            + locale.toLanguageTag() + " caused exception", 
+                            nfe);
+                }
+                assertEquals(actual.getFullAmountInCents(), cents, 
+                        "Parsing \"" + text + "\"");
+            }
+        }
+    }
+    
+    @Test
+    public void testParseBytes() {
+        MoneyParser instance = new MoneyParser(Locale.US);
+        byte[] bytes = "{\"total\":\"$1,234.56\"}" 
+                .getBytes(StandardCharsets.UTF_8);
+        MoneyAmount expected = new MoneyAmount(1234, 
+                MoneyAmountNGTest.DOLLARS, (short) 56);
+        MoneyAmount actual = instance.parse(bytes, 10, 9);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testParseNonASCIIBytes() {
+        MoneyParser instance = new MoneyParser(Locale.FRANCE);
+        MoneyAmount expected = new MoneyAmount(1234, EUROS, (short) 56);
+        byte[] bytes = ("\"" + new MoneyFormatter(Locale.FRANCE)
+                .format(expected) + "\"").getBytes(StandardCharsets.UTF_8);
+        MoneyAmount actual = instance.parse(bytes, 1, bytes.length - 2);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testParseBytesRejectsBadRange() {
+        MoneyParser instance = new MoneyParser(Locale.US);
+        byte[] bytes = "$1.00".getBytes(StandardCharsets.UTF_8);
+        String msg = "Range past end of array should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyAmount badAmount = instance.parse(bytes, 2, bytes.length);
+            System.out.println(msg + ", not given " + badAmount.toString());
+        }, IndexOutOfBoundsException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testParseRejectsNoDigits() {
+        assertParseFails(new MoneyParser(Locale.US), "$");
+    }
+    
+    @Test
+    public void testParseRejectsEmptyText() {
+        assertParseFails(new MoneyParser(Locale.US), "");
+    }
+    
+    @Test
+    public void testParseRejectsUnknownSymbol() {
+        assertParseFails(new MoneyParser(Locale.US), "QQQ 12.00");
+    }
+    
+    @Test
+    public void testParseRejectsTooManyFractionDigits() {
+        assertParseFails(new MoneyParser(Locale.US), "$12.345");
+    }
+    
+    @Test
+    public void testParseRejectsTrailingCharacters() {
+        assertParseFails(new MoneyParser(Locale.US), "$12.34 USD");
+    }
+    
+    @Test
+    public void testParseRejectsOverflow() {
+        assertParseFails(new MoneyParser(Locale.US), 
+                "$92,233,720,368,547,758.08");
+    }
+    
+    @Test
+    public void testConstructorRejectsNullLocale() {
+        String msg = "Null locale should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyParser badParser = new MoneyParser(null);
+            System.out.println(msg + ", not given " + badParser.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the BlockingCallExecutor class.
+ * @author Alonso del Arte
+ */
+public class BlockingCallExecutorNGTest {
+    
+    @Test
+    public void testUsesVirtualThreads() {
+        System.out.println("usesVirtualThreads");
+        boolean expected = Runtime.version().feature() >= 21;
+        boolean actual = BlockingCallExecutor.usesVirtualThreads();
+        String msg = "Java " + Runtime.version().toString() 
+                + " should " + (expected ? "" : "not ") 
+                + "get virtual threads";
+        assertEquals(actual, expected, msg);
+    }
+    
+    @Test
+    public void testGet() {
+        System.out.println("get");
+        Thread caller = Thread.currentThread();
+        Thread worker = CompletableFuture.supplyAsync(Thread::currentThread, 
+                BlockingCallExecutor.get()).join();
+        assert worker != caller : "Task should run on a different thread";
+        assert worker.isDaemon() 
+                : "Task thread should not keep the JVM running";
+    }
+    
+}
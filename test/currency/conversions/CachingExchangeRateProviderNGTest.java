@@ -0,0 +1,498 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import cacheops.LRUCache;
+import currency.CurrencyChooser;
+import currency.CurrencyPair;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+import static currency.conversions.ConversionFixtures.chooseSupportedPair;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the CachingExchangeRateProvider class.
+ * @author Alonso del Arte
+ */
+public class CachingExchangeRateProviderNGTest {
+    
+    private static final Set<Currency> SUPPORTED_CURRENCIES 
+            = new HardCodedRateProvider().supportedCurrencies();
+    
+    private static final double TEST_DELTA = 0.00000001;
+    
+    @Test
+    public void testGetProvider() {
+        System.out.println("getProvider");
+        ExchangeRateProvider expected = new HardCodedRateProvider();
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(expected);
+        ExchangeRateProvider actual = instance.getProvider();
+        assertSame(actual, expected);
+    }
+    
+    @Test
+    public void testGetFreshness() {
+        System.out.println("getFreshness");
+        Duration expected = Duration.ofMinutes(RANDOM.nextInt(120) + 1);
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(new HardCodedRateProvider(), 
+                        LRUCache.MAXIMUM_CAPACITY, expected);
+        Duration actual = instance.getFreshness();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testDefaultFreshness() {
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(new HardCodedRateProvider());
+        Duration expected = CachingExchangeRateProvider.DEFAULT_FRESHNESS;
+        Duration actual = instance.getFreshness();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetRate() {
+        System.out.println("getRate");
+        ExchangeRateProvider provider = new HardCodedRateProvider();
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(provider);
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+        double expected = provider.getRate(source, target);
+        double actual = instance.getRate(source, target);
+        assertEquals(actual, expected, TEST_DELTA);
+    }
+    
+    @Test
+    public void testGetRateFromCache() {
+        CountingProvider provider = new CountingProvider();
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(provider);
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+        double expected = instance.getRate(source, target);
+        int times = RANDOM.nextInt(16) + 2;
+        for (int i = 0; i < times; i++) {
+            double actual = instance.getRate(source, target);
+            assertEquals(actual, expected, 0.0);
+        }
+        String msg = "Provider should've been queried only once";
+        assert provider.callCount == 1 : msg;
+    }
+    
+    @Test
+    public void testGetRateInvertsCachedQuote() {
+        CountingProvider provider = new CountingProvider();
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(provider);
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+        double expected = 1.0 / instance.getRate(source, target);
+        double actual = instance.getRate(target, source);
+        assertEquals(actual, expected, TEST_DELTA);
+        String msg = "Provider should not have been queried for " 
+                + target.getCurrencyCode() + " to " + source.getCurrencyCode();
+        assert provider.callCount == 1 : msg;
+        assertEquals(instance.getInverseHitCount(), 1L);
+    }
+    
+    @Test
+    public void testGetRateRefreshesStaleQuote() {
+        CountingProvider provider = new CountingProvider();
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(provider, 
+                        LRUCache.MINIMUM_CAPACITY, Duration.ZERO);
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+        int expected = RANDOM.nextInt(16) + 2;
+        for (int i = 0; i < expected; i++) {
+            instance.getRate(source, target);
+        }
+        String msg = "With zero freshness, each request should go to provider";
+        assertEquals(provider.callCount, expected, msg);
+    }
+    
+    @Test
+    public void testGetRateAfterEviction() {
+        CountingProvider provider = new CountingProvider();
+        int capacity = LRUCache.MINIMUM_CAPACITY;
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(provider, capacity, 
+                        CachingExchangeRateProvider.DEFAULT_FRESHNESS);
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Set<Currency> targets = new HashSet<>();
+        targets.add(source);
+        Currency first = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+        targets.add(first);
+        instance.getRate(source, first);
+        for (int i = 0; i < capacity; i++) {
+            Currency target = CurrencyChooser.chooseCurrency(currency 
+                    -> SUPPORTED_CURRENCIES.contains(currency) 
+                            && !targets.contains(currency));
+            targets.add(target);
+            instance.getRate(source, target);
+        }
+        instance.getRate(source, first);
+        int expected = capacity + 2;
+        String msg = "After eviction, pair should be queried again";
+        assertEquals(provider.callCount, expected, msg);
+    }
+    
+    @Test
+    public void testGetRateForPair() {
+        CountingProvider provider = new CountingProvider();
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(provider);
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+        double expected = instance.getRate(source, target);
+        double actual = instance.getRate(new CurrencyPair(source, target));
+        assertEquals(actual, expected, 0.0);
+        assert provider.callCount == 1 : "Provider should be queried once";
+    }
+    
+    @Test
+    public void testGetRateRejectsNullPair() {
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(new HardCodedRateProvider());
+        String msg = "Null currency pair should cause exception";
+        Throwable t = assertThrows(() -> {
+            double badRate = instance.getRate(null);
+            System.out.println(msg + ", not given " + badRate);
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testSupportedCurrencies() {
+        System.out.println("supportedCurrencies");
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(new HardCodedRateProvider());
+        Set<Currency> actual = instance.supportedCurrencies();
+        assertEquals(actual, SUPPORTED_CURRENCIES);
+    }
+    
+    @Test
+    public void testGetRequestCount() {
+        System.out.println("getRequestCount");
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(new CountingProvider());
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        int expected = RANDOM.nextInt(32) + 1;
+        for (int i = 0; i < expected; i++) {
+            Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                    SUPPORTED_CURRENCIES);
+            instance.getRate(source, target);
+        }
+        assertEquals(instance.getRequestCount(), expected);
+    }
+    
+    @Test
+    public void testGetUpstreamCallCount() {
+        System.out.println("getUpstreamCallCount");
+        CountingProvider provider = new CountingProvider();
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(provider);
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        int requests = RANDOM.nextInt(32) + 1;
+        for (int i = 0; i < requests; i++) {
+            Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                    SUPPORTED_CURRENCIES);
+            instance.getRate(source, target);
+        }
+        long expected = provider.callCount;
+        long actual = instance.getUpstreamCallCount();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetCallsSaved() {
+        System.out.println("getCallsSaved");
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(new CountingProvider());
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+        int expected = RANDOM.nextInt(32) + 1;
+        instance.getRate(source, target);
+        for (int i = 0; i < expected; i++) {
+            if (RANDOM.nextBoolean()) {
+                instance.getRate(source, target);
+            } else {
+                instance.getRate(target, source);
+            }
+        }
+        assertEquals(instance.getCallsSaved(), expected);
+    }
+    
+    @Test
+    public void testGetInverseHitCount() {
+        System.out.println("getInverseHitCount");
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(new CountingProvider());
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+        instance.getRate(source, target);
+        instance.getRate(source, target);
+        assertEquals(instance.getInverseHitCount(), 0L);
+        int expected = RANDOM.nextInt(16) + 1;
+        for (int i = 0; i < expected; i++) {
+            instance.getRate(target, source);
+        }
+        assertEquals(instance.getInverseHitCount(), expected);
+    }
+    
+    @Test
+    public void testConstructorRejectsNullProvider() {
+        String msg = "Null provider should cause exception";
+        Throwable t = assertThrows(() -> {
+            CachingExchangeRateProvider badInstance 
+                    = new CachingExchangeRateProvider(null);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConstructorRejectsNullFreshness() {
+        String msg = "Null freshness period should cause exception";
+        Throwable t = assertThrows(() -> {
+            CachingExchangeRateProvider badInstance 
+                    = new CachingExchangeRateProvider(
+                            new HardCodedRateProvider(), 
+                            LRUCache.MAXIMUM_CAPACITY, null);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConstructorRejectsNegativeFreshness() {
+        Duration freshness = Duration.ofSeconds(-RANDOM.nextInt(3600) - 1);
+        String msg = "Freshness period " + freshness 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            CachingExchangeRateProvider badInstance 
+                    = new CachingExchangeRateProvider(
+                            new HardCodedRateProvider(), 
+                            LRUCache.MAXIMUM_CAPACITY, freshness);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConstructorRejectsExcessiveCapacity() {
+        int capacity = LRUCache.MAXIMUM_CAPACITY + RANDOM.nextInt(64) + 1;
+        String msg = "Capacity " + capacity + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            CachingExchangeRateProvider badInstance 
+                    = new CachingExchangeRateProvider(
+                            new HardCodedRateProvider(), capacity, 
+                            CachingExchangeRateProvider.DEFAULT_FRESHNESS);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testSlowQueryDoesNotBlockCacheHits() throws Exception {
+        GatedProvider provider = new GatedProvider();
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(provider);
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency cachedTarget = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+        Set<Currency> exclusions = new HashSet<>();
+        exclusions.add(source);
+        exclusions.add(cachedTarget);
+        Currency slowTarget = CurrencyChooser.chooseCurrency(currency 
+                -> SUPPORTED_CURRENCIES.contains(currency) 
+                        && !exclusions.contains(currency));
+        double expected = instance.getRate(source, cachedTarget);
+        provider.gated = true;
+        CompletableFuture<Double> slow = CompletableFuture.supplyAsync(()
+                -> instance.getRate(source, slowTarget));
+        boolean entered = provider.entered.await(10L, TimeUnit.SECONDS);
+        assert entered : "Slow query should have reached the provider";
+        try {
+            double actual = CompletableFuture.supplyAsync(()
+                    -> instance.getRate(source, cachedTarget))
+                    .get(10L, TimeUnit.SECONDS);
+            assertEquals(actual, expected);
+        } finally {
+            provider.gate.countDown();
+        }
+        slow.get(10L, TimeUnit.SECONDS);
+    }
+    
+    @Test
+    public void testConcurrentMissesQueryOnce() throws Exception {
+        GatedProvider provider = new GatedProvider();
+        provider.gated = true;
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(provider);
+        CurrencyPair pair = chooseSupportedPair();
+        int callerCount = RANDOM.nextInt(2, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(callerCount);
+        List<CompletableFuture<Double>> futures = new ArrayList<>();
+        for (int i = 0; i < callerCount; i++) {
+            CurrencyPair requested = (i % 2 == 0) ? pair : pair.flip();
+            futures.add(CompletableFuture.supplyAsync(()
+                    -> instance.getRate(requested), executor));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+        while (instance.getRequestCount() < callerCount 
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1L);
+        }
+        provider.gate.countDown();
+        for (CompletableFuture<Double> future : futures) {
+            future.get(10L, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertEquals(provider.callCount.get(), 1);
+        assertEquals(instance.getUpstreamCallCount(), 1L);
+    }
+    
+    @Test
+    public void testFailedQueryIsNotCached() {
+        GatedProvider provider = new GatedProvider();
+        provider.failuresLeft.set(1);
+        CachingExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(provider);
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+        String msg = "Failing provider should cause exception";
+        assertThrows(() -> {
+            double badRate = instance.getRate(source, target);
+            System.out.println(msg + ", not given " + badRate);
+        }, IllegalStateException.class, msg);
+        double expected = provider.getRate(source, target);
+        double actual = instance.getRate(source, target);
+        assertEquals(actual, expected);
+        assertEquals(instance.getUpstreamCallCount(), 2L);
+    }
+    
+    @Test
+    public void testIsLocal() {
+        System.out.println("isLocal");
+        ExchangeRateProvider instance 
+                = new CachingExchangeRateProvider(new HardCodedRateProvider());
+        assert instance.isLocal() : "Cache of local provider should be local";
+    }
+    
+    @Test
+    public void testIsNotLocalForRemoteProvider() {
+        ExchangeRateProvider remote = new HardCodedRateProvider() {
+            
+            @Override
+            public boolean isLocal() {
+                return false;
+            }
+        
+        };
+        ExchangeRateProvider instance = new CachingExchangeRateProvider(remote);
+        String msg = "Cache of provider that is not local should not be local";
+        assert !instance.isLocal() : msg;
+    }
+    
+    private static class GatedProvider extends HardCodedRateProvider {
+        
+        private final AtomicInteger callCount = new AtomicInteger();
+        
+        private final AtomicInteger failuresLeft = new AtomicInteger();
+        
+        private final CountDownLatch entered = new CountDownLatch(1);
+        
+        private final CountDownLatch gate = new CountDownLatch(1);
+        
+        private volatile boolean gated = false;
+        
+        @Override
+        public double getRate(Currency source, Currency target) {
+            this.callCount.incrementAndGet();
+            if (this.failuresLeft.getAndDecrement() > 0) {
+                String excMsg = "For testing purposes " + RANDOM.nextInt();
+                throw new IllegalStateException(excMsg);
+            }
+            if (this.gated) {
+                this.entered.countDown();
+                try {
+                    this.gate.await();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.getRate(source, target);
+        }
+    
+    }
+    
+    private static class CountingProvider extends HardCodedRateProvider {
+        
+        private int callCount = 0;
+        
+        @Override
+        public double getRate(Currency source, Currency target) {
+            this.callCount++;
+            return super.getRate(source, target);
+        }
+    
+    }
+    
+}
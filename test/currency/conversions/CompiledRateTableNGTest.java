@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import currency.UnsupportedCurrencyException;
+
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.Set;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the CompiledRateTable class.
+ * @author Alonso del Arte
+ */
+public class CompiledRateTableNGTest {
+    
+    private static final ExchangeRateProvider BASE 
+            = new HardCodedRateProvider();
+    
+    private static final Set<Currency> SUPPORTED_CURRENCIES 
+            = BASE.supportedCurrencies();
+    
+    @Test
+    public void testGetTimestamp() {
+        System.out.println("getTimestamp");
+        LocalDateTime before = LocalDateTime.now();
+        CompiledRateTable instance = new RateTableCompiler(BASE).getTable();
+        LocalDateTime after = LocalDateTime.now();
+        LocalDateTime actual = instance.getTimestamp();
+        String msg = "Timestamp " + actual.toString() + " should be between " 
+                + before.toString() + " and " + after.toString();
+        assert !actual.isBefore(before) && !actual.isAfter(after) : msg;
+    }
+    
+    @Test
+    public void testSize() {
+        System.out.println("size");
+        CompiledRateTable instance = new RateTableCompiler(BASE).getTable();
+        assertEquals(instance.size(), SUPPORTED_CURRENCIES.size());
+    }
+    
+    @Test
+    public void testGetRate() {
+        System.out.println("getRate");
+        CompiledRateTable instance = new RateTableCompiler(BASE).getTable();
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        RateVector expected = BASE.getRates(source, SUPPORTED_CURRENCIES);
+        for (Currency target : SUPPORTED_CURRENCIES) {
+            double actual = instance.getRate(source, target);
+            String msg = "Rate for " + source.getCurrencyCode() + " to " 
+                    + target.getCurrencyCode();
+            assertEquals(actual, expected.getRate(target), msg);
+        }
+    }
+    
+    @Test
+    public void testGetRates() {
+        System.out.println("getRates");
+        CompiledRateTable instance = new RateTableCompiler(BASE).getTable();
+        Currency base = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        RateVector expected = BASE.getRates(base, SUPPORTED_CURRENCIES);
+        RateVector actual = instance.getRates(base, SUPPORTED_CURRENCIES);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetRateRejectsUncompiledCurrency() {
+        CompiledRateTable instance = new RateTableCompiler(BASE).getTable();
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyNotIn(
+                SUPPORTED_CURRENCIES);
+        String msg = "Uncompiled target " + target.getCurrencyCode() 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            double badRate = instance.getRate(source, target);
+            System.out.println(msg + ", not given " + badRate);
+        }, UnsupportedCurrencyException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testSupportedCurrencySet() {
+        System.out.println("supportedCurrencySet");
+        CompiledRateTable instance = new RateTableCompiler(BASE).getTable();
+        assertEquals(instance.supportedCurrencySet(), SUPPORTED_CURRENCIES);
+        assertEquals(instance.supportedCurrencies(), SUPPORTED_CURRENCIES);
+        assertSame(instance.supportedCurrencySet(), 
+                instance.supportedCurrencySet());
+    }
+    
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import currency.CurrencyPair;
+import currency.MoneyAmount;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Makes up currencies, quotes and amounts of money for the tests of the 
+ * classes that convert many amounts at a time or keep track of many rates. 
+ * None of the quotes are meant to be accurate or even plausible.
+ * @author Alonso del Arte
+ */
+public final class ConversionFixtures {
+    
+    private static final Set<Currency> SUPPORTED_CURRENCIES 
+            = new HardCodedRateProvider().supportedCurrencies();
+    
+    /**
+     * Chooses a pair of currencies that {@link HardCodedRateProvider} has 
+     * rates for.
+     * @return A pair of two distinct currencies, both supported by {@code 
+     * HardCodedRateProvider}. For example, United States dollars (USD) to 
+     * euros (EUR).
+     */
+    public static CurrencyPair chooseSupportedPair() {
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+        return new CurrencyPair(source, target);
+    }
+    
+    /**
+     * Chooses several pairs of currencies that {@link HardCodedRateProvider} 
+     * has rates for, no two of them the same.
+     * @param count How many pairs to choose. For example, 3.
+     * @return A modifiable list of {@code count} distinct pairs, each chosen as 
+     * by {@link #chooseSupportedPair()}. A pair and its flip count as distinct 
+     * pairs. In the example, this might be USD to EUR, EUR to USD and GBP to 
+     * JPY.
+     */
+    public static List<CurrencyPair> chooseSupportedPairs(int count) {
+        List<CurrencyPair> pairs = new ArrayList<>(count);
+        while (pairs.size() < count) {
+            CurrencyPair pair = chooseSupportedPair();
+            if (!pairs.contains(pair)) {
+                pairs.add(pair);
+            }
+        }
+        return pairs;
+    }
+    
+    /**
+     * Chooses some source currencies for conversions to a target currency.
+     * @param target The target currency. For example, euros (EUR).
+     * @param count How many source currencies to choose. For example, 3.
+     * @return An array of {@code count} distinct currencies, none of them 
+     * {@code target}. In the example, this might be United States dollars 
+     * (USD), British pounds (GBP) and Japanese yen (JPY).
+     */
+    public static Currency[] chooseSources(Currency target, int count) {
+        Set<Currency> chosen = new HashSet<>();
+        chosen.add(target);
+        Currency[] sources = new Currency[count];
+        for (int i = 0; i < count; i++) {
+            sources[i] = CurrencyChooser.chooseCurrencyNotIn(chosen);
+            chosen.add(sources[i]);
+        }
+        return sources;
+    }
+    
+    /**
+     * Makes up quotes to convert from each of several source currencies to a 
+     * target currency.
+     * @param sources The source currencies. For example, United States dollars 
+     * (USD), British pounds (GBP) and Japanese yen (JPY).
+     * @param target The target currency. For example, euros (EUR).
+     * @return One quote for each source currency, in the same order as {@code 
+     * sources}, with a pseudorandom rate of at least 0.5 but less than 1.5. In 
+     * the example, this might be USD to EUR at 0.9032, GBP to EUR at 1.1715 
+     * and JPY to EUR at 0.6281.
+     */
+    public static ConversionRateQuote[] makeQuotes(Currency[] sources, 
+            Currency target) {
+        ConversionRateQuote[] quotes = new ConversionRateQuote[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            CurrencyPair currencies = new CurrencyPair(sources[i], target);
+            double rate = 0.5 + RANDOM.nextDouble();
+            quotes[i] = new ConversionRateQuote(currencies, rate);
+        }
+        return quotes;
+    }
+    
+    /**
+     * Makes up amounts of money in pseudorandomly chosen currencies.
+     * @param currencies The currencies to choose from. For example, United 
+     * States dollars (USD), British pounds (GBP) and Japanese yen (JPY).
+     * @param size How many amounts to make up. For example, 64.
+     * @return An array of {@code size} amounts, each of them at least 0 but 
+     * less than 2<sup>24</sup> cents (or whatever the currency's minor unit 
+     * is). In the example, this might be $1,024.17, &yen;93,405, 
+     * &pound;7,221.88, etc.
+     */
+    public static MoneyAmount[] makeAmounts(Currency[] currencies, int size) {
+        return makeAmounts(currencies, size, 0);
+    }
+    
+    /**
+     * Makes up amounts of money in pseudorandomly chosen currencies, as a 
+     * list. Same as {@link #makeAmounts(java.util.Currency[], int) 
+     * makeAmounts()}, except for the return type.
+     * @param currencies The currencies to choose from. For example, United 
+     * States dollars (USD), British pounds (GBP) and Japanese yen (JPY).
+     * @param size How many amounts to make up. For example, 64.
+     * @return A modifiable list of {@code size} amounts.
+     */
+    public static List<MoneyAmount> makeAmountList(Currency[] currencies, 
+            int size) {
+        return new ArrayList<>(Arrays.asList(makeAmounts(currencies, size)));
+    }
+    
+    /**
+     * Makes up amounts of money in pseudorandomly chosen currencies, some of 
+     * them negative, as a list. For example, to make up a portfolio with some 
+     * debts in it.
+     * @param currencies The currencies to choose from. For example, United 
+     * States dollars (USD), British pounds (GBP) and Japanese yen (JPY).
+     * @param size How many amounts to make up. For example, 64.
+     * @return A modifiable list of {@code size} amounts, each of them at least 
+     * &minus;2<sup>20</sup> cents but less than 2<sup>24</sup> &minus; 
+     * 2<sup>20</sup> cents (or whatever the currency's minor unit is). In the 
+     * example, this might be $1,024.17, &minus;&yen;3,405, &pound;7,221.88, 
+     * etc.
+     */
+    public static List<MoneyAmount> makeSignedAmountList(Currency[] currencies, 
+            int size) {
+        return new ArrayList<>(Arrays.asList(makeAmounts(currencies, size, 
+                -(1 << 20))));
+    }
+    
+    private static MoneyAmount[] makeAmounts(Currency[] currencies, int size, 
+            int lowestCents) {
+        MoneyAmount[] amounts = new MoneyAmount[size];
+        for (int i = 0; i < size; i++) {
+            Currency currency = currencies[RANDOM.nextInt(currencies.length)];
+            amounts[i] = MoneyAmount.fromFullAmountInCents(
+                    RANDOM.nextInt(1 << 24) + lowestCents, currency);
+        }
+        return amounts;
+    }
+    
+    private ConversionFixtures() {
+        // No instances needed
+    }
+    
+}
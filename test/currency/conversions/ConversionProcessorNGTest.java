@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import currency.MoneyAmount;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+import static currency.conversions.ConversionFixtures.chooseSources;
+import static currency.conversions.ConversionFixtures.makeAmountList;
+import static currency.conversions.ConversionFixtures.makeQuotes;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the ConversionProcessor class.
+ * @author Alonso del Arte
+ */
+public class ConversionProcessorNGTest {
+    
+    /**
+     * Publishes the amounts in a list, on the thread that requests them, and 
+     * keeps track of how many have been requested.
+     */
+    private static class ListPublisher implements Flow.Publisher<MoneyAmount> {
+        
+        private final List<MoneyAmount> amounts;
+        
+        private int published = 0;
+        
+        private long requested = 0L;
+        
+        private boolean cancelled = false;
+        
+        private boolean emitting = false;
+        
+        @Override
+        public void subscribe(Flow.Subscriber<? super MoneyAmount> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                
+                @Override
+                public void request(long n) {
+                    ListPublisher.this.requested += n;
+                    if (ListPublisher.this.emitting) {
+                        return;
+                    }
+                    ListPublisher.this.emitting = true;
+                    while (!ListPublisher.this.cancelled 
+                            && ListPublisher.this.published 
+                                    < ListPublisher.this.requested 
+                            && ListPublisher.this.published 
+                                    < ListPublisher.this.amounts.size()) {
+                        subscriber.onNext(ListPublisher.this.amounts 
+                                .get(ListPublisher.this.published++));
+                    }
+                    ListPublisher.this.emitting = false;
+                    if (!ListPublisher.this.cancelled 
+                            && ListPublisher.this.published 
+                                    == ListPublisher.this.amounts.size()) {
+                        ListPublisher.this.cancelled = true;
+                        subscriber.onComplete();
+                    }
+                }
+                
+                @Override
+                public void cancel() {
+                    ListPublisher.this.cancelled = true;
+                }
+            
+            });
+        }
+        
+        ListPublisher(List<MoneyAmount> amounts) {
+            this.amounts = amounts;
+        }
+    
+    }
+    
+    private static class RecordingSubscriber 
+            implements Flow.Subscriber<MoneyAmount> {
+        
+        private final List<MoneyAmount> received = new ArrayList<>();
+        
+        private Flow.Subscription subscription = null;
+        
+        private Throwable error = null;
+        
+        private boolean completed = false;
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+        
+        @Override
+        public void onNext(MoneyAmount item) {
+            this.received.add(item);
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+        }
+        
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+    
+    }
+    
+    private static CurrencyConverter makeConverter(Currency[] sources, 
+            Currency target) {
+        return new CurrencyConverter(
+                new MockExchangeRateProvider(makeQuotes(sources, target)));
+    }
+    
+    @Test
+    public void testConvertsPublishedAmounts() {
+        System.out.println("onNext");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 2);
+        CurrencyConverter converter = makeConverter(sources, target);
+        List<MoneyAmount> amounts = makeAmountList(sources, 
+                RANDOM.nextInt(64) + 16);
+        List<MoneyAmount> expected = converter.convertAll(amounts, target);
+        ConversionProcessor instance 
+                = new ConversionProcessor(new ConversionStage(converter, 
+                        target));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        instance.subscribe(subscriber);
+        new ListPublisher(amounts).subscribe(instance);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(subscriber.received, expected);
+        assert subscriber.completed : "Subscriber should have been completed";
+        assertNull(subscriber.error);
+    }
+    
+    @Test
+    public void testHonorsBackpressure() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 2);
+        CurrencyConverter converter = makeConverter(sources, target);
+        List<MoneyAmount> amounts = makeAmountList(sources, 
+                RANDOM.nextInt(64) + 16);
+        ConversionProcessor instance 
+                = new ConversionProcessor(new ConversionStage(converter, 
+                        target));
+        ListPublisher publisher = new ListPublisher(amounts);
+        publisher.subscribe(instance);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        instance.subscribe(subscriber);
+        assertEquals(publisher.published, 0, 
+                "Nothing should be published before it's requested");
+        int expected = 0;
+        while (expected + 8 < amounts.size()) {
+            int n = RANDOM.nextInt(8) + 1;
+            subscriber.subscription.request(n);
+            expected += n;
+            String msg = "After requesting " + expected + " amounts";
+            assertEquals(publisher.published, expected, msg);
+            assertEquals(subscriber.received.size(), expected, msg);
+        }
+        assert !subscriber.completed : "Subscriber should not be completed yet";
+    }
+    
+    @Test
+    public void testCancelCancelsUpstream() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 1);
+        CurrencyConverter converter = makeConverter(sources, target);
+        List<MoneyAmount> amounts = makeAmountList(sources, 
+                RANDOM.nextInt(64) + 16);
+        ConversionProcessor instance 
+                = new ConversionProcessor(new ConversionStage(converter, 
+                        target));
+        ListPublisher publisher = new ListPublisher(amounts);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        instance.subscribe(subscriber);
+        publisher.subscribe(instance);
+        subscriber.subscription.request(4L);
+        subscriber.subscription.cancel();
+        assert publisher.cancelled : "Upstream should have been cancelled";
+        subscriber.subscription.request(4L);
+        assertEquals(publisher.published, 4);
+    }
+    
+    @Test
+    public void testConversionFailureGoesToOnError() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 1);
+        CurrencyConverter converter 
+                = new CurrencyConverter(new MockExchangeRateProvider() {
+                    
+                    @Override
+                    public double getRate(Currency source, Currency target) {
+                        return Double.NaN;
+                    }
+                
+                });
+        List<MoneyAmount> amounts = makeAmountList(sources, 
+                RANDOM.nextInt(64) + 16);
+        ConversionProcessor instance 
+                = new ConversionProcessor(new ConversionStage(converter, 
+                        target));
+        ListPublisher publisher = new ListPublisher(amounts);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        instance.subscribe(subscriber);
+        publisher.subscribe(instance);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assert subscriber.error instanceof IllegalArgumentException 
+                : "NaN rate should cause IllegalArgumentException";
+        assert publisher.cancelled : "Upstream should have been cancelled";
+        assert subscriber.received.isEmpty() : "Nothing should be received";
+        System.out.println("\"" + subscriber.error.getMessage() + "\"");
+    }
+    
+    @Test
+    public void testRejectsNonPositiveRequest() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 1);
+        CurrencyConverter converter = makeConverter(sources, target);
+        ConversionProcessor instance 
+                = new ConversionProcessor(new ConversionStage(converter, 
+                        target));
+        ListPublisher publisher = new ListPublisher(makeAmountList(sources, 16));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        instance.subscribe(subscriber);
+        publisher.subscribe(instance);
+        subscriber.subscription.request(-RANDOM.nextInt(16));
+        assert subscriber.error instanceof IllegalArgumentException 
+                : "Non-positive request should cause IllegalArgumentException";
+        assert publisher.cancelled : "Upstream should have been cancelled";
+    }
+    
+    @Test
+    public void testRejectsSecondSubscriber() {
+        System.out.println("subscribe");
+        Currency target = CurrencyChooser.chooseCurrency();
+        CurrencyConverter converter 
+                = new CurrencyConverter(new MockExchangeRateProvider());
+        ConversionProcessor instance 
+                = new ConversionProcessor(new ConversionStage(converter, 
+                        target));
+        RecordingSubscriber first = new RecordingSubscriber();
+        instance.subscribe(first);
+        RecordingSubscriber second = new RecordingSubscriber();
+        instance.subscribe(second);
+        assertNull(first.error);
+        assert second.error instanceof IllegalStateException 
+                : "Second subscriber should get IllegalStateException";
+    }
+    
+    @Test
+    public void testConstructorRejectsNullStage() {
+        String msg = "Null stage should cause exception";
+        Throwable t = assertThrows(() -> {
+            ConversionProcessor badProcessor = new ConversionProcessor(null);
+            System.out.println(msg + ", not given " 
+                    + badProcessor.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import currency.MoneyAmount;
+import currency.UnsupportedCurrencyException;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+import static currency.conversions.ConversionFixtures.chooseSources;
+import static currency.conversions.ConversionFixtures.makeAmounts;
+import static currency.conversions.ConversionFixtures.makeQuotes;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the ConversionSession class.
+ * @author Alonso del Arte
+ */
+public class ConversionSessionNGTest {
+    
+    /**
+     * Gives a different rate every time it's queried, as a live provider might 
+     * if it refreshed in the middle of a batch.
+     */
+    private static class DriftingRateProvider 
+            extends MockExchangeRateProvider {
+        
+        private double drift = 0.0;
+        
+        @Override
+        public double getRate(Currency source, Currency target) {
+            this.drift += 0.01;
+            return super.getRate(source, target) + this.drift;
+        }
+        
+        DriftingRateProvider(ConversionRateQuote... rateQuotes) {
+            super(rateQuotes);
+        }
+    
+    }
+    
+    private static ConversionSession makeSession(Currency target, 
+            Currency[] sources) {
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        RateSnapshot snapshot = RateSnapshot.capture(provider, target, 
+                Arrays.asList(sources));
+        return new ConversionSession(snapshot);
+    }
+    
+    @Test
+    public void testConvert() {
+        System.out.println("convert");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ConversionSession instance = makeSession(target, sources);
+        CurrencyConverter converter 
+                = new CurrencyConverter(instance.getSnapshot());
+        for (MoneyAmount amount : makeAmounts(sources, 64)) {
+            MoneyAmount expected = converter.convert(amount, target);
+            MoneyAmount actual = instance.convert(amount);
+            assertEquals(actual, expected);
+        }
+    }
+    
+    @Test
+    public void testConvertToCents() {
+        System.out.println("convertToCents");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ConversionSession instance = makeSession(target, sources);
+        for (MoneyAmount amount : makeAmounts(sources, 64)) {
+            long expected = instance.convert(amount).getFullAmountInCents();
+            long actual = instance.convertToCents(amount);
+            assertEquals(actual, expected);
+        }
+    }
+    
+    @Test
+    public void testConvertWithRoundingMode() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        RateSnapshot snapshot = RateSnapshot.capture(provider, target, 
+                Arrays.asList(sources));
+        ConversionSession instance = new ConversionSession(snapshot, 
+                RoundingMode.HALF_EVEN);
+        CurrencyConverter converter = new CurrencyConverter(provider);
+        for (MoneyAmount amount : makeAmounts(sources, 64)) {
+            MoneyAmount expected = converter.convert(amount, target, 
+                    RoundingMode.HALF_EVEN);
+            MoneyAmount actual = instance.convert(amount);
+            assertEquals(actual, expected);
+        }
+    }
+    
+    @Test
+    public void testConvertAllUsesOneSetOfRates() {
+        System.out.println("convertAll");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 3);
+        DriftingRateProvider provider 
+                = new DriftingRateProvider(makeQuotes(sources, target));
+        CurrencyConverter converter = new CurrencyConverter(provider);
+        ConversionSession instance = converter.openSession(target, 
+                Arrays.asList(sources));
+        MoneyAmount amount = makeAmounts(sources, 1)[0];
+        MoneyAmount[] amounts = new MoneyAmount[RANDOM.nextInt(64) + 16];
+        Arrays.fill(amounts, amount);
+        MoneyAmount expected = instance.convert(amount);
+        for (MoneyAmount actual : instance.convertAll(amounts)) {
+            assertEquals(actual, expected);
+        }
+        converter.convert(amount, target);
+        assertEquals(instance.convert(amount), expected);
+    }
+    
+    @Test
+    public void testConvertAllCollection() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ConversionSession instance = makeSession(target, sources);
+        MoneyAmount[] amounts = makeAmounts(sources, RANDOM.nextInt(64) + 16);
+        List<MoneyAmount> expected 
+                = Arrays.asList(instance.convertAll(amounts));
+        List<MoneyAmount> actual 
+                = instance.convertAll(new ArrayList<>(Arrays.asList(amounts)));
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testConvertAllIntoResultsArray() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ConversionSession instance = makeSession(target, sources);
+        MoneyAmount[] amounts = makeAmounts(sources, RANDOM.nextInt(64) + 16);
+        MoneyAmount[] expected = new MoneyAmount[amounts.length + 1];
+        for (int i = 0; i < amounts.length; i++) {
+            expected[i] = instance.convert(amounts[i]);
+        }
+        MoneyAmount[] actual = new MoneyAmount[amounts.length + 1];
+        instance.convertAll(amounts, actual);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testConvertAllRejectsShortResultsArray() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 2);
+        ConversionSession instance = makeSession(target, sources);
+        MoneyAmount[] amounts = makeAmounts(sources, RANDOM.nextInt(64) + 16);
+        MoneyAmount[] results = new MoneyAmount[amounts.length - 1];
+        String msg = "Results array of length " + results.length + " for " 
+                + amounts.length + " amounts should cause exception";
+        Throwable t = assertThrows(() -> {
+            instance.convertAll(amounts, results);
+            System.out.println(msg + ", not given " 
+                    + Arrays.toString(results));
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConvertRejectsUncapturedCurrency() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 2);
+        ConversionSession instance = makeSession(target, sources);
+        Set<Currency> captured = new HashSet<>(Arrays.asList(sources));
+        captured.add(target);
+        Currency uncaptured = CurrencyChooser.chooseCurrencyNotIn(captured);
+        MoneyAmount amount = MoneyAmount.fromFullAmountInCents(
+                RANDOM.nextInt(1 << 20), uncaptured);
+        String msg = "Converting " + amount.toString() 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            MoneyAmount badAmount = instance.convert(amount);
+            System.out.println(msg + ", not given " + badAmount.toString());
+        }, UnsupportedCurrencyException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testGetTimestamp() {
+        System.out.println("getTimestamp");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 2);
+        ConversionSession instance = makeSession(target, sources);
+        assertEquals(instance.getTimestamp(), 
+                instance.getSnapshot().getTimestamp());
+    }
+    
+    @Test
+    public void testGetTarget() {
+        System.out.println("getTarget");
+        Currency expected = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(expected, 2);
+        ConversionSession instance = makeSession(expected, sources);
+        Currency actual = instance.getTarget();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testConstructorRejectsPseudocurrencyTarget() {
+        Currency target = CurrencyChooser.choosePseudocurrency();
+        Currency[] sources = chooseSources(target, 2);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        RateSnapshot snapshot = RateSnapshot.capture(provider, target, 
+                Arrays.asList(sources));
+        String msg = "Pseudocurrency " + target.getDisplayName() 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            ConversionSession badSession = new ConversionSession(snapshot);
+            System.out.println(msg + ", not given " + badSession.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConstructorRejectsNullSnapshot() {
+        String msg = "Null snapshot should cause exception";
+        Throwable t = assertThrows(() -> {
+            ConversionSession badSession = new ConversionSession(null);
+            System.out.println(msg + ", not given " + badSession.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import currency.CurrencyPair;
+import currency.MoneyAmount;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+import static currency.conversions.ConversionFixtures.chooseSources;
+import static currency.conversions.ConversionFixtures.makeAmountList;
+import static currency.conversions.ConversionFixtures.makeAmounts;
+import static currency.conversions.ConversionFixtures.makeQuotes;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the ConversionStage class.
+ * @author Alonso del Arte
+ */
+public class ConversionStageNGTest {
+    
+    private static class CountingRateProvider 
+            extends MockExchangeRateProvider {
+        
+        private final List<CurrencyPair> queries = new ArrayList<>();
+        
+        @Override
+        public double getRate(Currency source, Currency target) {
+            this.queries.add(new CurrencyPair(source, target));
+            return super.getRate(source, target);
+        }
+        
+        CountingRateProvider(ConversionRateQuote... rateQuotes) {
+            super(rateQuotes);
+        }
+    
+    }
+    
+    @Test
+    public void testGetTarget() {
+        System.out.println("getTarget");
+        Currency expected = CurrencyChooser.chooseCurrency();
+        CurrencyConverter converter 
+                = new CurrencyConverter(new MockExchangeRateProvider());
+        ConversionStage instance = new ConversionStage(converter, expected);
+        Currency actual = instance.getTarget();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testApply() {
+        System.out.println("apply");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 3);
+        CurrencyConverter converter = new CurrencyConverter(
+                new MockExchangeRateProvider(makeQuotes(sources, target)));
+        ConversionStage instance = new ConversionStage(converter, target);
+        for (MoneyAmount amount : makeAmounts(sources, 64)) {
+            MoneyAmount expected = converter.convert(amount, target);
+            MoneyAmount actual = instance.apply(amount);
+            assertEquals(actual, expected);
+        }
+    }
+    
+    @Test
+    public void testApplyWithRoundingMode() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 3);
+        CurrencyConverter converter = new CurrencyConverter(
+                new MockExchangeRateProvider(makeQuotes(sources, target)));
+        RoundingMode[] modes = {RoundingMode.UP, RoundingMode.DOWN, 
+            RoundingMode.CEILING, RoundingMode.FLOOR, RoundingMode.HALF_UP, 
+            RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN};
+        RoundingMode roundingMode = modes[RANDOM.nextInt(modes.length)];
+        ConversionStage instance = new ConversionStage(converter, target, 
+                roundingMode);
+        for (MoneyAmount amount : makeAmounts(sources, 64)) {
+            MoneyAmount expected = converter.convert(amount, target, 
+                    roundingMode);
+            MoneyAmount actual = instance.apply(amount);
+            String msg = "Converting " + amount.toString() + " rounding " 
+                    + roundingMode.toString();
+            assertEquals(actual, expected, msg);
+        }
+    }
+    
+    @Test
+    public void testApplyQueriesOncePerSourceCurrency() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        CountingRateProvider rateProvider 
+                = new CountingRateProvider(makeQuotes(sources, target));
+        CurrencyConverter converter = new CurrencyConverter(rateProvider);
+        ConversionStage instance = new ConversionStage(converter, target);
+        List<MoneyAmount> amounts = makeAmountList(sources, 
+                RANDOM.nextInt(256) + 64);
+        Set<CurrencyPair> expected = new HashSet<>();
+        for (MoneyAmount amount : amounts) {
+            instance.apply(amount);
+            expected.add(new CurrencyPair(amount.getCurrency(), target));
+        }
+        assertEquals(new HashSet<>(rateProvider.queries), expected);
+        assertEquals(rateProvider.queries.size(), expected.size());
+    }
+    
+    @Test
+    public void testConvertIterator() {
+        System.out.println("convert");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 3);
+        CurrencyConverter converter = new CurrencyConverter(
+                new MockExchangeRateProvider(makeQuotes(sources, target)));
+        List<MoneyAmount> amounts = makeAmountList(sources, 
+                RANDOM.nextInt(64) + 16);
+        List<MoneyAmount> expected = converter.convertAll(amounts, target);
+        ConversionStage instance = new ConversionStage(converter, target);
+        Iterator<MoneyAmount> iterator = instance.convert(amounts.iterator());
+        List<MoneyAmount> actual = new ArrayList<>();
+        iterator.forEachRemaining(actual::add);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testConvertIteratorIsLazy() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 3);
+        CurrencyConverter converter = new CurrencyConverter(
+                new MockExchangeRateProvider(makeQuotes(sources, target)));
+        List<MoneyAmount> amounts = makeAmountList(sources, 
+                RANDOM.nextInt(64) + 16);
+        int[] taken = {0};
+        Iterator<MoneyAmount> source = new Iterator<MoneyAmount>() {
+            
+            @Override
+            public boolean hasNext() {
+                return taken[0] < amounts.size();
+            }
+            
+            @Override
+            public MoneyAmount next() {
+                return amounts.get(taken[0]++);
+            }
+        
+        };
+        ConversionStage instance = new ConversionStage(converter, target);
+        Iterator<MoneyAmount> iterator = instance.convert(source);
+        assertEquals(taken[0], 0, "Nothing should be taken before asked");
+        int count = RANDOM.nextInt(amounts.size()) + 1;
+        for (int i = 0; i < count; i++) {
+            iterator.next();
+        }
+        String msg = "Only " + count + " amounts should have been taken";
+        assertEquals(taken[0], count, msg);
+    }
+    
+    @Test
+    public void testConvertIteratorRejectsNull() {
+        CurrencyConverter converter 
+                = new CurrencyConverter(new MockExchangeRateProvider());
+        ConversionStage instance = new ConversionStage(converter, 
+                CurrencyChooser.chooseCurrency());
+        Iterator<MoneyAmount> nullIterator = null;
+        String msg = "Null iterator should cause exception";
+        Throwable t = assertThrows(() -> {
+            Iterator<MoneyAmount> badIterator = instance.convert(nullIterator);
+            System.out.println(msg + ", not given " 
+                    + badIterator.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConvertStream() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 3);
+        CurrencyConverter converter = new CurrencyConverter(
+                new MockExchangeRateProvider(makeQuotes(sources, target)));
+        List<MoneyAmount> amounts = makeAmountList(sources, 
+                RANDOM.nextInt(64) + 16);
+        List<MoneyAmount> expected = converter.convertAll(amounts, target);
+        ConversionStage instance = new ConversionStage(converter, target);
+        List<MoneyAmount> actual = instance.convert(amounts.stream())
+                .collect(Collectors.toList());
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testConstructorRejectsNullTarget() {
+        CurrencyConverter converter 
+                = new CurrencyConverter(new MockExchangeRateProvider());
+        String msg = "Null target currency should cause exception";
+        Throwable t = assertThrows(() -> {
+            ConversionStage badStage = new ConversionStage(converter, null);
+            System.out.println(msg + ", not given " + badStage.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConstructorRejectsNullRoundingMode() {
+        CurrencyConverter converter 
+                = new CurrencyConverter(new MockExchangeRateProvider());
+        Currency target = CurrencyChooser.chooseCurrency();
+        String msg = "Null rounding mode should cause exception";
+        Throwable t = assertThrows(() -> {
+            ConversionStage badStage = new ConversionStage(converter, target, 
+                    null);
+            System.out.println(msg + ", not given " + badStage.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
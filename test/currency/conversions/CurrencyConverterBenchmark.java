@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyMetadata;
+import currency.MoneyAmount;
+
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the integer conversion path of the CurrencyConverter 
+ * class. The baseline, {@link #doubleArithmetic()}, is the floating point 
+ * conversion that {@link CurrencyConverter#convert(currency.MoneyAmount, 
+ * java.util.Currency) convert()} used before it was moved over to {@link 
+ * CurrencyConverter#convertCents(long, java.util.Currency, 
+ * java.util.Currency, double, java.math.RoundingMode) convertCents()}. This 
+ * needs the JMH core and annotation processor JARs on the test classpath. Run 
+ * it with {@link #main(java.lang.String[]) main()}, which turns on the GC 
+ * profiler so that the bytes allocated per conversion are reported next to 
+ * the nanoseconds per conversion. For example, {@code gc.alloc.rate.norm} 
+ * should be about 0 bytes for {@link #convertCents()} and {@link 
+ * #convertToCents()}.
+ * @author Alonso del Arte
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencyConverterBenchmark {
+    
+    private static final int AMOUNT_COUNT = 1024;
+    
+    @Param({"USD", "JPY"})
+    public String sourceCode;
+    
+    @Param({"EUR", "KWD"})
+    public String targetCode;
+    
+    private final MoneyAmount[] amounts = new MoneyAmount[AMOUNT_COUNT];
+    
+    private int index = 0;
+    
+    private Currency source;
+    
+    private Currency target;
+    
+    private double rate;
+    
+    private CurrencyConverter converter;
+    
+    @Setup
+    public void setUp() {
+        this.source = Currency.getInstance(this.sourceCode);
+        this.target = Currency.getInstance(this.targetCode);
+        ExchangeRateProvider provider = new HardCodedRateProvider();
+        this.rate = provider.getRate(this.source, this.target);
+        this.converter = new CurrencyConverter(provider);
+        Random random = new Random(this.sourceCode.hashCode() 
+                ^ this.targetCode.hashCode());
+        for (int i = 0; i < AMOUNT_COUNT; i++) {
+            long cents = random.nextLong() >> (24 + random.nextInt(40));
+            this.amounts[i] = MoneyAmount.fromFullAmountInCents(cents, 
+                    this.source);
+        }
+    }
+    
+    private MoneyAmount nextAmount() {
+        this.index = (this.index + 1) & (AMOUNT_COUNT - 1);
+        return this.amounts[this.index];
+    }
+    
+    @Benchmark
+    public MoneyAmount doubleArithmetic() {
+        MoneyAmount amount = this.nextAmount();
+        double rate = this.converter.getProvider().getRate(this.source, 
+                this.target);
+        double intermediate = (double) amount.getFullAmountInCents() 
+                / CurrencyMetadata.of(this.source).getMultiplier();
+        double converted = intermediate * rate;
+        double floored = Math.floor(converted);
+        double roughDivs = (converted - floored) 
+                * CurrencyMetadata.of(this.target).getMultiplier();
+        return new MoneyAmount((long) floored, this.target, 
+                (short) Math.floor(roughDivs));
+    }
+    
+    @Benchmark
+    public MoneyAmount convert() {
+        return this.converter.convert(this.nextAmount(), this.target);
+    }
+    
+    @Benchmark
+    public long convertToCents() {
+        return this.converter.convertToCents(this.nextAmount(), this.target, 
+                RoundingMode.FLOOR);
+    }
+    
+    @Benchmark
+    public long convertCents() {
+        return CurrencyConverter.convertCents(
+                this.nextAmount().getFullAmountInCents(), this.source, 
+                this.target, this.rate, RoundingMode.FLOOR);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CurrencyConverterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+    
+}
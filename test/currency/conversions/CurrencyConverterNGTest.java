@@ -20,9 +20,20 @@ import currency.CurrencyChooser;
 import currency.CurrencyPair;
 import currency.MoneyAmount;
 import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+import static currency.conversions.ConversionFixtures.makeAmounts;
+import static currency.conversions.ConversionFixtures.makeQuotes;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
 import java.util.Currency;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.testframe.api.Asserters.assertInRange;
 import static org.testframe.api.Asserters.assertThrows;
@@ -85,6 +96,487 @@ public class CurrencyConverterNGTest {
         assertInRange(minimum, actual, maximum, msg);
     }
     
+    private static long referenceConvert(long cents, Currency source, 
+            Currency target, double rate, RoundingMode roundingMode) {
+        int digitsDifference = target.getDefaultFractionDigits() 
+                - source.getDefaultFractionDigits();
+        return new BigDecimal(rate).multiply(BigDecimal.valueOf(cents))
+                .scaleByPowerOfTen(digitsDifference)
+                .setScale(0, roundingMode).longValueExact();
+    }
+    
+    @Test
+    public void testConvertCents() {
+        System.out.println("convertCents");
+        Currency source = CurrencyChooser.chooseCurrency(2);
+        Currency target = CurrencyChooser.chooseCurrency(2);
+        RoundingMode[] roundingModes = {RoundingMode.UP, RoundingMode.DOWN, 
+            RoundingMode.CEILING, RoundingMode.FLOOR, RoundingMode.HALF_UP, 
+            RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN};
+        for (int i = 0; i < 256; i++) {
+            long cents = RANDOM.nextLong() >> (RANDOM.nextInt(40) + 16);
+            double rate = RANDOM.nextDouble() * Math.pow(10, 
+                    RANDOM.nextInt(9) - 4);
+            for (RoundingMode roundingMode : roundingModes) {
+                long expected = referenceConvert(cents, source, target, rate, 
+                        roundingMode);
+                long actual = CurrencyConverter.convertCents(cents, source, 
+                        target, rate, roundingMode);
+                String msg = "Converting " + cents + " at " + rate 
+                        + " rounding " + roundingMode;
+                assertEquals(actual, expected, msg);
+            }
+        }
+    }
+    
+    @Test
+    public void testConvertCentsDifferentFractionDigits() {
+        Currency source = CurrencyChooser.chooseCurrency(0);
+        Currency target = CurrencyChooser.chooseCurrency(3);
+        for (int i = 0; i < 256; i++) {
+            long cents = RANDOM.nextInt();
+            double rate = RANDOM.nextDouble() * 100;
+            long expected = referenceConvert(cents, source, target, rate, 
+                    RoundingMode.HALF_EVEN);
+            long actual = CurrencyConverter.convertCents(cents, source, target, 
+                    rate, RoundingMode.HALF_EVEN);
+            String msg = "Converting " + cents + " at " + rate;
+            assertEquals(actual, expected, 1, msg);
+            assertEquals(CurrencyConverter.convertCents(cents, target, source, 
+                    rate, RoundingMode.HALF_EVEN), referenceConvert(cents, 
+                            target, source, rate, RoundingMode.HALF_EVEN), 1, 
+                    msg);
+        }
+    }
+    
+    @Test
+    public void testConvertCentsBreaksTies() {
+        Currency currency = CurrencyChooser.chooseCurrency(2);
+        long[] cents = {5L, 7L, -5L, -7L};
+        long[] halfEven = {2L, 4L, -2L, -4L};
+        long[] halfUp = {3L, 4L, -3L, -4L};
+        long[] halfDown = {2L, 3L, -2L, -3L};
+        for (int i = 0; i < cents.length; i++) {
+            assertEquals(CurrencyConverter.convertCents(cents[i], currency, 
+                    currency, 0.5, RoundingMode.HALF_EVEN), halfEven[i]);
+            assertEquals(CurrencyConverter.convertCents(cents[i], currency, 
+                    currency, 0.5, RoundingMode.HALF_UP), halfUp[i]);
+            assertEquals(CurrencyConverter.convertCents(cents[i], currency, 
+                    currency, 0.5, RoundingMode.HALF_DOWN), halfDown[i]);
+        }
+    }
+    
+    @Test
+    public void testConvertCentsExtremes() {
+        Currency currency = CurrencyChooser.chooseCurrency(2);
+        assertEquals(CurrencyConverter.convertCents(Long.MIN_VALUE, currency, 
+                currency, 1.0, RoundingMode.UNNECESSARY), Long.MIN_VALUE);
+        assertEquals(CurrencyConverter.convertCents(Long.MIN_VALUE, currency, 
+                currency, 0.25, RoundingMode.UNNECESSARY), Long.MIN_VALUE / 4);
+        assertEquals(CurrencyConverter.convertCents(Long.MAX_VALUE, currency, 
+                currency, 1E-30, RoundingMode.CEILING), 1L);
+        assertEquals(CurrencyConverter.convertCents(Long.MAX_VALUE, currency, 
+                currency, 1E-30, RoundingMode.FLOOR), 0L);
+        assertEquals(CurrencyConverter.convertCents(RANDOM.nextLong(), 
+                currency, currency, 0.0, RoundingMode.UNNECESSARY), 0L);
+    }
+    
+    @Test
+    public void testConvertCentsRejectsUnnecessaryRoundingWhenNecessary() {
+        Currency source = CurrencyChooser.chooseCurrency(2);
+        Currency target = CurrencyChooser.chooseCurrency(0);
+        long cents = 100L * RANDOM.nextInt(1000) + RANDOM.nextInt(99) + 1;
+        String msg = "Converting " + cents + " divisions of " 
+                + source.getCurrencyCode() + " to " + target.getCurrencyCode() 
+                + " at 1.0 without rounding should cause exception";
+        Throwable t = assertThrows(() -> {
+            long badResult = CurrencyConverter.convertCents(cents, source, 
+                    target, 1.0, RoundingMode.UNNECESSARY);
+            System.out.println(msg + ", not given result " + badResult);
+        }, ArithmeticException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConvertCentsDetectsOverflow() {
+        Currency source = CurrencyChooser.chooseCurrency(0);
+        Currency target = CurrencyChooser.chooseCurrency(3);
+        long cents = Long.MAX_VALUE / 1000 + RANDOM.nextInt(1000) + 1;
+        String msg = "Converting " + cents + " divisions of " 
+                + source.getCurrencyCode() + " to " + target.getCurrencyCode() 
+                + " at 1.0 should cause exception";
+        Throwable t = assertThrows(() -> {
+            long badResult = CurrencyConverter.convertCents(cents, source, 
+                    target, 1.0, RoundingMode.FLOOR);
+            System.out.println(msg + ", not given result " + badResult);
+        }, ArithmeticException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConvertCentsRejectsInvalidRates() {
+        Currency source = CurrencyChooser.chooseCurrency();
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source);
+        double[] rates = {-RANDOM.nextDouble() - 0.001, Double.NaN, 
+            Double.POSITIVE_INFINITY};
+        for (double rate : rates) {
+            String msg = "Rate " + rate + " should cause exception";
+            Throwable t = assertThrows(() -> {
+                long badResult = CurrencyConverter.convertCents(10000L, source, 
+                        target, rate, RoundingMode.FLOOR);
+                System.out.println(msg + ", not given result " + badResult);
+            }, IllegalArgumentException.class, msg);
+            String excMsg = t.getMessage();
+            assert excMsg != null : "Exception message should not be null";
+            assert !excMsg.isBlank() : "Exception message should not be blank";
+            System.out.println("\"" + excMsg + "\"");
+        }
+    }
+    
+    @Test
+    public void testConvertCentsRejectsPseudocurrency() {
+        Currency source = CurrencyChooser.chooseCurrency();
+        Currency target = CurrencyChooser.choosePseudocurrency();
+        String msg = "Converting to " + target.getDisplayName() + " (" 
+                + target.getCurrencyCode() + ") should cause exception";
+        Throwable t = assertThrows(() -> {
+            long badResult = CurrencyConverter.convertCents(10000L, source, 
+                    target, 1.0, RoundingMode.FLOOR);
+            System.out.println(msg + ", not given result " + badResult);
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConvertCentsRejectsNullRoundingMode() {
+        Currency source = CurrencyChooser.chooseCurrency();
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source);
+        String msg = "Null rounding mode should cause exception";
+        Throwable t = assertThrows(() -> {
+            long badResult = CurrencyConverter.convertCents(10000L, source, 
+                    target, 1.0, null);
+            System.out.println(msg + ", not given result " + badResult);
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConvertDoesNotLoseCentToFloatingPoint() {
+        Currency from = CurrencyChooser.chooseCurrency(2);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(from);
+        while (target.getDefaultFractionDigits() != 2) {
+            target = CurrencyChooser.chooseCurrencyOtherThan(from);
+        }
+        CurrencyPair currencies = new CurrencyPair(from, target);
+        ConversionRateQuote quote = new ConversionRateQuote(currencies, 1.0);
+        CurrencyConverter instance 
+                = new CurrencyConverter(new MockExchangeRateProvider(quote));
+        MoneyAmount source = MoneyAmount.fromFullAmountInCents(29L, from);
+        MoneyAmount expected = MoneyAmount.fromFullAmountInCents(29L, target);
+        MoneyAmount actual = instance.convert(source, target);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testConvertToCents() {
+        System.out.println("convertToCents");
+        Currency from = CurrencyChooser.chooseCurrency();
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(from);
+        CurrencyPair currencies = new CurrencyPair(from, target);
+        double rate = 0.5 + RANDOM.nextDouble();
+        ConversionRateQuote quote = new ConversionRateQuote(currencies, rate);
+        CurrencyConverter instance 
+                = new CurrencyConverter(new MockExchangeRateProvider(quote));
+        MoneyAmount source = MoneyAmount.fromFullAmountInCents(
+                RANDOM.nextInt(1 << 24), from);
+        long expected = CurrencyConverter.convertCents(
+                source.getFullAmountInCents(), from, target, rate, 
+                RoundingMode.HALF_EVEN);
+        long actual = instance.convertToCents(source, target, 
+                RoundingMode.HALF_EVEN);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testConvertWithRoundingMode() {
+        Currency from = CurrencyChooser.chooseCurrency();
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(from);
+        CurrencyPair currencies = new CurrencyPair(from, target);
+        double rate = 0.5 + RANDOM.nextDouble();
+        ConversionRateQuote quote = new ConversionRateQuote(currencies, rate);
+        CurrencyConverter instance 
+                = new CurrencyConverter(new MockExchangeRateProvider(quote));
+        MoneyAmount source = MoneyAmount.fromFullAmountInCents(
+                RANDOM.nextInt(1 << 24), from);
+        MoneyAmount expected = MoneyAmount.fromFullAmountInCents(
+                instance.convertToCents(source, target, RoundingMode.CEILING), 
+                target);
+        MoneyAmount actual = instance.convert(source, target, 
+                RoundingMode.CEILING);
+        assertEquals(actual, expected);
+    }
+    
+    private static class CountingRateProvider 
+            extends MockExchangeRateProvider {
+        
+        private final Map<CurrencyPair, Integer> callCounts = new HashMap<>();
+        
+        @Override
+        public double getRate(Currency source, Currency target) {
+            this.callCounts.merge(new CurrencyPair(source, target), 1, 
+                    Integer::sum);
+            return super.getRate(source, target);
+        }
+        
+        CountingRateProvider(ConversionRateQuote... rateQuotes) {
+            super(rateQuotes);
+        }
+    
+    }
+    
+    @Test
+    public void testConvertAll() {
+        System.out.println("convertAll");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = {CurrencyChooser.chooseCurrencyOtherThan(target), 
+            CurrencyChooser.chooseCurrencyOtherThan(target), 
+            CurrencyChooser.chooseCurrencyOtherThan(target)};
+        ExchangeRateProvider rateProvider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        CurrencyConverter instance = new CurrencyConverter(rateProvider);
+        MoneyAmount[] amounts = makeAmounts(sources, RANDOM.nextInt(64) + 16);
+        MoneyAmount[] expected = new MoneyAmount[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            expected[i] = instance.convert(amounts[i], target);
+        }
+        MoneyAmount[] actual = instance.convertAll(amounts, target);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testConvertAllQueriesOncePerSourceCurrency() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = {CurrencyChooser.chooseCurrencyOtherThan(target), 
+            CurrencyChooser.chooseCurrencyOtherThan(target), 
+            CurrencyChooser.chooseCurrencyOtherThan(target), target};
+        CountingRateProvider rateProvider 
+                = new CountingRateProvider(makeQuotes(sources, target));
+        CurrencyConverter instance = new CurrencyConverter(rateProvider);
+        MoneyAmount[] amounts = makeAmounts(sources, RANDOM.nextInt(256) + 64);
+        instance.convertAll(amounts, target);
+        Set<CurrencyPair> expected = new HashSet<>();
+        for (MoneyAmount amount : amounts) {
+            expected.add(new CurrencyPair(amount.getCurrency(), target));
+        }
+        assertEquals(rateProvider.callCounts.keySet(), expected);
+        for (Map.Entry<CurrencyPair, Integer> entry 
+                : rateProvider.callCounts.entrySet()) {
+            String msg = "Rate for " + entry.getKey().toString() 
+                    + " should have been queried just once";
+            assertEquals(entry.getValue().intValue(), 1, msg);
+        }
+    }
+    
+    @Test
+    public void testConvertAllIntoGivenArray() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = {CurrencyChooser.chooseCurrencyOtherThan(target), 
+            CurrencyChooser.chooseCurrencyOtherThan(target)};
+        ExchangeRateProvider rateProvider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        CurrencyConverter instance = new CurrencyConverter(rateProvider);
+        MoneyAmount[] amounts = makeAmounts(sources, RANDOM.nextInt(64) + 16);
+        MoneyAmount[] expected = instance.convertAll(amounts, target);
+        MoneyAmount sentinel = new MoneyAmount(RANDOM.nextInt(1000), target);
+        MoneyAmount[] results = new MoneyAmount[amounts.length + 1];
+        results[amounts.length] = sentinel;
+        instance.convertAll(amounts, target, results);
+        MoneyAmount[] actual = Arrays.copyOf(results, amounts.length);
+        assertEquals(actual, expected);
+        String msg = "Position past the sources should be left alone";
+        assertSame(results[amounts.length], sentinel, msg);
+    }
+    
+    @Test
+    public void testConvertAllCollection() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = {CurrencyChooser.chooseCurrencyOtherThan(target), 
+            CurrencyChooser.chooseCurrencyOtherThan(target)};
+        ExchangeRateProvider rateProvider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        CurrencyConverter instance = new CurrencyConverter(rateProvider);
+        MoneyAmount[] amounts = makeAmounts(sources, RANDOM.nextInt(64) + 16);
+        List<MoneyAmount> expected 
+                = Arrays.asList(instance.convertAll(amounts, target));
+        List<MoneyAmount> actual = instance.convertAll(Arrays.asList(amounts), 
+                target);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testConvertAllRejectsShortResultsArray() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = {CurrencyChooser.chooseCurrencyOtherThan(target)};
+        CurrencyConverter instance 
+                = new CurrencyConverter(new MockExchangeRateProvider());
+        MoneyAmount[] amounts = makeAmounts(sources, RANDOM.nextInt(64) + 16);
+        MoneyAmount[] results = new MoneyAmount[amounts.length - 1];
+        String msg = "Results array of length " + results.length + " for " 
+                + amounts.length + " amounts should cause exception";
+        Throwable t = assertThrows(() -> {
+            instance.convertAll(amounts, target, results);
+            System.out.println(msg + ", not given " 
+                    + Arrays.toString(results));
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConvertAllParallel() {
+        System.out.println("convertAllParallel");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = {CurrencyChooser.chooseCurrencyOtherThan(target), 
+            CurrencyChooser.chooseCurrencyOtherThan(target), 
+            CurrencyChooser.chooseCurrencyOtherThan(target), target};
+        ExchangeRateProvider rateProvider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        CurrencyConverter instance = new CurrencyConverter(rateProvider);
+        MoneyAmount[] amounts = makeAmounts(sources, 
+                RANDOM.nextInt(1 << 14) + (1 << 15));
+        MoneyAmount[] expected = instance.convertAll(amounts, target);
+        MoneyAmount[] actual = instance.convertAllParallel(amounts, target);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testConvertAllParallelQueriesOncePerSourceCurrency() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = {CurrencyChooser.chooseCurrencyOtherThan(target), 
+            CurrencyChooser.chooseCurrencyOtherThan(target), 
+            CurrencyChooser.chooseCurrencyOtherThan(target), target};
+        CountingRateProvider rateProvider 
+                = new CountingRateProvider(makeQuotes(sources, target));
+        CurrencyConverter instance = new CurrencyConverter(rateProvider);
+        MoneyAmount[] amounts = makeAmounts(sources, 
+                RANDOM.nextInt(1 << 14) + (1 << 15));
+        instance.convertAllParallel(amounts, target);
+        Set<CurrencyPair> expected = new HashSet<>();
+        for (MoneyAmount amount : amounts) {
+            expected.add(new CurrencyPair(amount.getCurrency(), target));
+        }
+        assertEquals(rateProvider.callCounts.keySet(), expected);
+        for (Map.Entry<CurrencyPair, Integer> entry 
+                : rateProvider.callCounts.entrySet()) {
+            String msg = "Rate for " + entry.getKey().toString() 
+                    + " should have been queried just once";
+            assertEquals(entry.getValue().intValue(), 1, msg);
+        }
+    }
+    
+    @Test
+    public void testConvertAllParallelInGivenPool() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = {CurrencyChooser.chooseCurrencyOtherThan(target), 
+            CurrencyChooser.chooseCurrencyOtherThan(target)};
+        ExchangeRateProvider rateProvider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        CurrencyConverter instance = new CurrencyConverter(rateProvider);
+        MoneyAmount[] amounts = makeAmounts(sources, 
+                RANDOM.nextInt(1 << 14) + (1 << 15));
+        MoneyAmount[] expected = instance.convertAll(amounts, target);
+        MoneyAmount sentinel = new MoneyAmount(RANDOM.nextInt(1000), target);
+        MoneyAmount[] results = new MoneyAmount[amounts.length + 1];
+        results[amounts.length] = sentinel;
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            instance.convertAllParallel(amounts, target, results, pool);
+        } finally {
+            pool.shutdown();
+        }
+        MoneyAmount[] actual = Arrays.copyOf(results, amounts.length);
+        assertEquals(actual, expected);
+        String msg = "Position past the sources should be left alone";
+        assertSame(results[amounts.length], sentinel, msg);
+    }
+    
+    @Test
+    public void testConvertAllParallelCollection() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = {CurrencyChooser.chooseCurrencyOtherThan(target), 
+            CurrencyChooser.chooseCurrencyOtherThan(target)};
+        ExchangeRateProvider rateProvider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        CurrencyConverter instance = new CurrencyConverter(rateProvider);
+        MoneyAmount[] amounts = makeAmounts(sources, RANDOM.nextInt(64) + 16);
+        List<MoneyAmount> expected 
+                = Arrays.asList(instance.convertAll(amounts, target));
+        List<MoneyAmount> actual 
+                = instance.convertAllParallel(Arrays.asList(amounts), target);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testConvertAllParallelRejectsShortResultsArray() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = {CurrencyChooser.chooseCurrencyOtherThan(target)};
+        CurrencyConverter instance 
+                = new CurrencyConverter(new MockExchangeRateProvider());
+        MoneyAmount[] amounts = makeAmounts(sources, RANDOM.nextInt(64) + 16);
+        MoneyAmount[] results = new MoneyAmount[amounts.length - 1];
+        String msg = "Results array of length " + results.length + " for " 
+                + amounts.length + " amounts should cause exception";
+        Throwable t = assertThrows(() -> {
+            instance.convertAllParallel(amounts, target, results, 
+                    ForkJoinPool.commonPool());
+            System.out.println(msg + ", not given " 
+                    + Arrays.toString(results));
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testOpenSession() {
+        System.out.println("openSession");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = {CurrencyChooser.chooseCurrencyOtherThan(target), 
+            CurrencyChooser.chooseCurrencyOtherThan(target)};
+        CountingRateProvider rateProvider 
+                = new CountingRateProvider(makeQuotes(sources, target));
+        CurrencyConverter instance = new CurrencyConverter(rateProvider);
+        ConversionSession session = instance.openSession(target, 
+                Arrays.asList(sources));
+        Set<CurrencyPair> expected = new HashSet<>();
+        for (Currency source : sources) {
+            expected.add(new CurrencyPair(source, target));
+        }
+        assertEquals(rateProvider.callCounts.keySet(), expected);
+        MoneyAmount[] amounts = makeAmounts(sources, RANDOM.nextInt(64) + 16);
+        session.convertAll(amounts);
+        String msg = "Session should not query provider after it's opened";
+        assertEquals(rateProvider.callCounts.keySet(), expected, msg);
+        for (Integer count : rateProvider.callCounts.values()) {
+            assertEquals(count.intValue(), 1, msg);
+        }
+    }
+    
     @Test
     public void testConstructorRejectsNullProvider() {
         String msg = "Trying to use null provider should cause exception";
@@ -19,9 +19,17 @@ package currency.conversions;
 import currency.CurrencyChooser;
 import currency.CurrencyPair;
 
+import java.util.ArrayList;
 import java.util.Currency;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
 
 import static org.testng.Assert.*;
 import org.testng.annotations.Test;
@@ -54,6 +62,132 @@ public class ExchangeRateProviderNGTest {
         assertEquals(instance.mostRecentTarget, to);
     }
     
+    @Test
+    public void testGetRates() {
+        System.out.println("getRates");
+        Currency base = CurrencyChooser.chooseCurrency();
+        Set<Currency> targets = new HashSet<>();
+        int size = RANDOM.nextInt(8) + 2;
+        while (targets.size() < size) {
+            targets.add(CurrencyChooser.chooseCurrency());
+        }
+        Map<Currency, Double> expected = new HashMap<>();
+        ExchangeRateProviderImpl instance = new ExchangeRateProviderImpl() {
+            
+            @Override
+            public double getRate(Currency source, Currency target) {
+                double rate = super.getRate(source, target);
+                expected.put(target, rate);
+                return rate;
+            }
+        
+        };
+        RateVector rates = instance.getRates(base, targets);
+        String callMsg = "getRates() should've called getRate() once per target";
+        assert instance.nonDefaultGetRateCallCount == size : callMsg;
+        assertEquals(rates.getBase(), base);
+        assertEquals(rates.getTargets(), targets);
+        for (Currency target : targets) {
+            assertEquals(rates.getRate(target), expected.get(target), 0.0);
+        }
+    }
+    
+    @Test
+    public void testGetRateAsync() {
+        System.out.println("getRateAsync");
+        Currency from = CurrencyChooser.chooseCurrency();
+        Currency to = CurrencyChooser.chooseCurrencyOtherThan(from);
+        ExchangeRateProviderImpl instance = new ExchangeRateProviderImpl();
+        double actual = instance.getRateAsync(from, to).join();
+        double expected = instance.mostRecentReturn;
+        String message = "Asynchronously inquiring exchange rate from " 
+                + from.getCurrencyCode() + " to " + to.getCurrencyCode();
+        assertEquals(actual, expected, 0.0, message);
+        assertEquals(instance.mostRecentSource, from);
+        assertEquals(instance.mostRecentTarget, to);
+    }
+    
+    @Test
+    public void testGetRateAsyncDoesNotBlockCaller() {
+        Currency from = CurrencyChooser.chooseCurrency();
+        Currency to = CurrencyChooser.chooseCurrencyOtherThan(from);
+        CountDownLatch latch = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        Thread[] lookupThread = new Thread[1];
+        ExchangeRateProvider instance = new ExchangeRateProviderImpl() {
+            
+            @Override
+            public double getRate(Currency source, Currency target) {
+                lookupThread[0] = Thread.currentThread();
+                try {
+                    latch.await();
+                } catch (InterruptedException ie) {
+                    throw new RuntimeException(ie);
+                }
+                return super.getRate(source, target);
+            }
+        
+        };
+        CompletableFuture<Double> future = instance.getRateAsync(from, to);
+        assert !future.isDone() : "Lookup should not have finished yet";
+        latch.countDown();
+        future.join();
+        assert lookupThread[0] != caller 
+                : "Lookup should have run on a different thread";
+    }
+    
+    @Test
+    public void testGetRateAsyncPassesOnException() {
+        Currency from = CurrencyChooser.chooseCurrency();
+        Currency to = CurrencyChooser.chooseCurrencyOtherThan(from);
+        String excMsg = "For testing purposes " + RANDOM.nextInt();
+        ExchangeRateProvider instance = new ExchangeRateProviderImpl() {
+            
+            @Override
+            public double getRate(Currency source, Currency target) {
+                throw new IllegalStateException(excMsg);
+            }
+        
+        };
+        CompletableFuture<Double> future = instance.getRateAsync(from, to);
+        try {
+            double badRate = future.join();
+            fail("Should have failed, not given " + badRate);
+        } catch (CompletionException ce) {
+            Throwable cause = ce.getCause();
+            assert cause instanceof IllegalStateException 
+                    : "Cause should be the exception thrown by getRate()";
+            assertEquals(cause.getMessage(), excMsg);
+        }
+    }
+    
+    @Test
+    public void testGetRateAsyncManyInFlight() {
+        int lookupCount = 256;
+        Currency from = CurrencyChooser.chooseCurrency();
+        Currency to = CurrencyChooser.chooseCurrencyOtherThan(from);
+        ExchangeRateProvider instance = new ExchangeRateProviderImpl() {
+            
+            @Override
+            public double getRate(Currency source, Currency target) {
+                try {
+                    Thread.sleep(20L);
+                } catch (InterruptedException ie) {
+                    throw new RuntimeException(ie);
+                }
+                return 1.0;
+            }
+        
+        };
+        List<CompletableFuture<Double>> futures = new ArrayList<>();
+        for (int i = 0; i < lookupCount; i++) {
+            futures.add(instance.getRateAsync(from, to));
+        }
+        for (CompletableFuture<Double> future : futures) {
+            assertEquals(future.join(), 1.0, 0.0);
+        }
+    }
+    
     private static class ExchangeRateProviderImpl 
             implements ExchangeRateProvider {
         
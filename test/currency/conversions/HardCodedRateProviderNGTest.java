@@ -18,6 +18,7 @@ package currency.conversions;
 
 import currency.CurrencyChooser;
 import currency.CurrencyPair;
+import currency.CurrencySet;
 import currency.SpecificCurrenciesSupport;
 
 import java.time.LocalDate;
@@ -82,6 +83,13 @@ public class HardCodedRateProviderNGTest {
         assertEquals(actual, expected);
     }
     
+    @Test
+    public void testIsLocal() {
+        System.out.println("isLocal");
+        ExchangeRateProvider instance = new HardCodedRateProvider();
+        assert instance.isLocal() : "Hard-coded rates should be local";
+    }
+    
     @Test
     public void testSupportedCurrencies() {
         SpecificCurrenciesSupport instance = new HardCodedRateProvider();
@@ -109,6 +117,16 @@ public class HardCodedRateProviderNGTest {
         }, msg);
     }
     
+    @Test
+    public void testSupportedCurrencySet() {
+        System.out.println("supportedCurrencySet");
+        SpecificCurrenciesSupport instance = new HardCodedRateProvider();
+        Set<Currency> expected = instance.supportedCurrencies();
+        CurrencySet actual = instance.supportedCurrencySet();
+        assertEquals(actual, expected);
+        assertSame(instance.supportedCurrencySet(), actual);
+    }
+    
     @Test
     public void testGetRateUSDToAUD() {
         ExchangeRateProvider instance = new HardCodedRateProvider();
@@ -485,6 +503,84 @@ public class HardCodedRateProviderNGTest {
         }
     }
 
+    @Test
+    public void testGetRateAfterOppositePair() {
+        ExchangeRateProvider instance = new HardCodedRateProvider();
+        Currency source 
+                = CurrencyChooser.chooseCurrency(SELECTED_NON_USD_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SELECTED_NON_USD_CURRENCIES);
+        double opposite = instance.getRate(target, source);
+        double expected = instance.getRate(UNITED_STATES_DOLLARS, target) 
+                / instance.getRate(UNITED_STATES_DOLLARS, source);
+        double actual = instance.getRate(source, target);
+        String message = "After getting rate " + opposite + " for " 
+                + target.getCurrencyCode() + " to " + source.getCurrencyCode() 
+                + ", rate for " + source.getCurrencyCode() + " to " 
+                + target.getCurrencyCode() + " should be " + expected;
+        assertEquals(actual, expected, expected * DEFAULT_VARIANCE, message);
+    }
+    
+    @Test
+    public void testGetRates() {
+        System.out.println("getRates");
+        ExchangeRateProvider instance = new HardCodedRateProvider();
+        Set<Currency> supported = instance.supportedCurrencies();
+        Currency base = CurrencyChooser.chooseCurrency(supported);
+        RateVector rates = instance.getRates(base, supported);
+        assertEquals(rates.getBase(), base);
+        assertEquals(rates.size(), supported.size());
+        for (Currency target : supported) {
+            double expected = instance.getRate(base, target);
+            double actual = rates.getRate(target);
+            String message = "Rate for " + base.getCurrencyCode() + " to " 
+                    + target.getCurrencyCode();
+            assertEquals(actual, expected, expected * DEFAULT_VARIANCE, 
+                    message);
+        }
+    }
+    
+    @Test
+    public void testGetRatesRejectsUnsupportedBase() {
+        ExchangeRateProvider instance = new HardCodedRateProvider();
+        Currency base = CurrencyChooser.chooseCurrency(UNSUPPORTED_CURRENCIES);
+        String baseCurrCode = base.getCurrencyCode();
+        String msg = "Since " + base.getDisplayName() + " (" + baseCurrCode 
+                + ") is not supported, getting rates should cause exception";
+        Throwable t = assertThrows(() -> {
+            RateVector badRates = instance.getRates(base, 
+                    SELECTED_NON_USD_CURRENCIES);
+            System.out.println(msg + ", not given " + badRates.toString());
+        }, NoSuchElementException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        String containsMsg = "Exception message should contain currency code " 
+                + baseCurrCode;
+        assert excMsg.contains(baseCurrCode) : containsMsg;
+    }
+    
+    @Test
+    public void testGetRatesRejectsUnsupportedTarget() {
+        ExchangeRateProvider instance = new HardCodedRateProvider();
+        Currency target 
+                = CurrencyChooser.chooseCurrency(UNSUPPORTED_CURRENCIES);
+        Set<Currency> targets = new HashSet<>(SELECTED_NON_USD_CURRENCIES);
+        targets.add(target);
+        String toCurrCode = target.getCurrencyCode();
+        String msg = "Since " + target.getDisplayName() + " (" + toCurrCode 
+                + ") is not supported, getting rates should cause exception";
+        Throwable t = assertThrows(() -> {
+            RateVector badRates = instance.getRates(UNITED_STATES_DOLLARS, 
+                    targets);
+            System.out.println(msg + ", not given " + badRates.toString());
+        }, NoSuchElementException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        String containsMsg = "Exception message should contain currency code " 
+                + toCurrCode;
+        assert excMsg.contains(toCurrCode) : containsMsg;
+    }
+    
     @Test
     public void testUnsupportedSourceCurrencyCausesException() {
         ExchangeRateProvider instance = new HardCodedRateProvider();
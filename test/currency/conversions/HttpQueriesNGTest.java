@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the HttpQueries class. The queries go to a server on the loopback 
+ * interface, so these tests don't need network access.
+ * @author Alonso del Arte
+ */
+public class HttpQueriesNGTest {
+    
+    private static final String BODY = "{\"USD_EUR\":0.89854}";
+    
+    private HttpServer server;
+    
+    private String queryPathBegin;
+    
+    private static void respond(HttpExchange exchange, int status, 
+            String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream stream = exchange.getResponseBody()) {
+            stream.write(bytes);
+        }
+    }
+    
+    @BeforeClass
+    public void setUpClass() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress 
+                .getLoopbackAddress(), 0), 0);
+        this.server.createContext("/ok", exchange 
+                -> respond(exchange, HttpURLConnection.HTTP_OK, BODY + " " 
+                        + exchange.getRequestHeaders().getFirst("User-Agent")));
+        this.server.createContext("/missing", exchange 
+                -> respond(exchange, HttpURLConnection.HTTP_NOT_FOUND, ""));
+        this.server.start();
+        this.queryPathBegin = "http://" + this.server.getAddress()
+                .getHostString() + ':' + this.server.getAddress().getPort();
+    }
+    
+    @AfterClass
+    public void tearDownClass() {
+        this.server.stop(0);
+    }
+    
+    @Test
+    public void testSendAsync() throws Exception {
+        System.out.println("sendAsync");
+        String expected = BODY + " Java/" + System.getProperty("java.version");
+        String actual = HttpQueries.sendAsync(this.queryPathBegin + "/ok")
+                .get(10L, TimeUnit.SECONDS);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSendAsyncFailsOnStatusOtherThanOK() {
+        String queryPath = this.queryPathBegin + "/missing";
+        CompletableFuture<String> future = HttpQueries.sendAsync(queryPath);
+        String msg = "Status " + HttpURLConnection.HTTP_NOT_FOUND 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            String badBody = future.join();
+            System.out.println(msg + ", not given \"" + badBody + "\"");
+        }, CompletionException.class, msg);
+        Throwable cause = t.getCause();
+        assertEquals(cause.getClass(), RuntimeException.class);
+        String excMsg = cause.getMessage();
+        assert excMsg != null : "Message should not be null";
+        String statusMsg = "Message should include query path and status";
+        assert excMsg.contains(queryPath) && excMsg.contains(Integer 
+                .toString(HttpURLConnection.HTTP_NOT_FOUND)) : statusMsg;
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testSendAsyncFailsOnInvalidQueryPath() {
+        String queryPath = "https://example.com/" + RANDOM.nextInt(1000) 
+                + " not valid";
+        CompletableFuture<String> future = HttpQueries.sendAsync(queryPath);
+        assert future.isCompletedExceptionally() 
+                : "Invalid query path should give failed future";
+        String msg = "Query path <" + queryPath + "> should cause exception";
+        Throwable t = assertThrows(() -> {
+            String badBody = future.join();
+            System.out.println(msg + ", not given \"" + badBody + "\"");
+        }, CompletionException.class, msg);
+        String excMsg = t.getCause().getMessage();
+        assert excMsg != null : "Message should not be null";
+        assert excMsg.contains(queryPath) : "Message should include query path";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testSendAsyncRejectsNullQueryPath() {
+        String msg = "Null query path should cause NPE";
+        Throwable t = assertThrows(() -> {
+            CompletableFuture<String> badFuture = HttpQueries.sendAsync(null);
+            System.out.println(msg + ", not given " + badFuture.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Message should not be null";
+        assert !excMsg.isBlank() : "Message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
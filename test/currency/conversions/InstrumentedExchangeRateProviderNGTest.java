@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import currency.CurrencyPair;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+import static currency.conversions.ConversionFixtures.chooseSupportedPair;
+import static currency.conversions.ConversionFixtures.chooseSupportedPairs;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the InstrumentedExchangeRateProvider class.
+ * @author Alonso del Arte
+ */
+public class InstrumentedExchangeRateProviderNGTest {
+    
+    private static final HardCodedRateProvider DEFAULT_PROVIDER 
+            = new HardCodedRateProvider();
+    
+    private static final Set<Currency> SUPPORTED_CURRENCIES 
+            = DEFAULT_PROVIDER.supportedCurrencies();
+    
+    private static final double TEST_DELTA = 0.00000001;
+    
+    @Test
+    public void testGetProvider() {
+        System.out.println("getProvider");
+        InstrumentedExchangeRateProvider instance 
+                = new InstrumentedExchangeRateProvider(DEFAULT_PROVIDER, 
+                        "Hard-coded");
+        assertSame(instance.getProvider(), DEFAULT_PROVIDER);
+    }
+    
+    @Test
+    public void testGetName() {
+        System.out.println("getName");
+        String expected = "Provider " + RANDOM.nextInt(1000);
+        InstrumentedExchangeRateProvider instance 
+                = new InstrumentedExchangeRateProvider(DEFAULT_PROVIDER, 
+                        expected);
+        assertEquals(instance.getName(), expected);
+    }
+    
+    @Test
+    public void testGetRate() {
+        System.out.println("getRate");
+        InstrumentedExchangeRateProvider instance 
+                = new InstrumentedExchangeRateProvider(DEFAULT_PROVIDER, 
+                        "Hard-coded");
+        CurrencyPair pair = chooseSupportedPair();
+        double expected = DEFAULT_PROVIDER.getRate(pair);
+        double actual = instance.getRate(pair);
+        assertEquals(actual, expected, TEST_DELTA);
+        MetricsSnapshot snapshot = instance.snapshot();
+        assertEquals(snapshot.getOverall().getCallCount(), 1L);
+        assertEquals(snapshot.getPairs().get(pair).getCallCount(), 1L);
+    }
+    
+    @Test
+    public void testGetRateCountsError() {
+        InstrumentedExchangeRateProvider instance 
+                = new InstrumentedExchangeRateProvider(DEFAULT_PROVIDER, 
+                        "Hard-coded");
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrency(currency 
+                -> !SUPPORTED_CURRENCIES.contains(currency));
+        String msg = "Unsupported target " + target.getCurrencyCode() 
+                + " should cause exception";
+        assertThrows(() -> {
+            double badRate = instance.getRate(source, target);
+            System.out.println(msg + ", not given " + badRate);
+        }, NoSuchElementException.class, msg);
+        MetricsSnapshot snapshot = instance.snapshot();
+        assertEquals(snapshot.getOverall().getErrorCount(), 1L);
+        CurrencyPair pair = new CurrencyPair(source, target);
+        assertEquals(snapshot.getPairs().get(pair).getErrorCount(), 1L);
+    }
+    
+    @Test
+    public void testGetRates() {
+        System.out.println("getRates");
+        InstrumentedExchangeRateProvider instance 
+                = new InstrumentedExchangeRateProvider(DEFAULT_PROVIDER, 
+                        "Hard-coded");
+        Currency base = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        RateVector expected = DEFAULT_PROVIDER.getRates(base, 
+                SUPPORTED_CURRENCIES);
+        RateVector actual = instance.getRates(base, SUPPORTED_CURRENCIES);
+        assertEquals(actual, expected);
+        MetricsSnapshot snapshot = instance.snapshot();
+        String msg = "Bulk call should count as one overall call";
+        assertEquals(snapshot.getOverall().getCallCount(), 1L, msg);
+        assert snapshot.getPairs().isEmpty() : "No pair should be tracked";
+    }
+    
+    @Test
+    public void testSupportedCurrencies() {
+        System.out.println("supportedCurrencies");
+        InstrumentedExchangeRateProvider instance 
+                = new InstrumentedExchangeRateProvider(DEFAULT_PROVIDER, 
+                        "Hard-coded");
+        assertEquals(instance.supportedCurrencies(), SUPPORTED_CURRENCIES);
+        assertEquals(instance.snapshot().getOverall().getCallCount(), 0L);
+    }
+    
+    @Test
+    public void testSnapshot() {
+        System.out.println("snapshot");
+        InstrumentedExchangeRateProvider instance 
+                = new InstrumentedExchangeRateProvider(DEFAULT_PROVIDER, 
+                        "Hard-coded");
+        List<CurrencyPair> pairs = chooseSupportedPairs(3);
+        int total = 0;
+        for (int i = 0; i < pairs.size(); i++) {
+            int times = (3 - i) * 4 + RANDOM.nextInt(3);
+            for (int j = 0; j < times; j++) {
+                instance.getRate(pairs.get(i));
+            }
+            total += times;
+        }
+        MetricsSnapshot snapshot = instance.snapshot();
+        assertEquals(snapshot.getProviderName(), "Hard-coded");
+        assertEquals(snapshot.getOverall().getCallCount(), total);
+        List<CurrencyPair> actual 
+                = new ArrayList<>(snapshot.getPairs().keySet());
+        assertEquals(actual, pairs);
+        assertEquals(snapshot.getOtherPairs().getCallCount(), 0L);
+    }
+    
+    @Test
+    public void testSnapshotIsNotAffectedByLaterCalls() {
+        InstrumentedExchangeRateProvider instance 
+                = new InstrumentedExchangeRateProvider(DEFAULT_PROVIDER, 
+                        "Hard-coded");
+        CurrencyPair pair = chooseSupportedPair();
+        instance.getRate(pair);
+        MetricsSnapshot snapshot = instance.snapshot();
+        instance.getRate(pair);
+        assertEquals(snapshot.getOverall().getCallCount(), 1L);
+        assertEquals(snapshot.getPairs().get(pair).getCallCount(), 1L);
+    }
+    
+    @Test
+    public void testTrackedPairsAreBounded() {
+        int maxTracked = RANDOM.nextInt(4) + 2;
+        InstrumentedExchangeRateProvider instance 
+                = new InstrumentedExchangeRateProvider(DEFAULT_PROVIDER, 
+                        "Hard-coded", maxTracked);
+        List<CurrencyPair> pairs = chooseSupportedPairs(maxTracked + 4);
+        CurrencyPair hotPair = pairs.get(0);
+        for (int i = 0; i < 16; i++) {
+            instance.getRate(hotPair);
+        }
+        for (CurrencyPair pair : pairs) {
+            instance.getRate(pair);
+        }
+        MetricsSnapshot snapshot = instance.snapshot();
+        Map<CurrencyPair, MetricsSnapshot.Reading> readings 
+                = snapshot.getPairs();
+        assertEquals(readings.size(), maxTracked);
+        String msg = "Hot pair " + hotPair.toString() + " should be tracked";
+        assert readings.containsKey(hotPair) : msg;
+        long trackedCalls = readings.values().stream()
+                .mapToLong(MetricsSnapshot.Reading::getCallCount).sum();
+        long expected = snapshot.getOverall().getCallCount();
+        long actual = trackedCalls + snapshot.getOtherPairs().getCallCount();
+        String sumMsg = "Tracked and other calls should add up to all calls";
+        assertEquals(actual, expected, sumMsg);
+    }
+    
+    @Test
+    public void testConstructorRejectsNullName() {
+        String msg = "Null name should cause exception";
+        Throwable t = assertThrows(() -> {
+            InstrumentedExchangeRateProvider badInstance 
+                    = new InstrumentedExchangeRateProvider(DEFAULT_PROVIDER, 
+                            null);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConstructorRejectsZeroTrackedPairs() {
+        int maxTracked = -RANDOM.nextInt(16);
+        String msg = "Tracking " + maxTracked + " pairs should cause exception";
+        Throwable t = assertThrows(() -> {
+            InstrumentedExchangeRateProvider badInstance 
+                    = new InstrumentedExchangeRateProvider(DEFAULT_PROVIDER, 
+                            "Hard-coded", maxTracked);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
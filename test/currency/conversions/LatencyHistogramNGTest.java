@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+
+import java.util.Arrays;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the LatencyHistogram class.
+ * @author Alonso del Arte
+ */
+public class LatencyHistogramNGTest {
+    
+    private static final double RELATIVE_ERROR = 0.125;
+    
+    private static long[] makeDurations(int size) {
+        long[] durations = new long[size];
+        for (int i = 0; i < size; i++) {
+            durations[i] = (long) RANDOM.nextInt(1 << 24) 
+                    << RANDOM.nextInt(Integer.SIZE);
+        }
+        return durations;
+    }
+    
+    @Test
+    public void testIndexForSmallValuesIsExact() {
+        for (int i = 0; i < 2 * LatencyHistogram.SUB_BUCKET_COUNT; i++) {
+            int index = LatencyHistogram.indexFor(i);
+            assertEquals(LatencyHistogram.highestValueAt(index), i);
+        }
+    }
+    
+    @Test
+    public void testIndexForBoundsValue() {
+        long value = RANDOM.nextLong() >>> RANDOM.nextInt(Long.SIZE);
+        int index = LatencyHistogram.indexFor(value);
+        long highest = LatencyHistogram.highestValueAt(index);
+        String msg = "Range for " + value + " should go up to at least " 
+                + value + ", not " + highest;
+        assert highest >= value : msg;
+        double error = (double) (highest - value) / Math.max(value, 1L);
+        String errMsg = "Range for " + value + " going up to " + highest 
+                + " should be within 12.5%";
+        assert error <= RELATIVE_ERROR : errMsg;
+    }
+    
+    @Test
+    public void testIndexForIsMonotonic() {
+        long value = RANDOM.nextInt(Integer.MAX_VALUE);
+        int index = LatencyHistogram.indexFor(value);
+        int nextIndex = LatencyHistogram.indexFor(value + 1L);
+        String msg = "Index for " + (value + 1) + " should be " + index 
+                + " or " + (index + 1) + ", not " + nextIndex;
+        assert nextIndex == index || nextIndex == index + 1 : msg;
+    }
+    
+    @Test
+    public void testRecord() {
+        System.out.println("record");
+        LatencyHistogram instance = new LatencyHistogram();
+        long value = RANDOM.nextInt(1 << 30);
+        instance.record(value);
+        assertEquals(instance.getCount(), 1L);
+        assertEquals(instance.getMax(), value);
+        assertEquals(instance.getValueAtPercentile(0.5), value);
+    }
+    
+    @Test
+    public void testRecordNegativeAsZero() {
+        LatencyHistogram instance = new LatencyHistogram();
+        instance.record(-RANDOM.nextInt(1000) - 1);
+        assertEquals(instance.getMax(), 0L);
+        assertEquals(instance.getMean(), 0.0, 0.0);
+        assertEquals(instance.getCount(), 1L);
+    }
+    
+    @Test
+    public void testGetCount() {
+        System.out.println("getCount");
+        LatencyHistogram instance = new LatencyHistogram();
+        int expected = RANDOM.nextInt(256) + 1;
+        for (long value : makeDurations(expected)) {
+            instance.record(value);
+        }
+        assertEquals(instance.getCount(), expected);
+    }
+    
+    @Test
+    public void testGetMax() {
+        System.out.println("getMax");
+        LatencyHistogram instance = new LatencyHistogram();
+        long[] durations = makeDurations(RANDOM.nextInt(256) + 1);
+        for (long value : durations) {
+            instance.record(value);
+        }
+        long expected = Arrays.stream(durations).max().getAsLong();
+        assertEquals(instance.getMax(), expected);
+    }
+    
+    @Test
+    public void testGetMean() {
+        System.out.println("getMean");
+        LatencyHistogram instance = new LatencyHistogram();
+        long[] durations = new long[RANDOM.nextInt(256) + 1];
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = RANDOM.nextInt(1 << 30);
+            instance.record(durations[i]);
+        }
+        double expected = Arrays.stream(durations).average().getAsDouble();
+        assertEquals(instance.getMean(), expected, expected * 0.0000001);
+    }
+    
+    @Test
+    public void testEmptyHistogram() {
+        LatencyHistogram instance = new LatencyHistogram();
+        assertEquals(instance.getCount(), 0L);
+        assertEquals(instance.getMax(), 0L);
+        assertEquals(instance.getMean(), 0.0, 0.0);
+        assertEquals(instance.getValueAtPercentile(0.99), 0L);
+    }
+    
+    @Test
+    public void testGetValueAtPercentile() {
+        System.out.println("getValueAtPercentile");
+        LatencyHistogram instance = new LatencyHistogram();
+        long[] durations = makeDurations(RANDOM.nextInt(1024) + 16);
+        for (long value : durations) {
+            instance.record(value);
+        }
+        long[] sorted = durations.clone();
+        Arrays.sort(sorted);
+        double[] fractions = {0.0, 0.5, 0.9, 0.99, 1.0};
+        for (double fraction : fractions) {
+            int rank = Math.max((int) Math.ceil(fraction * sorted.length), 1);
+            long expected = sorted[rank - 1];
+            long actual = instance.getValueAtPercentile(fraction);
+            String msg = "Percentile " + fraction + " reading " + actual 
+                    + " should be within 12.5% above " + expected;
+            assert actual >= expected : msg;
+            assert actual - expected <= expected * RELATIVE_ERROR : msg;
+        }
+    }
+    
+    @Test
+    public void testGetValueAtPercentileRejectsInvalidFraction() {
+        LatencyHistogram instance = new LatencyHistogram();
+        double fraction = RANDOM.nextBoolean() ? -RANDOM.nextDouble() - 0.01 
+                : 1.01 + RANDOM.nextDouble();
+        String msg = "Fraction " + fraction + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            long badValue = instance.getValueAtPercentile(fraction);
+            System.out.println(msg + ", not given " + badValue);
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testAdd() {
+        System.out.println("add");
+        LatencyHistogram instance = new LatencyHistogram();
+        LatencyHistogram other = new LatencyHistogram();
+        LatencyHistogram expected = new LatencyHistogram();
+        for (long value : makeDurations(RANDOM.nextInt(64) + 1)) {
+            instance.record(value);
+            expected.record(value);
+        }
+        for (long value : makeDurations(RANDOM.nextInt(64) + 1)) {
+            other.record(value);
+            expected.record(value);
+        }
+        long otherCount = other.getCount();
+        instance.add(other);
+        assertEquals(instance.getCount(), expected.getCount());
+        assertEquals(instance.getMax(), expected.getMax());
+        assertEquals(instance.getMean(), expected.getMean(), 
+                expected.getMean() * 0.0000001);
+        assertEquals(instance.getValueAtPercentile(0.9), 
+                expected.getValueAtPercentile(0.9));
+        assertEquals(other.getCount(), otherCount);
+    }
+    
+    @Test
+    public void testCopy() {
+        System.out.println("copy");
+        LatencyHistogram instance = new LatencyHistogram();
+        for (long value : makeDurations(RANDOM.nextInt(64) + 1)) {
+            instance.record(value);
+        }
+        LatencyHistogram copy = instance.copy();
+        assertEquals(copy.getCount(), instance.getCount());
+        assertEquals(copy.getValueAtPercentile(0.5), 
+                instance.getValueAtPercentile(0.5));
+        instance.record(RANDOM.nextInt(1000));
+        assertEquals(copy.getCount(), instance.getCount() - 1L);
+    }
+    
+}
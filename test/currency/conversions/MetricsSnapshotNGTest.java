@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyPair;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+import static currency.conversions.ConversionFixtures.chooseSupportedPair;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the MetricsSnapshot class.
+ * @author Alonso del Arte
+ */
+public class MetricsSnapshotNGTest {
+    
+    private static final HardCodedRateProvider DEFAULT_PROVIDER 
+            = new HardCodedRateProvider();
+    
+    private static MetricsSnapshot makeSnapshot(String name, 
+            CurrencyPair pair, int calls) {
+        InstrumentedExchangeRateProvider provider 
+                = new InstrumentedExchangeRateProvider(DEFAULT_PROVIDER, name);
+        for (int i = 0; i < calls; i++) {
+            provider.getRate(pair);
+        }
+        return provider.snapshot();
+    }
+    
+    @Test
+    public void testGetProviderName() {
+        System.out.println("getProviderName");
+        String expected = "Provider " + RANDOM.nextInt(1000);
+        MetricsSnapshot instance = makeSnapshot(expected, 
+                chooseSupportedPair(), 1);
+        assertEquals(instance.getProviderName(), expected);
+    }
+    
+    @Test
+    public void testGetTimestamp() {
+        System.out.println("getTimestamp");
+        LocalDateTime before = LocalDateTime.now();
+        MetricsSnapshot instance = makeSnapshot("Test", 
+                chooseSupportedPair(), 1);
+        LocalDateTime after = LocalDateTime.now();
+        LocalDateTime actual = instance.getTimestamp();
+        String msg = "Timestamp " + actual + " should be between " + before 
+                + " and " + after;
+        assert !actual.isBefore(before) && !actual.isAfter(after) : msg;
+    }
+    
+    @Test
+    public void testGetOverall() {
+        System.out.println("getOverall");
+        int expected = RANDOM.nextInt(32) + 1;
+        MetricsSnapshot instance = makeSnapshot("Test", chooseSupportedPair(), 
+                expected);
+        MetricsSnapshot.Reading reading = instance.getOverall();
+        assertEquals(reading.getCallCount(), expected);
+        assertEquals(reading.getErrorCount(), 0L);
+        String msg = "Maximum should be at least 99th percentile";
+        assert reading.getMaxNanos() >= reading.getPercentileNanos(0.99) 
+                : msg;
+        assert reading.getMeanNanos() <= reading.getMaxNanos() 
+                : "Mean should not exceed maximum";
+    }
+    
+    @Test
+    public void testGetPairs() {
+        System.out.println("getPairs");
+        CurrencyPair pair = chooseSupportedPair();
+        MetricsSnapshot instance = makeSnapshot("Test", pair, 2);
+        Map<CurrencyPair, MetricsSnapshot.Reading> pairs = instance.getPairs();
+        assertEquals(pairs.keySet(), Set.of(pair));
+        String msg = "Map of pair readings should be unmodifiable";
+        assertThrows(() -> {
+            pairs.clear();
+            System.out.println(msg);
+        }, UnsupportedOperationException.class, msg);
+    }
+    
+    @Test
+    public void testGetOtherPairs() {
+        System.out.println("getOtherPairs");
+        MetricsSnapshot instance = makeSnapshot("Test", 
+                chooseSupportedPair(), 3);
+        assertEquals(instance.getOtherPairs().getCallCount(), 0L);
+    }
+    
+    @Test
+    public void testToJSON() {
+        System.out.println("toJSON");
+        CurrencyPair pair = chooseSupportedPair();
+        int calls = RANDOM.nextInt(32) + 1;
+        MetricsSnapshot instance = makeSnapshot("Quote \"test\"", pair, calls);
+        String json = instance.toJSON();
+        System.out.println(json);
+        String expectedStart = "{\"provider\":\"Quote \\\"test\\\"\"," 
+                + "\"timestamp\":\"" + instance.getTimestamp() 
+                + "\",\"overall\":{\"calls\":" + calls + ",\"errors\":0,";
+        String msg = "JSON " + json + " should start with " + expectedStart;
+        assert json.startsWith(expectedStart) : msg;
+        String pairPart = "\"pairs\":{\"" + pair.toString() + "\":{\"calls\":" 
+                + calls + ",";
+        String pairMsg = "JSON " + json + " should contain " + pairPart;
+        assert json.contains(pairPart) : pairMsg;
+        String otherPart = "\"otherPairs\":{\"calls\":0,\"errors\":0,";
+        String otherMsg = "JSON " + json + " should contain " + otherPart;
+        assert json.contains(otherPart) : otherMsg;
+        assert json.endsWith("}}") : "JSON should end with closing braces";
+    }
+    
+    @Test
+    public void testToStringMatchesToJSON() {
+        System.out.println("toString");
+        MetricsSnapshot instance = makeSnapshot("Test", 
+                chooseSupportedPair(), 1);
+        assertEquals(instance.toString(), instance.toJSON());
+    }
+    
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import currency.CurrencyPair;
+import currency.MoneyAmount;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+import static currency.conversions.ConversionFixtures.chooseSources;
+import static currency.conversions.ConversionFixtures.makeQuotes;
+import static currency.conversions.ConversionFixtures.makeSignedAmountList;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collector;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the PortfolioTotal class.
+ * @author Alonso del Arte
+ */
+public class PortfolioTotalNGTest {
+    
+    private static class CountingRateProvider 
+            extends MockExchangeRateProvider {
+        
+        private final Map<CurrencyPair, Integer> callCounts = new HashMap<>();
+        
+        @Override
+        public synchronized double getRate(Currency source, Currency target) {
+            this.callCounts.merge(new CurrencyPair(source, target), 1, 
+                    Integer::sum);
+            return super.getRate(source, target);
+        }
+        
+        CountingRateProvider(ConversionRateQuote... rateQuotes) {
+            super(rateQuotes);
+        }
+    
+    }
+    
+    private static Map<Currency, MoneyAmount> sumBySource(
+            List<MoneyAmount> amounts) {
+        Map<Currency, MoneyAmount> sums = new HashMap<>();
+        for (MoneyAmount amount : amounts) {
+            sums.merge(amount.getCurrency(), amount, MoneyAmount::plus);
+        }
+        return sums;
+    }
+    
+    @Test
+    public void testSumming() {
+        System.out.println("summing");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        CurrencyConverter converter = new CurrencyConverter(provider);
+        List<MoneyAmount> amounts = makeSignedAmountList(sources, 
+                RANDOM.nextInt(256) + 64);
+        Map<Currency, MoneyAmount> subtotals = sumBySource(amounts);
+        long expectedCents = 0L;
+        for (MoneyAmount subtotal : subtotals.values()) {
+            expectedCents += converter.convert(subtotal, target)
+                    .getFullAmountInCents();
+        }
+        MoneyAmount expected = MoneyAmount.fromFullAmountInCents(expectedCents, 
+                target);
+        PortfolioTotal portfolio = amounts.stream()
+                .collect(PortfolioTotal.summing(provider, target));
+        MoneyAmount actual = portfolio.getTotal();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetSubtotals() {
+        System.out.println("getSubtotals");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        List<MoneyAmount> amounts = makeSignedAmountList(sources, 
+                RANDOM.nextInt(256) + 64);
+        Map<Currency, MoneyAmount> expected = sumBySource(amounts);
+        PortfolioTotal portfolio = amounts.stream()
+                .collect(PortfolioTotal.summing(provider, target));
+        Map<Currency, MoneyAmount> actual = portfolio.getSubtotals();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetConvertedSubtotals() {
+        System.out.println("getConvertedSubtotals");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        CurrencyConverter converter = new CurrencyConverter(provider);
+        List<MoneyAmount> amounts = makeSignedAmountList(sources, 
+                RANDOM.nextInt(256) + 64);
+        Map<Currency, MoneyAmount> expected = new HashMap<>();
+        for (Map.Entry<Currency, MoneyAmount> entry 
+                : sumBySource(amounts).entrySet()) {
+            expected.put(entry.getKey(), 
+                    converter.convert(entry.getValue(), target));
+        }
+        PortfolioTotal portfolio = amounts.stream()
+                .collect(PortfolioTotal.summing(provider, target));
+        Map<Currency, MoneyAmount> actual = portfolio.getConvertedSubtotals();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSummingWithRoundingMode() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        CurrencyConverter converter = new CurrencyConverter(provider);
+        List<MoneyAmount> amounts = makeSignedAmountList(sources, 
+                RANDOM.nextInt(256) + 64);
+        long expectedCents = 0L;
+        for (MoneyAmount subtotal : sumBySource(amounts).values()) {
+            expectedCents += converter.convert(subtotal, target, 
+                    RoundingMode.HALF_EVEN).getFullAmountInCents();
+        }
+        MoneyAmount expected = MoneyAmount.fromFullAmountInCents(expectedCents, 
+                target);
+        PortfolioTotal portfolio = amounts.stream()
+                .collect(PortfolioTotal.summing(provider, target, 
+                        RoundingMode.HALF_EVEN));
+        MoneyAmount actual = portfolio.getTotal();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSummingQueriesOncePerSourceCurrency() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        CountingRateProvider provider 
+                = new CountingRateProvider(makeQuotes(sources, target));
+        List<MoneyAmount> amounts = makeSignedAmountList(sources, 
+                RANDOM.nextInt(256) + 64);
+        amounts.stream().collect(PortfolioTotal.summing(provider, target));
+        Set<CurrencyPair> expected = new HashSet<>();
+        for (MoneyAmount amount : amounts) {
+            expected.add(new CurrencyPair(amount.getCurrency(), target));
+        }
+        assertEquals(provider.callCounts.keySet(), expected);
+        for (Map.Entry<CurrencyPair, Integer> entry 
+                : provider.callCounts.entrySet()) {
+            String msg = "Rate for " + entry.getKey().toString() 
+                    + " should have been queried just once";
+            assertEquals(entry.getValue().intValue(), 1, msg);
+        }
+    }
+    
+    @Test
+    public void testSummingInParallel() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 8);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        List<MoneyAmount> amounts = makeSignedAmountList(sources, 
+                RANDOM.nextInt(1 << 14) + (1 << 14));
+        Collector<MoneyAmount, ?, PortfolioTotal> collector 
+                = PortfolioTotal.summing(provider, target);
+        PortfolioTotal expected = amounts.stream().collect(collector);
+        PortfolioTotal actual = amounts.parallelStream().collect(collector);
+        assertEquals(actual.getTotal(), expected.getTotal());
+        assertEquals(actual.getSubtotals(), expected.getSubtotals());
+        assertEquals(actual.getConvertedSubtotals(), 
+                expected.getConvertedSubtotals());
+    }
+    
+    @Test
+    public void testSummingEmptyStream() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        ExchangeRateProvider provider = new MockExchangeRateProvider();
+        MoneyAmount expected = MoneyAmount.fromFullAmountInCents(0L, target);
+        PortfolioTotal portfolio = new ArrayList<MoneyAmount>().stream()
+                .collect(PortfolioTotal.summing(provider, target));
+        assertEquals(portfolio.getTotal(), expected);
+        assert portfolio.getSubtotals().isEmpty() 
+                : "Breakdown of empty portfolio should be empty";
+    }
+    
+    @Test
+    public void testSummingDetectsOverflow() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency source = CurrencyChooser.chooseCurrencyOtherThan(target);
+        ExchangeRateProvider provider = new MockExchangeRateProvider();
+        MoneyAmount amount 
+                = MoneyAmount.fromFullAmountInCents(Long.MAX_VALUE - 1L, source);
+        List<MoneyAmount> amounts = List.of(amount, amount);
+        String msg = "Summing " + amounts.toString() + " should overflow";
+        Throwable t = assertThrows(() -> {
+            PortfolioTotal badTotal = amounts.stream()
+                    .collect(PortfolioTotal.summing(provider, target));
+            System.out.println(msg + ", not given " + badTotal.toString());
+        }, ArithmeticException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testSummingRejectsPseudocurrency() {
+        Currency target = CurrencyChooser.choosePseudocurrency();
+        ExchangeRateProvider provider = new MockExchangeRateProvider();
+        String msg = "Pseudocurrency " + target.getDisplayName() 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            Collector<MoneyAmount, ?, PortfolioTotal> badCollector 
+                    = PortfolioTotal.summing(provider, target);
+            System.out.println(msg + ", not given " 
+                    + badCollector.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testSummingRejectsNullTarget() {
+        ExchangeRateProvider provider = new MockExchangeRateProvider();
+        String msg = "Null target currency should cause exception";
+        Throwable t = assertThrows(() -> {
+            Collector<MoneyAmount, ?, PortfolioTotal> badCollector 
+                    = PortfolioTotal.summing(provider, null);
+            System.out.println(msg + ", not given " 
+                    + badCollector.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
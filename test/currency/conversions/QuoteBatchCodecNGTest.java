@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import currency.CurrencyPair;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the QuoteBatchCodec class.
+ * @author Alonso del Arte
+ */
+public class QuoteBatchCodecNGTest {
+    
+    private static List<ConversionRateQuote> makeBatch(int size) {
+        int pairCount = RANDOM.nextInt(8) + 1;
+        CurrencyPair[] pairs = new CurrencyPair[pairCount];
+        for (int i = 0; i < pairCount; i++) {
+            pairs[i] = CurrencyChooser.choosePair();
+        }
+        List<ConversionRateQuote> quotes = new ArrayList<>(size);
+        LocalDateTime date = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            CurrencyPair pair = pairs[RANDOM.nextInt(pairCount)];
+            double rate = RANDOM.nextDouble() * 100;
+            quotes.add(new ConversionRateQuote(pair, rate, date));
+            date = date.plusSeconds(RANDOM.nextInt(120) - 30)
+                    .withNano(RANDOM.nextInt(1000000000));
+        }
+        return quotes;
+    }
+    
+    private static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+    
+    private static ByteBuffer startBatch(int capacity) {
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        buffer.putInt(QuoteBatchCodec.MAGIC_NUMBER);
+        buffer.put(QuoteBatchCodec.VERSION);
+        return buffer;
+    }
+    
+    private static void assertDecodeRejects(ByteBuffer buffer, String msg) {
+        buffer.flip();
+        Throwable t = assertThrows(() -> {
+            List<ConversionRateQuote> badQuotes 
+                    = QuoteBatchCodec.decode(buffer);
+            System.out.println(msg + ", not given " + badQuotes.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testEncodedSize() {
+        System.out.println("encodedSize");
+        List<ConversionRateQuote> quotes = makeBatch(RANDOM.nextInt(256) + 1);
+        ByteBuffer buffer = ByteBuffer.allocate(65536);
+        int expected = QuoteBatchCodec.encode(quotes, buffer);
+        int actual = QuoteBatchCodec.encodedSize(quotes);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testEncode() {
+        System.out.println("encode");
+        List<ConversionRateQuote> quotes = makeBatch(RANDOM.nextInt(64) + 1);
+        int capacity = QuoteBatchCodec.encodedSize(quotes);
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        int written = QuoteBatchCodec.encode(quotes, buffer);
+        assertEquals(written, capacity);
+        assertEquals(buffer.position(), capacity);
+        assertEquals(buffer.getInt(0), QuoteBatchCodec.MAGIC_NUMBER);
+        assertEquals(buffer.get(4), QuoteBatchCodec.VERSION);
+    }
+    
+    @Test
+    public void testEncodeIsMoreCompactThanText() {
+        List<ConversionRateQuote> quotes = makeBatch(1000);
+        int textLength = 0;
+        for (ConversionRateQuote quote : quotes) {
+            textLength += quote.toString().length();
+        }
+        int actual = QuoteBatchCodec.encodedSize(quotes);
+        String msg = "Binary size " + actual 
+                + " should be less than half text size " + textLength;
+        assert actual < textLength / 2 : msg;
+    }
+    
+    @Test
+    public void testEncodeThrowsIfBufferTooSmall() {
+        List<ConversionRateQuote> quotes = makeBatch(RANDOM.nextInt(64) + 8);
+        int capacity = QuoteBatchCodec.encodedSize(quotes) - 1;
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        String msg = "Buffer of " + capacity 
+                + " bytes should be too small to encode batch";
+        assertThrows(() -> {
+            QuoteBatchCodec.encode(quotes, buffer);
+        }, BufferOverflowException.class, msg);
+    }
+    
+    @Test
+    public void testDecode() {
+        System.out.println("decode");
+        List<ConversionRateQuote> expected 
+                = makeBatch(RANDOM.nextInt(1024) + 1);
+        ByteBuffer buffer 
+                = ByteBuffer.allocate(QuoteBatchCodec.encodedSize(expected));
+        QuoteBatchCodec.encode(expected, buffer);
+        buffer.flip();
+        List<ConversionRateQuote> actual = QuoteBatchCodec.decode(buffer);
+        assertEquals(actual, expected);
+        assertEquals(buffer.remaining(), 0);
+    }
+    
+    @Test
+    public void testDecodeEmptyBatch() {
+        List<ConversionRateQuote> expected = Collections.emptyList();
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        QuoteBatchCodec.encode(expected, buffer);
+        buffer.flip();
+        List<ConversionRateQuote> actual = QuoteBatchCodec.decode(buffer);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testDecodeConsecutiveBatches() {
+        List<ConversionRateQuote> first = makeBatch(RANDOM.nextInt(64) + 1);
+        List<ConversionRateQuote> second = makeBatch(RANDOM.nextInt(64) + 1);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(
+                QuoteBatchCodec.encodedSize(first) 
+                        + QuoteBatchCodec.encodedSize(second));
+        QuoteBatchCodec.encode(first, buffer);
+        QuoteBatchCodec.encode(second, buffer);
+        buffer.flip();
+        assertEquals(QuoteBatchCodec.decode(buffer), first);
+        assertEquals(QuoteBatchCodec.decode(buffer), second);
+    }
+    
+    @Test
+    public void testDecodeRejectsBadMagicNumber() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putInt(QuoteBatchCodec.MAGIC_NUMBER + 1);
+        buffer.put(QuoteBatchCodec.VERSION);
+        buffer.flip();
+        String msg = "Bad magic number should cause exception";
+        Throwable t = assertThrows(() -> {
+            List<ConversionRateQuote> badQuotes 
+                    = QuoteBatchCodec.decode(buffer);
+            System.out.println(msg + ", not given " + badQuotes.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testDecodeRejectsUnsupportedVersion() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putInt(QuoteBatchCodec.MAGIC_NUMBER);
+        byte badVersion = (byte) (QuoteBatchCodec.VERSION + 1);
+        buffer.put(badVersion);
+        buffer.flip();
+        String msg = "Version " + badVersion + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            List<ConversionRateQuote> badQuotes 
+                    = QuoteBatchCodec.decode(buffer);
+            System.out.println(msg + ", not given " + badQuotes.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testDecodeRejectsBadPairCount() {
+        long[] badCounts = {-1L, 1L << 40, Integer.MAX_VALUE, 
+            RANDOM.nextInt(1 << 20) + 1000};
+        for (long count : badCounts) {
+            ByteBuffer buffer = startBatch(64);
+            putVarint(buffer, count);
+            String msg = "Pair count " + count + " should cause exception";
+            assertDecodeRejects(buffer, msg);
+        }
+    }
+    
+    @Test
+    public void testDecodeRejectsBadQuoteCount() {
+        long[] badCounts = {-1L, 1L << 40, Integer.MAX_VALUE, 
+            RANDOM.nextInt(1 << 20) + 1000};
+        for (long count : badCounts) {
+            ByteBuffer buffer = startBatch(64);
+            putVarint(buffer, 0L);
+            putVarint(buffer, count);
+            String msg = "Quote count " + count + " should cause exception";
+            assertDecodeRejects(buffer, msg);
+        }
+    }
+    
+    @Test
+    public void testDecodeRejectsBadPairIndex() {
+        ByteBuffer buffer = startBatch(64);
+        putVarint(buffer, 1L);
+        buffer.put("USDEUR".getBytes(StandardCharsets.US_ASCII));
+        putVarint(buffer, 1L);
+        putVarint(buffer, 1L << 32);
+        buffer.putDouble(1.0);
+        putVarint(buffer, 0L);
+        putVarint(buffer, 0L);
+        assertDecodeRejects(buffer, "Pair index 2^32 should cause exception");
+    }
+    
+    @Test
+    public void testDecodeRejectsBadNanos() {
+        long[] badNanos = {1_000_000_000L, -1L, 1L << 40};
+        for (long nanos : badNanos) {
+            ByteBuffer buffer = startBatch(64);
+            putVarint(buffer, 1L);
+            buffer.put("USDEUR".getBytes(StandardCharsets.US_ASCII));
+            putVarint(buffer, 1L);
+            putVarint(buffer, 0L);
+            buffer.putDouble(1.0);
+            putVarint(buffer, 0L);
+            putVarint(buffer, nanos);
+            String msg = "Nanoseconds " + nanos + " should cause exception";
+            assertDecodeRejects(buffer, msg);
+        }
+    }
+    
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyPair;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+import static currency.conversions.ConversionFixtures.chooseSupportedPair;
+import static currency.conversions.ConversionFixtures.chooseSupportedPairs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the RateFeed class.
+ * @author Alonso del Arte
+ */
+public class RateFeedNGTest {
+    
+    private static final Executor SAME_THREAD = Runnable::run;
+    
+    private static ConversionRateQuote makeQuote(CurrencyPair pair) {
+        return new ConversionRateQuote(pair, RANDOM.nextDouble() + 0.5);
+    }
+    
+    @Test
+    public void testPublish() {
+        System.out.println("publish");
+        RateFeed instance = new RateFeed(SAME_THREAD, 
+                RateFeed.DEFAULT_BUFFER_CAPACITY);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        instance.subscribe(subscriber);
+        List<ConversionRateQuote> expected = new ArrayList<>();
+        for (CurrencyPair pair : chooseSupportedPairs(RANDOM.nextInt(8) + 2)) {
+            ConversionRateQuote quote = makeQuote(pair);
+            expected.add(quote);
+            assertEquals(instance.publish(quote), 1);
+        }
+        assertEquals(subscriber.quotes, expected);
+    }
+    
+    @Test
+    public void testPublishToNoSubscribers() {
+        RateFeed instance = new RateFeed(SAME_THREAD, 
+                RateFeed.DEFAULT_BUFFER_CAPACITY);
+        assertEquals(instance.publish(makeQuote(chooseSupportedPair())), 0);
+    }
+    
+    @Test
+    public void testSubscribeWithFilter() {
+        System.out.println("subscribe");
+        RateFeed instance = new RateFeed(SAME_THREAD, 
+                RateFeed.DEFAULT_BUFFER_CAPACITY);
+        List<CurrencyPair> pairs = chooseSupportedPairs(2);
+        CurrencyPair wanted = pairs.get(0);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        instance.subscribe(subscriber, pair -> pair.equals(wanted));
+        ConversionRateQuote expected = makeQuote(wanted);
+        instance.publish(makeQuote(pairs.get(1)));
+        instance.publish(expected);
+        assertEquals(subscriber.quotes, Arrays.asList(expected));
+    }
+    
+    @Test
+    public void testConflation() {
+        RateFeed instance = new RateFeed(SAME_THREAD, 
+                RateFeed.DEFAULT_BUFFER_CAPACITY);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0L);
+        instance.subscribe(subscriber);
+        List<CurrencyPair> pairs = chooseSupportedPairs(2);
+        instance.publish(makeQuote(pairs.get(0)));
+        instance.publish(makeQuote(pairs.get(1)));
+        int updates = RANDOM.nextInt(8) + 1;
+        ConversionRateQuote latest = null;
+        for (int i = 0; i < updates; i++) {
+            latest = makeQuote(pairs.get(0));
+            instance.publish(latest);
+        }
+        assert subscriber.quotes.isEmpty() : "No quotes should come unasked";
+        subscriber.subscription.request(1L);
+        String msg = "Latest quote for " + pairs.get(0).toString() 
+                + " should keep its place in line";
+        assertEquals(subscriber.quotes, Arrays.asList(latest), msg);
+        assertEquals(instance.getConflatedCount(), updates);
+        subscriber.subscription.request(5L);
+        assertEquals(subscriber.quotes.size(), 2);
+    }
+    
+    @Test
+    public void testBufferDropsOldestWhenFull() {
+        int capacity = RANDOM.nextInt(4) + 2;
+        RateFeed instance = new RateFeed(SAME_THREAD, capacity);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0L);
+        instance.subscribe(subscriber);
+        List<CurrencyPair> pairs = chooseSupportedPairs(capacity + 1);
+        List<ConversionRateQuote> quotes = new ArrayList<>();
+        for (CurrencyPair pair : pairs) {
+            ConversionRateQuote quote = makeQuote(pair);
+            quotes.add(quote);
+            instance.publish(quote);
+        }
+        assertEquals(instance.getDroppedCount(), 1L);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        List<ConversionRateQuote> expected = quotes.subList(1, quotes.size());
+        assertEquals(subscriber.quotes, expected);
+    }
+    
+    @Test
+    public void testRequestHonorsDemand() {
+        RateFeed instance = new RateFeed(SAME_THREAD, 
+                RateFeed.DEFAULT_BUFFER_CAPACITY);
+        int demand = RANDOM.nextInt(4) + 1;
+        RecordingSubscriber subscriber = new RecordingSubscriber(demand);
+        instance.subscribe(subscriber);
+        for (CurrencyPair pair : chooseSupportedPairs(demand + 3)) {
+            instance.publish(makeQuote(pair));
+        }
+        assertEquals(subscriber.quotes.size(), demand);
+    }
+    
+    @Test
+    public void testRequestRejectsNonPositive() {
+        RateFeed instance = new RateFeed(SAME_THREAD, 
+                RateFeed.DEFAULT_BUFFER_CAPACITY);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0L);
+        instance.subscribe(subscriber);
+        subscriber.subscription.request(-RANDOM.nextInt(16));
+        assert subscriber.error instanceof IllegalArgumentException 
+                : "Subscriber should get IllegalArgumentException";
+        assertEquals(instance.getSubscriberCount(), 0);
+    }
+    
+    @Test
+    public void testCancel() {
+        RateFeed instance = new RateFeed(SAME_THREAD, 
+                RateFeed.DEFAULT_BUFFER_CAPACITY);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        instance.subscribe(subscriber);
+        assertEquals(instance.getSubscriberCount(), 1);
+        subscriber.subscription.cancel();
+        assertEquals(instance.getSubscriberCount(), 0);
+        instance.publish(makeQuote(chooseSupportedPair()));
+        assert subscriber.quotes.isEmpty() : "Cancelled subscriber got quote";
+    }
+    
+    @Test
+    public void testSubscriberThrowingIsCancelled() {
+        RateFeed instance = new RateFeed(SAME_THREAD, 
+                RateFeed.DEFAULT_BUFFER_CAPACITY);
+        RecordingSubscriber subscriber 
+                = new RecordingSubscriber(Long.MAX_VALUE) {
+            
+            @Override
+            public void onNext(ConversionRateQuote item) {
+                super.onNext(item);
+                throw new RuntimeException("Simulated subscriber failure");
+            }
+        
+        };
+        instance.subscribe(subscriber);
+        instance.publish(makeQuote(chooseSupportedPair()));
+        assertEquals(instance.getSubscriberCount(), 0);
+        assertEquals(subscriber.quotes.size(), 1);
+    }
+    
+    @Test
+    public void testClose() {
+        System.out.println("close");
+        RateFeed instance = new RateFeed(SAME_THREAD, 
+                RateFeed.DEFAULT_BUFFER_CAPACITY);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0L);
+        instance.subscribe(subscriber);
+        ConversionRateQuote quote = makeQuote(chooseSupportedPair());
+        instance.publish(quote);
+        instance.close();
+        assert instance.isClosed() : "Feed should be closed";
+        assert !subscriber.completed : "Pending quote should come first";
+        subscriber.subscription.request(1L);
+        assertEquals(subscriber.quotes, Arrays.asList(quote));
+        assert subscriber.completed : "Subscriber should be told of completion";
+        assertEquals(instance.getSubscriberCount(), 0);
+    }
+    
+    @Test
+    public void testSubscribeAfterClose() {
+        RateFeed instance = new RateFeed(SAME_THREAD, 
+                RateFeed.DEFAULT_BUFFER_CAPACITY);
+        instance.close();
+        RecordingSubscriber subscriber = new RecordingSubscriber(0L);
+        instance.subscribe(subscriber);
+        assert subscriber.subscription != null : "Should get subscription";
+        assert subscriber.completed : "Subscriber should be told of completion";
+    }
+    
+    @Test
+    public void testPublishAfterCloseCausesException() {
+        RateFeed instance = new RateFeed(SAME_THREAD, 
+                RateFeed.DEFAULT_BUFFER_CAPACITY);
+        instance.close();
+        ConversionRateQuote quote = makeQuote(chooseSupportedPair());
+        String msg = "Publishing " + quote.toString() 
+                + " after closing should cause exception";
+        Throwable t = assertThrows(() -> {
+            int count = instance.publish(quote);
+            System.out.println(msg + ", not given count " + count);
+        }, IllegalStateException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testRefresh() {
+        System.out.println("refresh");
+        RateFeed instance = new RateFeed(SAME_THREAD, 
+                RateFeed.DEFAULT_BUFFER_CAPACITY);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        instance.subscribe(subscriber);
+        ExchangeRateProvider provider = new HardCodedRateProvider();
+        List<CurrencyPair> pairs = chooseSupportedPairs(RANDOM.nextInt(4) + 2);
+        assertEquals(instance.refresh(provider, pairs), pairs.size());
+        String msg = "Unchanged rates should not be published again";
+        assertEquals(instance.refresh(provider, pairs), 0, msg);
+        assertEquals(subscriber.quotes.size(), pairs.size());
+        for (int i = 0; i < pairs.size(); i++) {
+            ConversionRateQuote quote = subscriber.quotes.get(i);
+            assertEquals(quote.getCurrencies(), pairs.get(i));
+            assertEquals(quote.getRate(), provider.getRate(pairs.get(i)), 
+                    0.00000001);
+        }
+    }
+    
+    @Test
+    public void testDeliveryOnDefaultExecutor() throws InterruptedException {
+        RateFeed instance = new RateFeed();
+        int count = RANDOM.nextInt(8) + 2;
+        CountDownLatch latch = new CountDownLatch(count);
+        RecordingSubscriber subscriber 
+                = new RecordingSubscriber(Long.MAX_VALUE) {
+            
+            @Override
+            public void onNext(ConversionRateQuote item) {
+                super.onNext(item);
+                latch.countDown();
+            }
+        
+        };
+        instance.subscribe(subscriber);
+        for (CurrencyPair pair : chooseSupportedPairs(count)) {
+            instance.publish(makeQuote(pair));
+        }
+        String msg = "All " + count + " quotes should arrive";
+        boolean arrived = latch.await(10L, TimeUnit.SECONDS);
+        assert arrived : msg;
+        instance.close();
+    }
+    
+    @Test
+    public void testConstructorRejectsZeroCapacity() {
+        int capacity = -RANDOM.nextInt(16);
+        String msg = "Buffer capacity " + capacity + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            RateFeed badInstance = new RateFeed(SAME_THREAD, capacity);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    private static class RecordingSubscriber 
+            implements Flow.Subscriber<ConversionRateQuote> {
+        
+        private final long initialRequest;
+        
+        final List<ConversionRateQuote> quotes = new ArrayList<>();
+        
+        Flow.Subscription subscription = null;
+        
+        Throwable error = null;
+        
+        boolean completed = false;
+        
+        @Override
+        public void onSubscribe(Flow.Subscription sub) {
+            this.subscription = sub;
+            if (this.initialRequest > 0L) {
+                sub.request(this.initialRequest);
+            }
+        }
+        
+        @Override
+        public void onNext(ConversionRateQuote item) {
+            this.quotes.add(item);
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+        }
+        
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+        
+        RecordingSubscriber(long request) {
+            this.initialRequest = request;
+        }
+    
+    }
+    
+}
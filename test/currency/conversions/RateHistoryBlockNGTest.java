@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import currency.CurrencyPair;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the RateHistoryBlock class.
+ * @author Alonso del Arte
+ */
+public class RateHistoryBlockNGTest {
+    
+    private static List<ConversionRateQuote> makeHistory(CurrencyPair pair, 
+            int size) {
+        List<ConversionRateQuote> quotes = new ArrayList<>(size);
+        LocalDateTime date = LocalDateTime.now().withSecond(0).withNano(0);
+        double rate = 0.8 + RANDOM.nextDouble() / 10;
+        for (int i = 0; i < size; i++) {
+            quotes.add(new ConversionRateQuote(pair, rate, date));
+            date = date.plusMinutes(1);
+            if (RANDOM.nextInt(4) == 0) {
+                rate += (RANDOM.nextDouble() - 0.5) / 10000;
+            }
+        }
+        return quotes;
+    }
+    
+    private static List<ConversionRateQuote> decode(RateHistoryBlock block) {
+        List<ConversionRateQuote> quotes = new ArrayList<>(block.size());
+        for (ConversionRateQuote quote : block) {
+            quotes.add(quote);
+        }
+        return quotes;
+    }
+    
+    @Test
+    public void testGetCurrencies() {
+        System.out.println("getCurrencies");
+        CurrencyPair expected = CurrencyChooser.choosePair();
+        RateHistoryBlock.Encoder encoder 
+                = new RateHistoryBlock.Encoder(expected);
+        RateHistoryBlock instance = encoder.build();
+        CurrencyPair actual = instance.getCurrencies();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSize() {
+        System.out.println("size");
+        CurrencyPair pair = CurrencyChooser.choosePair();
+        int expected = RANDOM.nextInt(1024) + 1;
+        List<ConversionRateQuote> quotes = makeHistory(pair, expected);
+        RateHistoryBlock instance = RateHistoryBlock.encode(pair, 
+                quotes.iterator());
+        int actual = instance.size();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testRoundTrip() {
+        CurrencyPair pair = CurrencyChooser.choosePair();
+        List<ConversionRateQuote> expected = makeHistory(pair, 
+                RANDOM.nextInt(4096) + 16);
+        RateHistoryBlock instance = RateHistoryBlock.encode(pair, 
+                expected.iterator());
+        List<ConversionRateQuote> actual = decode(instance);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testRoundTripIrregularQuotes() {
+        CurrencyPair pair = CurrencyChooser.choosePair();
+        int size = RANDOM.nextInt(256) + 16;
+        List<ConversionRateQuote> expected = new ArrayList<>(size);
+        LocalDateTime date = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            double rate = RANDOM.nextDouble() * 1000000;
+            expected.add(new ConversionRateQuote(pair, rate, date));
+            date = date.plusSeconds(RANDOM.nextInt(1 << 20) - (1 << 10))
+                    .plusNanos(RANDOM.nextInt(1000000));
+        }
+        RateHistoryBlock instance = RateHistoryBlock.encode(pair, 
+                expected.iterator());
+        List<ConversionRateQuote> actual = decode(instance);
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testEncoderCanKeepGoingAfterBuild() {
+        CurrencyPair pair = CurrencyChooser.choosePair();
+        List<ConversionRateQuote> quotes = makeHistory(pair, 64);
+        RateHistoryBlock.Encoder encoder = new RateHistoryBlock.Encoder(pair);
+        for (int i = 0; i < 32; i++) {
+            encoder.append(quotes.get(i));
+        }
+        RateHistoryBlock first = encoder.build();
+        for (int i = 32; i < 64; i++) {
+            encoder.append(quotes.get(i));
+        }
+        RateHistoryBlock second = encoder.build();
+        assertEquals(decode(first), quotes.subList(0, 32));
+        assertEquals(decode(second), quotes);
+    }
+    
+    @Test
+    public void testCompressionRatio() {
+        System.out.println("compressionRatio");
+        CurrencyPair pair = CurrencyChooser.choosePair();
+        List<ConversionRateQuote> quotes = makeHistory(pair, 1440);
+        RateHistoryBlock instance = RateHistoryBlock.encode(pair, 
+                quotes.iterator());
+        double ratio = instance.compressionRatio();
+        String msg = "A day of minute-level quotes for " + pair.toString() 
+                + " compressed to " + instance.sizeInBytes() 
+                + " bytes should have ratio better than 4.0, was " + ratio;
+        assert ratio > 4.0 : msg;
+    }
+    
+    @Test
+    public void testCompressionRatioEmptyBlock() {
+        CurrencyPair pair = CurrencyChooser.choosePair();
+        RateHistoryBlock instance = new RateHistoryBlock.Encoder(pair).build();
+        assertEquals(instance.compressionRatio(), 1.0, 0.0);
+    }
+    
+    @Test
+    public void testIteratorThrowsAfterLastQuote() {
+        CurrencyPair pair = CurrencyChooser.choosePair();
+        List<ConversionRateQuote> quotes = makeHistory(pair, 8);
+        RateHistoryBlock instance = RateHistoryBlock.encode(pair, 
+                quotes.iterator());
+        Iterator<ConversionRateQuote> iterator = instance.iterator();
+        while (iterator.hasNext()) {
+            iterator.next();
+        }
+        String msg = "Calling next() on exhausted iterator should cause error";
+        Throwable t = assertThrows(() -> {
+            ConversionRateQuote badQuote = iterator.next();
+            System.out.println(msg + ", not given " + badQuote.toString());
+        }, NoSuchElementException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testAppendRejectsMismatchedPair() {
+        CurrencyPair pair = CurrencyChooser.choosePair();
+        CurrencyPair other = CurrencyChooser.choosePairOtherThan(pair);
+        RateHistoryBlock.Encoder encoder = new RateHistoryBlock.Encoder(pair);
+        ConversionRateQuote quote = new ConversionRateQuote(other, 1.0);
+        String msg = "Appending quote for " + other.toString() 
+                + " to block for " + pair.toString() + " should cause error";
+        Throwable t = assertThrows(() -> {
+            encoder.append(quote);
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testEncoderConstructorRejectsNullPair() {
+        String msg = "Null pair should cause exception";
+        Throwable t = assertThrows(() -> {
+            RateHistoryBlock.Encoder badEncoder 
+                    = new RateHistoryBlock.Encoder(null);
+            System.out.println(msg + ", not given " + badEncoder.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the RateRequestScheduler class.
+ * @author Alonso del Arte
+ */
+public class RateRequestSchedulerNGTest {
+    
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    
+    private static final Set<Currency> SUPPORTED_CURRENCIES 
+            = new HardCodedRateProvider().supportedCurrencies();
+    
+    private static final double TEST_DELTA = 0.00000001;
+    
+    // The bucket is refilled quickly so that the dispatcher checks the clock
+    // every millisecond, but the clock only moves when the test moves it
+    private static TokenBucket makeDrainedBucket(AtomicLong clock) {
+        TokenBucket bucket = new TokenBucket(1, 1000.0, clock::get);
+        bucket.tryAcquire();
+        return bucket;
+    }
+    
+    private static Set<Currency> chooseTargets(Currency base, int count) {
+        Set<Currency> targets = new HashSet<>();
+        while (targets.size() < count) {
+            targets.add(CurrencyChooser.chooseCurrencyOtherThan(base, 
+                    SUPPORTED_CURRENCIES));
+        }
+        return targets;
+    }
+    
+    @Test
+    public void testGetProvider() {
+        System.out.println("getProvider");
+        ExchangeRateProvider expected = new HardCodedRateProvider();
+        RateRequestScheduler instance = new RateRequestScheduler(expected, 
+                new TokenBucket(10, 1.0));
+        ExchangeRateProvider actual = instance.getProvider();
+        instance.shutdown();
+        assertSame(actual, expected);
+    }
+    
+    @Test
+    public void testGetBucket() {
+        System.out.println("getBucket");
+        TokenBucket expected = new TokenBucket(10, 1.0);
+        RateRequestScheduler instance 
+                = new RateRequestScheduler(new HardCodedRateProvider(), 
+                        expected);
+        TokenBucket actual = instance.getBucket();
+        instance.shutdown();
+        assertSame(actual, expected);
+    }
+    
+    @Test
+    public void testGetRate() {
+        System.out.println("getRate");
+        ExchangeRateProvider provider = new HardCodedRateProvider();
+        RateRequestScheduler instance = new RateRequestScheduler(provider, 
+                new TokenBucket(10, 1.0));
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+        double expected = provider.getRate(source, target);
+        double actual = instance.getRate(source, target);
+        instance.shutdown();
+        assertEquals(actual, expected, TEST_DELTA);
+        assertEquals(instance.getBucket().getAcquiredCount(), 1L);
+    }
+    
+    @Test
+    public void testGetRates() {
+        System.out.println("getRates");
+        RecordingProvider provider = new RecordingProvider();
+        RateRequestScheduler instance = new RateRequestScheduler(provider, 
+                new TokenBucket(10, 1.0));
+        Currency base = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Set<Currency> targets = chooseTargets(base, RANDOM.nextInt(4) + 2);
+        RateVector expected = new HardCodedRateProvider().getRates(base, 
+                targets);
+        RateVector actual = instance.getRates(base, targets);
+        instance.shutdown();
+        assertEquals(actual, expected);
+        assertEquals(provider.bases.size(), 1);
+    }
+    
+    @Test
+    public void testSubmitMergesRequestsForSameBase() {
+        System.out.println("submit");
+        RecordingProvider provider = new RecordingProvider();
+        AtomicLong clock = new AtomicLong(RANDOM.nextLong());
+        RateRequestScheduler instance = new RateRequestScheduler(provider, 
+                makeDrainedBucket(clock));
+        Currency base = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        int count = RANDOM.nextInt(4) + 2;
+        Set<Currency> targets = chooseTargets(base, count);
+        List<CompletableFuture<Double>> futures = new ArrayList<>();
+        for (Currency target : targets) {
+            RateRequestScheduler.Priority priority = RANDOM.nextBoolean() 
+                    ? RateRequestScheduler.Priority.INTERACTIVE 
+                    : RateRequestScheduler.Priority.BATCH;
+            futures.add(instance.submit(base, target, priority));
+        }
+        assertEquals(instance.getQueuedRequestCount(), count);
+        clock.addAndGet(NANOS_PER_SECOND);
+        futures.forEach(CompletableFuture::join);
+        instance.shutdown();
+        String msg = "Requests for same base should be merged into one call";
+        assertEquals(provider.bases.size(), 1, msg);
+        assertEquals(provider.targetCounts.get(0).intValue(), count);
+        assertEquals(instance.getUpstreamCallCount(), 1L);
+        assertEquals(instance.getMergedRequestCount(), count - 1);
+        assertEquals(instance.getRequestCount(), count);
+    }
+    
+    @Test
+    public void testSubmitServesInteractiveFirst() {
+        RecordingProvider provider = new RecordingProvider();
+        AtomicLong clock = new AtomicLong(RANDOM.nextLong());
+        RateRequestScheduler instance = new RateRequestScheduler(provider, 
+                makeDrainedBucket(clock));
+        Currency batchBase 
+                = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency interactiveBase 
+                = CurrencyChooser.chooseCurrencyOtherThan(batchBase, 
+                        SUPPORTED_CURRENCIES);
+        CompletableFuture<Double> batchFuture = instance.submit(batchBase, 
+                interactiveBase, RateRequestScheduler.Priority.BATCH);
+        CompletableFuture<Double> interactiveFuture 
+                = instance.submit(interactiveBase, batchBase, 
+                        RateRequestScheduler.Priority.INTERACTIVE);
+        clock.addAndGet(NANOS_PER_SECOND);
+        interactiveFuture.join();
+        String msg = "Batch request should wait for next token";
+        assert !batchFuture.isDone() : msg;
+        clock.addAndGet(NANOS_PER_SECOND);
+        batchFuture.join();
+        instance.shutdown();
+        List<Currency> expected = List.of(interactiveBase, batchBase);
+        assertEquals(provider.bases, expected);
+    }
+    
+    @Test
+    public void testSubmitPromotesMergedBatchRequest() {
+        RecordingProvider provider = new RecordingProvider();
+        AtomicLong clock = new AtomicLong(RANDOM.nextLong());
+        RateRequestScheduler instance = new RateRequestScheduler(provider, 
+                makeDrainedBucket(clock));
+        Currency promotedBase 
+                = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency otherBase 
+                = CurrencyChooser.chooseCurrencyOtherThan(promotedBase, 
+                        SUPPORTED_CURRENCIES);
+        instance.submit(otherBase, promotedBase, 
+                RateRequestScheduler.Priority.BATCH);
+        instance.submit(promotedBase, otherBase, 
+                RateRequestScheduler.Priority.BATCH);
+        CompletableFuture<Double> future = instance.submit(promotedBase, 
+                otherBase, RateRequestScheduler.Priority.INTERACTIVE);
+        clock.addAndGet(NANOS_PER_SECOND);
+        future.join();
+        instance.shutdown();
+        assertEquals(provider.bases.get(0), promotedBase);
+    }
+    
+    @Test
+    public void testSubmitPassesOnProviderFailure() {
+        ExchangeRateProvider provider = new HardCodedRateProvider();
+        RateRequestScheduler instance = new RateRequestScheduler(provider, 
+                new TokenBucket(10, 1.0));
+        Currency base = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrency(currency 
+                -> !SUPPORTED_CURRENCIES.contains(currency));
+        CompletableFuture<Double> future = instance.submit(base, target, 
+                RateRequestScheduler.Priority.BATCH);
+        String msg = "Unsupported target " + target.getCurrencyCode() 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            double badRate = future.join();
+            System.out.println(msg + ", not given " + badRate);
+        }, CompletionException.class, msg);
+        instance.shutdown();
+        Throwable cause = t.getCause();
+        assert cause != null : "Exception should have cause";
+        System.out.println("\"" + cause.getMessage() + "\"");
+    }
+    
+    @Test
+    public void testShutdown() {
+        System.out.println("shutdown");
+        AtomicLong clock = new AtomicLong(RANDOM.nextLong());
+        RateRequestScheduler instance 
+                = new RateRequestScheduler(new HardCodedRateProvider(), 
+                        makeDrainedBucket(clock));
+        Currency base = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(base, 
+                SUPPORTED_CURRENCIES);
+        CompletableFuture<Double> future = instance.submit(base, target, 
+                RateRequestScheduler.Priority.BATCH);
+        instance.shutdown();
+        assert instance.isShutDown() : "Scheduler should be shut down";
+        String msg = "Request queued before shutdown should fail";
+        Throwable t = assertThrows(() -> {
+            double badRate = future.join();
+            System.out.println(msg + ", not given " + badRate);
+        }, CompletionException.class, msg);
+        assertEquals(t.getCause().getClass(), IllegalStateException.class);
+        assertEquals(instance.getUpstreamCallCount(), 0L);
+    }
+    
+    @Test
+    public void testSubmitAfterShutdownCausesException() {
+        RateRequestScheduler instance 
+                = new RateRequestScheduler(new HardCodedRateProvider(), 
+                        new TokenBucket(10, 1.0));
+        instance.shutdown();
+        Currency base = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(base, 
+                SUPPORTED_CURRENCIES);
+        String msg = "Submitting after shutdown should cause exception";
+        Throwable t = assertThrows(() -> {
+            CompletableFuture<Double> badFuture = instance.submit(base, target, 
+                    RateRequestScheduler.Priority.INTERACTIVE);
+            System.out.println(msg + ", not given " + badFuture.toString());
+        }, IllegalStateException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testSupportedCurrencies() {
+        System.out.println("supportedCurrencies");
+        RateRequestScheduler instance 
+                = new RateRequestScheduler(new HardCodedRateProvider(), 
+                        new TokenBucket(10, 1.0));
+        Set<Currency> actual = instance.supportedCurrencies();
+        instance.shutdown();
+        assertEquals(actual, SUPPORTED_CURRENCIES);
+    }
+    
+    @Test
+    public void testConstructorRejectsNullBucket() {
+        String msg = "Null token bucket should cause exception";
+        Throwable t = assertThrows(() -> {
+            RateRequestScheduler badInstance 
+                    = new RateRequestScheduler(new HardCodedRateProvider(), 
+                            null);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    private static class RecordingProvider extends HardCodedRateProvider {
+        
+        private final List<Currency> bases 
+                = Collections.synchronizedList(new ArrayList<>());
+        
+        private final List<Integer> targetCounts 
+                = Collections.synchronizedList(new ArrayList<>());
+        
+        @Override
+        public RateVector getRates(Currency base, 
+                Collection<Currency> targets) {
+            this.bases.add(base);
+            this.targetCounts.add(targets.size());
+            return super.getRates(base, targets);
+        }
+    
+    }
+    
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import currency.CurrencyPair;
+import currency.CurrencySet;
+import currency.UnsupportedCurrencyException;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+import static currency.conversions.ConversionFixtures.chooseSources;
+import static currency.conversions.ConversionFixtures.makeQuotes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the RateSnapshot class.
+ * @author Alonso del Arte
+ */
+public class RateSnapshotNGTest {
+    
+    private static final double TEST_DELTA = 0.0;
+    
+    private static List<Currency> asList(Currency[] currencies) {
+        return new ArrayList<>(Arrays.asList(currencies));
+    }
+    
+    @Test
+    public void testGetRate() {
+        System.out.println("getRate");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ConversionRateQuote[] quotes = makeQuotes(sources, target);
+        ExchangeRateProvider provider = new MockExchangeRateProvider(quotes);
+        RateSnapshot instance = RateSnapshot.capture(provider, target, 
+                asList(sources));
+        for (ConversionRateQuote quote : quotes) {
+            Currency source = quote.getCurrencies().getFromCurrency();
+            double expected = quote.getRate();
+            assertEquals(instance.getRate(source), expected, TEST_DELTA);
+            assertEquals(instance.getRate(source, target), expected, 
+                    TEST_DELTA);
+        }
+    }
+    
+    @Test
+    public void testGetRateIsPinned() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency source = CurrencyChooser.chooseCurrencyOtherThan(target);
+        double[] liveRate = {0.5 + RANDOM.nextDouble()};
+        ExchangeRateProvider provider = new MockExchangeRateProvider() {
+            
+            @Override
+            public double getRate(Currency source, Currency target) {
+                return liveRate[0];
+            }
+        
+        };
+        RateSnapshot instance = RateSnapshot.capture(provider, target, 
+                List.of(source));
+        double expected = liveRate[0];
+        liveRate[0] += 1.0;
+        double actual = instance.getRate(source);
+        assertEquals(actual, expected, TEST_DELTA);
+    }
+    
+    @Test
+    public void testCaptureQueriesOncePerSourceCurrency() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        List<CurrencyPair> queries = new ArrayList<>();
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target)) {
+            
+            @Override
+            public double getRate(Currency source, Currency target) {
+                queries.add(new CurrencyPair(source, target));
+                return super.getRate(source, target);
+            }
+        
+        };
+        List<Currency> withDuplicates = asList(sources);
+        withDuplicates.addAll(asList(sources));
+        RateSnapshot instance = RateSnapshot.capture(provider, target, 
+                withDuplicates);
+        assertEquals(queries.size(), sources.length);
+        for (Currency source : sources) {
+            instance.getRate(source);
+        }
+        String msg = "Looking up captured rates should not query provider";
+        assertEquals(queries.size(), sources.length, msg);
+    }
+    
+    @Test
+    public void testGetRateRejectsUncapturedCurrency() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        RateSnapshot instance = RateSnapshot.capture(provider, target, 
+                asList(sources));
+        Set<Currency> captured = new HashSet<>(asList(sources));
+        captured.add(target);
+        Currency uncaptured = CurrencyChooser.chooseCurrencyNotIn(captured);
+        String msg = "Getting rate for " + uncaptured.getCurrencyCode() 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            double badRate = instance.getRate(uncaptured);
+            System.out.println(msg + ", not given " + badRate);
+        }, UnsupportedCurrencyException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testGetRateRejectsOtherTarget() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 2);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        RateSnapshot instance = RateSnapshot.capture(provider, target, 
+                asList(sources));
+        Currency otherTarget = CurrencyChooser.chooseCurrencyOtherThan(target);
+        String msg = "Getting rate to " + otherTarget.getCurrencyCode() 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            double badRate = instance.getRate(sources[0], otherTarget);
+            System.out.println(msg + ", not given " + badRate);
+        }, UnsupportedCurrencyException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testCovers() {
+        System.out.println("covers");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        RateSnapshot instance = RateSnapshot.capture(provider, target, 
+                asList(sources));
+        for (Currency source : sources) {
+            String msg = "Snapshot should cover " + source.getCurrencyCode();
+            assert instance.covers(source) : msg;
+        }
+        Set<Currency> captured = new HashSet<>(asList(sources));
+        captured.add(target);
+        Currency uncaptured = CurrencyChooser.chooseCurrencyNotIn(captured);
+        String msg = "Snapshot should not cover " 
+                + uncaptured.getCurrencyCode();
+        assert !instance.covers(uncaptured) : msg;
+    }
+    
+    @Test
+    public void testGetSources() {
+        System.out.println("getSources");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        RateSnapshot instance = RateSnapshot.capture(provider, target, 
+                asList(sources));
+        Set<Currency> expected = new HashSet<>(asList(sources));
+        Set<Currency> actual = instance.getSources();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSupportedCurrencies() {
+        System.out.println("supportedCurrencies");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        RateSnapshot instance = RateSnapshot.capture(provider, target, 
+                asList(sources));
+        Set<Currency> expected = new HashSet<>(asList(sources));
+        expected.add(target);
+        Set<Currency> actual = instance.supportedCurrencies();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSupportedCurrencySet() {
+        System.out.println("supportedCurrencySet");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 4);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        RateSnapshot instance = RateSnapshot.capture(provider, target, 
+                asList(sources));
+        Set<Currency> expected = instance.supportedCurrencies();
+        CurrencySet actual = instance.supportedCurrencySet();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetTarget() {
+        System.out.println("getTarget");
+        Currency expected = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(expected, 2);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, expected));
+        RateSnapshot instance = RateSnapshot.capture(provider, expected, 
+                asList(sources));
+        Currency actual = instance.getTarget();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetTimestamp() {
+        System.out.println("getTimestamp");
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency[] sources = chooseSources(target, 2);
+        ExchangeRateProvider provider 
+                = new MockExchangeRateProvider(makeQuotes(sources, target));
+        LocalDateTime before = LocalDateTime.now();
+        RateSnapshot instance = RateSnapshot.capture(provider, target, 
+                asList(sources));
+        LocalDateTime after = LocalDateTime.now();
+        LocalDateTime timestamp = instance.getTimestamp();
+        String msg = "Timestamp " + timestamp.toString() + " should be from " 
+                + before.toString() + " to " + after.toString();
+        assert !timestamp.isBefore(before) && !timestamp.isAfter(after) : msg;
+    }
+    
+    @Test
+    public void testCaptureRejectsInvalidRate() {
+        Currency target = CurrencyChooser.chooseCurrency();
+        Currency source = CurrencyChooser.chooseCurrencyOtherThan(target);
+        double[] badRates = {-RANDOM.nextDouble() - 0.001, Double.NaN, 
+            Double.POSITIVE_INFINITY};
+        double badRate = badRates[RANDOM.nextInt(badRates.length)];
+        ExchangeRateProvider provider = new MockExchangeRateProvider() {
+            
+            @Override
+            public double getRate(Currency source, Currency target) {
+                return badRate;
+            }
+        
+        };
+        String msg = "Rate " + badRate + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            RateSnapshot badSnapshot = RateSnapshot.capture(provider, target, 
+                    List.of(source));
+            System.out.println(msg + ", not given " + badSnapshot.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testCaptureRejectsNullTarget() {
+        ExchangeRateProvider provider = new MockExchangeRateProvider();
+        Currency source = CurrencyChooser.chooseCurrency();
+        String msg = "Null target currency should cause exception";
+        Throwable t = assertThrows(() -> {
+            RateSnapshot badSnapshot = RateSnapshot.capture(provider, null, 
+                    List.of(source));
+            System.out.println(msg + ", not given " + badSnapshot.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import currency.CurrencyPair;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the RateTableCompiler class.
+ * @author Alonso del Arte
+ */
+public class RateTableCompilerNGTest {
+    
+    private static final ExchangeRateProvider BASE 
+            = new HardCodedRateProvider();
+    
+    private static final Set<Currency> SUPPORTED_CURRENCIES 
+            = BASE.supportedCurrencies();
+    
+    // The cache in the chain gets rates one at a time, which can differ from
+    // the bulk rates the compiler gets from the base in the last bit or so
+    private static final double TEST_DELTA = 1E-12;
+    
+    private static Map<Currency, Double> makeWeightsMap() {
+        int size = RANDOM.nextInt(4, 16);
+        Map<Currency, Double> map = new HashMap<>(size);
+        while (map.size() < size) {
+            Currency key = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+            map.put(key, 0.5 + RANDOM.nextDouble());
+        }
+        return map;
+    }
+    
+    // Stands in for a provider that queries a remote API for its rates
+    private static class RemoteStandInProvider extends HardCodedRateProvider {
+        
+        @Override
+        public boolean isLocal() {
+            return false;
+        }
+    
+    }
+    
+    private static WeightedExchangeRateProvider makeChain() {
+        ExchangeRateProvider cache = new CachingExchangeRateProvider(BASE);
+        ExchangeRateProvider inner 
+                = new WeightedExchangeRateProvider(makeWeightsMap(), cache);
+        return new WeightedExchangeRateProvider(makeWeightsMap(), inner);
+    }
+    
+    @Test
+    public void testGetBase() {
+        System.out.println("getBase");
+        WeightedExchangeRateProvider chain = makeChain();
+        ExchangeRateProvider expected = ((WeightedExchangeRateProvider)
+                chain.getProvider()).getProvider();
+        RateTableCompiler instance = new RateTableCompiler(chain);
+        ExchangeRateProvider actual = instance.getBase();
+        assertSame(actual, expected);
+    }
+    
+    @Test
+    public void testGetLayerCount() {
+        System.out.println("getLayerCount");
+        RateTableCompiler instance = new RateTableCompiler(makeChain());
+        assertEquals(instance.getLayerCount(), 2);
+    }
+    
+    @Test
+    public void testGetLayerCountForBareProvider() {
+        RateTableCompiler instance = new RateTableCompiler(BASE);
+        assertEquals(instance.getLayerCount(), 0);
+        assertSame(instance.getBase(), BASE);
+    }
+    
+    @Test
+    public void testGetRate() {
+        System.out.println("getRate");
+        WeightedExchangeRateProvider chain = makeChain();
+        RateTableCompiler instance = new RateTableCompiler(chain);
+        for (Currency source : SUPPORTED_CURRENCIES) {
+            RateVector expected = chain.getRates(source, SUPPORTED_CURRENCIES);
+            for (Currency target : SUPPORTED_CURRENCIES) {
+                double actual = instance.getRate(source, target);
+                String msg = "Compiled rate for " + source.getCurrencyCode() 
+                        + " to " + target.getCurrencyCode();
+                double expectedRate = expected.getRate(target);
+                assertEquals(actual, expectedRate, expectedRate * TEST_DELTA, 
+                        msg);
+            }
+        }
+    }
+    
+    @Test
+    public void testGetRateForCurrencyPair() {
+        WeightedExchangeRateProvider chain = makeChain();
+        RateTableCompiler instance = new RateTableCompiler(chain);
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+        double expected = chain.getRate(source, target);
+        double actual = instance.getRate(new CurrencyPair(source, target));
+        assertEquals(actual, expected, expected * TEST_DELTA);
+    }
+    
+    @Test
+    public void testGetRates() {
+        System.out.println("getRates");
+        WeightedExchangeRateProvider chain = makeChain();
+        RateTableCompiler instance = new RateTableCompiler(chain);
+        Currency base = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        RateVector expected = chain.getRates(base, SUPPORTED_CURRENCIES);
+        RateVector actual = instance.getRates(base, SUPPORTED_CURRENCIES);
+        for (Currency target : SUPPORTED_CURRENCIES) {
+            double expectedRate = expected.getRate(target);
+            String msg = "Compiled rate for " + base.getCurrencyCode() 
+                    + " to " + target.getCurrencyCode();
+            assertEquals(actual.getRate(target), expectedRate, 
+                    expectedRate * TEST_DELTA, msg);
+        }
+    }
+    
+    @Test
+    public void testCompilesWithOneBulkCallPerCurrency() {
+        int[] bulkCallCount = {0};
+        int[] singleCallCount = {0};
+        ExchangeRateProvider provider = new HardCodedRateProvider() {
+            
+            @Override
+            public double getRate(Currency source, Currency target) {
+                singleCallCount[0]++;
+                return super.getRate(source, target);
+            }
+            
+            @Override
+            public RateVector getRates(Currency base, 
+                    Collection<Currency> targets) {
+                bulkCallCount[0]++;
+                return super.getRates(base, targets);
+            }
+        
+        };
+        ExchangeRateProvider chain 
+                = new WeightedExchangeRateProvider(makeWeightsMap(), provider);
+        RateTableCompiler instance = new RateTableCompiler(chain);
+        for (int i = 0; i < 100; i++) {
+            Currency source 
+                    = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+            Currency target 
+                    = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+            instance.getRate(source, target);
+        }
+        assertEquals(bulkCallCount[0], SUPPORTED_CURRENCIES.size());
+        assertEquals(singleCallCount[0], 0);
+    }
+    
+    @Test
+    public void testCompilesThroughCache() {
+        CachingExchangeRateProvider cache 
+                = new CachingExchangeRateProvider(BASE);
+        ExchangeRateProvider chain 
+                = new WeightedExchangeRateProvider(makeWeightsMap(), cache);
+        RateTableCompiler instance = new RateTableCompiler(chain);
+        instance.getTable();
+        int size = SUPPORTED_CURRENCIES.size();
+        long expected = size * size;
+        long actual = cache.getRequestCount();
+        String msg = "Compiling should ask the cache for each rate";
+        assertEquals(actual, expected, msg);
+        assert cache.getUpstreamCallCount() < expected 
+                : "Cache should save some calls to the base";
+    }
+    
+    @Test
+    public void testConstructorDoesNotCompile() {
+        int[] bulkCallCount = {0};
+        ExchangeRateProvider provider = new HardCodedRateProvider() {
+            
+            @Override
+            public RateVector getRates(Currency base, 
+                    Collection<Currency> targets) {
+                bulkCallCount[0]++;
+                return super.getRates(base, targets);
+            }
+        
+        };
+        RateTableCompiler instance = new RateTableCompiler(provider);
+        assertEquals(bulkCallCount[0], 0);
+        assertEquals(instance.getCompileCount(), 0L);
+        assert instance.isStale() : "Uncompiled table should be stale";
+        instance.getTable();
+        assertEquals(bulkCallCount[0], SUPPORTED_CURRENCIES.size());
+        assertEquals(instance.getCompileCount(), 1L);
+    }
+    
+    @Test
+    public void testRecompilesWhenWeightTableChanges() {
+        WeightedExchangeRateProvider chain = makeChain();
+        WeightedExchangeRateProvider inner 
+                = (WeightedExchangeRateProvider) chain.getProvider();
+        RateTableCompiler instance = new RateTableCompiler(chain);
+        CompiledRateTable before = instance.getTable();
+        assert !instance.isStale() : "Fresh compilation should not be stale";
+        Currency target = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        inner.updateWeightTable(table -> table.toBuilder()
+                .putTargetWeight(target, 0.001).build());
+        assert instance.isStale() 
+                : "Compilation should be stale after inner weights changed";
+        Currency source = CurrencyChooser.chooseCurrencyOtherThan(target, 
+                SUPPORTED_CURRENCIES);
+        double expected = chain.getRates(source, SUPPORTED_CURRENCIES)
+                .getRate(target);
+        double actual = instance.getRate(source, target);
+        assertEquals(actual, expected, expected * TEST_DELTA);
+        assertNotSame(instance.getTable(), before);
+        assertEquals(instance.getCompileCount(), 2L);
+        assert !instance.isStale() : "Recompilation should not be stale";
+    }
+    
+    @Test
+    public void testRecompile() {
+        System.out.println("recompile");
+        RateTableCompiler instance = new RateTableCompiler(makeChain());
+        CompiledRateTable before = instance.getTable();
+        CompiledRateTable after = instance.recompile();
+        assertNotSame(after, before);
+        assertSame(instance.getTable(), after);
+        assertEquals(instance.getCompileCount(), 2L);
+    }
+    
+    @Test
+    public void testDoesNotRecompileWhenNothingChanges() {
+        RateTableCompiler instance = new RateTableCompiler(makeChain());
+        CompiledRateTable expected = instance.getTable();
+        for (int i = 0; i < 10; i++) {
+            Currency currency 
+                    = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+            instance.getRate(currency, currency);
+        }
+        assertSame(instance.getTable(), expected);
+        assertEquals(instance.getCompileCount(), 1L);
+    }
+    
+    @Test
+    public void testSupportedCurrencies() {
+        System.out.println("supportedCurrencies");
+        RateTableCompiler instance = new RateTableCompiler(makeChain());
+        Set<Currency> actual = instance.supportedCurrencies();
+        assertEquals(actual, SUPPORTED_CURRENCIES);
+        assertEquals(instance.supportedCurrencySet(), SUPPORTED_CURRENCIES);
+    }
+    
+    @Test
+    public void testConstructorWithCurrencies() {
+        List<Currency> pool = new ArrayList<>(SUPPORTED_CURRENCIES);
+        Set<Currency> expected = new HashSet<>();
+        int size = RANDOM.nextInt(2, 8);
+        while (expected.size() < size) {
+            expected.add(pool.get(RANDOM.nextInt(pool.size())));
+        }
+        RateTableCompiler instance = new RateTableCompiler(makeChain(), 
+                expected);
+        Set<Currency> actual = instance.supportedCurrencies();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testConstructorRejectsEmptyCurrencies() {
+        String msg = "Empty collection of currencies should cause exception";
+        Throwable t = assertThrows(() -> {
+            RateTableCompiler badInstance 
+                    = new RateTableCompiler(BASE, new HashSet<>());
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConstructorRejectsNonLocalBase() {
+        ExchangeRateProvider provider = new WeightedExchangeRateProvider(
+                makeWeightsMap(), new CachingExchangeRateProvider(
+                        new RemoteStandInProvider()));
+        String msg = "Base that is not local should cause exception if " 
+                + "currencies not given";
+        Throwable t = assertThrows(() -> {
+            RateTableCompiler badInstance = new RateTableCompiler(provider);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConstructorWithCurrenciesForNonLocalBase() {
+        ExchangeRateProvider provider = new RemoteStandInProvider();
+        Currency source = CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+        Set<Currency> currencies = new HashSet<>();
+        currencies.add(source);
+        currencies.add(target);
+        RateTableCompiler instance = new RateTableCompiler(provider, 
+                currencies);
+        double expected = provider.getRate(source, target);
+        double actual = instance.getRate(source, target);
+        assertEquals(actual, expected, expected * TEST_DELTA);
+        assertEquals(instance.supportedCurrencies(), currencies);
+    }
+    
+    @Test
+    public void testConstructorAcceptsTiersOfLocalProviders() {
+        List<ExchangeRateProvider> tiers = new ArrayList<>();
+        tiers.add(new HardCodedRateProvider());
+        tiers.add(new HardCodedRateProvider());
+        ExchangeRateProvider provider = new TieredExchangeRateProvider(tiers);
+        RateTableCompiler instance = new RateTableCompiler(provider);
+        assertEquals(instance.supportedCurrencies(), SUPPORTED_CURRENCIES);
+    }
+    
+    @Test
+    public void testConstructorRejectsNullProvider() {
+        String msg = "Null provider should cause exception";
+        Throwable t = assertThrows(() -> {
+            RateTableCompiler badInstance = new RateTableCompiler(null);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
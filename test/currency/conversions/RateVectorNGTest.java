@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import currency.CurrencyMetadata;
+import currency.UnsupportedCurrencyException;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the RateVector class.
+ * @author Alonso del Arte
+ */
+public class RateVectorNGTest {
+    
+    private static Map<Currency, Double> makeRatesMap(Currency base) {
+        int size = RANDOM.nextInt(16) + 2;
+        Set<Currency> chosen = new HashSet<>();
+        chosen.add(base);
+        Map<Currency, Double> map = new HashMap<>(size);
+        while (map.size() < size) {
+            Currency target = CurrencyChooser.chooseCurrencyNotIn(chosen);
+            chosen.add(target);
+            map.put(target, RANDOM.nextDouble() * 100.0 + 0.01);
+        }
+        return map;
+    }
+    
+    private static RateVector makeVector(Currency base, 
+            Map<Currency, Double> rates) {
+        RateVector.Builder builder = new RateVector.Builder(base);
+        rates.forEach(builder::put);
+        return builder.build();
+    }
+    
+    @Test
+    public void testGetBase() {
+        System.out.println("getBase");
+        Currency expected = CurrencyChooser.chooseCurrency();
+        RateVector instance = makeVector(expected, makeRatesMap(expected));
+        Currency actual = instance.getBase();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSize() {
+        System.out.println("size");
+        Currency base = CurrencyChooser.chooseCurrency();
+        Map<Currency, Double> rates = makeRatesMap(base);
+        RateVector instance = makeVector(base, rates);
+        int expected = rates.size();
+        int actual = instance.size();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSizeCountsReplacedRateOnce() {
+        Currency base = CurrencyChooser.chooseCurrency();
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(base);
+        RateVector instance = new RateVector.Builder(base).put(target, 1.5)
+                .put(target, 2.5).build();
+        assertEquals(instance.size(), 1);
+        assertEquals(instance.getRate(target), 2.5, 0.0);
+    }
+    
+    @Test
+    public void testContains() {
+        System.out.println("contains");
+        Currency base = CurrencyChooser.chooseCurrency();
+        Map<Currency, Double> rates = makeRatesMap(base);
+        RateVector instance = makeVector(base, rates);
+        for (Currency target : rates.keySet()) {
+            String msg = "Vector should contain rate for " 
+                    + target.getCurrencyCode();
+            assert instance.contains(target) : msg;
+        }
+    }
+    
+    @Test
+    public void testDoesNotContain() {
+        Currency base = CurrencyChooser.chooseCurrency();
+        Map<Currency, Double> rates = makeRatesMap(base);
+        RateVector instance = makeVector(base, rates);
+        Currency target = CurrencyChooser.chooseCurrencyNotIn(rates.keySet());
+        String msg = "Vector " + instance.toString() 
+                + " should not contain rate for " + target.getCurrencyCode();
+        assert !instance.contains(target) : msg;
+    }
+    
+    @Test
+    public void testGetRate() {
+        System.out.println("getRate");
+        Currency base = CurrencyChooser.chooseCurrency();
+        Map<Currency, Double> rates = makeRatesMap(base);
+        RateVector instance = makeVector(base, rates);
+        for (Map.Entry<Currency, Double> entry : rates.entrySet()) {
+            double expected = entry.getValue();
+            double actual = instance.getRate(entry.getKey());
+            assertEquals(actual, expected, 0.0);
+        }
+    }
+    
+    @Test
+    public void testGetRateForAbsentTargetCausesException() {
+        Currency base = CurrencyChooser.chooseCurrency();
+        Map<Currency, Double> rates = makeRatesMap(base);
+        RateVector instance = makeVector(base, rates);
+        Currency target = CurrencyChooser.chooseCurrencyNotIn(rates.keySet());
+        String msg = "Getting rate for " + target.getCurrencyCode() 
+                + " from " + instance.toString() + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            double badRate = instance.getRate(target);
+            System.out.println(msg + ", not given " + badRate);
+        }, UnsupportedCurrencyException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testGetRateByOrdinal() {
+        System.out.println("getRateByOrdinal");
+        Currency base = CurrencyChooser.chooseCurrency();
+        Map<Currency, Double> rates = makeRatesMap(base);
+        RateVector instance = makeVector(base, rates);
+        for (int i = 0; i < CurrencyMetadata.count(); i++) {
+            Currency target = CurrencyMetadata.forOrdinal(i).getCurrency();
+            double actual = instance.getRateByOrdinal(i);
+            if (rates.containsKey(target)) {
+                assertEquals(actual, rates.get(target), 0.0);
+            } else {
+                String msg = "Rate for absent " + target.getCurrencyCode() 
+                        + " should be NaN, not " + actual;
+                assert Double.isNaN(actual) : msg;
+            }
+        }
+    }
+    
+    @Test
+    public void testGetTargets() {
+        System.out.println("getTargets");
+        Currency base = CurrencyChooser.chooseCurrency();
+        Map<Currency, Double> rates = makeRatesMap(base);
+        RateVector instance = makeVector(base, rates);
+        Set<Currency> expected = rates.keySet();
+        Set<Currency> actual = instance.getTargets();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testToString() {
+        System.out.println("toString");
+        Currency base = CurrencyChooser.chooseCurrency();
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(base);
+        double rate = RANDOM.nextDouble() + 0.5;
+        RateVector instance = new RateVector.Builder(base).put(target, rate)
+                .build();
+        String expected = "Rates from " + base.getCurrencyCode() + " {" 
+                + target.getCurrencyCode() + "=" + rate + "}";
+        String actual = instance.toString();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testReferentialEquality() {
+        Currency base = CurrencyChooser.chooseCurrency();
+        RateVector instance = makeVector(base, makeRatesMap(base));
+        assertEquals(instance, instance);
+    }
+    
+    @Test
+    public void testNotEqualsNull() {
+        Currency base = CurrencyChooser.chooseCurrency();
+        RateVector instance = makeVector(base, makeRatesMap(base));
+        assertNotEquals(instance, null);
+    }
+    
+    @Test
+    public void testNotEqualsDiffClass() {
+        Currency base = CurrencyChooser.chooseCurrency();
+        Map<Currency, Double> rates = makeRatesMap(base);
+        RateVector instance = makeVector(base, rates);
+        assertNotEquals(instance, rates);
+    }
+    
+    @Test
+    public void testEquals() {
+        System.out.println("equals");
+        Currency base = CurrencyChooser.chooseCurrency();
+        Map<Currency, Double> rates = makeRatesMap(base);
+        RateVector someVector = makeVector(base, rates);
+        RateVector sameVector = makeVector(base, rates);
+        assertEquals(someVector, sameVector);
+    }
+    
+    @Test
+    public void testNotEqualsDiffBase() {
+        Currency base = CurrencyChooser.chooseCurrency();
+        Map<Currency, Double> rates = makeRatesMap(base);
+        Set<Currency> chosen = new HashSet<>(rates.keySet());
+        chosen.add(base);
+        Currency otherBase = CurrencyChooser.chooseCurrencyNotIn(chosen);
+        RateVector someVector = makeVector(base, rates);
+        RateVector diffVector = makeVector(otherBase, rates);
+        assertNotEquals(someVector, diffVector);
+    }
+    
+    @Test
+    public void testNotEqualsDiffRate() {
+        Currency base = CurrencyChooser.chooseCurrency();
+        Map<Currency, Double> rates = makeRatesMap(base);
+        RateVector someVector = makeVector(base, rates);
+        Currency target = rates.keySet().iterator().next();
+        rates.put(target, rates.get(target) + 1.0);
+        RateVector diffVector = makeVector(base, rates);
+        assertNotEquals(someVector, diffVector);
+    }
+    
+    @Test
+    public void testHashCode() {
+        System.out.println("hashCode");
+        Currency base = CurrencyChooser.chooseCurrency();
+        Map<Currency, Double> rates = makeRatesMap(base);
+        RateVector someVector = makeVector(base, rates);
+        RateVector sameVector = makeVector(base, rates);
+        assertEquals(someVector.hashCode(), sameVector.hashCode());
+    }
+    
+    @Test
+    public void testBuilderRejectsNaN() {
+        Currency base = CurrencyChooser.chooseCurrency();
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(base);
+        RateVector.Builder builder = new RateVector.Builder(base);
+        String msg = "Putting NaN rate for " + target.getCurrencyCode() 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            builder.put(target, Double.NaN);
+            System.out.println(msg + ", not given " + builder.build());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testBuilderRejectsPutAfterBuild() {
+        Currency base = CurrencyChooser.chooseCurrency();
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(base);
+        RateVector.Builder builder = new RateVector.Builder(base);
+        RateVector vector = builder.build();
+        String msg = "Putting rate after building " + vector.toString() 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            builder.put(target, 1.0);
+            System.out.println(msg + ", not given " + vector.toString());
+        }, IllegalStateException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testBuilderRejectsBuildingTwice() {
+        Currency base = CurrencyChooser.chooseCurrency();
+        RateVector.Builder builder = new RateVector.Builder(base);
+        RateVector vector = builder.build();
+        String msg = "Building again after building " + vector.toString() 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            RateVector badVector = builder.build();
+            System.out.println(msg + ", not given " + badVector.toString());
+        }, IllegalStateException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testBuilderRejectsNullBase() {
+        String msg = "Null base currency should cause exception";
+        Throwable t = assertThrows(() -> {
+            RateVector.Builder badBuilder = new RateVector.Builder(null);
+            System.out.println(msg + ", not given " + badBuilder.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import currency.CurrencySet;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the TieredExchangeRateProvider class.
+ * @author Alonso del Arte
+ */
+public class TieredExchangeRateProviderNGTest {
+    
+    private static final HardCodedRateProvider LAST_RESORT 
+            = new HardCodedRateProvider();
+    
+    private static final Set<Currency> SUPPORTED_CURRENCIES 
+            = LAST_RESORT.supportedCurrencies();
+    
+    private static final Duration SHORT_DELAY = Duration.ofMillis(20L);
+    
+    private static final long SLOW_MILLIS = 2000L;
+    
+    private static final double TEST_DELTA = 0.00000001;
+    
+    private static Currency chooseSource() {
+        return CurrencyChooser.chooseCurrency(SUPPORTED_CURRENCIES);
+    }
+    
+    private static Currency chooseTarget(Currency source) {
+        return CurrencyChooser.chooseCurrencyOtherThan(source, 
+                SUPPORTED_CURRENCIES);
+    }
+    
+    @Test
+    public void testGetTiers() {
+        System.out.println("getTiers");
+        List<ExchangeRateProvider> expected 
+                = Arrays.asList(new FixedRateProvider(1.5), LAST_RESORT);
+        TieredExchangeRateProvider instance 
+                = new TieredExchangeRateProvider(expected);
+        List<ExchangeRateProvider> actual = instance.getTiers();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetRate() {
+        System.out.println("getRate");
+        double expected = RANDOM.nextDouble() + 0.5;
+        TieredExchangeRateProvider instance 
+                = new TieredExchangeRateProvider(Arrays.asList(
+                        new FixedRateProvider(expected), LAST_RESORT));
+        Currency source = chooseSource();
+        Currency target = chooseTarget(source);
+        double actual = instance.getRate(source, target);
+        assertEquals(actual, expected, 0.0);
+        assertEquals(instance.getServingTier(source, target), 0);
+        assertEquals(instance.getHedgeCount(), 0L);
+    }
+    
+    @Test
+    public void testGetRateFallsBackOnError() {
+        TieredExchangeRateProvider instance 
+                = new TieredExchangeRateProvider(Arrays.asList(
+                        new FailingProvider(), LAST_RESORT));
+        Currency source = chooseSource();
+        Currency target = chooseTarget(source);
+        double expected = LAST_RESORT.getRate(source, target);
+        double actual = instance.getRate(source, target);
+        assertEquals(actual, expected, TEST_DELTA);
+        assertEquals(instance.getServingTier(source, target), 1);
+        String msg = "Falling back on error should not count as hedging";
+        assertEquals(instance.getHedgeCount(), 0L, msg);
+    }
+    
+    @Test
+    public void testGetRateHedgesSlowPrimary() {
+        double slowRate = RANDOM.nextDouble() + 0.5;
+        TieredExchangeRateProvider instance 
+                = new TieredExchangeRateProvider(Arrays.asList(
+                        new SlowProvider(slowRate), LAST_RESORT), 
+                        TieredExchangeRateProvider.DEFAULT_HEDGE_PERCENTILE, 
+                        SHORT_DELAY);
+        Currency source = chooseSource();
+        Currency target = chooseTarget(source);
+        double expected = LAST_RESORT.getRate(source, target);
+        long start = System.currentTimeMillis();
+        double actual = instance.getRate(source, target);
+        long elapsed = System.currentTimeMillis() - start;
+        assertEquals(actual, expected, TEST_DELTA);
+        assertEquals(instance.getServingTier(source, target), 1);
+        assertEquals(instance.getHedgeCount(), 1L);
+        String msg = "Hedged request should've answered before slow primary, " 
+                + "took " + elapsed + " ms";
+        assert elapsed < SLOW_MILLIS : msg;
+    }
+    
+    @Test
+    public void testGetRateAllTiersFail() {
+        TieredExchangeRateProvider instance 
+                = new TieredExchangeRateProvider(Arrays.asList(
+                        new FailingProvider(), new FailingProvider(), 
+                        LAST_RESORT));
+        Currency source = chooseSource();
+        Currency target = CurrencyChooser.chooseCurrency(currency 
+                -> !SUPPORTED_CURRENCIES.contains(currency));
+        String msg = "Getting rate for " + target.getCurrencyCode() 
+                + " should cause exception when no tier can give it";
+        Throwable t = assertThrows(() -> {
+            double badRate = instance.getRate(source, target);
+            System.out.println(msg + ", not given " + badRate);
+        }, IllegalStateException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+        Throwable[] suppressed = t.getSuppressed();
+        assertEquals(suppressed.length, 2);
+        assertEquals(suppressed[1].getClass(), NoSuchElementException.class);
+        assertEquals(instance.getServingTier(source, target), -1);
+    }
+    
+    @Test
+    public void testGetServingTier() {
+        System.out.println("getServingTier");
+        TieredExchangeRateProvider instance 
+                = new TieredExchangeRateProvider(Arrays.asList(
+                        new FailingProvider(), new FailingProvider(), 
+                        LAST_RESORT));
+        Currency source = chooseSource();
+        Currency target = chooseTarget(source);
+        assertEquals(instance.getServingTier(source, target), -1);
+        instance.getRate(source, target);
+        assertEquals(instance.getServingTier(source, target), 2);
+        assertEquals(instance.getServingTier(target, source), -1);
+    }
+    
+    @Test
+    public void testGetServeCounts() {
+        System.out.println("getServeCounts");
+        TieredExchangeRateProvider instance 
+                = new TieredExchangeRateProvider(Arrays.asList(
+                        new FixedRateProvider(1.0), LAST_RESORT));
+        int times = RANDOM.nextInt(16) + 1;
+        for (int i = 0; i < times; i++) {
+            Currency source = chooseSource();
+            instance.getRate(source, chooseTarget(source));
+        }
+        long[] expected = {times, 0L};
+        long[] actual = instance.getServeCounts();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetHedgeDelay() {
+        System.out.println("getHedgeDelay");
+        Duration initial = Duration.ofSeconds(RANDOM.nextInt(60) + 30);
+        TieredExchangeRateProvider instance 
+                = new TieredExchangeRateProvider(Arrays.asList(
+                        new FixedRateProvider(1.0), LAST_RESORT), 
+                        TieredExchangeRateProvider.DEFAULT_HEDGE_PERCENTILE, 
+                        initial);
+        assertEquals(instance.getHedgeDelay(), initial);
+        for (int i = 0; i < TieredExchangeRateProvider.MINIMUM_LATENCY_SAMPLES;
+                i++) {
+            Currency source = chooseSource();
+            instance.getRate(source, chooseTarget(source));
+        }
+        Duration actual = instance.getHedgeDelay();
+        String msg = "After " 
+                + TieredExchangeRateProvider.MINIMUM_LATENCY_SAMPLES 
+                + " quick answers, hedge delay " + actual 
+                + " should be less than initial delay " + initial;
+        assert actual.compareTo(initial) < 0 : msg;
+    }
+    
+    @Test
+    public void testSupportedCurrencies() {
+        System.out.println("supportedCurrencies");
+        Currency extra = CurrencyChooser.chooseCurrency(currency 
+                -> !SUPPORTED_CURRENCIES.contains(currency));
+        ExchangeRateProvider other = new FixedRateProvider(1.0) {
+            
+            @Override
+            public Set<Currency> supportedCurrencies() {
+                return Collections.singleton(extra);
+            }
+        
+        };
+        TieredExchangeRateProvider instance 
+                = new TieredExchangeRateProvider(Arrays.asList(other, 
+                        LAST_RESORT));
+        Set<Currency> expected = new HashSet<>(SUPPORTED_CURRENCIES);
+        expected.add(extra);
+        Set<Currency> actual = instance.supportedCurrencies();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSupportedCurrencySet() {
+        System.out.println("supportedCurrencySet");
+        Currency extra = CurrencyChooser.chooseCurrency(currency 
+                -> !SUPPORTED_CURRENCIES.contains(currency));
+        ExchangeRateProvider other = new FixedRateProvider(1.0) {
+            
+            @Override
+            public Set<Currency> supportedCurrencies() {
+                return Collections.singleton(extra);
+            }
+        
+        };
+        TieredExchangeRateProvider instance 
+                = new TieredExchangeRateProvider(Arrays.asList(other, 
+                        LAST_RESORT));
+        Set<Currency> expected = instance.supportedCurrencies();
+        CurrencySet actual = instance.supportedCurrencySet();
+        assertEquals(actual, expected);
+        String msg = "Tiered provider should support " 
+                + extra.getCurrencyCode();
+        assert instance.supports(extra) : msg;
+    }
+    
+    @Test
+    public void testConstructorRejectsEmptyList() {
+        List<ExchangeRateProvider> tiers = new ArrayList<>();
+        String msg = "Empty list of tiers should cause exception";
+        Throwable t = assertThrows(() -> {
+            TieredExchangeRateProvider badInstance 
+                    = new TieredExchangeRateProvider(tiers);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConstructorRejectsNullTier() {
+        List<ExchangeRateProvider> tiers = Arrays.asList(LAST_RESORT, null);
+        String msg = "List of tiers containing null should cause exception";
+        Throwable t = assertThrows(() -> {
+            TieredExchangeRateProvider badInstance 
+                    = new TieredExchangeRateProvider(tiers);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConstructorRejectsInvalidPercentile() {
+        double percentile = RANDOM.nextBoolean() ? -RANDOM.nextDouble() 
+                : 1.0 + RANDOM.nextDouble() + Double.MIN_VALUE;
+        String msg = "Hedge percentile " + percentile 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            TieredExchangeRateProvider badInstance 
+                    = new TieredExchangeRateProvider(
+                            Arrays.asList(LAST_RESORT), percentile, 
+                            SHORT_DELAY);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConstructorRejectsNegativeDelay() {
+        Duration delay = Duration.ofMillis(-RANDOM.nextInt(1000) - 1);
+        String msg = "Initial hedge delay " + delay 
+                + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            TieredExchangeRateProvider badInstance 
+                    = new TieredExchangeRateProvider(
+                            Arrays.asList(LAST_RESORT), 
+                            TieredExchangeRateProvider 
+                                    .DEFAULT_HEDGE_PERCENTILE, 
+                            delay);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testIsLocal() {
+        System.out.println("isLocal");
+        List<ExchangeRateProvider> tiers = new ArrayList<>();
+        tiers.add(new HardCodedRateProvider());
+        tiers.add(new HardCodedRateProvider());
+        TieredExchangeRateProvider instance 
+                = new TieredExchangeRateProvider(tiers);
+        assert instance.isLocal() : "Tiers of local providers should be local";
+    }
+    
+    @Test
+    public void testIsNotLocalIfAnyTierIsNot() {
+        List<ExchangeRateProvider> tiers = new ArrayList<>();
+        tiers.add(new HardCodedRateProvider());
+        tiers.add(new FixedRateProvider(RANDOM.nextDouble()));
+        TieredExchangeRateProvider instance 
+                = new TieredExchangeRateProvider(tiers);
+        String msg = "Tiers should not be local if one tier is not";
+        assert !instance.isLocal() : msg;
+    }
+    
+    private static class FixedRateProvider implements ExchangeRateProvider {
+        
+        private final double fixedRate;
+        
+        @Override
+        public double getRate(Currency source, Currency target) {
+            return this.fixedRate;
+        }
+        
+        @Override
+        public Set<Currency> supportedCurrencies() {
+            return SUPPORTED_CURRENCIES;
+        }
+        
+        FixedRateProvider(double rate) {
+            this.fixedRate = rate;
+        }
+    
+    }
+    
+    private static class SlowProvider extends FixedRateProvider {
+        
+        @Override
+        public double getRate(Currency source, Currency target) {
+            try {
+                Thread.sleep(SLOW_MILLIS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getRate(source, target);
+        }
+        
+        SlowProvider(double rate) {
+            super(rate);
+        }
+    
+    }
+    
+    private static class FailingProvider extends FixedRateProvider {
+        
+        @Override
+        public double getRate(Currency source, Currency target) {
+            String excMsg = "Simulated outage for " + source.getCurrencyCode() 
+                    + " to " + target.getCurrencyCode();
+            throw new IllegalStateException(excMsg);
+        }
+        
+        FailingProvider() {
+            super(Double.NaN);
+        }
+    
+    }
+    
+}
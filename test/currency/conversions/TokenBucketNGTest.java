@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the TokenBucket class.
+ * @author Alonso del Arte
+ */
+public class TokenBucketNGTest {
+    
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    
+    @Test
+    public void testGetCapacity() {
+        System.out.println("getCapacity");
+        int expected = RANDOM.nextInt(100) + 1;
+        TokenBucket instance = new TokenBucket(expected, 1.0);
+        int actual = instance.getCapacity();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testGetRefillRate() {
+        System.out.println("getRefillRate");
+        double expected = RANDOM.nextDouble() + 0.1;
+        TokenBucket instance = new TokenBucket(10, expected);
+        double actual = instance.getRefillRate();
+        assertEquals(actual, expected, 0.0);
+    }
+    
+    @Test
+    public void testBucketStartsFull() {
+        int expected = RANDOM.nextInt(100) + 1;
+        AtomicLong clock = new AtomicLong(RANDOM.nextLong());
+        TokenBucket instance = new TokenBucket(expected, 1.0, clock::get);
+        int actual = instance.getAvailableTokens();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testTryAcquire() {
+        System.out.println("tryAcquire");
+        int capacity = RANDOM.nextInt(16) + 1;
+        AtomicLong clock = new AtomicLong(RANDOM.nextLong());
+        TokenBucket instance = new TokenBucket(capacity, 1.0, clock::get);
+        for (int i = 0; i < capacity; i++) {
+            String msg = "Token " + i + " of " + capacity 
+                    + " should be available";
+            boolean acquired = instance.tryAcquire();
+            assert acquired : msg;
+        }
+        String msg = "Bucket should be empty after taking " + capacity 
+                + " tokens";
+        boolean acquired = instance.tryAcquire();
+        assert !acquired : msg;
+        assertEquals(instance.getAvailableTokens(), 0);
+    }
+    
+    @Test
+    public void testRefill() {
+        int capacity = RANDOM.nextInt(16) + 4;
+        AtomicLong clock = new AtomicLong(RANDOM.nextLong());
+        TokenBucket instance = new TokenBucket(capacity, 2.0, clock::get);
+        for (int i = 0; i < capacity; i++) {
+            instance.tryAcquire();
+        }
+        clock.addAndGet(NANOS_PER_SECOND);
+        assertEquals(instance.getAvailableTokens(), 2);
+        clock.addAndGet(NANOS_PER_SECOND / 4);
+        assertEquals(instance.getAvailableTokens(), 2);
+        clock.addAndGet(NANOS_PER_SECOND / 4);
+        assertEquals(instance.getAvailableTokens(), 3);
+    }
+    
+    @Test
+    public void testRefillDoesNotExceedCapacity() {
+        int expected = RANDOM.nextInt(16) + 1;
+        AtomicLong clock = new AtomicLong(RANDOM.nextLong());
+        TokenBucket instance = new TokenBucket(expected, 5.0, clock::get);
+        instance.tryAcquire();
+        clock.addAndGet(RANDOM.nextInt(3600) * NANOS_PER_SECOND 
+                + NANOS_PER_SECOND);
+        int actual = instance.getAvailableTokens();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testNanosUntilAvailable() {
+        System.out.println("nanosUntilAvailable");
+        AtomicLong clock = new AtomicLong(RANDOM.nextLong());
+        TokenBucket instance = new TokenBucket(1, 0.5, clock::get);
+        assertEquals(instance.nanosUntilAvailable(), 0L);
+        instance.tryAcquire();
+        assertEquals(instance.nanosUntilAvailable(), 2 * NANOS_PER_SECOND);
+        clock.addAndGet(NANOS_PER_SECOND / 2);
+        long expected = 3 * NANOS_PER_SECOND / 2;
+        long actual = instance.nanosUntilAvailable();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testAcquire() throws InterruptedException {
+        System.out.println("acquire");
+        TokenBucket instance = new TokenBucket(1, 50.0);
+        instance.acquire();
+        long start = System.nanoTime();
+        instance.acquire();
+        long elapsed = System.nanoTime() - start;
+        long minimum = NANOS_PER_SECOND / 100;
+        String msg = "Second token should've taken at least " + minimum 
+                + " ns, took " + elapsed + " ns";
+        assert elapsed >= minimum : msg;
+    }
+    
+    @Test
+    public void testGetAcquiredCount() throws InterruptedException {
+        System.out.println("getAcquiredCount");
+        int capacity = RANDOM.nextInt(16) + 2;
+        AtomicLong clock = new AtomicLong(RANDOM.nextLong());
+        TokenBucket instance = new TokenBucket(capacity, 1.0, clock::get);
+        int expected = RANDOM.nextInt(capacity - 1) + 1;
+        for (int i = 0; i < expected; i++) {
+            instance.acquire();
+        }
+        instance.getAvailableTokens();
+        assertEquals(instance.getAcquiredCount(), expected);
+        instance.tryAcquire();
+        assertEquals(instance.getAcquiredCount(), expected + 1);
+    }
+    
+    @Test
+    public void testConstructorRejectsZeroCapacity() {
+        int capacity = -RANDOM.nextInt(16);
+        String msg = "Capacity " + capacity + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            TokenBucket badInstance = new TokenBucket(capacity, 1.0);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testConstructorRejectsInvalidRefillRate() {
+        double[] rates = {0.0, -RANDOM.nextDouble() - 0.1, Double.NaN, 
+            Double.POSITIVE_INFINITY};
+        for (double rate : rates) {
+            String msg = "Refill rate " + rate + " should cause exception";
+            Throwable t = assertThrows(() -> {
+                TokenBucket badInstance = new TokenBucket(10, rate);
+                System.out.println(msg + ", not given " 
+                        + badInstance.toString());
+            }, IllegalArgumentException.class, msg);
+            String excMsg = t.getMessage();
+            assert excMsg != null : "Exception message should not be null";
+            assert !excMsg.isBlank() : "Exception message should not be blank";
+            System.out.println("\"" + excMsg + "\"");
+        }
+    }
+    
+}
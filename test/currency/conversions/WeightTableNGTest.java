@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package currency.conversions;
+
+import currency.CurrencyChooser;
+import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
+
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testframe.api.Asserters.assertThrows;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the WeightTable class.
+ * @author Alonso del Arte
+ */
+public class WeightTableNGTest {
+    
+    private static Map<Currency, Double> makeWeightsMap() {
+        int size = RANDOM.nextInt(4, 16);
+        Map<Currency, Double> map = new HashMap<>(size);
+        while (map.size() < size) {
+            map.put(CurrencyChooser.chooseCurrency(), 0.5 + RANDOM.nextDouble());
+        }
+        return map;
+    }
+    
+    @Test
+    public void testNeutral() {
+        System.out.println("neutral");
+        WeightTable instance = WeightTable.neutral();
+        Currency source = CurrencyChooser.chooseCurrency();
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source);
+        double expected = RANDOM.nextDouble() * 100.0;
+        double actual = instance.apply(source, target, RANDOM.nextLong(), 
+                expected);
+        assertEquals(actual, expected);
+        assertEquals(instance.getTierCount(), 0);
+    }
+    
+    @Test
+    public void testOf() {
+        System.out.println("of");
+        Map<Currency, Double> expected = makeWeightsMap();
+        WeightTable instance = WeightTable.of(expected);
+        Map<Currency, Double> actual = instance.getTargetWeights();
+        assertEquals(actual, expected);
+        assert instance.getSourceWeights().isEmpty() 
+                : "Table from map should have no source weights";
+    }
+    
+    @Test
+    public void testGetTargetWeight() {
+        System.out.println("getTargetWeight");
+        Map<Currency, Double> weights = makeWeightsMap();
+        WeightTable instance = WeightTable.of(weights);
+        for (Map.Entry<Currency, Double> entry : weights.entrySet()) {
+            double expected = entry.getValue();
+            double actual = instance.getTargetWeight(entry.getKey());
+            assertEquals(actual, expected);
+        }
+        Currency currency = CurrencyChooser.chooseCurrencyNotIn(weights 
+                .keySet());
+        assertEquals(instance.getTargetWeight(currency), 1.0);
+    }
+    
+    @Test
+    public void testGetSourceWeight() {
+        System.out.println("getSourceWeight");
+        Currency source = CurrencyChooser.chooseCurrency();
+        double expected = 0.5 + RANDOM.nextDouble();
+        WeightTable instance = new WeightTable.Builder()
+                .putSourceWeight(source, expected).build();
+        double actual = instance.getSourceWeight(source);
+        assertEquals(actual, expected);
+        assertEquals(instance.getTargetWeight(source), 1.0);
+    }
+    
+    @Test
+    public void testGetSpreadFactor() {
+        System.out.println("getSpreadFactor");
+        Currency source = CurrencyChooser.chooseCurrency();
+        WeightTable instance = new WeightTable.Builder()
+                .putSpreadTier(source, 1000000L, 0.99)
+                .putSpreadTier(source, 100000L, 0.995)
+                .putSpreadTier(source, 10000000L, 0.98).build();
+        long[] amounts = {0L, 99999L, 100000L, -500000L, 999999L, 1000000L, 
+            9999999L, 10000000L, Long.MAX_VALUE, Long.MIN_VALUE};
+        double[] expected = {1.0, 1.0, 0.995, 0.995, 0.995, 0.99, 0.99, 0.98, 
+            0.98, 0.98};
+        for (int i = 0; i < amounts.length; i++) {
+            double actual = instance.getSpreadFactor(source, amounts[i]);
+            String msg = "Spread factor for " + amounts[i] + " " 
+                    + source.getCurrencyCode();
+            assertEquals(actual, expected[i], msg);
+        }
+        assertEquals(instance.getTierCount(), 3);
+    }
+    
+    @Test
+    public void testSpreadTiersAreKeptBySourceCurrency() {
+        Currency source = CurrencyChooser.chooseCurrency();
+        Currency otherSource = CurrencyChooser.chooseCurrencyOtherThan(source);
+        Currency untiered = CurrencyChooser.chooseCurrencyNotIn(Set.of(source, 
+                otherSource));
+        WeightTable instance = new WeightTable.Builder()
+                .putSpreadTier(source, 100000L, 0.99)
+                .putSpreadTier(otherSource, 10000000L, 0.98)
+                .putSpreadTier(otherSource, 100000000L, 0.97).build();
+        long cents = RANDOM.nextInt(100000, 10000000);
+        String msg = "Spread factor for " + cents + " " 
+                + source.getCurrencyCode();
+        assertEquals(instance.getSpreadFactor(source, cents), 0.99, msg);
+        msg = "Spread factor for " + cents + " " 
+                + otherSource.getCurrencyCode();
+        assertEquals(instance.getSpreadFactor(otherSource, cents), 1.0, msg);
+        msg = "Spread factor for " + cents + " " + untiered.getCurrencyCode();
+        assertEquals(instance.getSpreadFactor(untiered, cents), 1.0, msg);
+        assertEquals(instance.getTierCount(source), 1);
+        assertEquals(instance.getTierCount(otherSource), 2);
+        assertEquals(instance.getTierCount(untiered), 0);
+        assertEquals(instance.getTierCount(), 3);
+    }
+    
+    @Test
+    public void testApply() {
+        System.out.println("apply");
+        Currency source = CurrencyChooser.chooseCurrency();
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source);
+        double sourceWeight = 0.5 + RANDOM.nextDouble();
+        double targetWeight = 0.5 + RANDOM.nextDouble();
+        WeightTable instance = new WeightTable.Builder()
+                .putSourceWeight(source, sourceWeight)
+                .putTargetWeight(target, targetWeight)
+                .putSpreadTier(source, 1000L, 0.99).build();
+        double rate = RANDOM.nextDouble() * 100.0;
+        double expected = rate * sourceWeight * targetWeight;
+        double actual = instance.apply(source, target, rate);
+        assertEquals(actual, expected, expected * 1E-12);
+        double expectedSpread = expected * 0.99;
+        double actualSpread = instance.apply(source, target, 5000L, rate);
+        assertEquals(actualSpread, expectedSpread, expectedSpread * 1E-12);
+    }
+    
+    @Test
+    public void testToBuilder() {
+        System.out.println("toBuilder");
+        Currency currency = CurrencyChooser.chooseCurrency();
+        WeightTable original = new WeightTable.Builder()
+                .putTargetWeight(currency, 0.01)
+                .putSourceWeight(currency, 1.02)
+                .putSpreadTier(currency, 1000L, 0.99).build();
+        WeightTable copy = original.toBuilder().build();
+        assertEquals(copy, original);
+        WeightTable changed = original.toBuilder().removeWeights(currency)
+                .build();
+        assertEquals(changed.getTargetWeight(currency), 1.0);
+        assertEquals(changed.getSourceWeight(currency), 1.0);
+        assertEquals(original.getTargetWeight(currency), 0.01);
+        assertNotEquals(changed, original);
+    }
+    
+    @Test
+    public void testBuilderRejectsBadWeight() {
+        Currency currency = CurrencyChooser.chooseCurrency();
+        double[] badWeights = {0.0, -RANDOM.nextDouble() - 0.5, Double.NaN, 
+            Double.POSITIVE_INFINITY};
+        for (double weight : badWeights) {
+            String msg = "Weight " + weight + " should cause exception";
+            Throwable t = assertThrows(() -> {
+                new WeightTable.Builder().putTargetWeight(currency, weight);
+            }, IllegalArgumentException.class, msg);
+            String excMsg = t.getMessage();
+            assert excMsg != null : "Exception message should not be null";
+            assert !excMsg.isBlank() : "Exception message should not be blank";
+            System.out.println("\"" + excMsg + "\"");
+        }
+    }
+    
+    @Test
+    public void testBuilderRejectsNegativeTierMinimum() {
+        Currency currency = CurrencyChooser.chooseCurrency();
+        long minimum = -RANDOM.nextInt(1 << 20) - 1L;
+        String msg = "Tier minimum " + minimum + " should cause exception";
+        Throwable t = assertThrows(() -> {
+            new WeightTable.Builder().putSpreadTier(currency, minimum, 0.99);
+        }, IllegalArgumentException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testBuilderCanNotBeReused() {
+        WeightTable.Builder builder = new WeightTable.Builder();
+        builder.build();
+        String msg = "Building twice should cause exception";
+        Throwable t = assertThrows(() -> {
+            WeightTable badTable = builder.build();
+            System.out.println(msg + ", not given " + badTable.toString());
+        }, IllegalStateException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testEquals() {
+        System.out.println("equals");
+        Map<Currency, Double> weights = makeWeightsMap();
+        WeightTable someTable = WeightTable.of(weights);
+        WeightTable sameTable = WeightTable.of(new HashMap<>(weights));
+        assertEquals(sameTable, someTable);
+        assertEquals(sameTable.hashCode(), someTable.hashCode());
+        assertNotEquals(WeightTable.neutral(), someTable);
+    }
+    
+}
@@ -18,8 +18,10 @@ package currency.conversions;
 
 import currency.CurrencyChooser;
 import currency.CurrencyPair;
+import currency.MoneyAmount;
 import static currency.conversions.ExchangeRateProviderNGTest.RANDOM;
 
+import java.util.Collection;
 import java.util.Currency;
 import java.util.HashMap;
 import java.util.Map;
@@ -59,6 +61,16 @@ public class WeightedExchangeRateProviderNGTest {
         return map;
     }
     
+    @Test
+    public void testGetProvider() {
+        System.out.println("getProvider");
+        WeightedExchangeRateProvider instance 
+                = new WeightedExchangeRateProvider(makeWeightsMap(), 
+                        DEFAULT_PROVIDER);
+        ExchangeRateProvider actual = instance.getProvider();
+        assertSame(actual, DEFAULT_PROVIDER);
+    }
+    
     @Test
     public void testGetWeights() {
         System.out.println("getWeights");
@@ -225,6 +237,147 @@ public class WeightedExchangeRateProviderNGTest {
         }
     }
     
+    @Test
+    public void testGetRates() {
+        System.out.println("getRates");
+        Map<Currency, Double> weights = makeWeightsMap();
+        WeightedExchangeRateProvider instance 
+                = new WeightedExchangeRateProvider(weights, DEFAULT_PROVIDER);
+        Currency base = CurrencyChooser.chooseCurrency(AVAILABLE_CURRENCIES);
+        RateVector rates = instance.getRates(base, AVAILABLE_CURRENCIES);
+        for (Currency target : AVAILABLE_CURRENCIES) {
+            double expected = instance.getRate(base, target);
+            double actual = rates.getRate(target);
+            String message = "Getting weighted rate for " 
+                    + base.getCurrencyCode() + " to " 
+                    + target.getCurrencyCode();
+            assertEquals(actual, expected, expected * DEFAULT_DELTA, message);
+        }
+    }
+    
+    @Test
+    public void testGetRatesMakesOneBulkCall() {
+        Map<Currency, Double> weights = makeWeightsMap();
+        int[] bulkCallCount = {0};
+        int[] singleCallCount = {0};
+        ExchangeRateProvider provider = new HardCodedRateProvider() {
+            
+            @Override
+            public double getRate(Currency source, Currency target) {
+                singleCallCount[0]++;
+                return super.getRate(source, target);
+            }
+            
+            @Override
+            public RateVector getRates(Currency base, 
+                    Collection<Currency> targets) {
+                bulkCallCount[0]++;
+                return super.getRates(base, targets);
+            }
+        
+        };
+        WeightedExchangeRateProvider instance 
+                = new WeightedExchangeRateProvider(weights, provider);
+        Currency base = CurrencyChooser.chooseCurrency(AVAILABLE_CURRENCIES);
+        instance.getRates(base, AVAILABLE_CURRENCIES);
+        assertEquals(bulkCallCount[0], 1);
+        assertEquals(singleCallCount[0], 0);
+    }
+    
+    @Test
+    public void testGetRateWithSourceWeight() {
+        Currency source = CurrencyChooser.chooseCurrency(AVAILABLE_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                AVAILABLE_CURRENCIES);
+        double sourceWeight = 0.5 + RANDOM.nextDouble();
+        WeightTable table = new WeightTable.Builder()
+                .putSourceWeight(source, sourceWeight).build();
+        WeightedExchangeRateProvider instance 
+                = new WeightedExchangeRateProvider(DEFAULT_PROVIDER, table);
+        double expected = DEFAULT_PROVIDER.getRate(source, target) 
+                * sourceWeight;
+        double actual = instance.getRate(source, target);
+        assertEquals(actual, expected, expected * DEFAULT_DELTA);
+    }
+    
+    @Test
+    public void testGetRateForMoneyAmount() {
+        Currency source = CurrencyChooser.chooseCurrency(AVAILABLE_CURRENCIES);
+        Currency target = CurrencyChooser.chooseCurrencyOtherThan(source, 
+                AVAILABLE_CURRENCIES);
+        WeightTable table = WeightTable.of(makeWeightsMap()).toBuilder()
+                .putSpreadTier(source, 100000L, 0.995)
+                .putSpreadTier(source, 1000000L, 0.99).build();
+        WeightedExchangeRateProvider instance 
+                = new WeightedExchangeRateProvider(DEFAULT_PROVIDER, table);
+        long cents = RANDOM.nextInt(1 << 24);
+        MoneyAmount amount = MoneyAmount.fromFullAmountInCents(cents, source);
+        double expected = instance.getRate(source, target) 
+                * table.getSpreadFactor(source, cents);
+        double actual = instance.getRate(amount, target);
+        String msg = "Rate for " + amount.toString() + " to " 
+                + target.getCurrencyCode();
+        assertEquals(actual, expected, expected * DEFAULT_DELTA, msg);
+    }
+    
+    @Test
+    public void testSetWeightTable() {
+        System.out.println("setWeightTable");
+        WeightedExchangeRateProvider instance 
+                = new WeightedExchangeRateProvider(makeWeightsMap(), 
+                        DEFAULT_PROVIDER);
+        WeightTable expected = WeightTable.of(makeWeightsMap());
+        instance.setWeightTable(expected);
+        WeightTable actual = instance.getWeightTable();
+        assertSame(actual, expected);
+        assertEquals(instance.getWeights(), expected.getTargetWeights());
+    }
+    
+    @Test
+    public void testSetWeightTableRejectsNull() {
+        WeightedExchangeRateProvider instance 
+                = new WeightedExchangeRateProvider(makeWeightsMap(), 
+                        DEFAULT_PROVIDER);
+        String msg = "Null weight table should cause exception";
+        Throwable t = assertThrows(() -> {
+            instance.setWeightTable(null);
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
+    @Test
+    public void testUpdateWeightTable() throws InterruptedException {
+        System.out.println("updateWeightTable");
+        WeightedExchangeRateProvider instance 
+                = new WeightedExchangeRateProvider(EMPTY_WEIGHT_MAP, 
+                        DEFAULT_PROVIDER);
+        Currency source = CurrencyChooser.chooseCurrency(AVAILABLE_CURRENCIES);
+        int threadCount = 8;
+        int updatesPerThread = 50;
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            long minimum = i;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < updatesPerThread; j++) {
+                    long tierMinimum = minimum * updatesPerThread + j;
+                    instance.updateWeightTable(table -> table.toBuilder()
+                            .putSpreadTier(source, tierMinimum, 0.99).build());
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        int expected = threadCount * updatesPerThread;
+        int actual = instance.getWeightTable().getTierCount();
+        String msg = "No update should have been lost";
+        assertEquals(actual, expected, msg);
+    }
+    
     @Test
     public void testSupportedCurrencies() {
         System.out.println("supportedCurrencies");
@@ -269,6 +422,21 @@ public class WeightedExchangeRateProviderNGTest {
         System.out.println("\"" + excMsg + "\"");
     }
     
+    @Test
+    public void testConstructorRejectsNullWeightTable() {
+        String msg = "Null weight table should cause exception";
+        WeightTable table = null;
+        Throwable t = assertThrows(() -> {
+            ExchangeRateProvider badInstance 
+                    = new WeightedExchangeRateProvider(DEFAULT_PROVIDER, table);
+            System.out.println(msg + ", not given " + badInstance.toString());
+        }, NullPointerException.class, msg);
+        String excMsg = t.getMessage();
+        assert excMsg != null : "Exception message should not be null";
+        assert !excMsg.isBlank() : "Exception message should not be blank";
+        System.out.println("\"" + excMsg + "\"");
+    }
+    
     @Test
     public void testConstructorCopiesWeightsMapForItsOwnUse() {
         Map<Currency, Double> weights = makeWeightsMap();
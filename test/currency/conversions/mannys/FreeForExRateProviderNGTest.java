@@ -17,6 +17,7 @@
 package currency.conversions.mannys;
 
 import currency.CurrencyChooser;
+import currency.CurrencySet;
 import currency.conversions.ExchangeRateProvider;
 
 import java.io.InputStream;
@@ -28,6 +29,7 @@ import java.net.URL;
 import java.util.Currency;
 import java.util.Locale;
 import java.util.Scanner;
+import java.util.Set;
 
 import static org.testng.Assert.*;
 import org.testng.annotations.Test;
@@ -45,6 +47,23 @@ public class FreeForExRateProviderNGTest {
     private static final Currency EAST_CARIBBEAN_DOLLARS 
             = Currency.getInstance("XCD");
     
+    @Test
+    public void testSupportedCurrencySet() {
+        System.out.println("supportedCurrencySet");
+        FreeForExRateProvider instance = new FreeForExRateProvider();
+        Set<Currency> expected = Currency.getAvailableCurrencies();
+        Set<Currency> actual = instance.supportedCurrencySet();
+        assertEquals(actual, expected);
+    }
+    
+    @Test
+    public void testSupportedCurrencySetIsSameEachTime() {
+        FreeForExRateProvider instance = new FreeForExRateProvider();
+        CurrencySet expected = instance.supportedCurrencySet();
+        CurrencySet actual = instance.supportedCurrencySet();
+        assertSame(actual, expected);
+    }
+    
     @Test
     public void testGetRateNoConversionNeeded() {
         ExchangeRateProvider instance 